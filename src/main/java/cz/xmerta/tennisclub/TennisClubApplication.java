@@ -2,8 +2,10 @@ package cz.xmerta.tennisclub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TennisClubApplication {
 
     public static void main(String[] args) {
@@ -1,15 +1,23 @@
 package cz.xmerta.tennisclub.controller;
 
+import cz.xmerta.tennisclub.controller.dto.CourtAvailabilityDto;
 import cz.xmerta.tennisclub.controller.dto.CourtDto;
+import cz.xmerta.tennisclub.controller.dto.PageDto;
+import cz.xmerta.tennisclub.controller.dto.TimeSlotDto;
 import cz.xmerta.tennisclub.controller.dto.mapper.CourtDtoMapper;
+import cz.xmerta.tennisclub.service.AvailabilityService;
 import cz.xmerta.tennisclub.service.CourtService;
 import cz.xmerta.tennisclub.storage.model.Court;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,25 +30,71 @@ public class CourtController implements CrudController<CourtDto> {
 
     private final CourtService courtService;
     private final CourtDtoMapper courtDtoMapper;
-    public CourtController(CourtService courtService, CourtDtoMapper courtDtoMapper) {
+    private final AvailabilityService availabilityService;
+    public CourtController(CourtService courtService, CourtDtoMapper courtDtoMapper, AvailabilityService availabilityService) {
         this.courtService = courtService;
         this.courtDtoMapper = courtDtoMapper;
+        this.availabilityService = availabilityService;
     }
     /**
-     * Fetch all courts.
+     * Fetch all courts, selected as read-only views.
      *
      * @return ResponseEntity with collection of all courts
      */
     @Override
     @GetMapping
     public ResponseEntity<Collection<CourtDto>> getAll() {
-        Collection<CourtDto> courts = courtService.findAll()
+        Collection<CourtDto> courts = courtService.findAllViews()
                 .stream()
                 .map(courtDtoMapper::toDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(courts);
     }
 
+    /**
+     * Fetch one page of courts ordered by ID, continuing after the cursor of the previous page.
+     *
+     * @param limit the page size
+     * @param cursor the next-page cursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of courts and the cursor of the next page, 400 if the cursor is invalid
+     */
+    @Override
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<CourtDto>> getPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        var page = courtService.findPage(cursor, limit);
+        List<CourtDto> items = page.items()
+                .stream()
+                .map(courtDtoMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new PageDto<>(items, page.nextCursor()));
+    }
+
+    /**
+     * Fetch free time slots of all courts within a time window.
+     *
+     * @param from start of the window
+     * @param to end of the window
+     * @param minDuration shortest free slot to return, in minutes
+     * @return ResponseEntity with free slots of every court, or 400 if the window is invalid
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<Collection<CourtAvailabilityDto>> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "0") long minDuration) {
+        Collection<CourtAvailabilityDto> availability = availabilityService
+                .findFreeSlots(from, to, Duration.ofMinutes(minDuration))
+                .entrySet()
+                .stream()
+                .map(entry -> new CourtAvailabilityDto(entry.getKey(), entry.getValue().stream()
+                        .map(slot -> new TimeSlotDto(slot.start(), slot.end()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(availability);
+    }
+
     /**
      * Fetch a court by its ID.
      *
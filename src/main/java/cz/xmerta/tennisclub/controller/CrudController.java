@@ -1,5 +1,6 @@
 package cz.xmerta.tennisclub.controller;
 
+import cz.xmerta.tennisclub.controller.dto.PageDto;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Collection;
@@ -8,6 +9,8 @@ public interface CrudController<T> {
 
     ResponseEntity<Collection<T>> getAll();
 
+    ResponseEntity<PageDto<T>> getPage(int limit, String cursor);
+
     ResponseEntity<T> getById(long id);
 
     ResponseEntity<T> create(T entity);
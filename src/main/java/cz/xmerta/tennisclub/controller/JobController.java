@@ -0,0 +1,37 @@
+package cz.xmerta.tennisclub.controller;
+
+import cz.xmerta.tennisclub.controller.dto.JobDto;
+import cz.xmerta.tennisclub.service.job.BackgroundJobs;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class for polling background jobs.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final BackgroundJobs backgroundJobs;
+
+    public JobController(BackgroundJobs backgroundJobs) {
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    /**
+     * Fetch the progress of a background job.
+     *
+     * @param id the ID of the job
+     * @return ResponseEntity with the job as DTO, 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDto> getById(@PathVariable long id) {
+        return backgroundJobs.find(id)
+                .map(status -> ResponseEntity.ok(JobDto.of(status)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+}
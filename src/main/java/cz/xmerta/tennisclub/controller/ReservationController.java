@@ -1,17 +1,49 @@
 package cz.xmerta.tennisclub.controller;
 
+import cz.xmerta.tennisclub.controller.dto.AutoReservationDto;
+import cz.xmerta.tennisclub.controller.dto.JobDto;
+import cz.xmerta.tennisclub.controller.dto.PageDto;
+import cz.xmerta.tennisclub.controller.dto.ReservationBatchResultDto;
 import cz.xmerta.tennisclub.controller.dto.ReservationDto;
+import cz.xmerta.tennisclub.controller.dto.ReservationHoldDto;
+import cz.xmerta.tennisclub.controller.dto.ReservationSeriesDto;
 import cz.xmerta.tennisclub.controller.dto.mapper.ReservationDtoMapper;
+import cz.xmerta.tennisclub.service.ReservationBatchResult;
 import cz.xmerta.tennisclub.service.ReservationService;
+import cz.xmerta.tennisclub.service.job.JobStatus;
+import cz.xmerta.tennisclub.service.job.ReservationDeleteAllJob;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.Reservation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 /**
  * Controller class for Reservation, throws 400 if receives BAD REQUEST.
  */
@@ -21,25 +53,99 @@ public class ReservationController{
 
     private final ReservationService reservationService;
     private final ReservationDtoMapper reservationDtoMapper;
-    public ReservationController(ReservationService reservationService, ReservationDtoMapper reservationDtoMapper) {
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ReservationDeleteAllJob reservationDeleteAllJob;
+    public ReservationController(ReservationService reservationService, ReservationDtoMapper reservationDtoMapper,
+                                 Validator validator, ObjectMapper objectMapper,
+                                 ReservationDeleteAllJob reservationDeleteAllJob) {
         this.reservationService = reservationService;
         this.reservationDtoMapper = reservationDtoMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.reservationDeleteAllJob = reservationDeleteAllJob;
     }
 
     /**
-     * Fetch all reservations.
+     * Fetch all reservations, selected as read-only views.
      *
      * @return collection of all reservations as DTOs
      */
     @GetMapping
     public ResponseEntity<Collection<ReservationDto>> getAllReservations() {
-        Collection<ReservationDto> reservations = reservationService.findAll()
+        Collection<ReservationDto> reservations = reservationService.findAllViews()
                 .stream()
                 .map(reservationDtoMapper::toDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(reservations);
     }
 
+    /**
+     * Fetch all reservations as a JSON array written while the rows are read, so neither the entities,
+     * the DTOs nor the JSON are ever held in memory all at once.
+     *
+     * @return the streamed JSON array of all reservations, ordered by start time
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllReservations() {
+        return streamReservations(null, null);
+    }
+    /**
+     * Export reservations intersecting a time window, streamed the same way as the streaming listing.
+     *
+     * @param from start of the window, omitted for no lower bound
+     * @param to end of the window, omitted for no upper bound
+     * @return the streamed JSON array of the reservations, 400 if the window is invalid
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Export window start must be before its end.");
+        }
+        return streamReservations(from, to);
+    }
+    /**
+     * Writes the reservations of the window one by one into a JSON array.
+     *
+     * @param from start of the window, may be null
+     * @param to end of the window, may be null
+     * @return the streaming response
+     */
+    private ResponseEntity<StreamingResponseBody> streamReservations(LocalDateTime from, LocalDateTime to) {
+        ObjectWriter writer = objectMapper.writerFor(ReservationDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                reservationService.exportReservations(from, to, reservation -> {
+                    try {
+                        writer.writeValue(generator, reservationDtoMapper.toDTO(reservation));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Fetch one page of reservations ordered by start time, continuing after the cursor of the previous page.
+     *
+     * @param limit the page size
+     * @param cursor the next-page cursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of reservations and the cursor of the next page
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<ReservationDto>> getReservationPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(toPageDto(reservationService.findViewPage(cursor, limit)));
+    }
+
     /**
      * Fetch a reservation by its ID.
      *
@@ -48,7 +154,7 @@ public class ReservationController{
      */
     @GetMapping("/{id}")
     public ResponseEntity<ReservationDto> getReservationById(@PathVariable long id) {
-        Optional<ReservationDto> reservation = reservationService.findById(id)
+        Optional<ReservationDto> reservation = reservationService.findViewById(id)
                 .map(reservationDtoMapper::toDTO);
         return reservation.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
@@ -69,14 +175,16 @@ public class ReservationController{
         return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
     /**
-     * Delete all reservations.
+     * Delete all reservations in the background, in batches committed one by one.
      *
-     * @return ResponseEntity with the 204 when all reservations are successfully deleted
+     * @return ResponseEntity with the 202 and the started job as DTO, its progress is polled at the Location
      */
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllReservations() {
-        reservationService.deleteAll();
-        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    public ResponseEntity<JobDto> deleteAllReservations() {
+        JobStatus job = reservationDeleteAllJob.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/jobs/" + job.id()))
+                .body(JobDto.of(job));
     }
     /**
      * Create a new reservation.
@@ -93,7 +201,159 @@ public class ReservationController{
         return ResponseEntity.status(HttpStatus.CREATED).body(price);
     }
     /**
-     * Update an existing reservation.
+     * Create a reservation on any free court, optionally of the given surface type.
+     * The court leaving the least fragmented schedule is chosen.
+     *
+     * @param autoReservationDto the reservation DTO without a court
+     * @return ResponseEntity with the created reservation as DTO, 400 if invalid or no court is free
+     */
+    @PostMapping("/auto")
+    public ResponseEntity<ReservationDto> createReservationOnAnyCourt(
+            @Valid @RequestBody AutoReservationDto autoReservationDto) {
+        Reservation reservation = reservationService.saveToBestFitCourt(
+                reservationDtoMapper.toEntity(autoReservationDto), autoReservationDto.getSurfaceTypeId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationDtoMapper.toDTO(reservation));
+    }
+    /**
+     * Create many reservations at once, e.g. a league schedule. Invalid items and items overlapping an existing
+     * reservation or another item of the batch are reported, the others are created in one transaction.
+     *
+     * @param reservationDtos the reservation DTOs to create
+     * @return ResponseEntity with the result of every item, in the order of the request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ReservationBatchResultDto>> createReservations(
+            @RequestBody List<ReservationDto> reservationDtos) {
+        Map<Long, Court> courts = reservationService.getCourtService().findAllByIds(reservationDtos.stream()
+                .filter(Objects::nonNull)
+                .map(ReservationDto::getCourtId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        List<ReservationBatchResultDto> results = new ArrayList<>(Collections.nCopies(reservationDtos.size(), null));
+        List<Integer> indexes = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < reservationDtos.size(); i++) {
+            ReservationDto dto = reservationDtos.get(i);
+            String errors = dto == null ? "Reservation must not be null." : validate(dto);
+            if (errors.isEmpty() && !courts.containsKey(dto.getCourtId())) {
+                errors = "Court ID " + dto.getCourtId() + " does not exist.";
+            }
+            if (!errors.isEmpty()) {
+                results.set(i, new ReservationBatchResultDto(i, ReservationBatchResult.Status.INVALID, null, null, errors));
+                continue;
+            }
+            dto.setId(null);
+            indexes.add(i);
+            reservations.add(reservationDtoMapper.toEntity(dto, courts.get(dto.getCourtId())));
+        }
+
+        List<ReservationBatchResult> saved = reservations.isEmpty() ? List.of() : reservationService.saveBatch(reservations);
+        for (int i = 0; i < saved.size(); i++) {
+            ReservationBatchResult result = saved.get(i);
+            Reservation reservation = result.reservation();
+            results.set(indexes.get(i), new ReservationBatchResultDto(indexes.get(i), result.status(),
+                    reservation == null ? null : reservation.getId(),
+                    reservation == null ? null : reservation.getPrice(),
+                    result.message()));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Create a weekly or biweekly recurring series of reservations. Either all occurrences are created,
+     * or none if any of them overlaps with an existing reservation.
+     *
+     * @param seriesDto the series DTO to create
+     * @return ResponseEntity with the created occurrences as DTOs, 400 if invalid or conflicting
+     */
+    @PostMapping("/series")
+    public ResponseEntity<List<ReservationDto>> createReservationSeries(
+            @Valid @RequestBody ReservationSeriesDto seriesDto) {
+        seriesDto.setId(null);
+        var series = reservationDtoMapper.toSeriesEntity(seriesDto, reservationService.getCourtService());
+        List<ReservationDto> occurrences = reservationService.saveSeries(series)
+                .stream()
+                .map(reservationDtoMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.status(HttpStatus.CREATED).body(occurrences);
+    }
+    /**
+     * Delete a recurring series together with all its occurrences.
+     *
+     * @param id the ID of the series to delete
+     * @return ResponseEntity with the 204 if successfully deleted, 404 if not found
+     */
+    @DeleteMapping("/series/{id}")
+    public ResponseEntity<Void> deleteReservationSeries(@PathVariable long id) {
+        if (reservationService.findSeriesById(id).isPresent()) {
+            reservationService.deleteSeries(id);
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    /**
+     * Hold a slot for a few minutes while the customer confirms the reservation.
+     * An unconfirmed hold expires and frees the slot again.
+     *
+     * @param reservationDto the reservation DTO to hold the slot for
+     * @param minutes how long the hold lasts
+     * @return ResponseEntity with the created hold, 400 if invalid or the slot is not free
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<ReservationHoldDto> createHold(
+            @Valid @RequestBody ReservationDto reservationDto,
+            @RequestParam(required = false, defaultValue = "10") long minutes) {
+        if (minutes <= 0 || minutes > 30) {
+            throw new IllegalArgumentException("Hold must last between 1 and 30 minutes.");
+        }
+        reservationDto.setId(null);
+        var reservation = reservationDtoMapper.toEntity(reservationDto, reservationService.getCourtService());
+        var hold = reservationService.placeHold(reservation, Duration.ofMinutes(minutes));
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationDtoMapper.toHoldDTO(hold));
+    }
+    /**
+     * Confirm a hold, creating its reservation.
+     *
+     * @param id the ID of the hold
+     * @return ResponseEntity with the price of the created reservation, 400 if the hold expired
+     */
+    @PostMapping("/holds/{id}/confirm")
+    public ResponseEntity<Double> confirmHold(@PathVariable long id) {
+        double price = reservationService.confirmHold(id).getPrice();
+        return ResponseEntity.status(HttpStatus.CREATED).body(price);
+    }
+    /**
+     * Release a hold without creating a reservation.
+     *
+     * @param id the ID of the hold
+     * @return ResponseEntity with the 204 if released, 404 if not found
+     */
+    @DeleteMapping("/holds/{id}")
+    public ResponseEntity<Void> releaseHold(@PathVariable long id) {
+        if (reservationService.releaseHold(id)) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    /**
+     * Validates a reservation DTO of a batch and its user, as a single invalid item must not fail the whole batch.
+     *
+     * @param dto the DTO to validate
+     * @return the validation errors formatted into one message, empty if valid
+     */
+    private String validate(ReservationDto dto) {
+        Stream<ConstraintViolation<?>> violations = Stream.concat(
+                validator.validate(dto).stream(),
+                dto.getUser() == null ? Stream.empty() : validator.validate(dto.getUser()).stream());
+        return violations
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+    }
+    /**
+     * Update an existing reservation. An occurrence of a series stays in the series.
      *
      * @param id the ID of the reservation to update, must not be null
      * @param reservationDto the updated reservation details
@@ -108,6 +368,8 @@ public class ReservationController{
         if (existingReservation.isPresent()) {
             reservationDto.setId(existingReservation.get().getId());
             Reservation reservation = reservationDtoMapper.toEntity(reservationDto, reservationService.getCourtService());
+            // the DTO does not carry the series, an updated occurrence stays part of it
+            reservation.setSeries(existingReservation.get().getSeries());
             double price = reservationService.save(reservation).getPrice();
             return ResponseEntity.ok(price);
         } else {
@@ -122,12 +384,27 @@ public class ReservationController{
      */
     @GetMapping("/court/{courtId}")
     public ResponseEntity<Collection<ReservationDto>> getReservationsByCourt(@PathVariable long courtId) {
-        Collection<ReservationDto> reservations = reservationService.getReservationsByCourtID(courtId)
+        Collection<ReservationDto> reservations = reservationService.getReservationViewsByCourtID(courtId)
                 .stream()
                 .map(reservationDtoMapper::toDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(reservations);
     }
+    /**
+     * Fetch one page of reservations for a specific court, ordered by start time.
+     *
+     * @param courtId the ID of the court
+     * @param limit the page size
+     * @param cursor the next-page cursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of reservations and the cursor of the next page
+     */
+    @GetMapping(value = "/court/{courtId}", params = "limit")
+    public ResponseEntity<PageDto<ReservationDto>> getReservationPageByCourt(
+            @PathVariable long courtId,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(toPageDto(reservationService.getReservationViewPageByCourtID(courtId, cursor, limit)));
+    }
     /**
      * Fetch reservations for a specific user by their phone number.
      *
@@ -140,21 +417,59 @@ public class ReservationController{
             @PathVariable String phoneNumber,
             @RequestParam(required = false, defaultValue = "false") boolean pastReservations) {
 
-        Collection<ReservationDto> reservations;
-
-        if (pastReservations) {
-            reservations = reservationService.getReservationsByUserPhoneNumber(phoneNumber)
-                    .stream()
-                    .map(reservationDtoMapper::toDTO)
-                    .collect(Collectors.toList());
-        } else {
-            reservations = reservationService.getUpcomingReservationsByUserPhoneNumber(phoneNumber)
-                    .stream()
-                    .map(reservationDtoMapper::toDTO)
-                    .collect(Collectors.toList());
-        }
-
+        Collection<ReservationDto> reservations = reservationService
+                .getReservationViewsByUserPhoneNumber(phoneNumber, !pastReservations)
+                .stream()
+                .map(reservationDtoMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(reservations);
+    }
+    /**
+     * Fetch one page of reservations for a specific user by their phone number, ordered by start time.
+     *
+     * @param phoneNumber the phone number of the user
+     * @param pastReservations flag to include past reservations
+     * @param limit the page size
+     * @param cursor the next-page cursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of reservations and the cursor of the next page
+     */
+    @GetMapping(value = "/user/{phoneNumber}", params = "limit")
+    public ResponseEntity<PageDto<ReservationDto>> getReservationPageByUser(
+            @PathVariable String phoneNumber,
+            @RequestParam(required = false, defaultValue = "false") boolean pastReservations,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(toPageDto(reservationService.getReservationViewPageByUserPhoneNumber(
+                phoneNumber, !pastReservations, cursor, limit)));
+    }
+    /**
+     * Fetch the whole history of a specific user by their phone number, including archived reservations,
+     * ordered by start time.
+     *
+     * @param phoneNumber the phone number of the user
+     * @return ResponseEntity with collection of current and archived reservations for the user as DTOs
+     */
+    @GetMapping("/user/{phoneNumber}/history")
+    public ResponseEntity<Collection<ReservationDto>> getReservationHistoryByUser(@PathVariable String phoneNumber) {
+        Collection<ReservationDto> reservations = reservationService
+                .getReservationHistoryByUserPhoneNumber(phoneNumber)
+                .stream()
+                .map(reservationDtoMapper::toDTO)
+                .collect(Collectors.toList());
         return ResponseEntity.ok(reservations);
     }
+    /**
+     * Converts a page of reservations into its DTO.
+     *
+     * @param page the page of reservation views
+     * @return the page of reservation DTOs
+     */
+    private PageDto<ReservationDto> toPageDto(KeysetPage<ReservationView> page) {
+        List<ReservationDto> items = page.items()
+                .stream()
+                .map(reservationDtoMapper::toDTO)
+                .collect(Collectors.toList());
+        return new PageDto<>(items, page.nextCursor());
+    }
 }
 
@@ -1,5 +1,6 @@
 package cz.xmerta.tennisclub.controller;
 
+import cz.xmerta.tennisclub.controller.dto.PageDto;
 import cz.xmerta.tennisclub.controller.dto.SurfaceTypeDto;
 import cz.xmerta.tennisclub.controller.dto.mapper.SurfaceTypeDtoMapper;
 import cz.xmerta.tennisclub.service.SurfaceTypeService;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 /**
@@ -28,19 +30,39 @@ public class SurfaceTypeController implements CrudController<SurfaceTypeDto> {
     }
 
     /**
-     * Retrieves all surface types.
+     * Retrieves all surface types, selected as read-only views.
      *
      * @return ResponseEntity with   a collection of all surface type DTOs in the system.
      */
     @GetMapping
     public ResponseEntity<Collection<SurfaceTypeDto>> getAll() {
-        Collection<SurfaceTypeDto> surfaceTypes = surfaceTypeService.findAll()
+        Collection<SurfaceTypeDto> surfaceTypes = surfaceTypeService.findAllViews()
                 .stream()
                 .map(surfaceTypeDtoMapper::toDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(surfaceTypes);
     }
 
+    /**
+     * Fetch one page of surface types ordered by ID, continuing after the cursor of the previous page.
+     *
+     * @param limit the page size
+     * @param cursor the next-page cursor of the previous page, omitted for the first page
+     * @return ResponseEntity with the page of surface types and the cursor of the next page, 400 if the cursor is invalid
+     */
+    @Override
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageDto<SurfaceTypeDto>> getPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        var page = surfaceTypeService.findViewPage(cursor, limit);
+        List<SurfaceTypeDto> items = page.items()
+                .stream()
+                .map(surfaceTypeDtoMapper::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new PageDto<>(items, page.nextCursor()));
+    }
+
     /**
      * Retrieves a surface type by its ID.
      *
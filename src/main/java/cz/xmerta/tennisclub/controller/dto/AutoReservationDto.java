@@ -0,0 +1,71 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import cz.xmerta.tennisclub.storage.model.GameType;
+import cz.xmerta.tennisclub.storage.model.User;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+public class AutoReservationDto {
+    @NotNull(message = "User cannot be null.")
+    private User user;
+
+    private Long surfaceTypeId;
+
+    @NotNull(message = "Start time cannot be null.")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time cannot be null.")
+    private LocalDateTime endTime;
+
+    @NotNull(message = "Game type cannot be null.")
+    private GameType gameType;
+
+    public AutoReservationDto(User user, Long surfaceTypeId, LocalDateTime startTime, LocalDateTime endTime, GameType gameType) {
+        this.user = user;
+        this.surfaceTypeId = surfaceTypeId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.gameType = gameType;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Long getSurfaceTypeId() {
+        return surfaceTypeId;
+    }
+
+    public void setSurfaceTypeId(Long surfaceTypeId) {
+        this.surfaceTypeId = surfaceTypeId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public void setGameType(GameType gameType) {
+        this.gameType = gameType;
+    }
+}
@@ -0,0 +1,31 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import java.util.List;
+
+public class CourtAvailabilityDto {
+
+    private Long courtId;
+
+    private List<TimeSlotDto> freeSlots;
+
+    public CourtAvailabilityDto(Long courtId, List<TimeSlotDto> freeSlots) {
+        this.courtId = courtId;
+        this.freeSlots = freeSlots;
+    }
+
+    public Long getCourtId() {
+        return courtId;
+    }
+
+    public void setCourtId(Long courtId) {
+        this.courtId = courtId;
+    }
+
+    public List<TimeSlotDto> getFreeSlots() {
+        return freeSlots;
+    }
+
+    public void setFreeSlots(List<TimeSlotDto> freeSlots) {
+        this.freeSlots = freeSlots;
+    }
+}
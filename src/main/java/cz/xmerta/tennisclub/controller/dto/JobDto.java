@@ -0,0 +1,97 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import cz.xmerta.tennisclub.service.job.JobStatus;
+
+import java.time.LocalDateTime;
+
+public class JobDto {
+    private long id;
+    private String type;
+    private JobStatus.State state;
+    private long processed;
+    private Long total;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    public JobDto(long id, String type, JobStatus.State state, long processed, Long total, String error,
+                  LocalDateTime submittedAt, LocalDateTime finishedAt) {
+        this.id = id;
+        this.type = type;
+        this.state = state;
+        this.processed = processed;
+        this.total = total;
+        this.error = error;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public static JobDto of(JobStatus status) {
+        return new JobDto(status.id(), status.type(), status.state(), status.processed(), status.total(),
+                status.error(), status.submittedAt(), status.finishedAt());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public JobStatus.State getState() {
+        return state;
+    }
+
+    public void setState(JobStatus.State state) {
+        this.state = state;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import java.util.List;
+
+public class PageDto<T> {
+    private List<T> items;
+
+    private String nextCursor;
+
+    public PageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,64 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import cz.xmerta.tennisclub.service.ReservationBatchResult;
+
+public class ReservationBatchResultDto {
+
+    private int index;
+
+    private ReservationBatchResult.Status status;
+
+    private Long id;
+
+    private Double price;
+
+    private String message;
+
+    public ReservationBatchResultDto(int index, ReservationBatchResult.Status status, Long id, Double price, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.price = price;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public ReservationBatchResult.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationBatchResult.Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,82 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import cz.xmerta.tennisclub.storage.model.GameType;
+
+import java.time.LocalDateTime;
+
+public class ReservationHoldDto {
+    private long id;
+    private Long courtId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private GameType gameType;
+    private double price;
+    private LocalDateTime expiresAt;
+
+    public ReservationHoldDto(long id, Long courtId, LocalDateTime startTime, LocalDateTime endTime,
+                              GameType gameType, double price, LocalDateTime expiresAt) {
+        this.id = id;
+        this.courtId = courtId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.gameType = gameType;
+        this.price = price;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Long getCourtId() {
+        return courtId;
+    }
+
+    public void setCourtId(Long courtId) {
+        this.courtId = courtId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public void setGameType(GameType gameType) {
+        this.gameType = gameType;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
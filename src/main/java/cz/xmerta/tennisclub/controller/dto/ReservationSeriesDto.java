@@ -0,0 +1,112 @@
+package cz.xmerta.tennisclub.controller.dto;
+
+import cz.xmerta.tennisclub.storage.model.GameType;
+import cz.xmerta.tennisclub.storage.model.User;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+public class ReservationSeriesDto {
+    private Long id;
+
+    @NotNull(message = "User cannot be null.")
+    private User user;
+
+    @NotNull(message = "Court ID cannot be null.")
+    private Long courtId;
+
+    @NotNull(message = "Start time cannot be null.")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time cannot be null.")
+    private LocalDateTime endTime;
+
+    @Min(value = 1, message = "Interval must be 1 or 2 weeks.")
+    @Max(value = 2, message = "Interval must be 1 or 2 weeks.")
+    private int intervalWeeks;
+
+    @Min(value = 1, message = "Series must have at least one occurrence.")
+    @Max(value = 104, message = "Series can have at most 104 occurrences.")
+    private int occurrences;
+
+    @NotNull(message = "Game type cannot be null.")
+    private GameType gameType;
+
+    public ReservationSeriesDto(Long id, User user, Long courtId, LocalDateTime startTime, LocalDateTime endTime,
+                                int intervalWeeks, int occurrences, GameType gameType) {
+        this.id = id;
+        this.user = user;
+        this.courtId = courtId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.intervalWeeks = intervalWeeks;
+        this.occurrences = occurrences;
+        this.gameType = gameType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Long getCourtId() {
+        return courtId;
+    }
+
+    public void setCourtId(Long courtId) {
+        this.courtId = courtId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+
+    public void setIntervalWeeks(int intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public void setGameType(GameType gameType) {
+        this.gameType = gameType;
+    }
+}
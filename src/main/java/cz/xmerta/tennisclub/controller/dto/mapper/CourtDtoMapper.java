@@ -1,6 +1,7 @@
 package cz.xmerta.tennisclub.controller.dto.mapper;
 
 import cz.xmerta.tennisclub.controller.dto.CourtDto;
+import cz.xmerta.tennisclub.storage.dao.projection.CourtView;
 import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import cz.xmerta.tennisclub.service.SurfaceTypeService;
@@ -20,6 +21,15 @@ public class CourtDtoMapper {
     public CourtDto toDTO(Court entity) {
         return new CourtDto(entity.getId(), entity.getName(), entity.getSurfaceType().getId());
     }
+    /**
+     * Converts a read-only {@link CourtView} to a {@link CourtDto}.
+     *
+     * @param view the view to convert
+     * @return a DTO representation of the given view
+     */
+    public CourtDto toDTO(CourtView view) {
+        return new CourtDto(view.id(), view.name(), view.surfaceTypeId());
+    }
     /**
      * Converts a {@link CourtDto} to a {@link Court} entity.
      *
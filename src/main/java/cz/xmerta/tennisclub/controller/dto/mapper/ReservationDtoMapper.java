@@ -1,9 +1,16 @@
 package cz.xmerta.tennisclub.controller.dto.mapper;
 
+import cz.xmerta.tennisclub.controller.dto.AutoReservationDto;
 import cz.xmerta.tennisclub.controller.dto.ReservationDto;
+import cz.xmerta.tennisclub.controller.dto.ReservationHoldDto;
+import cz.xmerta.tennisclub.controller.dto.ReservationSeriesDto;
 import cz.xmerta.tennisclub.service.CourtService;
+import cz.xmerta.tennisclub.service.hold.ReservationHold;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
 import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.Reservation;
+import cz.xmerta.tennisclub.storage.model.ReservationSeries;
+import cz.xmerta.tennisclub.storage.model.User;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,14 +21,16 @@ public class ReservationDtoMapper {
 
     /**
      * Converts a {@link Reservation} entity to a {@link ReservationDto}.
+     * The user is copied, as the lazy association may hold a Hibernate proxy that cannot be serialized.
      *
      * @param entity the Reservation entity to convert
      * @return a DTO representation of the given Reservation entity
      */
     public ReservationDto toDTO(Reservation entity) {
+        User user = entity.getUser();
         return new ReservationDto(
                 entity.getId(),
-                entity.getUser(),
+                new User(user.getId(), user.getPhoneNumber(), user.getName()),
                 entity.getCourt().getId(),
                 entity.getStartTime(),
                 entity.getEndTime(),
@@ -30,6 +39,24 @@ public class ReservationDtoMapper {
         );
     }
 
+    /**
+     * Converts a read-only {@link ReservationView} to a {@link ReservationDto}.
+     *
+     * @param view the view to convert
+     * @return a DTO representation of the given view
+     */
+    public ReservationDto toDTO(ReservationView view) {
+        return new ReservationDto(
+                view.id(),
+                new User(view.userId(), view.phoneNumber(), view.userName()),
+                view.courtId(),
+                view.startTime(),
+                view.endTime(),
+                view.gameType(),
+                view.price()
+        );
+    }
+
     /**
      * Converts a {@link ReservationDto} to a {@link Reservation} entity.
      *
@@ -42,6 +69,17 @@ public class ReservationDtoMapper {
         Court court = courtService.findById(dto.getCourtId())
                 .orElseThrow(() -> new IllegalArgumentException("Court ID " + dto.getCourtId() + " does not exist."));
 
+        return toEntity(dto, court);
+    }
+
+    /**
+     * Converts a {@link ReservationDto} to a {@link Reservation} entity with an already resolved {@link Court}.
+     *
+     * @param dto the DTO to convert
+     * @param court the Court the reservation is for
+     * @return a Reservation entity based on the provided DTO
+     */
+    public Reservation toEntity(ReservationDto dto, Court court) {
         return new Reservation(
                 dto.getId(),
                 dto.getUser(),
@@ -52,4 +90,66 @@ public class ReservationDtoMapper {
                 dto.getPrice()
         );
     }
+
+    /**
+     * Converts a {@link ReservationSeriesDto} to a {@link ReservationSeries} entity.
+     *
+     * @param dto the DTO to convert
+     * @param courtService the service used to retrieve the {@link Court} by ID
+     * @return a ReservationSeries entity based on the provided DTO
+     * @throws IllegalArgumentException if the Court ID in the DTO does not exist
+     */
+    public ReservationSeries toSeriesEntity(ReservationSeriesDto dto, CourtService courtService) {
+        Court court = courtService.findById(dto.getCourtId())
+                .orElseThrow(() -> new IllegalArgumentException("Court ID " + dto.getCourtId() + " does not exist."));
+
+        return new ReservationSeries(
+                dto.getId(),
+                dto.getUser(),
+                court,
+                dto.getStartTime(),
+                dto.getEndTime(),
+                dto.getIntervalWeeks(),
+                dto.getOccurrences(),
+                dto.getGameType()
+        );
+    }
+
+    /**
+     * Converts a {@link ReservationHold} to a {@link ReservationHoldDto}.
+     *
+     * @param hold the hold to convert
+     * @return a DTO representation of the given hold
+     */
+    public ReservationHoldDto toHoldDTO(ReservationHold hold) {
+        Reservation reservation = hold.reservation();
+        return new ReservationHoldDto(
+                hold.id(),
+                reservation.getCourt().getId(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getGameType(),
+                reservation.getPrice(),
+                hold.expiresAt()
+        );
+    }
+
+    /**
+     * Converts an {@link AutoReservationDto} to a {@link Reservation} entity without a court, the court
+     * is chosen when the reservation is booked.
+     *
+     * @param dto the DTO to convert
+     * @return a Reservation entity based on the provided DTO
+     */
+    public Reservation toEntity(AutoReservationDto dto) {
+        return new Reservation(
+                null,
+                dto.getUser(),
+                null,
+                dto.getStartTime(),
+                dto.getEndTime(),
+                dto.getGameType(),
+                0
+        );
+    }
 }
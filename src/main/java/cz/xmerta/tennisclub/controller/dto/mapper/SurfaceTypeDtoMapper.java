@@ -1,6 +1,7 @@
 package cz.xmerta.tennisclub.controller.dto.mapper;
 
 import cz.xmerta.tennisclub.controller.dto.SurfaceTypeDto;
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import org.springframework.stereotype.Component;
 
@@ -20,6 +21,16 @@ public class SurfaceTypeDtoMapper {
         return new SurfaceTypeDto(entity.getId(), entity.getName(), entity.getPricePerMinute());
     }
 
+    /**
+     * Converts a read-only {@link SurfaceTypeView} to a {@link SurfaceTypeDto}.
+     *
+     * @param view the view to convert
+     * @return a DTO representation of the given view
+     */
+    public SurfaceTypeDto toDTO(SurfaceTypeView view) {
+        return new SurfaceTypeDto(view.id(), view.name(), view.pricePerMinute());
+    }
+
     /**
      * Converts a {@link SurfaceTypeDto} to a {@link SurfaceType} entity.
      *
@@ -0,0 +1,131 @@
+package cz.xmerta.tennisclub.service;
+
+import cz.xmerta.tennisclub.service.hold.SlotHolds;
+import cz.xmerta.tennisclub.service.index.CourtIntervalIndex;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.model.Court;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class computing free time slots of courts. Once the reservation index is warm, the booked intervals
+ * are read from it and the courts from the cached court list, so no query reaches the database. Until then
+ * the occupancy of all courts is read in one query. Either way active slot holds count as booked,
+ * and the gaps are found in a single sweep over the intervals of each court sorted by start time.
+ */
+@Service
+@Transactional
+public class AvailabilityService {
+
+    private static final Comparator<CourtIntervalIndex.Interval> BY_START =
+            Comparator.comparing(CourtIntervalIndex.Interval::start);
+
+    private final ReservationDao reservationDao;
+    private final CourtService courtService;
+    private final CourtIntervalIndex reservationIndex;
+    private final SlotHolds slotHolds;
+
+    /**
+     * Constructor for {@link AvailabilityService}.
+     *
+     * @param reservationDao the DAO used to read booked intervals until the index is warm
+     * @param courtService the service listing the courts
+     * @param reservationIndex the index of booked intervals
+     * @param slotHolds the holds counted as booked
+     */
+    public AvailabilityService(ReservationDao reservationDao, CourtService courtService,
+                               CourtIntervalIndex reservationIndex, SlotHolds slotHolds) {
+        this.reservationDao = reservationDao;
+        this.courtService = courtService;
+        this.reservationIndex = reservationIndex;
+        this.slotHolds = slotHolds;
+    }
+
+    /**
+     * Finds free slots of every court within [from, to).
+     *
+     * @param from start of the window
+     * @param to end of the window
+     * @param minDuration shortest slot worth returning
+     * @return free slots keyed by court ID, ordered by court ID; a court without any free slot maps to an empty list
+     * @throws IllegalArgumentException if the window is empty or the minimal duration is negative
+     */
+    public Map<Long, List<TimeSlot>> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration minDuration) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Availability window start must be before its end.");
+        }
+        if (minDuration.isNegative()) {
+            throw new IllegalArgumentException("Minimal duration cannot be negative.");
+        }
+        Map<Long, List<TimeSlot>> freeSlots = new LinkedHashMap<>();
+        bookedIntervals(from, to).forEach((courtId, booked) -> {
+            List<CourtIntervalIndex.Interval> held = slotHolds.intersecting(courtId, from, to);
+            if (!held.isEmpty()) {
+                booked = new ArrayList<>(booked);
+                booked.addAll(held);
+                booked.sort(BY_START);
+            }
+            freeSlots.put(courtId, gaps(booked, from, to, minDuration));
+        });
+        return freeSlots;
+    }
+
+    /**
+     * @return booked intervals intersecting the window, ordered by start time, keyed by court ID in ascending
+     * order; a court without any booking maps to an empty list
+     */
+    private Map<Long, List<CourtIntervalIndex.Interval>> bookedIntervals(LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<CourtIntervalIndex.Interval>> booked = new LinkedHashMap<>();
+        if (reservationIndex.isWarm()) {
+            courtService.findAll().stream()
+                    .map(Court::getId)
+                    .sorted()
+                    .forEach(courtId -> booked.put(courtId, reservationIndex.intersecting(courtId, from, to)));
+            return booked;
+        }
+        for (BookedInterval interval : reservationDao.findCourtOccupancy(from, to)) {
+            List<CourtIntervalIndex.Interval> intervals =
+                    booked.computeIfAbsent(interval.courtId(), courtId -> new ArrayList<>());
+            if (interval.startTime() != null) {
+                intervals.add(new CourtIntervalIndex.Interval(interval.reservationId(), interval.courtId(),
+                        interval.startTime(), interval.endTime()));
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Sweeps over the intervals of a court, they may overlap each other or reach out of the window.
+     */
+    private static List<TimeSlot> gaps(List<CourtIntervalIndex.Interval> booked, LocalDateTime from,
+                                       LocalDateTime to, Duration minDuration) {
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (CourtIntervalIndex.Interval interval : booked) {
+            addSlot(slots, cursor, interval.start(), minDuration);
+            if (interval.end().isAfter(cursor)) {
+                cursor = interval.end();
+            }
+        }
+        addSlot(slots, cursor, to, minDuration);
+        return slots;
+    }
+
+    /**
+     * Adds [start, end) to the slots if it is at least the minimal duration long.
+     */
+    private static void addSlot(List<TimeSlot> slots, LocalDateTime start, LocalDateTime end, Duration minDuration) {
+        if (start.isBefore(end) && Duration.between(start, end).compareTo(minDuration) >= 0) {
+            slots.add(new TimeSlot(start, end));
+        }
+    }
+}
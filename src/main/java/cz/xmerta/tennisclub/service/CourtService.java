@@ -1,12 +1,17 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
 import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.dao.projection.CourtView;
 import cz.xmerta.tennisclub.storage.model.Court;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 /**
  * Service class for managing {@link Court} entities. Provides CRUD operations and additional logic such as validation.
  */
@@ -68,6 +73,32 @@ public class CourtService implements CrudService<Court> {
         return courtDao.findById(id);
     }
 
+    /**
+     * Finds {@link Court} entities by their IDs in a single query.
+     *
+     * @param ids the IDs of the Courts to find
+     * @return the found Courts keyed by ID, missing or deleted Courts are left out
+     */
+    public Map<Long, Court> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return courtDao.findByIds(ids).stream()
+                .collect(Collectors.toMap(Court::getId, Function.identity()));
+    }
+
+    /**
+     * Retrieves one page of {@link Court} entities ordered by ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of Court entities
+     */
+    @Override
+    public KeysetPage<Court> findPage(String cursor, int limit) {
+        return courtDao.findPage(cursor, limit);
+    }
+
     /**
      * Retrieves all {@link Court} entities.
      *
@@ -78,6 +109,15 @@ public class CourtService implements CrudService<Court> {
         return courtDao.findAll();
     }
 
+    /**
+     * Retrieves all courts as read-only views, without loading the entities.
+     *
+     * @return a collection of views of all courts
+     */
+    public Collection<CourtView> findAllViews() {
+        return courtDao.findAllViews();
+    }
+
     /**
      * Deletes a {@link Court} entity by its ID.
      *
@@ -1,5 +1,7 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+
 import java.util.Collection;
 import java.util.Optional;
 
@@ -11,6 +13,8 @@ public interface CrudService<E> {
 
     Collection<E> findAll();
 
+    KeysetPage<E> findPage(String cursor, int limit);
+
     void deleteById(long id);
 
     void deleteAll();
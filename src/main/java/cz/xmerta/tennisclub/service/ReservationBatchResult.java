@@ -0,0 +1,29 @@
+package cz.xmerta.tennisclub.service;
+
+import cz.xmerta.tennisclub.storage.model.Reservation;
+
+/**
+ * Outcome of one item of a batch booking.
+ *
+ * @param status whether the item was created, conflicted or was invalid
+ * @param reservation the saved reservation, null unless created
+ * @param message reason of the failure, null if created
+ */
+public record ReservationBatchResult(Status status, Reservation reservation, String message) {
+
+    public enum Status {
+        CREATED, CONFLICT, INVALID
+    }
+
+    public static ReservationBatchResult created(Reservation reservation) {
+        return new ReservationBatchResult(Status.CREATED, reservation, null);
+    }
+
+    public static ReservationBatchResult conflict(String message) {
+        return new ReservationBatchResult(Status.CONFLICT, null, message);
+    }
+
+    public static ReservationBatchResult invalid(String message) {
+        return new ReservationBatchResult(Status.INVALID, null, message);
+    }
+}
@@ -1,20 +1,48 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.service.cache.UpcomingReservationsCache;
+import cz.xmerta.tennisclub.service.event.AllReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.hold.ReservationHold;
+import cz.xmerta.tennisclub.service.hold.SlotHolds;
+import cz.xmerta.tennisclub.service.index.CourtIntervalIndex;
+import cz.xmerta.tennisclub.service.index.IndexJournal;
+import cz.xmerta.tennisclub.service.lock.CourtLocks;
+import cz.xmerta.tennisclub.service.readmodel.ReservationReadModel;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
 import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
 import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.GameType;
 import cz.xmerta.tennisclub.storage.model.Reservation;
+import cz.xmerta.tennisclub.storage.model.ReservationSeries;
 import cz.xmerta.tennisclub.storage.model.User;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 /**
  * Service class for managing {@link Reservation} entities. Provides CRUD operations and additional
  * business logic such as validation, pricing, and retrieval by user or court.
@@ -26,22 +54,67 @@ public class ReservationService implements CrudService<Reservation> {
     private final ReservationDao reservationDao;
     private final CourtService courtService;
     private final UserService userService;
+    private final CourtIntervalIndex reservationIndex;
+    private final CourtLocks courtLocks;
+    private final ReservationSeriesDao reservationSeriesDao;
+    private final SlotHolds slotHolds;
+    private final ReservationReadModel readModel;
+    private final UpcomingReservationsCache upcomingCache;
+    private final ApplicationEventPublisher eventPublisher;
     /**
      * Constructor for {@link ReservationService}.
      *
      * @param reservationDao the DAO for managing {@link Reservation} entities
      * @param courtService the service for managing {@link Court} entities
      * @param userService the service for managing {@link User} entities
+     * @param reservationIndex the in-memory per-court index of booked intervals
+     * @param courtLocks the locks serializing bookings of the same court
+     * @param reservationSeriesDao the DAO for managing {@link ReservationSeries} entities
+     * @param slotHolds the registry of tentative slot holds
+     * @param readModel the projections serving the reservation listings
+     * @param upcomingCache the cache of upcoming reservations per user
+     * @param eventPublisher the publisher of the events keeping the read model up to date
      */
-    public ReservationService(ReservationDao reservationDao, CourtService courtService, UserService userService) {
+    public ReservationService(ReservationDao reservationDao, CourtService courtService, UserService userService,
+                              CourtIntervalIndex reservationIndex, CourtLocks courtLocks,
+                              ReservationSeriesDao reservationSeriesDao, SlotHolds slotHolds,
+                              ReservationReadModel readModel, UpcomingReservationsCache upcomingCache,
+                              ApplicationEventPublisher eventPublisher) {
         this.reservationDao = reservationDao;
         this.courtService = courtService;
         this.userService = userService;
+        this.reservationIndex = reservationIndex;
+        this.courtLocks = courtLocks;
+        this.reservationSeriesDao = reservationSeriesDao;
+        this.slotHolds = slotHolds;
+        this.readModel = readModel;
+        this.upcomingCache = upcomingCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Fills the reservation index from the database once the application context is ready.
+     * Until then overlap validation relies on the database query only. The court and time of the reservations
+     * are streamed while the index is locked, so a booking committed during the warm-up is not lost.
+     * Skipped if the index was already restored by the {@link IndexJournal} and its fingerprint, covering
+     * the court, start and end of every interval, matches the one of the live reservations in the database.
+     * Otherwise the journal missed some write, and the index is rebuilt from scratch.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmUpIndex() {
+        if (reservationIndex.isWarm() && reservationIndex.fingerprint().equals(reservationDao.findLiveFingerprint())) {
+            return;
+        }
+        reservationIndex.rebuild(sink -> reservationDao.forEachBookedInterval(interval -> sink.accept(
+                new CourtIntervalIndex.Interval(interval.reservationId(), interval.courtId(),
+                        interval.startTime(), interval.endTime()))));
     }
 
     /**
      * Saves a {@link Reservation}, performing validation, pricing calculation.
      * Checks whether user exists, if not saves his name and number via userService.
+     * The overlap check and the insert run under the lock of the court until the transaction completes,
+     * so two concurrent bookings of the same slot cannot both pass validation.
      *
      * @param reservation the Reservation entity to save
      * @return the saved Reservation entity
@@ -51,10 +124,360 @@ public class ReservationService implements CrudService<Reservation> {
     @Override
     public Reservation save(Reservation reservation) {
         validateCourtExists(reservation);
+        validateTimeRange(reservation);
         ensureUserExists(reservation);
-        validateReservationTime(reservation);
+        return courtLocks.callLocked(reservation.getCourt().getId(), () -> saveLocked(reservation, null));
+    }
+
+    /**
+     * Validates and saves a reservation, must be called under the lock of its court.
+     *
+     * @param reservation the Reservation entity to save
+     * @param holdId ID of the hold being confirmed by the reservation, may be null
+     * @return the saved Reservation entity
+     */
+    private Reservation saveLocked(Reservation reservation, Long holdId) {
+        validateReservationTime(reservation, holdId);
         reservation.setPrice(calculatePrice(reservation));
-        return reservationDao.save(reservation);
+        Reservation saved = reservationDao.save(reservation);
+        CourtIntervalIndex.Interval interval = toInterval(saved);
+        afterCommit(() -> reservationIndex.put(interval));
+        eventPublisher.publishEvent(ReservationsSavedEvent.of(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Books the reservation on the free court that fits it best, for a customer who does not mind which court
+     * they play on. All candidate courts are locked, their bookings of the day are read by one range query
+     * and evaluated in a single pass. The best fit is the free court whose gap around the requested time,
+     * bounded by its neighbouring bookings of the day, is the shortest, so long free gaps stay whole for others.
+     * Ties go to the court with the lower ID.
+     *
+     * @param reservation the reservation to book, its court is ignored
+     * @param surfaceTypeId the ID of the required surface type, may be null for any surface
+     * @return the saved Reservation entity with the chosen court
+     * @throws IllegalArgumentException if no court is free at the requested time, or any other validation fails
+     */
+    public Reservation saveToBestFitCourt(Reservation reservation, Long surfaceTypeId) {
+        validateTimeRange(reservation);
+        List<Court> candidates = courtService.findAll().stream()
+                .filter(court -> surfaceTypeId == null || surfaceTypeId.equals(court.getSurfaceType().getId()))
+                .sorted(Comparator.comparing(Court::getId))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No court with surface type ID " + surfaceTypeId + " exists.");
+        }
+        ensureUserExists(reservation);
+        TreeSet<Long> courtIds = candidates.stream().map(Court::getId).collect(Collectors.toCollection(TreeSet::new));
+
+        return courtLocks.callLocked(courtIds, () -> {
+            LocalDateTime dayStart = reservation.getStartTime().toLocalDate().atStartOfDay();
+            LocalDateTime dayEnd = reservation.getEndTime().toLocalDate().plusDays(1).atStartOfDay();
+            List<BookedInterval> booked = reservationDao.findBookedIntervals(courtIds, dayStart, dayEnd);
+            Court court = findBestFit(candidates, booked, reservation, dayStart, dayEnd)
+                    .orElseThrow(() -> new IllegalArgumentException("No court is free for the requested time."));
+            reservation.setId(null);
+            reservation.setCourt(court);
+            reservation.setPrice(calculatePrice(reservation));
+            Reservation saved = reservationDao.save(reservation);
+            CourtIntervalIndex.Interval interval = toInterval(saved);
+            afterCommit(() -> reservationIndex.put(interval));
+            eventPublisher.publishEvent(ReservationsSavedEvent.of(List.of(saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * Finds the free court with the shortest gap around the reservation in one pass over the bookings.
+     *
+     * @param candidates the candidate courts, sorted by ID
+     * @param booked bookings of the candidates within [dayStart, dayEnd), sorted by court and start time
+     * @param reservation the reservation to place
+     * @param dayStart bound of the gap before the reservation
+     * @param dayEnd bound of the gap after the reservation
+     * @return the best fitting court, or empty if none is free
+     */
+    private Optional<Court> findBestFit(List<Court> candidates, List<BookedInterval> booked, Reservation reservation,
+                                        LocalDateTime dayStart, LocalDateTime dayEnd) {
+        LocalDateTime start = reservation.getStartTime();
+        LocalDateTime end = reservation.getEndTime();
+        Court best = null;
+        Duration bestGap = null;
+        int next = 0;
+        for (Court court : candidates) {
+            LocalDateTime gapStart = dayStart;
+            LocalDateTime gapEnd = dayEnd;
+            boolean free = true;
+            for (; next < booked.size() && booked.get(next).courtId().equals(court.getId()); next++) {
+                BookedInterval interval = booked.get(next);
+                if (!interval.endTime().isAfter(start)) {
+                    gapStart = interval.endTime().isAfter(gapStart) ? interval.endTime() : gapStart;
+                } else if (!interval.startTime().isBefore(end)) {
+                    gapEnd = interval.startTime().isBefore(gapEnd) ? interval.startTime() : gapEnd;
+                } else {
+                    free = false;
+                }
+            }
+            if (!free || slotHolds.overlaps(court.getId(), start, end, null)) {
+                continue;
+            }
+            Duration gap = Duration.between(gapStart, gapEnd);
+            if (bestGap == null || gap.compareTo(bestGap) < 0) {
+                best = court;
+                bestGap = gap;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Holds the slot of a reservation for a while, so the customer can confirm it without anyone else
+     * booking the slot meanwhile. Nothing is persisted until the hold is confirmed.
+     *
+     * @param reservation the reservation to hold the slot for
+     * @param ttl how long the hold lasts
+     * @return the hold, with the price the reservation will have
+     * @throws IllegalArgumentException if the court does not exist, the slot is booked or held,
+     *                                  or any other validation fails
+     */
+    public ReservationHold placeHold(Reservation reservation, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive.");
+        }
+        reservation.setCourt(courtService.findById(reservation.getCourt().getId())
+                .orElseThrow(() -> new IllegalArgumentException("Court with ID " + reservation.getCourt().getId() + " does not exist.")));
+        validateTimeRange(reservation);
+        reservation.setId(null);
+        return courtLocks.callLocked(reservation.getCourt().getId(), () -> {
+            validateReservationTime(reservation, null);
+            reservation.setPrice(calculatePrice(reservation));
+            return slotHolds.add(reservation, ttl);
+        });
+    }
+
+    /**
+     * Converts an active hold into a reservation and releases it once the reservation is committed.
+     * The reservation of the hold is copied, the hold itself stays unchanged until it is released.
+     *
+     * @param holdId the ID of the hold
+     * @return the saved Reservation entity
+     * @throws IllegalArgumentException if the hold does not exist or has expired
+     */
+    public Reservation confirmHold(long holdId) {
+        Reservation held = slotHolds.find(holdId)
+                .orElseThrow(() -> new IllegalArgumentException("Hold with ID " + holdId + " does not exist or has expired."))
+                .reservation();
+        Reservation reservation = new Reservation(null, held.getUser(), held.getCourt(),
+                held.getStartTime(), held.getEndTime(), held.getGameType(), held.getPrice());
+        ensureUserExists(reservation);
+        return courtLocks.callLocked(reservation.getCourt().getId(), () -> {
+            if (slotHolds.find(holdId).isEmpty()) {
+                throw new IllegalArgumentException("Hold with ID " + holdId + " does not exist or has expired.");
+            }
+            Reservation saved = saveLocked(reservation, holdId);
+            afterCommit(() -> slotHolds.remove(holdId));
+            return saved;
+        });
+    }
+
+    /**
+     * Releases a hold without creating a reservation.
+     *
+     * @param holdId the ID of the hold
+     * @return true if the hold existed
+     */
+    public boolean releaseHold(long holdId) {
+        return slotHolds.remove(holdId).isPresent();
+    }
+
+    /**
+     * Saves many new reservations in one transaction. Items are sorted by court and start time and checked
+     * in a single merge pass against the existing bookings of their courts, read by one query, and against
+     * the items accepted before them. Accepted items are inserted together, the others are reported.
+     * Users are resolved, and created if new, for the accepted items only.
+     * Courts of the items are expected to exist.
+     *
+     * @param reservations the new reservations, with their courts resolved
+     * @return one result per reservation, in the order of the input
+     * @throws IllegalArgumentException if any of the reservations is null
+     */
+    public List<ReservationBatchResult> saveBatch(List<Reservation> reservations) {
+        if (reservations.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Reservations of a batch must not be null.");
+        }
+        List<ReservationBatchResult> results = new ArrayList<>(Collections.nCopies(reservations.size(), null));
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            if (!reservation.getStartTime().isBefore(reservation.getEndTime())) {
+                results.set(i, ReservationBatchResult.invalid("Reservation start must be before its end."));
+                continue;
+            }
+            reservation.setId(null);
+            candidates.add(i);
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+        candidates.sort(Comparator.<Integer, Long>comparing(i -> reservations.get(i).getCourt().getId())
+                .thenComparing(i -> reservations.get(i).getStartTime()));
+        TreeSet<Long> courtIds = candidates.stream()
+                .map(i -> reservations.get(i).getCourt().getId())
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        List<Reservation> accepted = courtLocks.callLocked(courtIds, () -> {
+            List<Reservation> merged = mergeWithBooked(reservations, candidates, courtIds, results);
+            Map<String, User> users = new HashMap<>();
+            merged.forEach(reservation -> reservation.setUser(users.computeIfAbsent(
+                    reservation.getUser().getPhoneNumber(), phoneNumber -> resolveUser(reservation.getUser()))));
+            return reservationDao.saveAll(merged);
+        });
+
+        List<CourtIntervalIndex.Interval> intervals = accepted.stream()
+                .map(ReservationService::toInterval)
+                .collect(Collectors.toList());
+        afterCommit(() -> intervals.forEach(reservationIndex::put));
+        eventPublisher.publishEvent(ReservationsSavedEvent.of(accepted));
+        IntStream.range(0, reservations.size())
+                .filter(i -> results.get(i) == null)
+                .forEach(i -> results.set(i, ReservationBatchResult.created(reservations.get(i))));
+        return results;
+    }
+
+    /**
+     * Checks the candidates, sorted by court and start time, in a single merge pass against the existing
+     * bookings of their courts, read by one range query, and against the candidates accepted before them.
+     * Rejected candidates get a conflict result, accepted ones get their price.
+     * Must be called under the locks of the courts.
+     *
+     * @param reservations the new reservations
+     * @param candidates indexes of the reservations to check, sorted by court and start time
+     * @param courtIds IDs of the courts of the candidates
+     * @param results results to fill in for the rejected candidates
+     * @return the accepted reservations
+     */
+    private List<Reservation> mergeWithBooked(List<Reservation> reservations, List<Integer> candidates,
+                                              Collection<Long> courtIds, List<ReservationBatchResult> results) {
+        LocalDateTime from = candidates.stream().map(i -> reservations.get(i).getStartTime())
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.stream().map(i -> reservations.get(i).getEndTime())
+                .max(Comparator.naturalOrder()).orElseThrow();
+        List<BookedInterval> existing = reservationDao.findBookedIntervals(courtIds, from, to);
+        List<Reservation> accepted = new ArrayList<>();
+        int next = 0;
+        Long courtId = null;
+        LocalDateTime acceptedUntil = null;
+        for (int i : candidates) {
+            Reservation reservation = reservations.get(i);
+            if (!reservation.getCourt().getId().equals(courtId)) {
+                courtId = reservation.getCourt().getId();
+                acceptedUntil = null;
+            }
+            while (next < existing.size() && isBefore(existing.get(next), courtId, reservation.getStartTime())) {
+                next++;
+            }
+            boolean overlapsExisting = next < existing.size()
+                    && existing.get(next).courtId().equals(courtId)
+                    && existing.get(next).startTime().isBefore(reservation.getEndTime());
+            if (overlapsExisting) {
+                results.set(i, ReservationBatchResult.conflict("The reservation time overlaps with an existing reservation."));
+            } else if (slotHolds.overlaps(courtId, reservation.getStartTime(), reservation.getEndTime(), null)) {
+                results.set(i, ReservationBatchResult.conflict("The reservation time is held by another customer."));
+            } else if (acceptedUntil != null && reservation.getStartTime().isBefore(acceptedUntil)) {
+                results.set(i, ReservationBatchResult.conflict("The reservation time overlaps with another reservation of the batch."));
+            } else {
+                reservation.setPrice(calculatePrice(reservation));
+                accepted.add(reservation);
+                acceptedUntil = reservation.getEndTime();
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Saves a recurring series together with all its occurrences, or nothing if any occurrence conflicts.
+     * The occurrences of the series are checked by one range query over the whole span of the series.
+     *
+     * @param series the series to save
+     * @return the saved occurrences, in chronological order
+     * @throws IllegalArgumentException if the court does not exist, the series is malformed,
+     *                                  or any occurrence overlaps with an existing reservation
+     */
+    public List<Reservation> saveSeries(ReservationSeries series) {
+        Court court = courtService.findById(series.getCourt().getId())
+                .orElseThrow(() -> new IllegalArgumentException("Court with ID " + series.getCourt().getId() + " does not exist."));
+        if (!series.getStartTime().isBefore(series.getEndTime())) {
+            throw new IllegalArgumentException("Reservation start must be before its end.");
+        }
+        if (!series.getEndTime().isBefore(series.getStartTime().plusWeeks(series.getIntervalWeeks()))) {
+            throw new IllegalArgumentException("Occurrences of a series must not overlap each other.");
+        }
+        series.setId(null);
+        series.setCourt(court);
+        series.setUser(resolveUser(series.getUser()));
+
+        List<Reservation> occurrences = IntStream.range(0, series.getOccurrences())
+                .mapToObj(n -> new Reservation(null, series.getUser(), court,
+                        series.getStartTime().plusWeeks((long) n * series.getIntervalWeeks()),
+                        series.getEndTime().plusWeeks((long) n * series.getIntervalWeeks()),
+                        series.getGameType(), 0))
+                .collect(Collectors.toList());
+        List<Integer> candidates = IntStream.range(0, occurrences.size()).boxed().collect(Collectors.toList());
+        List<ReservationBatchResult> results = new ArrayList<>(Collections.nCopies(occurrences.size(), null));
+
+        List<Reservation> saved = courtLocks.callLocked(court.getId(), () -> {
+            mergeWithBooked(occurrences, candidates, List.of(court.getId()), results);
+            String conflicts = IntStream.range(0, occurrences.size())
+                    .filter(i -> results.get(i) != null)
+                    .mapToObj(i -> occurrences.get(i).getStartTime().toString())
+                    .collect(Collectors.joining(", "));
+            if (!conflicts.isEmpty()) {
+                throw new IllegalArgumentException("The series overlaps with existing reservations at: " + conflicts + ".");
+            }
+            ReservationSeries savedSeries = reservationSeriesDao.save(series);
+            occurrences.forEach(occurrence -> occurrence.setSeries(savedSeries));
+            return reservationDao.saveAll(occurrences);
+        });
+
+        List<CourtIntervalIndex.Interval> intervals = saved.stream()
+                .map(ReservationService::toInterval)
+                .collect(Collectors.toList());
+        afterCommit(() -> intervals.forEach(reservationIndex::put));
+        eventPublisher.publishEvent(ReservationsSavedEvent.of(saved));
+        return saved;
+    }
+
+    /**
+     * Finds a {@link ReservationSeries} by its ID.
+     *
+     * @param seriesId the ID of the series
+     * @return an {@link Optional} containing the found series, or empty if not found
+     */
+    public Optional<ReservationSeries> findSeriesById(long seriesId) {
+        return reservationSeriesDao.findById(seriesId);
+    }
+
+    /**
+     * Deletes a series together with all its occurrences, under the lock of its court.
+     *
+     * @param seriesId the ID of the series
+     */
+    public void deleteSeries(long seriesId) {
+        callLockedOnCourt(reservationSeriesDao.findById(seriesId).map(ReservationSeries::getCourt), () -> {
+            List<Long> ids = reservationDao.findIdsBySeriesId(seriesId);
+            reservationDao.deleteBySeriesId(seriesId);
+            reservationSeriesDao.deleteById(seriesId);
+            afterCommit(() -> ids.forEach(reservationIndex::remove));
+            eventPublisher.publishEvent(new ReservationsDeletedEvent(ids));
+        });
+    }
+
+    /**
+     * @return true if the booked interval lies on a court before the given one, or ends before the given time
+     */
+    private static boolean isBefore(BookedInterval interval, Long courtId, LocalDateTime time) {
+        int byCourt = interval.courtId().compareTo(courtId);
+        return byCourt < 0 || byCourt == 0 && !interval.endTime().isAfter(time);
     }
 
     /**
@@ -70,20 +493,27 @@ public class ReservationService implements CrudService<Reservation> {
         return basePrice * multiplier * Duration.between(reservation.getStartTime(), reservation.getEndTime()).toMinutes();
     }
     /**
-     * Validates that the reservation time does not overlap with existing reservations for the same court.
+     * Validates that the reservation time does not overlap with existing reservations or holds for the same court.
+     * The reservation itself is ignored, so an update does not conflict with its own previous version.
+     * Once warm, the in-memory index answers the check on its own, free slots included, without touching
+     * the database. It is exact under the court lock: every booking, deletion and archiving of the court
+     * runs under the lock, and the index takes the committed change before the lock is released.
+     * Until the index is warm,
+     * one bounded query decides.
      *
      * @param reservation the Reservation entity to validate
-     * @throws IllegalArgumentException if the reservation time overlaps with an existing reservation
+     * @param holdId ID of the hold being confirmed by the reservation, may be null
+     * @throws IllegalArgumentException if the reservation time overlaps with an existing reservation or hold
      */
-    private void validateReservationTime(Reservation reservation) {
-        Collection<Reservation> allReservations = reservationDao.findAll();
-
-        boolean overlaps = allReservations.stream()
-                .filter(existingReservation -> Objects.equals(existingReservation.getCourt().getId(), reservation.getCourt().getId()))
-                .anyMatch(existingReservation ->
-                        reservation.getStartTime().isBefore(existingReservation.getEndTime()) &&
-                                reservation.getEndTime().isAfter(existingReservation.getStartTime())
-                );
+    private void validateReservationTime(Reservation reservation, Long holdId) {
+        Long courtId = reservation.getCourt().getId();
+        if (slotHolds.overlaps(courtId, reservation.getStartTime(), reservation.getEndTime(), holdId)) {
+            throw new IllegalArgumentException("The reservation time is held by another customer.");
+        }
+        boolean overlaps = reservationIndex.isWarm()
+                ? reservationIndex.overlaps(courtId, reservation.getStartTime(), reservation.getEndTime(), reservation.getId())
+                : reservationDao.findOverlapping(courtId,
+                        reservation.getStartTime(), reservation.getEndTime(), reservation.getId()).isPresent();
 
         if (overlaps) {
             throw new IllegalArgumentException("The reservation time overlaps with an existing reservation.");
@@ -101,22 +531,35 @@ public class ReservationService implements CrudService<Reservation> {
             throw new IllegalArgumentException("Court with ID " + reservation.getCourt().getId() + " does not exist.");
         }
     }
+    /**
+     * Validates that the reservation starts before it ends.
+     *
+     * @param reservation the Reservation entity to validate
+     * @throws IllegalArgumentException if the reservation is empty or ends before it starts
+     */
+    private void validateTimeRange(Reservation reservation) {
+        if (!reservation.getStartTime().isBefore(reservation.getEndTime())) {
+            throw new IllegalArgumentException("Reservation start must be before its end.");
+        }
+    }
     /**
      * Ensures the user associated with the reservation exists, creating a new user if necessary.
      *
      * @param reservation the Reservation entity to process
      */
     private void ensureUserExists(Reservation reservation) {
-        Optional<User> user = userService.findByPhoneNumber(reservation.getUser().getPhoneNumber());
-        if (user.isEmpty()) {
-            User newUser = new User(null,
-                    reservation.getUser().getPhoneNumber(),
-                    reservation.getUser().getName());
-            User createdUser = userService.save(newUser);
-            reservation.setUser(createdUser);
-        } else {
-            reservation.setUser(user.get());
-        }
+        reservation.setUser(resolveUser(reservation.getUser()));
+    }
+    /**
+     * Finds the stored user with the phone number of the given one, creating it if it does not exist yet.
+     * A known user is found in memory by the phone number index, a new one is created in a single statement.
+     *
+     * @param user the user as sent by the customer
+     * @return the stored User entity
+     */
+    private User resolveUser(User user) {
+        return userService.findByPhoneNumber(user.getPhoneNumber())
+                .orElseGet(() -> userService.upsertByPhoneNumber(user.getPhoneNumber(), user.getName()));
     }
     /**
      * Finds a {@link Reservation} by its ID.
@@ -128,6 +571,29 @@ public class ReservationService implements CrudService<Reservation> {
     public Optional<Reservation> findById(long id) {
         return reservationDao.findById(id);
     }
+    /**
+     * Retrieves one page of {@link Reservation} entities ordered by start time and ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of Reservation entities
+     */
+    @Override
+    public KeysetPage<Reservation> findPage(String cursor, int limit) {
+        return reservationDao.findPage(cursor, limit);
+    }
+
+    /**
+     * Passes reservations intersecting the window to the action one by one, in order of start time,
+     * without holding them all in memory.
+     *
+     * @param from start of the window, null for no lower bound
+     * @param to end of the window, null for no upper bound
+     * @param action called for every reservation
+     */
+    public void exportReservations(LocalDateTime from, LocalDateTime to, Consumer<Reservation> action) {
+        reservationDao.forEachInRange(from, to, action);
+    }
     /**
      * Retrieves all {@link Reservation} entities.
      *
@@ -138,53 +604,242 @@ public class ReservationService implements CrudService<Reservation> {
         return reservationDao.findAll();
     }
     /**
-     * Deletes a {@link Reservation} by its ID.
+     * Deletes a {@link Reservation} by its ID, under the lock of its court.
      *
      * @param id the ID of the Reservation to delete
      */
     @Override
     public void deleteById(long id) {
-        reservationDao.deleteById(id);
+        callLockedOnCourt(reservationDao.findById(id).map(Reservation::getCourt), () -> {
+            reservationDao.deleteById(id);
+            afterCommit(() -> reservationIndex.remove(id));
+            eventPublisher.publishEvent(new ReservationsDeletedEvent(List.of(id)));
+        });
     }
     /**
-     * Deletes all {@link Reservation} entities.
+     * Deletes all {@link Reservation} entities, under the locks of all courts.
      */
     @Override
     public void deleteAll() {
-        reservationDao.deleteAll();
+        courtLocks.callLockedAll(() -> {
+            reservationDao.deleteAll();
+            afterCommit(reservationIndex::clear);
+            eventPublisher.publishEvent(new AllReservationsDeletedEvent());
+            return null;
+        });
+    }
+    /**
+     * Runs the deletion under the lock of the court. A deletion of something that is not stored
+     * has nothing to remove from the index and runs without a lock.
+     *
+     * @param court the court of the deleted reservations, empty if they do not exist
+     * @param deletion the deletion to run
+     */
+    private void callLockedOnCourt(Optional<Court> court, Runnable deletion) {
+        if (court.isEmpty()) {
+            deletion.run();
+            return;
+        }
+        courtLocks.callLocked(court.get().getId(), () -> {
+            deletion.run();
+            return null;
+        });
+    }
+    /**
+     * @return the highest ID any reservation has, 0 if there is none
+     */
+    public long getLastReservationId() {
+        return reservationDao.findMaxId();
+    }
+
+    /**
+     * @param upToId the highest counted ID
+     * @return number of live reservations with an ID up to the given one
+     */
+    public long countReservationsUpTo(long upToId) {
+        return reservationDao.countLiveUpTo(upToId);
+    }
+
+    /**
+     * Deletes the next batch of live reservations of the ID range (afterId, upToId], in the current transaction.
+     * The batch runs under the locks of all courts, but unlike {@link #deleteAll()} only the rows of the batch
+     * are locked in the database, so bookings go on between batches.
+     *
+     * @param afterId the last ID of the previous batch, 0 for the first one
+     * @param upToId the highest deleted ID
+     * @param batchSize maximum number of reservations deleted
+     * @return IDs of the deleted reservations, fewer than the batch size once the range is done
+     */
+    public List<Long> deleteBatch(long afterId, long upToId, int batchSize) {
+        List<Long> ids = reservationDao.findLiveIdsInRange(afterId, upToId, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        return courtLocks.callLockedAll(() -> {
+            reservationDao.deleteByIds(ids);
+            afterCommit(() -> ids.forEach(reservationIndex::remove));
+            eventPublisher.publishEvent(new ReservationsDeletedEvent(ids));
+            return ids;
+        });
+    }
+    /**
+     * Moves one batch of reservations that ended before the cutoff into the archive, in the current transaction.
+     * Archived reservations leave the index and the read model as if they were deleted, under the locks of all courts.
+     *
+     * @param cutoff reservations ending before this time are archived
+     * @param afterId the last ID of the previous batch, 0 for the first one
+     * @param batchSize maximum number of reservations moved
+     * @return IDs of the archived reservations, fewer than the batch size once nothing is left to archive
+     */
+    public List<Long> archiveEndedBefore(LocalDateTime cutoff, long afterId, int batchSize) {
+        List<Long> ids = reservationDao.findIdsEndedBefore(cutoff, afterId, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        return courtLocks.callLockedAll(() -> {
+            reservationDao.archive(ids, LocalDateTime.now());
+            afterCommit(() -> ids.forEach(reservationIndex::remove));
+            eventPublisher.publishEvent(new ReservationsDeletedEvent(ids));
+            return ids;
+        });
+    }
+    /**
+     * Retrieves all reservations as read-only views, without loading the entities.
+     *
+     * @return a collection of views of all reservations
+     */
+    public Collection<ReservationView> findAllViews() {
+        return reservationDao.findAllViews();
     }
     /**
-     * Retrieves reservations for a specific court by its ID.
+     * Finds a reservation by its ID as a read-only view.
+     *
+     * @param id the ID of the reservation
+     * @return an {@link Optional} containing the view, or empty if not found
+     */
+    public Optional<ReservationView> findViewById(long id) {
+        return reservationDao.findViewById(id);
+    }
+    /**
+     * Retrieves one page of reservations as read-only views, ordered by start time and ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of reservation views
+     */
+    public KeysetPage<ReservationView> findViewPage(String cursor, int limit) {
+        return reservationDao.findViewPage(cursor, limit);
+    }
+    /**
+     * Retrieves reservations for a specific court as read-only views, ordered by start time.
+     * Served by the read model once it is warm.
      *
      * @param courtId the ID of the court
-     * @return a collection of reservations for the specified court
+     * @return a collection of views of the reservations for the specified court
      */
-    public Collection<Reservation> getReservationsByCourtID(long courtId) {
-        return reservationDao.findByCourtId(courtId);
+    public Collection<ReservationView> getReservationViewsByCourtID(long courtId) {
+        if (readModel.isWarm()) {
+            return readModel.findByCourtId(courtId);
+        }
+        return reservationDao.findViewsByCourtId(courtId);
     }
     /**
-     * Retrieves reservations for a user based on their phone number.
+     * Retrieves one page of reservations for a specific court as read-only views, ordered by start time and ID.
+     *
+     * @param courtId the ID of the court
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of reservation views for the specified court
+     */
+    public KeysetPage<ReservationView> getReservationViewPageByCourtID(long courtId, String cursor, int limit) {
+        return reservationDao.findViewPageByCourtId(courtId, cursor, limit);
+    }
+    /**
+     * Retrieves reservations for a user based on their phone number as read-only views.
+     * Served by the read model once it is warm, ended reservations are filtered out by it. Until then
+     * the upcoming reservations are read by the user/end time index and cached per user until a write
+     * touches them.
      *
      * @param phoneNumber the phone number of the user
-     * @return a collection of reservations associated with the user
+     * @param upcomingOnly whether to leave out reservations that already ended
+     * @return a collection of views of the reservations associated with the user
      * @throws IllegalArgumentException if no user is found with the given phone number
      */
-    public Collection<Reservation> getReservationsByUserPhoneNumber(String phoneNumber) {
+    public Collection<ReservationView> getReservationViewsByUserPhoneNumber(String phoneNumber, boolean upcomingOnly) {
         long userId = userService.findByPhoneNumber(phoneNumber)
                 .orElseThrow(() -> new IllegalArgumentException("User with phone number " + phoneNumber + " not found."))
                 .getId();
-        return reservationDao.findByUserId(userId);
+        LocalDateTime now = LocalDateTime.now();
+        if (readModel.isWarm()) {
+            return readModel.findByUserId(userId, upcomingOnly ? now : null);
+        }
+        if (upcomingOnly) {
+            return upcomingCache.get(userId, now, id -> reservationDao.findUpcomingByUserId(id, now));
+        }
+        return reservationDao.findViewsByUserId(userId, null);
     }
     /**
-     * Retrieves upcoming reservations for a user based on their phone number.
+     * Retrieves one page of reservations for a user based on their phone number as read-only views,
+     * ordered by start time and ID.
      *
      * @param phoneNumber the phone number of the user
-     * @return a collection of upcoming reservations for the user
+     * @param upcomingOnly whether to leave out reservations that already ended
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of reservation views associated with the user
+     * @throws IllegalArgumentException if no user is found with the given phone number
      */
-    public Collection<Reservation> getUpcomingReservationsByUserPhoneNumber(String phoneNumber) {
-        return getReservationsByUserPhoneNumber(phoneNumber).stream()
-                .filter(reservation -> reservation.getEndTime().isAfter(LocalDateTime.now()))
-                .collect(Collectors.toList());
+    public KeysetPage<ReservationView> getReservationViewPageByUserPhoneNumber(String phoneNumber, boolean upcomingOnly,
+                                                                               String cursor, int limit) {
+        long userId = userService.findByPhoneNumber(phoneNumber)
+                .orElseThrow(() -> new IllegalArgumentException("User with phone number " + phoneNumber + " not found."))
+                .getId();
+        return reservationDao.findViewPageByUserId(userId, upcomingOnly ? LocalDateTime.now() : null, cursor, limit);
+    }
+    /**
+     * Retrieves the whole history of a user based on their phone number as read-only views, ordered by start time.
+     * Reads the current reservations and the archived ones, only this listing touches the archive.
+     *
+     * @param phoneNumber the phone number of the user
+     * @return a collection of views of the current and archived reservations of the user
+     * @throws IllegalArgumentException if no user is found with the given phone number
+     */
+    public Collection<ReservationView> getReservationHistoryByUserPhoneNumber(String phoneNumber) {
+        long userId = userService.findByPhoneNumber(phoneNumber)
+                .orElseThrow(() -> new IllegalArgumentException("User with phone number " + phoneNumber + " not found."))
+                .getId();
+        List<ReservationView> history = new ArrayList<>(reservationDao.findArchivedViewsByUserId(userId));
+        history.addAll(reservationDao.findViewsByUserId(userId, null));
+        history.sort(Comparator.comparing(ReservationView::startTime).thenComparing(ReservationView::id));
+        return history;
+    }
+    /**
+     * Converts a stored reservation into an interval of the reservation index.
+     *
+     * @param reservation the stored Reservation entity
+     * @return the indexed interval
+     */
+    private static CourtIntervalIndex.Interval toInterval(Reservation reservation) {
+        return new CourtIntervalIndex.Interval(reservation.getId(), reservation.getCourt().getId(),
+                reservation.getStartTime(), reservation.getEndTime());
+    }
+    /**
+     * Runs the action after the current transaction commits, so the index never sees rolled back changes.
+     * Runs it immediately when there is no transaction.
+     *
+     * @param action the index update to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
     /**
      * Retrieves the {@link CourtService} used by this service.
@@ -1,7 +1,9 @@
 package cz.xmerta.tennisclub.service;
 
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
 import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -64,6 +66,18 @@ public class SurfaceTypeService implements CrudService<SurfaceType> {
         return surfaceTypeDao.findById(id);
     }
 
+    /**
+     * Retrieves one page of {@link SurfaceType} entities ordered by ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of SurfaceType entities
+     */
+    @Override
+    public KeysetPage<SurfaceType> findPage(String cursor, int limit) {
+        return surfaceTypeDao.findPage(cursor, limit);
+    }
+
     /**
      * Retrieves all {@link SurfaceType} entities.
      *
@@ -74,6 +88,26 @@ public class SurfaceTypeService implements CrudService<SurfaceType> {
         return surfaceTypeDao.findAll();
     }
 
+    /**
+     * Retrieves all surface types as read-only views, without loading the entities.
+     *
+     * @return a collection of views of all surface types
+     */
+    public Collection<SurfaceTypeView> findAllViews() {
+        return surfaceTypeDao.findAllViews();
+    }
+
+    /**
+     * Retrieves one page of surface types as read-only views, ordered by ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of surface type views
+     */
+    public KeysetPage<SurfaceTypeView> findViewPage(String cursor, int limit) {
+        return surfaceTypeDao.findViewPage(cursor, limit);
+    }
+
     /**
      * Deletes a {@link SurfaceType} by its ID.
      *
@@ -0,0 +1,17 @@
+package cz.xmerta.tennisclub.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A free time interval [start, end) of a court.
+ *
+ * @param start start of the interval
+ * @param end end of the interval
+ */
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+
+    public Duration duration() {
+        return Duration.between(start, end);
+    }
+}
@@ -1,12 +1,28 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.service.cache.UserLookupCache;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.service.index.IndexJournal;
+import cz.xmerta.tennisclub.service.index.PhoneNumberIndex;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
 import cz.xmerta.tennisclub.storage.dao.UserDao;
 import cz.xmerta.tennisclub.storage.model.User;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Service class for managing {@link User} entities. Provides CRUD operations and ensures unique phone numbers for users.
@@ -16,14 +32,46 @@ import java.util.Optional;
 public class UserService implements CrudService<User> {
 
     private final UserDao userDao;
+    private final PhoneNumberIndex phoneNumberIndex;
+    private final UserLookupCache userLookupCache;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Phone numbers of new users saved by transactions still in flight, by the thread of the transaction.
+     */
+    private final ConcurrentMap<String, Thread> pendingPhoneNumbers = new ConcurrentHashMap<>();
 
     /**
      * Constructor for {@link UserService}.
      *
      * @param userDao the DAO for managing {@link User} entities
+     * @param phoneNumberIndex the in-memory index of users by phone number
+     * @param userLookupCache the cache of users by phone number, serving lookups until the index is warm
+     * @param validator validates users created without being persisted as entities
+     * @param eventPublisher the publisher of the events keeping the reservation read model up to date
      */
-    public UserService(UserDao userDao) {
+    public UserService(UserDao userDao, PhoneNumberIndex phoneNumberIndex, UserLookupCache userLookupCache,
+                       Validator validator, ApplicationEventPublisher eventPublisher) {
         this.userDao = userDao;
+        this.phoneNumberIndex = phoneNumberIndex;
+        this.userLookupCache = userLookupCache;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Fills the phone number index from the database once the application context is ready.
+     * Until then phone numbers are looked up through the {@link UserLookupCache}.
+     * Skipped if the index was already restored by the {@link IndexJournal} and its fingerprint, covering
+     * the phone number of every user, matches the one of the live users in the database,
+     * otherwise it is rebuilt from scratch.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmUpIndex() {
+        if (phoneNumberIndex.isWarm() && phoneNumberIndex.fingerprint().equals(userDao.findLiveFingerprint())) {
+            return;
+        }
+        phoneNumberIndex.rebuild(sink -> userDao.forEachPhoneNumber(sink::add));
     }
 
     /**
@@ -36,21 +84,87 @@ public class UserService implements CrudService<User> {
     @Override
     public User save(User user) {
         validateUniquePhoneNumber(user);
-        return userDao.save(user);
+        boolean isNew = user.getId() == null;
+        User saved = userDao.save(user);
+        invalidate(() -> {
+            userLookupCache.invalidate(saved.getPhoneNumber());
+            userLookupCache.invalidateUser(saved.getId());
+        });
+        indexSaved(saved.getId(), saved.getPhoneNumber(), isNew);
+        eventPublisher.publishEvent(new UserSavedEvent(saved.getId(), saved.getPhoneNumber(), saved.getName()));
+        return saved;
+    }
+
+    /**
+     * Finds the user with the phone number, creating it in a single statement if it does not exist yet.
+     * Concurrent first bookings with the same phone number end up with the same user, and a soft-deleted user
+     * with the phone number is revived instead of violating the unique phone number.
+     *
+     * @param phoneNumber the phone number of the user
+     * @param name the name of the user, used only if it is created
+     * @return a lazy reference to the user
+     * @throws ConstraintViolationException if the phone number or name is not valid
+     */
+    public User upsertByPhoneNumber(String phoneNumber, String name) {
+        Set<ConstraintViolation<User>> violations = validator.validate(new User(null, phoneNumber, name));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        long userId = userDao.upsertByPhoneNumber(phoneNumber, name);
+        invalidate(() -> userLookupCache.invalidate(phoneNumber));
+        indexSaved(userId, phoneNumber, true);
+        eventPublisher.publishEvent(new UserSavedEvent(userId, phoneNumber, name));
+        return userDao.getReference(userId);
+    }
+
+    /**
+     * Indexes the phone number once the transaction commits, so no other transaction finds a user that may
+     * still be rolled back. Phone numbers the user no longer has are dropped at the same time.
+     */
+    private void indexSaved(long userId, String phoneNumber, boolean isNew) {
+        afterCommit(() -> {
+            phoneNumberIndex.put(phoneNumber, userId);
+            if (!isNew) {
+                phoneNumberIndex.removeOtherPhoneNumbers(userId, phoneNumber);
+            }
+        });
     }
 
     /**
      * Validates that the phone number of the given {@link User} is unique. If the ID matches an existing entry,
      * it is considered an update and no exception is thrown.
+     * The index only knows committed users, so a phone number of no user is also claimed until the transaction
+     * completes, which rejects a concurrent save of the same phone number in this application instance.
+     * The unique constraint of the database stays the final guarantee, it also covers other instances
+     * and {@link #upsertByPhoneNumber(String, String)}.
      *
      * @param user the User entity to validate
      * @throws IllegalArgumentException if the phone number is not unique
      */
     private void validateUniquePhoneNumber(User user) {
-        Optional<User> existingUser = userDao.findByPhoneNumber(user.getPhoneNumber());
+        Optional<User> existingUser = findByPhoneNumber(user.getPhoneNumber());
         if (existingUser.isPresent() && !existingUser.get().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Phone number must be unique: " + user.getPhoneNumber());
         }
+        if (existingUser.isEmpty()) {
+            claimPhoneNumber(user.getPhoneNumber());
+        }
+    }
+
+    /**
+     * Claims the phone number for the current transaction until it completes. Outside a transaction
+     * the claim is dropped right away.
+     *
+     * @throws IllegalArgumentException if a transaction of another thread holds the phone number
+     */
+    private void claimPhoneNumber(String phoneNumber) {
+        Thread claimant = Thread.currentThread();
+        Thread owner = pendingPhoneNumbers.putIfAbsent(phoneNumber, claimant);
+        if (owner == null) {
+            afterCompletion(() -> pendingPhoneNumbers.remove(phoneNumber, claimant));
+        } else if (owner != claimant) {
+            throw new IllegalArgumentException("Phone number must be unique: " + phoneNumber);
+        }
     }
 
     /**
@@ -64,6 +178,18 @@ public class UserService implements CrudService<User> {
         return userDao.findById(id);
     }
 
+    /**
+     * Retrieves one page of {@link User} entities ordered by ID.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page of User entities
+     */
+    @Override
+    public KeysetPage<User> findPage(String cursor, int limit) {
+        return userDao.findPage(cursor, limit);
+    }
+
     /**
      * Retrieves all {@link User} entities.
      *
@@ -82,6 +208,8 @@ public class UserService implements CrudService<User> {
     @Override
     public void deleteById(long id) {
         userDao.deleteById(id);
+        invalidate(() -> userLookupCache.invalidateUser(id));
+        afterCommit(() -> phoneNumberIndex.removeUser(id));
     }
 
     /**
@@ -90,15 +218,74 @@ public class UserService implements CrudService<User> {
     @Override
     public void deleteAll() {
         userDao.deleteAll();
+        invalidate(userLookupCache::clear);
+        afterCommit(phoneNumberIndex::clear);
     }
 
     /**
-     * Finds a {@link User} by their phone number.
+     * Finds a {@link User} by their phone number. Once the {@link PhoneNumberIndex} is warm, the phone number
+     * is resolved in memory and a phone number of no user never reaches the database. Before that,
+     * the lookup is served by the {@link UserLookupCache}.
      *
      * @param phoneNumber the phone number of the User to find
-     * @return an {@link Optional} containing the found User, or empty if not found
+     * @return an {@link Optional} containing the found User, a lazy reference when served by the index,
+     *         or empty if not found
      */
     public Optional<User> findByPhoneNumber(String phoneNumber) {
-        return userDao.findByPhoneNumber(phoneNumber);
+        if (!phoneNumberIndex.isWarm()) {
+            return userLookupCache.get(phoneNumber, userDao::findByPhoneNumber);
+        }
+        long userId = phoneNumberIndex.get(phoneNumber);
+        return userId == PhoneNumberIndex.ABSENT ? Optional.empty() : Optional.of(userDao.getReference(userId));
+    }
+
+    /**
+     * Runs the cache invalidation right away and again once the transaction completes, so neither a lookup
+     * made before the commit nor a rolled back write stays cached.
+     *
+     * @param invalidation the invalidation to run
+     */
+    private static void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the action once the current transaction completes either way, or right away outside a transaction.
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away outside a transaction.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
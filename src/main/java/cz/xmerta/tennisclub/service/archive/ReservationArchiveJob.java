@@ -0,0 +1,65 @@
+package cz.xmerta.tennisclub.service.archive;
+
+import cz.xmerta.tennisclub.service.ReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically moves reservations that ended more than the horizon ago out of the {@code reservations} table
+ * into {@code reservations_archive}, so the table and its indexes only hold what current bookings need.
+ * Every batch runs in its own transaction and continues by ID after the previous one, the job stops at the first
+ * batch that is not full. Deleted reservations are not archived, the purge removes them.
+ */
+@Component
+public class ReservationArchiveJob {
+
+    private final ReservationService reservationService;
+    private final Duration horizon;
+    private final int batchSize;
+
+    /**
+     * @param reservationService the service moving the batches
+     * @param horizonDays how many days after their end reservations are archived
+     * @param batchSize maximum number of reservations moved in one transaction
+     */
+    public ReservationArchiveJob(ReservationService reservationService,
+                                 @Value("${app.reservations.archive.horizon-days:365}") long horizonDays,
+                                 @Value("${app.reservations.archive.batch-size:500}") int batchSize) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("Archive horizon must be positive: " + horizonDays);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Archive batch size must be positive: " + batchSize);
+        }
+        this.reservationService = reservationService;
+        this.horizon = Duration.ofDays(horizonDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archives all reservations that ended before the horizon.
+     *
+     * @return number of archived reservations
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.archive.interval-millis:3600000}",
+            initialDelayString = "${app.reservations.archive.interval-millis:3600000}")
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(horizon);
+        int total = 0;
+        long afterId = 0;
+        List<Long> archived;
+        do {
+            archived = reservationService.archiveEndedBefore(cutoff, afterId, batchSize);
+            total += archived.size();
+            if (!archived.isEmpty()) {
+                afterId = archived.get(archived.size() - 1);
+            }
+        } while (archived.size() == batchSize);
+        return total;
+    }
+}
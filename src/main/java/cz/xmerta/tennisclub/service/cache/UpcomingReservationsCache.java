@@ -0,0 +1,173 @@
+package cz.xmerta.tennisclub.service.cache;
+
+import cz.xmerta.tennisclub.service.event.AllReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded cache of the upcoming reservations per user, in front of the query listing them while the read model
+ * is not warm yet. A cached list stays valid until a write touches the user or one of the listed reservations,
+ * reservations that ended since it was loaded are filtered out on every hit. The views are immutable,
+ * so they are shared with the callers. A load racing with an invalidation is not cached.
+ * Invalidations run after the writing transaction commits.
+ */
+@Component
+public class UpcomingReservationsCache implements MeterBinder {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final Map<Long, List<ReservationView>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxSize;
+
+    /**
+     * Creates a cache of the default size.
+     */
+    public UpcomingReservationsCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum number of cached users
+     */
+    @Autowired
+    public UpcomingReservationsCache(@Value("${app.reservations.upcoming-cache.max-size:10000}") int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the upcoming reservations of the user from the cache, loading and caching them on a miss.
+     *
+     * @param userId the ID of the user
+     * @param now reservations ending at or before this time are left out
+     * @param loader reads the reservations of the user ending after now from the database, ordered by start time
+     * @return the upcoming reservations of the user, ordered by start time
+     */
+    public List<ReservationView> get(long userId, LocalDateTime now, LongFunction<List<ReservationView>> loader) {
+        List<ReservationView> cached = entries.get(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached.stream()
+                    .filter(reservation -> reservation.endTime().isAfter(now))
+                    .collect(Collectors.toList());
+        }
+        misses.increment();
+        long loadedGeneration = generation.get();
+        List<ReservationView> loaded = loader.apply(userId);
+        put(userId, List.copyOf(loaded), loadedGeneration);
+        return loaded;
+    }
+
+    private void put(long userId, List<ReservationView> reservations, long loadedGeneration) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(userId, reservations);
+        // an invalidation during the load may have missed this entry
+        if (generation.get() != loadedGeneration) {
+            entries.remove(userId, reservations);
+        }
+    }
+
+    /**
+     * Drops arbitrary entries until a tenth of the capacity is free.
+     */
+    private synchronized void evict() {
+        Iterator<List<ReservationView>> iterator = entries.values().iterator();
+        while (entries.size() > maxSize - maxSize / 10 - 1 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Forgets the users of the saved reservations, and any user listing one of them before a change of its user.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ReservationsSavedEvent event) {
+        generation.incrementAndGet();
+        event.reservations().forEach(item -> entries.remove(item.userId()));
+        invalidateReservations(event.reservations().stream()
+                .map(ReservationsSavedEvent.Item::id)
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Forgets the users listing the deleted reservations.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ReservationsDeletedEvent event) {
+        generation.incrementAndGet();
+        // deletes arrive in batches of hundreds of IDs, look them up in a set
+        invalidateReservations(new HashSet<>(event.ids()));
+    }
+
+    /**
+     * Forgets all users.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(AllReservationsDeletedEvent event) {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Forgets the user, the cached views carry its old name and phone number.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserSavedEvent event) {
+        generation.incrementAndGet();
+        entries.remove(event.userId());
+    }
+
+    private void invalidateReservations(Collection<Long> ids) {
+        entries.values().removeIf(reservations -> reservations.stream()
+                .anyMatch(reservation -> ids.contains(reservation.id())));
+    }
+
+    /**
+     * @return number of cached users
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("reservations.upcoming.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("reservations.upcoming.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("reservations.upcoming.cache.size", entries, Map::size)
+                .register(registry);
+    }
+}
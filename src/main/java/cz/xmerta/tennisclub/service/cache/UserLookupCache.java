@@ -0,0 +1,202 @@
+package cz.xmerta.tennisclub.service.cache;
+
+import cz.xmerta.tennisclub.storage.model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of users by phone number, in front of the phone number lookup done on every booking.
+ * Found users are kept until invalidated by a write, phone numbers of no user are kept for a short TTL only.
+ * Cached users are returned as detached copies, which is all a booking needs to reference its user.
+ * A load racing with an invalidation is not cached, so a stale user cannot outlive the write that changed it.
+ */
+@Component
+public class UserLookupCache implements MeterBinder {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final Duration DEFAULT_MISS_TTL = Duration.ofSeconds(30);
+
+    /**
+     * A cached lookup, ID and name are null for a phone number of no user.
+     */
+    private record Entry(Long id, String name, long expiresAtMillis) {
+
+        boolean isMiss() {
+            return id == null;
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits lookups answered by the cache, negative hits included
+     * @param negativeHits lookups answered by a cached miss
+     * @param misses lookups that went to the database
+     * @param size number of cached phone numbers
+     */
+    public record Stats(long hits, long negativeHits, long misses, int size) {
+
+        /**
+         * @return share of lookups answered by the cache, 0 before the first lookup
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxSize;
+    private final Duration missTtl;
+    private final Clock clock;
+
+    /**
+     * Creates a cache with the default size and TTL of misses.
+     */
+    public UserLookupCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MISS_TTL, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param maxSize maximum number of cached phone numbers
+     * @param missTtlSeconds how long a phone number of no user stays cached
+     */
+    @Autowired
+    public UserLookupCache(@Value("${app.users.lookup-cache.max-size:10000}") int maxSize,
+                           @Value("${app.users.lookup-cache.miss-ttl-seconds:30}") long missTtlSeconds) {
+        this(maxSize, Duration.ofSeconds(missTtlSeconds), Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param maxSize maximum number of cached phone numbers
+     * @param missTtl how long a phone number of no user stays cached
+     * @param clock the clock expiry is measured by
+     */
+    public UserLookupCache(int maxSize, Duration missTtl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.missTtl = missTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Looks the phone number up in the cache, loading and caching it on a miss.
+     *
+     * @param phoneNumber the phone number
+     * @param loader reads the user of the phone number from the database
+     * @return the user, a detached copy when served from the cache, or empty if no user has the phone number
+     */
+    public Optional<User> get(String phoneNumber, Function<String, Optional<User>> loader) {
+        Entry entry = entries.get(phoneNumber);
+        if (entry != null && (!entry.isMiss() || entry.expiresAtMillis() > clock.millis())) {
+            hits.increment();
+            if (entry.isMiss()) {
+                negativeHits.increment();
+                return Optional.empty();
+            }
+            return Optional.of(new User(entry.id(), phoneNumber, entry.name()));
+        }
+        misses.increment();
+        long loadedGeneration = generation.get();
+        Optional<User> loaded = loader.apply(phoneNumber);
+        put(phoneNumber, loaded.map(user -> new Entry(user.getId(), user.getName(), Long.MAX_VALUE))
+                .orElseGet(() -> new Entry(null, null, clock.millis() + missTtl.toMillis())), loadedGeneration);
+        return loaded;
+    }
+
+    private void put(String phoneNumber, Entry entry, long loadedGeneration) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(phoneNumber, entry);
+        // an invalidation during the load may have missed this entry
+        if (generation.get() != loadedGeneration) {
+            entries.remove(phoneNumber, entry);
+        }
+    }
+
+    /**
+     * Drops expired misses, then arbitrary entries until a tenth of the capacity is free.
+     */
+    private synchronized void evict() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.isMiss() && entry.expiresAtMillis() <= now);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize - maxSize / 10 - 1 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Forgets the lookup of the phone number.
+     *
+     * @param phoneNumber the phone number
+     */
+    public void invalidate(String phoneNumber) {
+        generation.incrementAndGet();
+        entries.remove(phoneNumber);
+    }
+
+    /**
+     * Forgets every lookup that found the user, whatever its phone number was.
+     *
+     * @param userId the ID of the user
+     */
+    public void invalidateUser(long userId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> !entry.isMiss() && entry.id() == userId);
+    }
+
+    /**
+     * Forgets all lookups.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * @return the current counters of the cache
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), negativeHits.sum(), misses.sum(), entries.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.lookup.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.lookup.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("users.lookup.cache.negative.hits", negativeHits, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("users.lookup.cache.hit.rate", this, cache -> cache.stats().hitRate())
+                .register(registry);
+        Gauge.builder("users.lookup.cache.size", entries, Map::size)
+                .register(registry);
+    }
+}
@@ -0,0 +1,7 @@
+package cz.xmerta.tennisclub.service.event;
+
+/**
+ * Published when all reservations are deleted at once, delivered to the read side after the transaction commits.
+ */
+public record AllReservationsDeletedEvent() {
+}
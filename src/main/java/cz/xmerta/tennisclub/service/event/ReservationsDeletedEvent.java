@@ -0,0 +1,11 @@
+package cz.xmerta.tennisclub.service.event;
+
+import java.util.List;
+
+/**
+ * Published when reservations are deleted, delivered to the read side after the transaction commits.
+ *
+ * @param ids IDs of the deleted reservations
+ */
+public record ReservationsDeletedEvent(List<Long> ids) {
+}
@@ -0,0 +1,44 @@
+package cz.xmerta.tennisclub.service.event;
+
+import cz.xmerta.tennisclub.storage.model.GameType;
+import cz.xmerta.tennisclub.storage.model.Reservation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Published when reservations are created or updated, delivered to the read side after the transaction commits.
+ *
+ * @param reservations state of the saved reservations as committed
+ */
+public record ReservationsSavedEvent(List<Item> reservations) {
+
+    /**
+     * A saved reservation, copied from the entity so later changes of the entity do not leak into the event.
+     *
+     * @param id ID of the reservation
+     * @param userId ID of the user
+     * @param courtId ID of the court
+     * @param startTime start of the reservation
+     * @param endTime end of the reservation
+     * @param gameType the game type
+     * @param price the price of the reservation
+     */
+    public record Item(long id, long userId, long courtId, LocalDateTime startTime, LocalDateTime endTime,
+                       GameType gameType, double price) {
+    }
+
+    /**
+     * @param reservations the saved Reservation entities
+     * @return the event of the reservations
+     */
+    public static ReservationsSavedEvent of(Collection<Reservation> reservations) {
+        return new ReservationsSavedEvent(reservations.stream()
+                .map(reservation -> new Item(reservation.getId(), reservation.getUser().getId(),
+                        reservation.getCourt().getId(), reservation.getStartTime(), reservation.getEndTime(),
+                        reservation.getGameType(), reservation.getPrice()))
+                .collect(Collectors.toList()));
+    }
+}
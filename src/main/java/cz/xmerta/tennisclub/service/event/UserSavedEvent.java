@@ -0,0 +1,11 @@
+package cz.xmerta.tennisclub.service.event;
+
+/**
+ * Published when a user is created or updated, delivered to the read side after the transaction commits.
+ *
+ * @param userId ID of the user
+ * @param phoneNumber phone number of the user
+ * @param name name of the user
+ */
+public record UserSavedEvent(long userId, String phoneNumber, String name) {
+}
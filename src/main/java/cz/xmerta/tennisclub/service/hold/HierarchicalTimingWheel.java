@@ -0,0 +1,171 @@
+package cz.xmerta.tennisclub.service.hold;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel for expiring many timeouts with O(1) scheduling and cancellation.
+ * The lowest level has one bucket per tick, every higher level has buckets as long as a full turn
+ * of the level below, and its buckets are cascaded down once the time reaches them.
+ * Levels are added when a deadline does not fit in the existing ones.
+ * A timeout fires at most one tick after its deadline, never before it. The wheel is not thread-safe.
+ *
+ * @param <T> type of the items expiring
+ */
+public class HierarchicalTimingWheel<T> {
+
+    /**
+     * A scheduled item, used to cancel it.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadline;
+        private Set<Timeout<T>> bucket;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Set<Timeout<T>>>> levels = new ArrayList<>();
+    private final Set<Timeout<T>> due = new LinkedHashSet<>();
+    private long currentTime;
+    private int size = 0;
+
+    /**
+     * @param tickMillis length of one tick of the lowest level in milliseconds
+     * @param wheelSize number of buckets of every level
+     * @param startMillis the time the wheel starts at
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Tick must be positive and a wheel needs at least 2 buckets.");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        addLevel();
+    }
+
+    /**
+     * Schedules an item. An item with a deadline already passed fires on the next advance.
+     *
+     * @param item the item
+     * @param deadline time of expiry in milliseconds
+     * @return handle to cancel the timeout
+     */
+    public Timeout<T> schedule(T item, long deadline) {
+        Timeout<T> timeout = new Timeout<>(item, deadline);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout, does nothing if it already fired or was cancelled.
+     *
+     * @param timeout the handle returned by {@link #schedule(Object, long)}
+     * @return true if the timeout was pending
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null || !timeout.bucket.remove(timeout)) {
+            return false;
+        }
+        timeout.bucket = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to the given time.
+     *
+     * @param nowMillis the current time
+     * @return items whose deadline passed, in the order they expired
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+            drain(levels.get(0).get(bucketIndex(currentTime / tickMillis - 1)), expired);
+            long levelTick = tickMillis;
+            for (int level = 1; level < levels.size(); level++) {
+                levelTick *= wheelSize;
+                if (currentTime % levelTick != 0) {
+                    break;
+                }
+                cascade(levels.get(level).get(bucketIndex(currentTime / levelTick)));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return number of pending timeouts
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        if (timeout.deadline < currentTime) {
+            timeout.bucket = due;
+            due.add(timeout);
+            return;
+        }
+        long levelTick = tickMillis;
+        for (int level = 0; ; level++) {
+            if (level == levels.size()) {
+                addLevel();
+            }
+            long window = timeout.deadline / levelTick;
+            if (window - currentTime / levelTick < wheelSize) {
+                Set<Timeout<T>> bucket = levels.get(level).get(bucketIndex(window));
+                timeout.bucket = bucket;
+                bucket.add(timeout);
+                return;
+            }
+            levelTick *= wheelSize;
+        }
+    }
+
+    private void cascade(Set<Timeout<T>> bucket) {
+        List<Timeout<T>> timeouts = new ArrayList<>(bucket);
+        bucket.clear();
+        timeouts.forEach(this::place);
+    }
+
+    private void drain(Set<Timeout<T>> bucket, List<T> expired) {
+        for (Timeout<T> timeout : bucket) {
+            timeout.bucket = null;
+            expired.add(timeout.item);
+        }
+        size -= bucket.size();
+        bucket.clear();
+    }
+
+    private int bucketIndex(long window) {
+        return (int) Math.floorMod(window, (long) wheelSize);
+    }
+
+    private void addLevel() {
+        List<Set<Timeout<T>>> buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+        levels.add(buckets);
+    }
+}
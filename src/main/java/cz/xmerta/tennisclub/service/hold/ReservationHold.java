@@ -0,0 +1,15 @@
+package cz.xmerta.tennisclub.service.hold;
+
+import cz.xmerta.tennisclub.storage.model.Reservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * A tentative, not yet persisted reservation keeping its slot free of other bookings until it expires.
+ *
+ * @param id the ID of the hold
+ * @param reservation the reservation to create once the hold is confirmed
+ * @param expiresAt time the hold expires at
+ */
+public record ReservationHold(long id, Reservation reservation, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,172 @@
+package cz.xmerta.tennisclub.service.hold;
+
+import cz.xmerta.tennisclub.service.index.CourtIntervalIndex;
+import cz.xmerta.tennisclub.storage.model.Reservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory registry of slot holds. Held intervals are kept in their own {@link CourtIntervalIndex},
+ * so checking a booking against holds costs the same as against reservations. Holds expire through
+ * a {@link HierarchicalTimingWheel} advanced by a single scheduled tick, instead of a task per hold.
+ * Holds are not persisted and are lost on restart.
+ */
+@Component
+public class SlotHolds {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final CourtIntervalIndex heldIntervals = new CourtIntervalIndex();
+    private final Map<Long, Entry> holds = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Clock clock;
+
+    private record Entry(ReservationHold hold, HierarchicalTimingWheel.Timeout<Long> timeout) {
+    }
+
+    /**
+     * @param tickMillis how often expired holds are released
+     */
+    @Autowired
+    public SlotHolds(@Value("${app.reservations.hold-tick-millis:1000}") long tickMillis) {
+        this(tickMillis, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param tickMillis how often expired holds are released
+     * @param clock the clock expiry is measured by
+     */
+    public SlotHolds(long tickMillis, Clock clock) {
+        this.clock = clock;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, clock.millis());
+    }
+
+    /**
+     * Holds the slot of the reservation. The caller is responsible for checking the slot is free.
+     *
+     * @param reservation the reservation to hold the slot for, with its court resolved
+     * @param ttl how long the hold lasts
+     * @return the new hold
+     */
+    public synchronized ReservationHold add(Reservation reservation, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        // the caller checked the slot ignoring expired holds, so held intervals of a court stay disjoint
+        releaseExpired(reservation.getCourt().getId(), now);
+        long id = ids.incrementAndGet();
+        ReservationHold hold = new ReservationHold(id, reservation, now.plus(ttl));
+        heldIntervals.put(new CourtIntervalIndex.Interval(id, reservation.getCourt().getId(),
+                reservation.getStartTime(), reservation.getEndTime()));
+        holds.put(id, new Entry(hold, wheel.schedule(id, clock.millis() + ttl.toMillis())));
+        return hold;
+    }
+
+    /**
+     * Finds an active hold.
+     *
+     * @param id the ID of the hold
+     * @return the hold, or empty if it does not exist or has expired
+     */
+    public Optional<ReservationHold> find(long id) {
+        return Optional.ofNullable(holds.get(id))
+                .map(Entry::hold)
+                .filter(hold -> hold.expiresAt().isAfter(LocalDateTime.now(clock)));
+    }
+
+    /**
+     * Releases a hold.
+     *
+     * @param id the ID of the hold
+     * @return the released hold, or empty if it did not exist
+     */
+    public synchronized Optional<ReservationHold> remove(long id) {
+        Entry entry = holds.remove(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        wheel.cancel(entry.timeout());
+        heldIntervals.remove(id);
+        return Optional.of(entry.hold());
+    }
+
+    private void releaseExpired(long courtId, LocalDateTime now) {
+        holds.values().removeIf(entry -> {
+            if (entry.hold().reservation().getCourt().getId() != courtId || isActive(entry, now)) {
+                return false;
+            }
+            wheel.cancel(entry.timeout());
+            heldIntervals.remove(entry.hold().id());
+            return true;
+        });
+    }
+
+    private static boolean isActive(Entry entry, LocalDateTime now) {
+        return entry != null && entry.hold().expiresAt().isAfter(now);
+    }
+
+    /**
+     * Checks whether [start, end) overlaps an active hold of the court. Holds that expired are ignored
+     * even before the tick releases them, so a late tick cannot keep rejecting bookings.
+     *
+     * @param courtId the ID of the court
+     * @param start start of the checked interval
+     * @param end end of the checked interval
+     * @param excludeHoldId ID of a hold to ignore (the one being confirmed), may be null
+     * @return true if an overlapping hold exists
+     */
+    public boolean overlaps(long courtId, LocalDateTime start, LocalDateTime end, Long excludeHoldId) {
+        if (holds.isEmpty()) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        return heldIntervals.overlapsIgnoring(courtId, start, end, id ->
+                (excludeHoldId != null && id == excludeHoldId) || !isActive(holds.get(id), now));
+    }
+
+    /**
+     * Lists the intervals of the active holds of the court that intersect [from, to), ordered by start time.
+     *
+     * @param courtId the ID of the court
+     * @param from start of the window
+     * @param to end of the window
+     * @return the held intervals, with the IDs of the holds
+     */
+    public List<CourtIntervalIndex.Interval> intersecting(long courtId, LocalDateTime from, LocalDateTime to) {
+        if (holds.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        return heldIntervals.intersecting(courtId, from, to).stream()
+                .filter(interval -> isActive(holds.get(interval.id()), now))
+                .toList();
+    }
+
+    /**
+     * Releases all holds whose time ran out.
+     */
+    @Scheduled(fixedRateString = "${app.reservations.hold-tick-millis:1000}")
+    public synchronized void expire() {
+        for (long id : wheel.advance(clock.millis())) {
+            holds.remove(id);
+            heldIntervals.remove(id);
+        }
+    }
+
+    /**
+     * @return number of active holds
+     */
+    public int size() {
+        return holds.size();
+    }
+}
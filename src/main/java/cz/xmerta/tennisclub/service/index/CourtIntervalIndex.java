@@ -0,0 +1,289 @@
+package cz.xmerta.tennisclub.service.index;
+
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory index of booked time intervals, kept per court in a set sorted by start time.
+ * Intervals of one court never overlap (every insert is validated first), so an overlap check only needs
+ * to look at the interval starting right before the end of the checked one, which is O(log n).
+ * A {@link CourtSlotGrid} in front of the sorted sets answers most checks of free time with a few bit tests.
+ * Once warm, the answer of the index is final for the booking validation, no database query confirms it.
+ */
+@Component
+public class CourtIntervalIndex {
+
+    /**
+     * A single booked interval of a court.
+     */
+    public record Interval(long id, long courtId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Notified of every change of the index after it is applied, by the thread making the change.
+     */
+    public interface Listener {
+        void put(Interval interval);
+
+        void remove(long id);
+
+        void clear();
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void put(Interval interval) {
+        }
+
+        @Override
+        public void remove(long id) {
+        }
+
+        @Override
+        public void clear() {
+        }
+    };
+
+    private static final Comparator<Interval> BY_START =
+            Comparator.comparing(Interval::start).thenComparingLong(Interval::id);
+
+    private static final int DEFAULT_SLOT_MINUTES = 5;
+
+    private final Map<Long, NavigableSet<Interval>> intervalsByCourt = new ConcurrentHashMap<>();
+    private final Map<Long, Interval> intervalsById = new ConcurrentHashMap<>();
+    private final CourtSlotGrid slotGrid;
+    private volatile boolean warm = false;
+    private volatile Listener listener = NO_LISTENER;
+
+    /**
+     * Creates an index with the default slot length of the occupancy grid.
+     */
+    public CourtIntervalIndex() {
+        this(DEFAULT_SLOT_MINUTES);
+    }
+
+    /**
+     * @param slotMinutes slot length of the occupancy grid, must divide a day evenly
+     */
+    @Autowired
+    public CourtIntervalIndex(@Value("${app.reservations.slot-minutes:5}") int slotMinutes) {
+        this.slotGrid = new CourtSlotGrid(slotMinutes);
+    }
+
+    /**
+     * Replaces the whole content of the index and marks it as warm. The listener is not notified,
+     * a rebuild replaces the content it was told about.
+     *
+     * @param intervals all currently booked intervals
+     */
+    public void rebuild(Collection<Interval> intervals) {
+        rebuild(intervals::forEach);
+    }
+
+    /**
+     * Same as {@link #rebuild(Collection)}, with the intervals loaded while the monitor of the index is held.
+     * Writes made meanwhile wait for the rebuild, so a change committed after the source read its snapshot
+     * is applied on top of it instead of being wiped.
+     *
+     * @param source feeds every currently booked interval into the given sink
+     */
+    public synchronized void rebuild(Consumer<Consumer<Interval>> source) {
+        clearIndexed();
+        source.accept(this::putIndexed);
+        warm = true;
+    }
+
+    /**
+     * @param listener notified of every following change, replacing the previous listener
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds an interval, replacing the previous interval with the same ID if there is one.
+     *
+     * @param interval the interval to add
+     */
+    public synchronized void put(Interval interval) {
+        putIndexed(interval);
+        listener.put(interval);
+    }
+
+    private void putIndexed(Interval interval) {
+        removeIndexed(interval.id());
+        intervalsByCourt.computeIfAbsent(interval.courtId(), courtId -> new ConcurrentSkipListSet<>(BY_START))
+                .add(interval);
+        intervalsById.put(interval.id(), interval);
+        slotGrid.mark(interval.courtId(), interval.start(), interval.end());
+    }
+
+    /**
+     * Removes the interval with the given ID, does nothing if it is not indexed.
+     *
+     * @param id the ID of the interval
+     */
+    public synchronized void remove(long id) {
+        if (removeIndexed(id)) {
+            listener.remove(id);
+        }
+    }
+
+    private boolean removeIndexed(long id) {
+        Interval previous = intervalsById.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        NavigableSet<Interval> intervals = intervalsByCourt.get(previous.courtId());
+        intervals.remove(previous);
+        slotGrid.unmark(previous.courtId(), previous.start(), previous.end());
+        // neighbours may share a partially booked boundary slot with the removed interval
+        LocalDateTime from = previous.start().minusMinutes(slotGrid.getSlotMinutes());
+        LocalDateTime to = previous.end().plusMinutes(slotGrid.getSlotMinutes());
+        for (Interval neighbour : intervals.headSet(new Interval(Long.MIN_VALUE, previous.courtId(), to, to), false)
+                .descendingSet()) {
+            if (!neighbour.end().isAfter(from)) {
+                break;
+            }
+            slotGrid.mark(neighbour.courtId(), neighbour.start(), neighbour.end());
+        }
+        return true;
+    }
+
+    /**
+     * Removes all intervals, the index stays warm.
+     */
+    public synchronized void clear() {
+        clearIndexed();
+        listener.clear();
+    }
+
+    private void clearIndexed() {
+        intervalsByCourt.clear();
+        intervalsById.clear();
+        slotGrid.clear();
+    }
+
+    /**
+     * Checks whether [start, end) overlaps any indexed interval of the court.
+     *
+     * @param courtId the ID of the court
+     * @param start start of the checked interval
+     * @param end end of the checked interval
+     * @param excludeId ID of an interval to ignore (the one being updated), may be null
+     * @return true if an overlapping interval exists
+     */
+    public boolean overlaps(long courtId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        return overlapsIgnoring(courtId, start, end, excludeId == null ? id -> false : id -> id == excludeId);
+    }
+
+    /**
+     * Checks whether [start, end) overlaps any indexed interval of the court that is not ignored.
+     * Runs under the monitor of the index, so it never sees a removal that has cleared the slots
+     * of a neighbour's shared boundary and not marked them again yet.
+     *
+     * @param courtId the ID of the court
+     * @param start start of the checked interval
+     * @param end end of the checked interval
+     * @param ignored tells the IDs of the intervals to ignore
+     * @return true if an overlapping interval exists
+     */
+    public synchronized boolean overlapsIgnoring(long courtId, LocalDateTime start, LocalDateTime end, LongPredicate ignored) {
+        NavigableSet<Interval> intervals = intervalsByCourt.get(courtId);
+        if (intervals == null || slotGrid.isFree(courtId, start, end)) {
+            return false;
+        }
+        Interval probe = new Interval(Long.MIN_VALUE, courtId, end, end);
+        for (Interval candidate : intervals.headSet(probe, false).descendingSet()) {
+            if (ignored.test(candidate.id())) {
+                continue;
+            }
+            return candidate.end().isAfter(start);
+        }
+        return false;
+    }
+
+    /**
+     * Lists the indexed intervals of the court that intersect [from, to), ordered by start time.
+     *
+     * @param courtId the ID of the court
+     * @param from start of the window
+     * @param to end of the window
+     * @return the intersecting intervals
+     */
+    public List<Interval> intersecting(long courtId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Interval> intervals = intervalsByCourt.get(courtId);
+        if (intervals == null || !from.isBefore(to)) {
+            return List.of();
+        }
+        Interval fromProbe = new Interval(Long.MIN_VALUE, courtId, from, from);
+        // intervals are disjoint, only the last one starting before the window can reach into it
+        Interval before = intervals.lower(fromProbe);
+        List<Interval> result = new ArrayList<>();
+        for (Interval interval : intervals.subSet(before != null ? before : fromProbe, true,
+                new Interval(Long.MIN_VALUE, courtId, to, to), false)) {
+            if (interval.end().isAfter(from)) {
+                result.add(interval);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes every indexed interval to the action. Does not block writers, an interval changed meanwhile
+     * may be passed in either state.
+     *
+     * @param action called for every interval
+     */
+    public void forEach(Consumer<Interval> action) {
+        intervalsById.values().forEach(action);
+    }
+
+    /**
+     * @return true once the index was filled by {@link #rebuild(Collection)}
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * @return sum of the IDs of the indexed intervals
+     */
+    public synchronized long idSum() {
+        return intervalsById.keySet().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return fingerprint of the court, start and end of the indexed intervals
+     */
+    public synchronized RowFingerprint fingerprint() {
+        long hashSum = 0;
+        for (Interval interval : intervalsById.values()) {
+            hashSum += RowFingerprint.hashInterval(interval.id(), interval.courtId(),
+                    interval.start().toEpochSecond(ZoneOffset.UTC), interval.end().toEpochSecond(ZoneOffset.UTC));
+        }
+        return new RowFingerprint((long) intervalsById.size(), hashSum);
+    }
+
+    /**
+     * @return number of indexed intervals
+     */
+    public int size() {
+        return intervalsById.size();
+    }
+}
@@ -0,0 +1,153 @@
+package cz.xmerta.tennisclub.service.index;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy bitmap of courts split into fixed-size slots, one {@code long[]} per court and calendar day.
+ * A slot is marked when any part of it is booked, so a clear range is guaranteed to be free, while a marked
+ * range may still be free when bookings are not aligned to slots. With 5 minute slots a day takes five words,
+ * a year of 50 courts fits into about 2 MB.
+ */
+public class CourtSlotGrid {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private record CourtDay(long courtId, LocalDate day) {
+    }
+
+    private final int slotSeconds;
+    private final int slotsPerDay;
+    private final Map<CourtDay, long[]> days = new ConcurrentHashMap<>();
+
+    /**
+     * @param slotMinutes length of a slot, must divide a day evenly
+     * @throws IllegalArgumentException if the slot length does not divide a day
+     */
+    public CourtSlotGrid(int slotMinutes) {
+        if (slotMinutes <= 0 || SECONDS_PER_DAY % (slotMinutes * 60) != 0) {
+            throw new IllegalArgumentException("Slot length must divide a day evenly: " + slotMinutes);
+        }
+        this.slotSeconds = slotMinutes * 60;
+        this.slotsPerDay = SECONDS_PER_DAY / slotSeconds;
+    }
+
+    /**
+     * Marks all slots touched by [start, end) as occupied.
+     */
+    public void mark(long courtId, LocalDateTime start, LocalDateTime end) {
+        forEachDay(courtId, start, end, true, (words, fromSlot, toSlot) -> {
+            for (int slot = fromSlot; slot < toSlot; ) {
+                int word = slot >>> 6;
+                int wordEnd = Math.min(toSlot, (word + 1) << 6);
+                words[word] |= rangeMask(slot, wordEnd);
+                slot = wordEnd;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Clears all slots touched by [start, end). Slots shared with neighbouring bookings must be marked again.
+     */
+    public void unmark(long courtId, LocalDateTime start, LocalDateTime end) {
+        forEachDay(courtId, start, end, false, (words, fromSlot, toSlot) -> {
+            for (int slot = fromSlot; slot < toSlot; ) {
+                int word = slot >>> 6;
+                int wordEnd = Math.min(toSlot, (word + 1) << 6);
+                words[word] &= ~rangeMask(slot, wordEnd);
+                slot = wordEnd;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * @return true if no slot touched by [start, end) is marked, meaning the interval is certainly free
+     */
+    public boolean isFree(long courtId, LocalDateTime start, LocalDateTime end) {
+        return forEachDay(courtId, start, end, false, (words, fromSlot, toSlot) -> {
+            for (int slot = fromSlot; slot < toSlot; ) {
+                int word = slot >>> 6;
+                int wordEnd = Math.min(toSlot, (word + 1) << 6);
+                if ((words[word] & rangeMask(slot, wordEnd)) != 0) {
+                    return false;
+                }
+                slot = wordEnd;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Removes all marks.
+     */
+    public void clear() {
+        days.clear();
+    }
+
+    /**
+     * @return length of a slot in minutes
+     */
+    public int getSlotMinutes() {
+        return slotSeconds / 60;
+    }
+
+    /**
+     * @return number of court days holding a bitmap
+     */
+    public int size() {
+        return days.size();
+    }
+
+    @FunctionalInterface
+    private interface SlotRangeVisitor {
+        boolean visit(long[] words, int fromSlot, int toSlot);
+    }
+
+    /**
+     * Splits [start, end) into per-day slot ranges and visits them until the visitor returns false.
+     * Days without a bitmap are created only when {@code create} is set, otherwise they are skipped as free.
+     *
+     * @return false if the visitor stopped the iteration
+     */
+    private boolean forEachDay(long courtId, LocalDateTime start, LocalDateTime end, boolean create,
+                               SlotRangeVisitor visitor) {
+        if (!start.isBefore(end)) {
+            return true;
+        }
+        LocalDate lastDay = end.minusNanos(1).toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            int fromSlot = day.equals(start.toLocalDate()) ? startSlot(start.toLocalTime()) : 0;
+            int toSlot = day.equals(end.toLocalDate()) ? endSlot(end.toLocalTime()) : slotsPerDay;
+            CourtDay key = new CourtDay(courtId, day);
+            long[] words = create
+                    ? days.computeIfAbsent(key, k -> new long[(slotsPerDay + 63) >>> 6])
+                    : days.get(key);
+            if (words != null && !visitor.visit(words, fromSlot, toSlot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int startSlot(LocalTime time) {
+        return time.toSecondOfDay() / slotSeconds;
+    }
+
+    private int endSlot(LocalTime time) {
+        int seconds = time.toSecondOfDay() + (time.getNano() > 0 ? 1 : 0);
+        return (seconds + slotSeconds - 1) / slotSeconds;
+    }
+
+    /**
+     * @return mask of bits [fromSlot, toSlot) within the word holding fromSlot, toSlot must not pass that word
+     */
+    private static long rangeMask(int fromSlot, int toSlot) {
+        long upTo = (toSlot & 63) == 0 ? -1L : (1L << (toSlot & 63)) - 1;
+        return upTo & (-1L << (fromSlot & 63));
+    }
+}
@@ -0,0 +1,409 @@
+package cz.xmerta.tennisclub.service.index;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the in-memory indexes, so a restart does not have to rebuild them from the database.
+ * Every change of the {@link CourtIntervalIndex} and the {@link PhoneNumberIndex} is appended as a fixed-size
+ * binary record to a memory-mapped log, which survives a crash of the process. A snapshot of both indexes
+ * is written periodically and, by a background thread, whenever the log is half full, after which the log
+ * starts over. Writers never wait for a snapshot being written. Should the log fill up anyway, further records
+ * are dropped until the snapshot completes, and another snapshot picks up the dropped changes.
+ * <p>
+ * On startup the indexes are restored from the last snapshot and the records written after it. The services
+ * skip their warm-up only if the fingerprint of the restored index, covering the content of every row,
+ * matches the one of the live rows in the database. Otherwise the journal is stale, for example after
+ * the database was recreated or a record was lost in a crash, and they rebuild the index from the database
+ * as without a journal. Disabled by default, a database recreated on every start makes it always stale.
+ */
+@Component
+public class IndexJournal {
+
+    private static final int SNAPSHOT_MAGIC = 0x49444a53;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // type, generation, four operands, checksum
+    static final int RECORD_BYTES = 1 + Integer.BYTES + 4 * Long.BYTES + Integer.BYTES;
+
+    private static final byte INTERVAL_PUT = 1;
+    private static final byte INTERVAL_REMOVE = 2;
+    private static final byte INTERVAL_CLEAR = 3;
+    private static final byte PHONE_PUT = 4;
+    private static final byte PHONE_REMOVE = 5;
+    private static final byte PHONE_REMOVE_USER = 6;
+    private static final byte PHONE_CLEAR = 7;
+
+    private final CourtIntervalIndex intervalIndex;
+    private final PhoneNumberIndex phoneNumberIndex;
+    private final boolean enabled;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final int capacityRecords;
+
+    private final Executor snapshotExecutor;
+    private final Object snapshotLock = new Object();
+
+    private MappedByteBuffer log;
+    private int generation = 0;
+    private boolean dirty = false;
+    private boolean snapshotRequested = false;
+    private boolean recordsDropped = false;
+
+    /**
+     * @param intervalIndex the index of booked intervals
+     * @param phoneNumberIndex the index of phone numbers
+     * @param enabled whether the indexes are journaled at all
+     * @param directory directory of the snapshot and the log
+     * @param capacityRecords number of records the log holds, a snapshot is started once half of them are used
+     */
+    @Autowired
+    public IndexJournal(CourtIntervalIndex intervalIndex,
+                        PhoneNumberIndex phoneNumberIndex,
+                        @Value("${app.index-journal.enabled:false}") boolean enabled,
+                        @Value("${app.index-journal.directory:./data/index-journal}") Path directory,
+                        @Value("${app.index-journal.capacity-records:400000}") int capacityRecords) {
+        this(intervalIndex, phoneNumberIndex, enabled, directory, capacityRecords,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "index-journal-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * @param intervalIndex the index of booked intervals
+     * @param phoneNumberIndex the index of phone numbers
+     * @param enabled whether the indexes are journaled at all
+     * @param directory directory of the snapshot and the log
+     * @param capacityRecords number of records the log holds, a snapshot is started once half of them are used
+     * @param snapshotExecutor writes the snapshots started by a filling log
+     */
+    IndexJournal(CourtIntervalIndex intervalIndex, PhoneNumberIndex phoneNumberIndex, boolean enabled,
+                 Path directory, int capacityRecords, Executor snapshotExecutor) {
+        this.snapshotExecutor = snapshotExecutor;
+        this.intervalIndex = intervalIndex;
+        this.phoneNumberIndex = phoneNumberIndex;
+        this.enabled = enabled;
+        this.snapshotFile = directory.resolve("indexes.snapshot");
+        this.logFile = directory.resolve("indexes.log");
+        this.capacityRecords = capacityRecords;
+    }
+
+    /**
+     * Restores both indexes from the snapshot and the log, if there are any, marks them as warm,
+     * and starts journaling their changes. Runs before the services warm up their indexes from the database,
+     * so no change made after the warm-up goes unjournaled.
+     */
+    @PostConstruct
+    public synchronized void restore() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            boolean exists = Files.exists(snapshotFile);
+            Map<Long, CourtIntervalIndex.Interval> intervals = new LinkedHashMap<>();
+            Map<Long, Long> phones = new HashMap<>();
+            if (exists) {
+                readSnapshot(intervals, phones);
+            }
+            try (FileChannel channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                log = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacityRecords * RECORD_BYTES);
+            }
+            if (exists) {
+                replay(intervals, phones);
+                intervalIndex.rebuild(intervals.values());
+                phoneNumberIndex.rebuildEncoded(sink -> phones.forEach(sink::add));
+            }
+            intervalIndex.setListener(new IntervalListener());
+            phoneNumberIndex.setListener(new PhoneListener());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore the index journal in " + snapshotFile.getParent(), e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the warmed up indexes, a rebuild by the warm-up is not journaled record by record.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        snapshot();
+    }
+
+    /**
+     * Writes a snapshot if anything was journaled since the last one.
+     */
+    @Scheduled(fixedDelayString = "${app.index-journal.snapshot-millis:60000}")
+    public void snapshotIfDirty() {
+        if (enabled && log != null && isDirty()) {
+            snapshot();
+        }
+    }
+
+    private synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Waits for a snapshot in progress and writes a last one on shutdown, so the next start replays no log.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            try {
+                executorService.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        snapshotIfDirty();
+    }
+
+    /**
+     * Writes both indexes to a new snapshot, replacing the previous one atomically, and starts the log over.
+     * Writers go on meanwhile: the records appended while the snapshot is written may be missing from it,
+     * so they are kept in the log, moved to its start and to the generation of the new snapshot.
+     * Replaying a change the snapshot already holds is harmless.
+     */
+    void snapshot() {
+        synchronized (snapshotLock) {
+            int mark;
+            int next;
+            synchronized (this) {
+                mark = log.position();
+                next = generation + 1;
+                // changes dropped until now are in the index copied below
+                recordsDropped = false;
+            }
+            writeSnapshot(next);
+            synchronized (this) {
+                int end = log.position();
+                int kept = 0;
+                for (int start = mark; start < end; start += RECORD_BYTES, kept += RECORD_BYTES) {
+                    log.put(kept, log, start, RECORD_BYTES);
+                    log.putInt(kept + 1, next);
+                    log.putInt(kept + RECORD_BYTES - Integer.BYTES, checksum(kept));
+                }
+                // records of the previous generation left behind stop the replay
+                log.position(kept);
+                generation = next;
+                dirty = kept > 0;
+                snapshotRequested = false;
+                if (recordsDropped) {
+                    dirty = true;
+                    requestSnapshot();
+                }
+            }
+        }
+    }
+
+    private void writeSnapshot(int next) {
+        List<CourtIntervalIndex.Interval> intervals = new ArrayList<>(intervalIndex.size());
+        intervalIndex.forEach(intervals::add);
+        List<long[]> phones = new ArrayList<>(phoneNumberIndex.size());
+        phoneNumberIndex.forEachEncoded((phone, userId) -> phones.add(new long[]{phone, userId}));
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(next);
+            out.writeInt(intervals.size());
+            for (CourtIntervalIndex.Interval interval : intervals) {
+                out.writeLong(interval.id());
+                out.writeLong(interval.courtId());
+                out.writeLong(toNanos(interval.start()));
+                out.writeLong(toNanos(interval.end()));
+            }
+            out.writeInt(phones.size());
+            for (long[] phone : phones) {
+                out.writeLong(phone[0]);
+                out.writeLong(phone[1]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the index snapshot " + tmp, e);
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace the index snapshot " + snapshotFile, e);
+        }
+    }
+
+    private synchronized void append(byte type, long a, long b, long c, long d) {
+        if (log.remaining() < RECORD_BYTES) {
+            // the change is already applied to the index, so the next snapshot contains it
+            recordsDropped = true;
+            requestSnapshot();
+            return;
+        }
+        int start = log.position();
+        log.put(type).putInt(generation).putLong(a).putLong(b).putLong(c).putLong(d);
+        log.putInt(checksum(start));
+        dirty = true;
+        if (log.position() >= log.capacity() / 2) {
+            requestSnapshot();
+        }
+    }
+
+    /**
+     * Starts a snapshot on the snapshot executor unless one is already requested, must hold the monitor.
+     */
+    private void requestSnapshot() {
+        if (snapshotRequested) {
+            return;
+        }
+        snapshotRequested = true;
+        try {
+            snapshotExecutor.execute(this::snapshot);
+        } catch (RejectedExecutionException e) {
+            // shutting down, the last snapshot is written by close
+            snapshotRequested = false;
+        }
+    }
+
+    private int checksum(int start) {
+        CRC32 crc = new CRC32();
+        crc.update(log.slice(start, RECORD_BYTES - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    private void readSnapshot(Map<Long, CourtIntervalIndex.Interval> intervals, Map<Long, Long> phones)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not an index snapshot: " + snapshotFile);
+            }
+            generation = in.readInt();
+            for (int i = in.readInt(); i > 0; i--) {
+                CourtIntervalIndex.Interval interval = new CourtIntervalIndex.Interval(
+                        in.readLong(), in.readLong(), fromNanos(in.readLong()), fromNanos(in.readLong()));
+                intervals.put(interval.id(), interval);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                phones.put(in.readLong(), in.readLong());
+            }
+        }
+    }
+
+    /**
+     * Applies the records of the current generation, up to the first empty, stale or torn one,
+     * and leaves the log positioned after them.
+     */
+    private void replay(Map<Long, CourtIntervalIndex.Interval> intervals, Map<Long, Long> phones) {
+        while (log.remaining() >= RECORD_BYTES) {
+            int start = log.position();
+            byte type = log.get(start);
+            if (type == 0 || log.getInt(start + 1) != generation
+                    || log.getInt(start + RECORD_BYTES - Integer.BYTES) != checksum(start)) {
+                break;
+            }
+            long a = log.getLong(start + 5);
+            long b = log.getLong(start + 13);
+            long c = log.getLong(start + 21);
+            long d = log.getLong(start + 29);
+            switch (type) {
+                case INTERVAL_PUT -> intervals.put(a, new CourtIntervalIndex.Interval(a, b, fromNanos(c), fromNanos(d)));
+                case INTERVAL_REMOVE -> intervals.remove(a);
+                case INTERVAL_CLEAR -> intervals.clear();
+                case PHONE_PUT -> phones.put(a, b);
+                case PHONE_REMOVE -> phones.remove(a, b);
+                case PHONE_REMOVE_USER -> phones.entrySet()
+                        .removeIf(entry -> entry.getValue() == a && entry.getKey() != b);
+                case PHONE_CLEAR -> phones.clear();
+                default -> {
+                    return;
+                }
+            }
+            log.position(start + RECORD_BYTES);
+            dirty = true;
+        }
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private class IntervalListener implements CourtIntervalIndex.Listener {
+        @Override
+        public void put(CourtIntervalIndex.Interval interval) {
+            append(INTERVAL_PUT, interval.id(), interval.courtId(), toNanos(interval.start()), toNanos(interval.end()));
+        }
+
+        @Override
+        public void remove(long id) {
+            append(INTERVAL_REMOVE, id, 0, 0, 0);
+        }
+
+        @Override
+        public void clear() {
+            append(INTERVAL_CLEAR, 0, 0, 0, 0);
+        }
+    }
+
+    private class PhoneListener implements PhoneNumberIndex.Listener {
+        @Override
+        public void put(long phone, long userId) {
+            append(PHONE_PUT, phone, userId, 0, 0);
+        }
+
+        @Override
+        public void remove(long phone, long userId) {
+            append(PHONE_REMOVE, phone, userId, 0, 0);
+        }
+
+        @Override
+        public void removeUser(long userId, long keptPhone) {
+            append(PHONE_REMOVE_USER, userId, keptPhone, 0, 0);
+        }
+
+        @Override
+        public void clear() {
+            append(PHONE_CLEAR, 0, 0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package cz.xmerta.tennisclub.service.index;
+
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of user IDs by phone number. A phone number is {@code +} followed by 12 digits,
+ * so it is stored as a {@code long} in an open-addressing table with linear probing: two primitive arrays,
+ * no boxed keys, no strings and no entry objects, about 16 bytes per slot with the table kept at most 70 % full.
+ * Lookups are lock-free optimistic reads, writes take an exclusive lock.
+ */
+@Component
+public class PhoneNumberIndex implements MeterBinder {
+
+    /**
+     * Returned by lookups of a phone number no user has.
+     */
+    public static final long ABSENT = -1L;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final double MAX_LOAD = 0.7;
+    /**
+     * Marks a free slot, stored keys are the phone number plus one so that {@code +000000000000} is not mistaken for it.
+     */
+    private static final long FREE = 0L;
+
+    /**
+     * Receives the phone numbers and user IDs when the index is rebuilt.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void add(String phoneNumber, long userId);
+    }
+
+    /**
+     * Receives phone numbers in their numeric form, see {@link #encode(String)}.
+     */
+    @FunctionalInterface
+    interface EncodedSink {
+        void add(long phone, long userId);
+    }
+
+    /**
+     * Notified of every change of the index after it is applied, by the thread making the change,
+     * with phone numbers in their numeric form.
+     */
+    public interface Listener {
+        void put(long phone, long userId);
+
+        void remove(long phone, long userId);
+
+        /**
+         * @param keptPhone the phone number the user keeps, {@link #ABSENT} if none
+         */
+        void removeUser(long userId, long keptPhone);
+
+        void clear();
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void put(long phone, long userId) {
+        }
+
+        @Override
+        public void remove(long phone, long userId) {
+        }
+
+        @Override
+        public void removeUser(long userId, long keptPhone) {
+        }
+
+        @Override
+        public void clear() {
+        }
+    };
+
+    /**
+     * The arrays are replaced together on resize, so a reader always probes a consistent pair.
+     */
+    private record Table(long[] keys, long[] userIds, int shift) {
+
+        Table(int capacity) {
+            this(new long[capacity], new long[capacity], Long.numberOfLeadingZeros(capacity - 1L));
+        }
+
+        int home(long key) {
+            // Fibonacci hashing spreads consecutive phone numbers over the table
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        int mask() {
+            return keys.length - 1;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private Table table = new Table(MIN_CAPACITY);
+    private int size;
+    private volatile boolean warm = false;
+    private volatile Listener listener = NO_LISTENER;
+
+    /**
+     * Converts a phone number in the format enforced on {@code User} into its numeric form.
+     *
+     * @param phoneNumber the phone number, {@code +} followed by 12 digits
+     * @return the 12 digits as a number, or {@link #ABSENT} if the phone number is not in that format
+     */
+    public static long encode(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.length() != 13 || phoneNumber.charAt(0) != '+') {
+            return ABSENT;
+        }
+        long digits = 0;
+        for (int i = 1; i < 13; i++) {
+            char c = phoneNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return ABSENT;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+        return digits;
+    }
+
+    /**
+     * Replaces the whole content of the index and marks it as warm. Writes made meanwhile wait for the rebuild,
+     * so none of them is lost.
+     *
+     * @param source feeds the phone number and ID of every live user into the given sink
+     */
+    public void rebuild(Consumer<Sink> source) {
+        rebuildEncoded(sink -> source.accept((phoneNumber, userId) -> {
+            long phone = encode(phoneNumber);
+            if (phone != ABSENT) {
+                sink.add(phone, userId);
+            }
+        }));
+    }
+
+    /**
+     * Same as {@link #rebuild(Consumer)}, fed with numeric phone numbers. The listener is not notified,
+     * a rebuild replaces the content it was told about.
+     */
+    void rebuildEncoded(Consumer<EncodedSink> source) {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+            source.accept(this::putLocked);
+            warm = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param listener notified of every following change, replacing the previous listener
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Finds the user of the phone number.
+     *
+     * @param phoneNumber the phone number
+     * @return ID of the user, or {@link #ABSENT} if no user has the phone number
+     */
+    public long get(String phoneNumber) {
+        long phone = encode(phoneNumber);
+        long userId = phone == ABSENT ? ABSENT : get(phone);
+        (userId == ABSENT ? misses : hits).increment();
+        return userId;
+    }
+
+    private long get(long phone) {
+        long stamp = lock.tryOptimisticRead();
+        long userId = probe(table, phone + 1);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                userId = probe(table, phone + 1);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return userId;
+    }
+
+    private static long probe(Table table, long key) {
+        long[] keys = table.keys();
+        int mask = table.mask();
+        int slot = table.home(key);
+        // bounded, a concurrent writer may shift entries under an optimistic reader
+        for (int probes = 0; probes < keys.length; probes++) {
+            long stored = keys[slot];
+            if (stored == FREE) {
+                return ABSENT;
+            }
+            if (stored == key) {
+                return table.userIds()[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Adds or replaces the user of the phone number.
+     *
+     * @param phoneNumber the phone number, ignored if not in the format enforced on {@code User}
+     * @param userId the ID of the user
+     */
+    public void put(String phoneNumber, long userId) {
+        long phone = encode(phoneNumber);
+        if (phone != ABSENT) {
+            putEncoded(phone, userId);
+        }
+    }
+
+    private void putEncoded(long phone, long userId) {
+        long stamp = lock.writeLock();
+        try {
+            putLocked(phone, userId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        listener.put(phone, userId);
+    }
+
+    private void putLocked(long phone, long userId) {
+        if (size + 1 > table.keys().length * MAX_LOAD) {
+            resize(table.keys().length * 2);
+        }
+        long key = phone + 1;
+        long[] keys = table.keys();
+        int mask = table.mask();
+        int slot = table.home(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == FREE) {
+            size++;
+        }
+        table.userIds()[slot] = userId;
+        keys[slot] = key;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table grown = new Table(capacity);
+        int mask = grown.mask();
+        for (int i = 0; i < old.keys().length; i++) {
+            long key = old.keys()[i];
+            if (key != FREE) {
+                int slot = grown.home(key);
+                while (grown.keys()[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.keys()[slot] = key;
+                grown.userIds()[slot] = old.userIds()[i];
+            }
+        }
+        table = grown;
+    }
+
+    /**
+     * Removes the phone number if it still belongs to the given user.
+     *
+     * @param phoneNumber the phone number
+     * @param userId the ID of the user
+     */
+    public void remove(String phoneNumber, long userId) {
+        long phone = encode(phoneNumber);
+        if (phone != ABSENT) {
+            removeEncoded(phone, userId);
+        }
+    }
+
+    private void removeEncoded(long phone, long userId) {
+        boolean removed = false;
+        long stamp = lock.writeLock();
+        try {
+            long key = phone + 1;
+            long[] keys = table.keys();
+            int mask = table.mask();
+            for (int slot = table.home(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    if (table.userIds()[slot] == userId) {
+                        deleteAt(slot);
+                        removed = true;
+                    }
+                    break;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (removed) {
+            listener.remove(phone, userId);
+        }
+    }
+
+    /**
+     * Removes every phone number of the user. Scans the whole table, meant for the rare updates and deletes of users.
+     *
+     * @param userId the ID of the user
+     */
+    public void removeUser(long userId) {
+        removeUserExcept(userId, ABSENT);
+    }
+
+    /**
+     * Removes every phone number of the user but the given one, left behind when the user changed it.
+     * Scans the whole table like {@link #removeUser(long)}.
+     *
+     * @param userId the ID of the user
+     * @param phoneNumber the current phone number of the user
+     */
+    public void removeOtherPhoneNumbers(long userId, String phoneNumber) {
+        removeUserExcept(userId, encode(phoneNumber));
+    }
+
+    /**
+     * @param keptPhone numeric phone number the user keeps, {@link #ABSENT} to remove all of them
+     */
+    private void removeUserExcept(long userId, long keptPhone) {
+        long keptKey = keptPhone == ABSENT ? FREE : keptPhone + 1;
+        long stamp = lock.writeLock();
+        try {
+            long[] keys = table.keys();
+            int slot = 0;
+            while (slot < keys.length) {
+                if (keys[slot] != FREE && keys[slot] != keptKey && table.userIds()[slot] == userId) {
+                    // the slot is refilled by the shift, so it is checked again
+                    deleteAt(slot);
+                } else {
+                    slot++;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        listener.removeUser(userId, keptPhone);
+    }
+
+    /**
+     * Empties the slot by shifting back the following entries of its probe run, so no tombstones are needed.
+     */
+    private void deleteAt(int slot) {
+        long[] keys = table.keys();
+        long[] userIds = table.userIds();
+        int mask = table.mask();
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            int home = table.home(keys[i]);
+            // the entry may fill the hole unless its home lies cyclically after the hole
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                userIds[hole] = userIds[i];
+                hole = i;
+            }
+        }
+        keys[hole] = FREE;
+        userIds[hole] = 0;
+        size--;
+    }
+
+    /**
+     * Removes all phone numbers, the index stays warm.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        listener.clear();
+    }
+
+    /**
+     * Passes every indexed phone number in its numeric form to the sink, under the read lock.
+     */
+    void forEachEncoded(EncodedSink sink) {
+        long stamp = lock.readLock();
+        try {
+            long[] keys = table.keys();
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != FREE) {
+                    sink.add(keys[slot] - 1, table.userIds()[slot]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return true once the index was filled by {@link #rebuild(Consumer)}
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * @return sum of the user IDs of the indexed phone numbers
+     */
+    public long idSum() {
+        long[] sum = {0L};
+        forEachEncoded((phone, userId) -> sum[0] += userId);
+        return sum[0];
+    }
+
+    /**
+     * @return fingerprint of the indexed phone numbers and their users
+     */
+    public RowFingerprint fingerprint() {
+        long[] fingerprint = {0L, 0L};
+        forEachEncoded((phone, userId) -> {
+            fingerprint[0]++;
+            fingerprint[1] += RowFingerprint.hashPhone(userId, phone);
+        });
+        return new RowFingerprint(fingerprint[0], fingerprint[1]);
+    }
+
+    /**
+     * @return number of indexed phone numbers
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return number of slots of the table
+     */
+    public int capacity() {
+        long stamp = lock.readLock();
+        try {
+            return table.keys().length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.phone.index.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.phone.index.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("users.phone.index.size", this, PhoneNumberIndex::size)
+                .register(registry);
+    }
+}
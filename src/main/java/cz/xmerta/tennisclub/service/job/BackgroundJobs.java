@@ -0,0 +1,165 @@
+package cz.xmerta.tennisclub.service.job;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs long operations in the background, one at a time in the order they were submitted, and keeps
+ * their progress for polling. Only the most recent jobs are kept, and none survive a restart.
+ */
+@Component
+public class BackgroundJobs {
+
+    /**
+     * Progress a running job reports.
+     */
+    public interface Progress {
+
+        /**
+         * @param total number of items the job is going to process
+         */
+        void total(long total);
+
+        /**
+         * @param processed number of items processed since the last call
+         */
+        void advance(long processed);
+    }
+
+    private static final int MAX_KEPT = 100;
+
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Executor executor;
+
+    /**
+     * Creates jobs run by a single daemon thread.
+     */
+    @Autowired
+    public BackgroundJobs() {
+        this(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "background-jobs");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param executor runs the jobs
+     */
+    public BackgroundJobs(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a job. A job fails when the work throws anything, errors included, what it processed until then
+     * stays processed.
+     *
+     * @param type what the job does
+     * @param work the work of the job, reporting its progress
+     * @return the status of the submitted job
+     */
+    public JobStatus submit(String type, Consumer<Progress> work) {
+        forgetFinished();
+        Job job = new Job(ids.incrementAndGet(), type);
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, work));
+        return job.status();
+    }
+
+    private static void run(Job job, Consumer<Progress> work) {
+        job.state = JobStatus.State.RUNNING;
+        try {
+            work.accept(job);
+            job.finish(JobStatus.State.SUCCEEDED, null);
+        } catch (Throwable e) {
+            job.finish(JobStatus.State.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            // marked first, so an error killing the worker thread does not leave the job running forever
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * @param id the ID of the job
+     * @return the status of the job, or empty if it does not exist or was forgotten
+     */
+    public Optional<JobStatus> find(long id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::status);
+    }
+
+    /**
+     * Drops the oldest finished jobs once too many are kept.
+     */
+    private synchronized void forgetFinished() {
+        int excess = jobs.size() - MAX_KEPT + 1;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparingLong(job -> job.id))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    /**
+     * Stops the running job, the batches it already committed stay committed.
+     */
+    @PreDestroy
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static final class Job implements Progress {
+
+        private final long id;
+        private final String type;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private volatile Long total;
+        private volatile JobStatus.State state = JobStatus.State.QUEUED;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(long id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        @Override
+        public void total(long total) {
+            this.total = total;
+        }
+
+        @Override
+        public void advance(long processed) {
+            this.processed.addAndGet(processed);
+        }
+
+        private void finish(JobStatus.State state, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        private JobStatus status() {
+            return new JobStatus(id, type, state, processed.get(), total, error, submittedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package cz.xmerta.tennisclub.service.job;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of a background job.
+ *
+ * @param id the ID the job is polled by
+ * @param type what the job does
+ * @param state whether the job waits, runs or has finished
+ * @param processed number of items processed so far
+ * @param total number of items to process, null until the job knows it
+ * @param error reason of the failure, null unless failed
+ * @param submittedAt when the job was submitted
+ * @param finishedAt when the job finished, null while it waits or runs
+ */
+public record JobStatus(long id, String type, State state, long processed, Long total, String error,
+                        LocalDateTime submittedAt, LocalDateTime finishedAt) {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
@@ -0,0 +1,60 @@
+package cz.xmerta.tennisclub.service.job;
+
+import cz.xmerta.tennisclub.service.ReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Deletes all reservations in the background, in batches of consecutive IDs each committed on its own,
+ * so bookings of other slots are never blocked for longer than one batch.
+ * The reservations existing when the job is started are deleted, later bookings are kept.
+ */
+@Component
+public class ReservationDeleteAllJob {
+
+    static final String TYPE = "reservations.delete-all";
+
+    private final BackgroundJobs backgroundJobs;
+    private final ReservationService reservationService;
+    private final int batchSize;
+
+    /**
+     * @param backgroundJobs runs the job
+     * @param reservationService the service deleting the batches
+     * @param batchSize maximum number of reservations deleted in one transaction
+     */
+    public ReservationDeleteAllJob(BackgroundJobs backgroundJobs, ReservationService reservationService,
+                                   @Value("${app.reservations.delete-batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Delete batch size must be positive: " + batchSize);
+        }
+        this.backgroundJobs = backgroundJobs;
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Starts deleting the reservations that exist now.
+     *
+     * @return the status of the started job
+     */
+    public JobStatus start() {
+        long upToId = reservationService.getLastReservationId();
+        return backgroundJobs.submit(TYPE, progress -> deleteUpTo(upToId, progress));
+    }
+
+    private void deleteUpTo(long upToId, BackgroundJobs.Progress progress) {
+        progress.total(reservationService.countReservationsUpTo(upToId));
+        long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = reservationService.deleteBatch(afterId, upToId, batchSize);
+            progress.advance(ids.size());
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+    }
+}
@@ -0,0 +1,115 @@
+package cz.xmerta.tennisclub.service.lock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks serializing bookings of the same court. Courts are spread over a fixed number of locks,
+ * so bookings of different courts mostly run in parallel while memory stays bounded.
+ * Inside a transaction the lock is held until the transaction completes, so a competing booking
+ * validates only after the committed reservation is visible.
+ */
+@Component
+public class CourtLocks {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Creates locks with the default number of stripes.
+     */
+    public CourtLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripeCount number of locks the courts are spread over
+     */
+    @Autowired
+    public CourtLocks(@Value("${app.reservations.lock-stripes:64}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Number of lock stripes must be positive: " + stripeCount);
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the lock of the court. Within an active transaction the lock is released
+     * after the transaction commits or rolls back, otherwise right after the action.
+     *
+     * @param courtId the ID of the court
+     * @param action the critical section
+     * @return result of the action
+     */
+    public <T> T callLocked(long courtId, Supplier<T> action) {
+        return callLocked(List.of(courtId), action);
+    }
+
+    /**
+     * Runs the action while holding the locks of all given courts. Locks are taken in stripe order,
+     * so two callers locking overlapping sets of courts cannot deadlock.
+     *
+     * @param courtIds the IDs of the courts
+     * @param action the critical section
+     * @return result of the action
+     */
+    public <T> T callLocked(Collection<Long> courtIds, Supplier<T> action) {
+        return runLocked(courtIds.stream()
+                .map(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .map(index -> stripes[index])
+                .toList(), action);
+    }
+
+    /**
+     * Runs the action while holding the locks of all courts, existing or not, for changes spanning any courts.
+     *
+     * @param action the critical section
+     * @return result of the action
+     */
+    public <T> T callLockedAll(Supplier<T> action) {
+        return runLocked(List.of(stripes), action);
+    }
+
+    private <T> T runLocked(List<ReentrantLock> locks, Supplier<T> action) {
+        locks.forEach(ReentrantLock::lock);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    locks.forEach(ReentrantLock::unlock);
+                }
+            });
+            return action.get();
+        }
+        try {
+            return action.get();
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * @return true if the current thread holds the lock of the court
+     */
+    public boolean isHeldByCurrentThread(long courtId) {
+        return stripes[stripeIndex(courtId)].isHeldByCurrentThread();
+    }
+
+    private int stripeIndex(long courtId) {
+        return Math.floorMod(Long.hashCode(courtId) * 0x9E3779B9, stripes.length);
+    }
+}
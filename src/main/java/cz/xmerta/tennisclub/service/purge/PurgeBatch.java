@@ -0,0 +1,11 @@
+package cz.xmerta.tennisclub.service.purge;
+
+/**
+ * Outcome of purging one batch of a table.
+ *
+ * @param scanned number of purgeable rows found, less than the batch size once the table is done
+ * @param purged number of rows deleted
+ * @param lastId ID the next batch continues after
+ */
+public record PurgeBatch(int scanned, int purged, long lastId) {
+}
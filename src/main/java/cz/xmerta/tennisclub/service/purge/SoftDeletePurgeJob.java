@@ -0,0 +1,112 @@
+package cz.xmerta.tennisclub.service.purge;
+
+import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.dao.PurgeableDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically hard-deletes rows that were soft-deleted longer than the retention ago. Tables are purged
+ * referencing ones first (reservations, series, then users, courts and surface types), and a row is purged
+ * only once no other row references it, so foreign keys always hold.
+ * Purged reservations left the index and the read model when they were deleted.
+ */
+@Component
+public class SoftDeletePurgeJob implements MeterBinder {
+
+    private record Table(String name, PurgeableDao dao, LongAdder purged) {
+    }
+
+    private final SoftDeletePurgeService purgeService;
+    private final List<Table> tables;
+    private final Duration retention;
+    private final int batchSize;
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    /**
+     * @param purgeService the service purging the batches
+     * @param reservationDao the DAO of the reservations, purged first
+     * @param reservationSeriesDao the DAO of the series, purged once their reservations are
+     * @param userDao the DAO of the users
+     * @param courtDao the DAO of the courts
+     * @param surfaceTypeDao the DAO of the surface types, purged once their courts are
+     * @param retentionDays how many days soft-deleted rows are kept
+     * @param batchSize maximum number of rows purged in one transaction
+     */
+    public SoftDeletePurgeJob(SoftDeletePurgeService purgeService, ReservationDao reservationDao,
+                              ReservationSeriesDao reservationSeriesDao, UserDao userDao, CourtDao courtDao,
+                              SurfaceTypeDao surfaceTypeDao,
+                              @Value("${app.purge.retention-days:30}") long retentionDays,
+                              @Value("${app.purge.batch-size:500}") int batchSize) {
+        if (retentionDays < 0) {
+            throw new IllegalArgumentException("Purge retention must not be negative: " + retentionDays);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Purge batch size must be positive: " + batchSize);
+        }
+        this.purgeService = purgeService;
+        this.tables = List.of(
+                new Table("reservations", reservationDao, new LongAdder()),
+                new Table("reservation_series", reservationSeriesDao, new LongAdder()),
+                new Table("users", userDao, new LongAdder()),
+                new Table("courts", courtDao, new LongAdder()),
+                new Table("surface_types", surfaceTypeDao, new LongAdder()));
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Purges all rows deleted before the retention, table by table in batches.
+     *
+     * @return number of purged rows
+     */
+    @Scheduled(fixedDelayString = "${app.purge.interval-millis:3600000}",
+            initialDelayString = "${app.purge.interval-millis:3600000}")
+    public long purge() {
+        long started = System.nanoTime();
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(retention);
+        long total = 0;
+        try {
+            for (Table table : tables) {
+                PurgeBatch batch = new PurgeBatch(0, 0, 0L);
+                do {
+                    batch = purgeService.purgeBatch(table.dao(), deletedBefore, batch.lastId(), batchSize);
+                    table.purged().add(batch.purged());
+                    total += batch.purged();
+                } while (batch.scanned() == batchSize);
+            }
+        } finally {
+            runs.increment();
+            runNanos.add(System.nanoTime() - started);
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Table table : tables) {
+            FunctionCounter.builder("purge.rows", table.purged(), LongAdder::sum)
+                    .tag("table", table.name())
+                    .register(registry);
+        }
+        FunctionTimer.builder("purge.runs", this, job -> job.runs.sum(), job -> job.runNanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+}
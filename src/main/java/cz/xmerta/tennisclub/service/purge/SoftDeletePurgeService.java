@@ -0,0 +1,36 @@
+package cz.xmerta.tennisclub.service.purge;
+
+import cz.xmerta.tennisclub.storage.dao.PurgeableDao;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hard-deletes soft-deleted rows, one bounded batch per transaction, so the purge never holds
+ * locks on many rows at once.
+ */
+@Service
+@Transactional
+public class SoftDeletePurgeService {
+
+    /**
+     * Purges the next batch of rows of one table, seeking past the last ID of the previous batch
+     * instead of rescanning rows that are still referenced.
+     *
+     * @param dao the DAO of the purged table
+     * @param deletedBefore rows deleted at or after this time are kept
+     * @param afterId the last ID of the previous batch, 0 for the first one
+     * @param batchSize maximum number of rows purged
+     * @return the outcome of the batch
+     */
+    public PurgeBatch purgeBatch(PurgeableDao dao, LocalDateTime deletedBefore, long afterId, int batchSize) {
+        List<Long> ids = dao.findPurgeableIds(deletedBefore, afterId, batchSize);
+        if (ids.isEmpty()) {
+            return new PurgeBatch(0, 0, afterId);
+        }
+        int purged = dao.purge(ids);
+        return new PurgeBatch(ids.size(), purged, ids.get(ids.size() - 1));
+    }
+}
@@ -0,0 +1,196 @@
+package cz.xmerta.tennisclub.service.readmodel;
+
+import cz.xmerta.tennisclub.service.event.AllReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.GameType;
+import cz.xmerta.tennisclub.storage.model.User;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the reservations: in-memory projections of the reservations per court and per user,
+ * sorted by start time. They are filled from the database once and then kept up to date by the events
+ * the write side publishes, applied after their transaction commits, so listings neither query the database
+ * nor load entities into a persistence context.
+ * <p>
+ * Names and phone numbers of users are kept apart from the reservations and joined when a listing is read,
+ * so renaming a user updates all their reservations at once.
+ */
+@Component
+public class ReservationReadModel {
+
+    private record Row(long id, long userId, long courtId, LocalDateTime startTime, LocalDateTime endTime,
+                       GameType gameType, double price) {
+    }
+
+    private record UserRow(String phoneNumber, String name) {
+    }
+
+    private static final Comparator<Row> BY_START = Comparator.comparing(Row::startTime).thenComparingLong(Row::id);
+
+    private final ReservationDao reservationDao;
+    private final UserDao userDao;
+
+    private final Map<Long, Row> rowsById = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Row>> rowsByCourt = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Row>> rowsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, UserRow> users = new ConcurrentHashMap<>();
+    private volatile boolean warm = false;
+
+    /**
+     * @param reservationDao the DAO the projections are filled from
+     * @param userDao the DAO users are filled from, including those without reservations
+     */
+    public ReservationReadModel(ReservationDao reservationDao, UserDao userDao) {
+        this.reservationDao = reservationDao;
+        this.userDao = userDao;
+    }
+
+    /**
+     * Fills the projections from the database once the application context is ready.
+     * Until then the listings are read from the database.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void warmUp() {
+        if (warm) {
+            return;
+        }
+        clearReservations();
+        users.clear();
+        for (User user : userDao.findAll()) {
+            users.put(user.getId(), new UserRow(user.getPhoneNumber(), user.getName()));
+        }
+        for (ReservationView view : reservationDao.findAllViews()) {
+            // reservations of deleted users stay listed
+            users.putIfAbsent(view.userId(), new UserRow(view.phoneNumber(), view.userName()));
+            put(new Row(view.id(), view.userId(), view.courtId(), view.startTime(), view.endTime(),
+                    view.gameType(), view.price()));
+        }
+        warm = true;
+    }
+
+    /**
+     * @return true once the projections were filled by {@link #warmUp()}
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Adds the saved reservations, replacing their previous state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(ReservationsSavedEvent event) {
+        for (ReservationsSavedEvent.Item item : event.reservations()) {
+            put(new Row(item.id(), item.userId(), item.courtId(), item.startTime(), item.endTime(),
+                    item.gameType(), item.price()));
+        }
+    }
+
+    /**
+     * Removes the deleted reservations.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(ReservationsDeletedEvent event) {
+        event.ids().forEach(this::remove);
+    }
+
+    /**
+     * Removes all reservations, users are kept.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(AllReservationsDeletedEvent event) {
+        clearReservations();
+    }
+
+    /**
+     * Updates the name and phone number listed with the reservations of the user.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserSavedEvent event) {
+        users.put(event.userId(), new UserRow(event.phoneNumber(), event.name()));
+    }
+
+    /**
+     * Lists the reservations of a court, ordered by start time.
+     *
+     * @param courtId the ID of the court
+     * @return views of the reservations of the court
+     */
+    public List<ReservationView> findByCourtId(long courtId) {
+        return toViews(rowsByCourt.get(courtId), null);
+    }
+
+    /**
+     * Lists the reservations of a user, ordered by start time.
+     *
+     * @param userId the ID of the user
+     * @param endsAfter when not null, only reservations ending after this time are listed
+     * @return views of the reservations of the user
+     */
+    public List<ReservationView> findByUserId(long userId, LocalDateTime endsAfter) {
+        return toViews(rowsByUser.get(userId), endsAfter);
+    }
+
+    /**
+     * @return number of projected reservations
+     */
+    public int size() {
+        return rowsById.size();
+    }
+
+    private List<ReservationView> toViews(Collection<Row> rows, LocalDateTime endsAfter) {
+        if (rows == null) {
+            return List.of();
+        }
+        return rows.stream()
+                .filter(row -> endsAfter == null || row.endTime().isAfter(endsAfter))
+                .map(this::toView)
+                .collect(Collectors.toList());
+    }
+
+    private ReservationView toView(Row row) {
+        UserRow user = users.get(row.userId());
+        return new ReservationView(row.id(), row.userId(),
+                user == null ? null : user.phoneNumber(), user == null ? null : user.name(),
+                row.courtId(), row.startTime(), row.endTime(), row.gameType(), row.price());
+    }
+
+    private void put(Row row) {
+        remove(row.id());
+        rowsById.put(row.id(), row);
+        rowsByCourt.computeIfAbsent(row.courtId(), courtId -> new ConcurrentSkipListSet<>(BY_START)).add(row);
+        rowsByUser.computeIfAbsent(row.userId(), userId -> new ConcurrentSkipListSet<>(BY_START)).add(row);
+    }
+
+    private void remove(long id) {
+        Row previous = rowsById.remove(id);
+        if (previous != null) {
+            rowsByCourt.get(previous.courtId()).remove(previous);
+            rowsByUser.get(previous.userId()).remove(previous);
+        }
+    }
+
+    private void clearReservations() {
+        rowsById.clear();
+        rowsByCourt.clear();
+        rowsByUser.clear();
+    }
+}
@@ -8,6 +8,17 @@ public interface DataAccessObject<E> {
 
     Collection<E> findAll();
 
+    /**
+     * Lists live entities in pages, each page continues right after the cursor of the previous one
+     * instead of skipping an offset, so deep pages cost as much as the first one.
+     *
+     * @param cursor the next-page cursor of the previous page, null for the first page
+     * @param limit the page size
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is out of range
+     */
+    KeysetPage<E> findPage(String cursor, int limit);
+
     Optional<E> findById(Long id);
 
     void deleteById(Long id);
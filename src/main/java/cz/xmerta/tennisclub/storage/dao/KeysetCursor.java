@@ -0,0 +1,78 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes the position of the last row of a page into an opaque cursor, either its ID
+ * or its (start time, ID) pair.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Position in a listing ordered by start time and ID.
+     */
+    public record TimeAndId(LocalDateTime time, long id) {
+    }
+
+    public static String encode(long id) {
+        return encodeText(Long.toString(id));
+    }
+
+    public static String encode(LocalDateTime time, long id) {
+        return encodeText(time + "|" + id);
+    }
+
+    /**
+     * @param cursor cursor created by {@link #encode(long)}
+     * @return the ID the next page starts after
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(decodeText(cursor));
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    /**
+     * @param cursor cursor created by {@link #encode(LocalDateTime, long)}
+     * @return the position the next page starts after
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TimeAndId decodeTimeAndId(String cursor) {
+        String text = decodeText(cursor);
+        int separator = text.indexOf('|');
+        if (separator < 0) {
+            throw invalid(cursor);
+        }
+        try {
+            return new TimeAndId(LocalDateTime.parse(text.substring(0, separator)),
+                    Long.parseLong(text.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static String encodeText(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeText(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,43 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) paginated listing.
+ *
+ * @param items the entities of the page
+ * @param nextCursor opaque cursor of the next page, null on the last page
+ * @param <E> type of the entities
+ */
+public record KeysetPage<E>(List<E> items, String nextCursor) {
+
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Creates a page from a result fetched with one row more than the limit, the extra row only tells
+     * whether a next page exists.
+     *
+     * @param fetched up to limit + 1 entities in the listing order
+     * @param limit the page size
+     * @param cursorOf creates the cursor pointing after the given entity
+     * @return the page
+     */
+    public static <E> KeysetPage<E> of(List<E> fetched, int limit, Function<E, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<E> items = fetched.subList(0, limit);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * @param limit requested page size
+     * @throws IllegalArgumentException if the page size is out of range
+     */
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO whose soft-deleted rows can be removed for good once nothing references them any more.
+ */
+public interface PurgeableDao {
+
+    /**
+     * Finds rows deleted before the given time that no other row references, ordered by ID.
+     *
+     * @param deletedBefore rows deleted at or after this time are kept
+     * @param afterId only IDs greater than this are returned, the last ID of the previous batch
+     * @param limit maximum number of IDs returned
+     * @return IDs of the rows that can be purged
+     */
+    List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit);
+
+    /**
+     * Hard-deletes the rows that are still soft-deleted, a row revived in the meantime is kept.
+     *
+     * @param ids the IDs found by {@link #findPurgeableIds(LocalDateTime, long, int)}
+     * @return number of deleted rows
+     */
+    int purge(Collection<Long> ids);
+}
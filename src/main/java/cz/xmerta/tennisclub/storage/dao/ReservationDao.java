@@ -1,73 +1,179 @@
 package cz.xmerta.tennisclub.storage.dao;
 
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
 import cz.xmerta.tennisclub.storage.model.Reservation;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
-@Repository
-public class ReservationDao implements DataAccessObject<Reservation> {
+/**
+ * Storage of reservations, backed by JPA or, under the {@code inmemory} profile, by the in-memory database.
+ */
+public interface ReservationDao extends DataAccessObject<Reservation>, PurgeableDao {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Override
+    List<Reservation> findAll();
 
-    public ReservationDao(EntityManager entityManager) {
-        this.entityManager = entityManager;
-    }
+    /**
+     * Saves new reservations together.
+     *
+     * @param reservations the new reservations
+     * @return the persisted reservations
+     */
+    List<Reservation> saveAll(List<Reservation> reservations);
 
-    @Override
-    public Reservation save(Reservation reservation) {
-        if (reservation.getId() == null) {
-            entityManager.persist(reservation);
-        } else {
-            reservation = entityManager.merge(reservation);
-        }
-        return reservation;
-    }
+    /**
+     * Same as {@link #findPage(String, int)}, selecting read-only views instead of entities.
+     */
+    KeysetPage<ReservationView> findViewPage(String cursor, int limit);
 
-    @Override
-    public Optional<Reservation> findById(Long id) {
-        return entityManager.createQuery(
-                        "SELECT r FROM Reservation r WHERE r.id = :id AND r.isDeleted = false", Reservation.class)
-                .setParameter("id", id)
-                .getResultStream()
-                .findFirst();
-    }
+    KeysetPage<ReservationView> findViewPageByCourtId(Long courtId, String cursor, int limit);
 
-    @Override
-    public List<Reservation> findAll() {
-        return entityManager.createQuery(
-                        "SELECT r FROM Reservation r WHERE r.isDeleted = false", Reservation.class)
-                .getResultList();
-    }
+    /**
+     * @param endsAfter when not null, only reservations ending after this time are listed
+     */
+    KeysetPage<ReservationView> findViewPageByUserId(Long userId, LocalDateTime endsAfter, String cursor, int limit);
 
-    @Override
-    public void deleteById(Long id) {
-        entityManager.createQuery("UPDATE Reservation r SET r.isDeleted = true WHERE r.id = :id")
-                .setParameter("id", id)
-                .executeUpdate();
-    }
+    Optional<ReservationView> findViewById(Long id);
 
-    @Override
-    public void deleteAll() {
-        entityManager.createQuery("UPDATE Reservation r SET r.isDeleted = true")
-                .executeUpdate();
-    }
-
-    public List<Reservation> findByCourtId(Long courtId) {
-        return entityManager.createQuery(
-                        "SELECT r FROM Reservation r WHERE r.court.id = :courtId AND r.isDeleted = false", Reservation.class)
-                .setParameter("courtId", courtId)
-                .getResultList();
-    }
-
-    public List<Reservation> findByUserId(Long userId) {
-        return entityManager.createQuery(
-                        "SELECT r FROM Reservation r WHERE r.user.id = :userId AND r.isDeleted = false", Reservation.class)
-                .setParameter("userId", userId)
-                .getResultList();
-    }
+    List<ReservationView> findAllViews();
+
+    /**
+     * @return the highest ID of any reservation, live or deleted, 0 if there is none
+     */
+    long findMaxId();
+
+    /**
+     * @return fingerprint of the court, start and end of the live reservations,
+     *         matching {@link RowFingerprint#hashInterval(long, long, long, long)}
+     */
+    RowFingerprint findLiveFingerprint();
+
+    /**
+     * @param upToId the highest counted ID
+     * @return number of live reservations with an ID up to the given one
+     */
+    long countLiveUpTo(long upToId);
+
+    /**
+     * Finds the next live reservations of the ID range (afterId, upToId], served by the primary key.
+     *
+     * @param afterId only IDs greater than this are returned, the last ID of the previous batch
+     * @param upToId the highest returned ID
+     * @param limit maximum number of IDs returned
+     * @return IDs of the live reservations, ordered
+     */
+    List<Long> findLiveIdsInRange(long afterId, long upToId, int limit);
+
+    /**
+     * Soft-deletes the live reservations with the given IDs.
+     *
+     * @param ids the IDs of the reservations
+     * @return number of deleted reservations
+     */
+    int deleteByIds(Collection<Long> ids);
+
+    List<Long> findIdsBySeriesId(Long seriesId);
+
+    void deleteBySeriesId(Long seriesId);
+
+    /**
+     * Streams live reservations intersecting [from, to) ordered by start time and ID, without materializing
+     * the whole result.
+     *
+     * @param from start of the window, null for no lower bound
+     * @param to end of the window, null for no upper bound
+     * @param action called for every reservation, in order
+     */
+    void forEachInRange(LocalDateTime from, LocalDateTime to, Consumer<Reservation> action);
+
+    /**
+     * Finds the reservations of the user that have not ended yet, served by the user/end time index,
+     * so the past reservations of a frequent player are never read.
+     *
+     * @param userId the ID of the user
+     * @param now reservations ending at or before this time are left out
+     * @return views of the upcoming reservations of the user, ordered by start time
+     */
+    List<ReservationView> findUpcomingByUserId(Long userId, LocalDateTime now);
+
+    List<ReservationView> findViewsByCourtId(Long courtId);
+
+    /**
+     * @param endsAfter when not null, only reservations ending after this time are listed
+     * @return views of the reservations of the user, ordered by start time and ID like the read model
+     */
+    List<ReservationView> findViewsByUserId(Long userId, LocalDateTime endsAfter);
+
+    /**
+     * Finds a reservation of the court which overlaps [start, end), served by the court/time index.
+     *
+     * @param courtId the ID of the court
+     * @param start start of the checked interval
+     * @param end end of the checked interval
+     * @param excludeId ID of the reservation being updated, null for a new one
+     * @return ID of an overlapping reservation, or empty if the interval is free
+     */
+    Optional<Long> findOverlapping(Long courtId, LocalDateTime start, LocalDateTime end, Long excludeId);
+
+    /**
+     * Lists the booked intervals of every live court that intersect [from, to), ordered by court and start time,
+     * in a single query. A court with no reservation in the window is returned once with null times.
+     *
+     * @param from start of the window
+     * @param to end of the window
+     * @return booked intervals sorted by court ID and start time
+     */
+    List<BookedInterval> findCourtOccupancy(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams the court and time of every live reservation, without loading the reservations.
+     *
+     * @param action called for every reservation
+     */
+    void forEachBookedInterval(Consumer<BookedInterval> action);
+
+    /**
+     * Lists the booked intervals of the given courts that intersect [from, to), ordered by court and start time.
+     *
+     * @param courtIds the IDs of the courts
+     * @param from start of the window
+     * @param to end of the window
+     * @return booked intervals sorted by court ID and start time
+     */
+    List<BookedInterval> findBookedIntervals(Collection<Long> courtIds, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the next live reservations that ended before the cutoff, seeking by the primary key past the previous
+     * batch, so no batch scans the rows an earlier one already passed. Deleted reservations are left to the purge.
+     *
+     * @param cutoff reservations ending at or after this time are left out
+     * @param afterId only IDs greater than this are returned, the last ID of the previous batch
+     * @param limit maximum number of IDs returned
+     * @return IDs of the reservations due for the archive, ordered
+     */
+    List<Long> findIdsEndedBefore(LocalDateTime cutoff, long afterId, int limit);
+
+    /**
+     * Moves the live reservations into the archive. A reservation deleted since it was found stays for the purge.
+     *
+     * @param ids the IDs of the reservations to archive
+     * @param archivedAt the time recorded with the archived rows
+     * @return number of archived reservations
+     */
+    int archive(Collection<Long> ids, LocalDateTime archivedAt);
+
+    /**
+     * Lists the archived, not deleted reservations of the user as views, ordered by start time.
+     * Served by the user/start time index of the archive, the {@code reservations} table is not read.
+     *
+     * @param userId the ID of the user
+     * @return views of the archived reservations of the user
+     */
+    List<ReservationView> findArchivedViewsByUserId(Long userId);
 }
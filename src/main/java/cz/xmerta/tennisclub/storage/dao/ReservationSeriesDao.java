@@ -0,0 +1,9 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import cz.xmerta.tennisclub.storage.model.ReservationSeries;
+
+/**
+ * Storage of reservation, backed by JPA or, under the {@code inmemory} profile, by the in-memory database.
+ */
+public interface ReservationSeriesDao extends DataAccessObject<ReservationSeries>, PurgeableDao {
+}
@@ -1,70 +1,30 @@
 package cz.xmerta.tennisclub.storage.dao;
 
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import org.springframework.stereotype.Repository;
 
-import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-@Repository
-public class SurfaceTypeDao implements DataAccessObject<SurfaceType> {
+/**
+ * Storage of surface, backed by JPA or, under the {@code inmemory} profile, by the in-memory database.
+ */
+public interface SurfaceTypeDao extends DataAccessObject<SurfaceType>, PurgeableDao {
 
-    @PersistenceContext
-    private EntityManager entityManager;
-
-    public SurfaceTypeDao(EntityManager entityManager) {
-        this.entityManager = entityManager;
-    }
-
-    @Override
-    public SurfaceType save(SurfaceType surfaceType) {
-        if (surfaceType.getId() == null) {
-            entityManager.persist(surfaceType);
-        } else {
-            surfaceType = entityManager.merge(surfaceType);
-        }
-        return surfaceType;
-    }
-
-    @Override
-    public Collection<SurfaceType> findAll() {
-        return entityManager.createQuery("SELECT s FROM SurfaceType s WHERE s.isDeleted = false", SurfaceType.class)
-                .getResultList();
-    }
-
-    @Override
-    public Optional<SurfaceType> findById(Long id) {
-        return entityManager.createQuery("SELECT s FROM SurfaceType s WHERE s.id = :id AND s.isDeleted = false", SurfaceType.class)
-                .setParameter("id", id)
-                .getResultStream()
-                .findFirst();
-    }
-
-    @Override
-    public void deleteById(Long id) {
-        entityManager.createQuery("UPDATE SurfaceType s SET s.isDeleted = true WHERE s.id = :id")
-                .setParameter("id", id)
-                .executeUpdate();
-    }
+    /**
+     * Selects the live surface types straight into read-only views.
+     */
+    List<SurfaceTypeView> findAllViews();
 
-    @Override
-    public void deleteAll() {
-        entityManager.createQuery("UPDATE SurfaceType s SET s.isDeleted = true")
-                .executeUpdate();
-    }
+    /**
+     * Same as {@link #findPage(String, int)}, selecting read-only views instead of entities.
+     */
+    KeysetPage<SurfaceTypeView> findViewPage(String cursor, int limit);
 
     /**
      * Added for optimalization.
      * @param name
      * @return
      */
-    public Optional<SurfaceType> findByName(String name) {
-        return entityManager.createQuery(
-                        "SELECT s FROM SurfaceType s WHERE s.name = :name AND s.isDeleted = false", SurfaceType.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
-    }
-}
\ No newline at end of file
+    Optional<SurfaceType> findByName(String name);
+}
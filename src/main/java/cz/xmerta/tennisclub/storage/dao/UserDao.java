@@ -1,68 +1,44 @@
 package cz.xmerta.tennisclub.storage.dao;
 
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
 import cz.xmerta.tennisclub.storage.model.User;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import org.springframework.stereotype.Repository;
 
-import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
-
-@Repository
-public class UserDao implements DataAccessObject<User> {
-
-    @PersistenceContext
-    private EntityManager entityManager;
-
-    public UserDao(EntityManager entityManager) {
-        this.entityManager = entityManager;
-    }
-
-    @Override
-    public User save(User user) {
-        if (user.getId() == null) {
-            entityManager.persist(user);
-        } else {
-            user = entityManager.merge(user);
-        }
-        return user;
-    }
-
-    @Override
-    public Collection<User> findAll() {
-        return entityManager.createQuery(
-                        "SELECT u FROM User u WHERE u.isDeleted = false", User.class)
-                .getResultList();
-    }
-
-    @Override
-    public Optional<User> findById(Long id) {
-        return entityManager.createQuery(
-                        "SELECT u FROM User u WHERE u.id = :id AND u.isDeleted = false", User.class)
-                .setParameter("id", id)
-                .getResultStream()
-                .findFirst();
-    }
-
-    @Override
-    public void deleteById(Long id) {
-        entityManager.createQuery("UPDATE User u SET u.isDeleted = true WHERE u.id = :id")
-                .setParameter("id", id)
-                .executeUpdate();
-    }
-
-    @Override
-    public void deleteAll() {
-        entityManager.createQuery("UPDATE User u SET u.isDeleted = true")
-                .executeUpdate();
-    }
-
-    public Optional<User> findByPhoneNumber(String phoneNumber) {
-        List<User> result = entityManager.createQuery(
-                        "SELECT u FROM User u WHERE u.phoneNumber = :phoneNumber AND u.isDeleted = false", User.class)
-                .setParameter("phoneNumber", phoneNumber)
-                .getResultList();
-        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
-    }
-}
\ No newline at end of file
+import java.util.function.BiConsumer;
+
+/**
+ * Storage of users, backed by JPA or, under the {@code inmemory} profile, by the in-memory database.
+ */
+public interface UserDao extends DataAccessObject<User>, PurgeableDao {
+
+    Optional<User> findByPhoneNumber(String phoneNumber);
+
+    /**
+     * @param id the ID of a live user
+     * @return a reference to the user, loaded only once something other than its ID is read
+     */
+    User getReference(Long id);
+
+    /**
+     * @return fingerprint of the phone numbers of the live users,
+     *         matching {@link RowFingerprint#hashPhone(long, long)}
+     */
+    RowFingerprint findLiveFingerprint();
+
+    /**
+     * Streams the phone number and ID of every live user, without loading the users.
+     *
+     * @param action called for every user
+     */
+    void forEachPhoneNumber(BiConsumer<String, Long> action);
+
+    /**
+     * Finds the live user with the phone number or creates it. A soft-deleted user with the phone number
+     * is revived under the given name.
+     *
+     * @param phoneNumber the phone number of the user
+     * @param name the name of the user, used only if it is created or revived
+     * @return ID of the user
+     */
+    long upsertByPhoneNumber(String phoneNumber, String name);
+}
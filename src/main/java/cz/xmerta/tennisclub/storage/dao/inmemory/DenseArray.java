@@ -0,0 +1,79 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Map keyed by sequence-generated IDs, stored as an array indexed by the ID itself. The IDs are dense,
+ * so no key is hashed or boxed. The array doubles only for a key within its next doubling, as sequential
+ * IDs are, and never beyond {@link #MAX_DENSE_KEYS} slots. Any other key goes to an ordered overflow map,
+ * so a single large ID cannot allocate an array reaching up to it.
+ * Not thread-safe, guarded by the lock of the {@link InMemoryDatabase}.
+ *
+ * @param <V> type of the values
+ */
+final class DenseArray<V> {
+
+    static final int MAX_DENSE_KEYS = 1 << 24;
+
+    private Object[] values = new Object[64];
+    private final NavigableMap<Long, V> overflow = new TreeMap<>();
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key >= 0 && key < values.length) {
+            return (V) values[(int) key];
+        }
+        return overflow.isEmpty() ? null : overflow.get(key);
+    }
+
+    /**
+     * @param value the value, null removes the key
+     */
+    void set(long key, V value) {
+        if (key >= values.length && key < MAX_DENSE_KEYS && key < 2L * values.length) {
+            grow();
+        }
+        if (key >= 0 && key < values.length) {
+            values[(int) key] = value;
+        } else if (value == null) {
+            overflow.remove(key);
+        } else {
+            overflow.put(key, value);
+        }
+    }
+
+    /**
+     * Passes the stored values to the visitor in the order of their keys, starting at the key.
+     *
+     * @param visitor returns false to stop the walk
+     */
+    @SuppressWarnings("unchecked")
+    void forEachFrom(long fromKey, Predicate<V> visitor) {
+        for (long key = Math.max(fromKey, 0); key < values.length; key++) {
+            V value = (V) values[(int) key];
+            if (value != null && !visitor.test(value)) {
+                return;
+            }
+        }
+        for (V value : overflow.tailMap(Math.max(fromKey, values.length), true).values()) {
+            if (!visitor.test(value)) {
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        values = Arrays.copyOf(values, 2 * values.length);
+        // keys the array reaches now must not be shadowed by it
+        overflow.entrySet().removeIf(entry -> {
+            if (entry.getKey() < values.length) {
+                values[(int) (long) entry.getKey()] = entry.getValue();
+                return true;
+            }
+            return false;
+        });
+    }
+}
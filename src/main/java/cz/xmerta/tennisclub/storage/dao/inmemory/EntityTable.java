@@ -0,0 +1,131 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.model.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rows of one entity type keyed by their ID, soft-deleted rows included. IDs are handed out by the table
+ * like a database sequence. The stored entities never leave the {@link InMemoryDatabase}, readers get
+ * copies made by {@link #copy(BaseEntity)}. Not thread-safe, guarded by the lock of the database.
+ *
+ * @param <E> type of the entities
+ */
+final class EntityTable<E extends BaseEntity> {
+
+    private final String name;
+    private final Function<E, Object> toRow;
+    private final UnaryOperator<E> copier;
+    private final DenseArray<E> rows = new DenseArray<>();
+    private long lastId;
+
+    /**
+     * @param name name of the table in the journal
+     * @param toRow converts an entity into the row written to the journal
+     * @param copier copies a stored entity, together with the entities it references
+     */
+    EntityTable(String name, Function<E, Object> toRow, UnaryOperator<E> copier) {
+        this.name = name;
+        this.toRow = toRow;
+        this.copier = copier;
+    }
+
+    String name() {
+        return name;
+    }
+
+    Object toRow(E entity) {
+        return toRow.apply(entity);
+    }
+
+    /**
+     * @return a copy of the stored entity the caller may change freely, null for null
+     */
+    E copy(E entity) {
+        return entity == null ? null : copier.apply(entity);
+    }
+
+    /**
+     * @return copies of the stored entities, in the same order
+     */
+    List<E> copies(List<E> entities) {
+        return entities.stream().map(this::copy).toList();
+    }
+
+    /**
+     * @return the highest ID in the table, deleted or not
+     */
+    long lastId() {
+        return lastId;
+    }
+
+    long nextId() {
+        return ++lastId;
+    }
+
+    /**
+     * @return the entity with the ID, deleted or not, null if there is none
+     */
+    E get(Long id) {
+        return id == null ? null : rows.get(id);
+    }
+
+    /**
+     * @return the entity with the ID, null if there is none or it is deleted
+     */
+    E live(Long id) {
+        E entity = get(id);
+        return entity == null || entity.isDeleted() ? null : entity;
+    }
+
+    void put(E entity) {
+        rows.set(entity.getId(), entity);
+        lastId = Math.max(lastId, entity.getId());
+    }
+
+    /**
+     * Drops the row altogether, its ID is not handed out again.
+     */
+    void remove(long id) {
+        rows.set(id, null);
+    }
+
+    /**
+     * @return live entities ordered by ID
+     */
+    List<E> live() {
+        return liveAfter(0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param rowHash hashes a live entity
+     * @return fingerprint of the live entities
+     */
+    RowFingerprint liveFingerprint(ToLongFunction<E> rowHash) {
+        List<E> live = live();
+        return new RowFingerprint((long) live.size(), live.stream().mapToLong(rowHash).sum());
+    }
+
+    /**
+     * @param afterId the listing starts after this ID
+     * @param count maximum number of listed entities
+     * @return live entities ordered by ID
+     */
+    List<E> liveAfter(long afterId, int count) {
+        List<E> live = new ArrayList<>();
+        if (count > 0) {
+            rows.forEachFrom(afterId + 1, entity -> {
+                if (!entity.isDeleted()) {
+                    live.add(entity);
+                }
+                return live.size() < count;
+            });
+        }
+        return live;
+    }
+}
@@ -0,0 +1,97 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.CourtView;
+import cz.xmerta.tennisclub.storage.model.Court;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * {@link CourtDao} backed by the {@link InMemoryDatabase}.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryCourtDao implements CourtDao {
+
+    private final InMemoryDatabase database;
+
+    public InMemoryCourtDao(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public Court save(Court court) {
+        return database.write(() -> database.courts.copy(database.store(court)));
+    }
+
+    @Override
+    public Collection<Court> findAll() {
+        return database.read(() -> database.courts.copies(database.courts.live()));
+    }
+
+    @Override
+    public List<CourtView> findAllViews() {
+        return database.read(() -> database.courts.live().stream()
+                .map(court -> new CourtView(court.getId(), court.getName(), court.getSurfaceType().getId()))
+                .toList());
+    }
+
+    @Override
+    public KeysetPage<Court> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<Court> page = database.read(() -> database.courts.copies(database.courts.liveAfter(afterId, limit + 1)));
+        return KeysetPage.of(page, limit, court -> KeysetCursor.encode(court.getId()));
+    }
+
+    @Override
+    public Optional<Court> findById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.courts.copy(database.courts.live(id))));
+    }
+
+    @Override
+    public List<Court> findByIds(Collection<Long> ids) {
+        return database.read(() -> ids.stream()
+                .map(database.courts::live)
+                .filter(Objects::nonNull)
+                .map(database.courts::copy)
+                .toList());
+    }
+
+    @Override
+    public Optional<Court> findByName(String name) {
+        return Optional.ofNullable(database.read(() ->
+                database.courts.copy(database.courts.live(database.courtNames.find(name)))));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        database.write(() -> database.softDelete(database.courts, id));
+    }
+
+    @Override
+    public void deleteAll() {
+        database.write(() -> database.softDeleteAll(database.courts, database.courts.live()));
+    }
+
+    /**
+     * The in-memory engine keeps deleted entities, nothing is ever purged.
+     */
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return 0;
+    }
+}
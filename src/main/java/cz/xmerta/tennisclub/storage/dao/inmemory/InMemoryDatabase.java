@@ -0,0 +1,620 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Storage of the in-memory DAOs, selected by the {@code inmemory} profile. Every entity type is a table of rows
+ * keyed by ID, with unique indexes of court and surface type names and user phone numbers, and reservations
+ * ordered by start time per court, user and series. Every committed write is appended to a {@link Journal},
+ * which is replayed on startup and compacted once it holds too many superseded rows.
+ * <p>
+ * Reads share a lock, writes take it exclusively. The stored entities never leave the database: DAOs return
+ * copies, and a change of a returned entity is stored only by saving it.
+ * Inside a transaction, writes are applied right away, so the transaction reads its own writes, but they are
+ * journaled only when it commits. Writes outside a transaction are journaled right away.
+ * <p>
+ * <b>Reads are not isolated between transactions.</b> A write is visible to every other transaction as soon
+ * as it is made, before its transaction commits, so a concurrent transaction may read a row that is rolled back
+ * afterwards. A rollback restores the rows the transaction wrote to their state before it, unless another
+ * transaction has written them since, in which case they keep that later write. The unique indexes see
+ * uncommitted rows too, so a value taken by a transaction still in flight is rejected.
+ * A row may only reference committed rows and rows inserted by its own transaction: referencing a row inserted
+ * by another transaction still in flight is rejected, so a rolled back insert never leaves a reference behind
+ * that would be journaled. The journal holds committed writes only, and its compaction reads nothing but
+ * the journal. Replay skips a row whose referenced row is missing.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryDatabase {
+
+    record SurfaceTypeRow(long id, String name, double pricePerMinute, boolean deleted) {
+    }
+
+    record CourtRow(long id, String name, long surfaceTypeId, boolean deleted) {
+    }
+
+    record UserRow(long id, String phoneNumber, String name, boolean deleted) {
+    }
+
+    record SeriesRow(long id, long userId, long courtId, LocalDateTime startTime, LocalDateTime endTime,
+                     int intervalWeeks, int occurrences, GameType gameType, boolean deleted) {
+    }
+
+    record ReservationRow(long id, long userId, long courtId, Long seriesId, LocalDateTime startTime,
+                          LocalDateTime endTime, GameType gameType, double price, boolean deleted) {
+    }
+
+    /**
+     * A row written by a transaction.
+     */
+    private record Written(EntityTable<?> table, long id) {
+    }
+
+    /**
+     * Rows written by one transaction, in the order of their first write.
+     */
+    private static final class Changes {
+
+        /**
+         * State of each row before the first write of the transaction, null for a row it inserted.
+         */
+        private final Map<Written, Object> before = new LinkedHashMap<>();
+        /**
+         * State of each row after the last write of the transaction.
+         */
+        private final Map<Written, Object> after = new LinkedHashMap<>();
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Rows inserted by transactions still in flight, with the writes of the inserting transaction.
+     * Guarded by the write lock.
+     */
+    private final Map<Written, Changes> pendingInserts = new HashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Journal journal;
+    /**
+     * Set while the journal is replayed or a rollback is undone, the writes are neither journaled nor tracked.
+     */
+    private boolean restoring;
+
+    final EntityTable<SurfaceType> surfaceTypes = new EntityTable<>("surface_types", surfaceType ->
+            new SurfaceTypeRow(surfaceType.getId(), surfaceType.getName(), surfaceType.getPricePerMinute(),
+                    surfaceType.isDeleted()), this::copy);
+    final EntityTable<Court> courts = new EntityTable<>("courts", court ->
+            new CourtRow(court.getId(), court.getName(), court.getSurfaceType().getId(), court.isDeleted()),
+            this::copy);
+    final EntityTable<User> users = new EntityTable<>("users", user ->
+            new UserRow(user.getId(), user.getPhoneNumber(), user.getName(), user.isDeleted()), this::copy);
+    final EntityTable<ReservationSeries> series = new EntityTable<>("reservation_series", reservationSeries ->
+            new SeriesRow(reservationSeries.getId(), reservationSeries.getUser().getId(),
+                    reservationSeries.getCourt().getId(), reservationSeries.getStartTime(),
+                    reservationSeries.getEndTime(), reservationSeries.getIntervalWeeks(),
+                    reservationSeries.getOccurrences(), reservationSeries.getGameType(), reservationSeries.isDeleted()),
+            this::copy);
+    final EntityTable<Reservation> reservations = new EntityTable<>("reservations", reservation ->
+            new ReservationRow(reservation.getId(), reservation.getUser().getId(), reservation.getCourt().getId(),
+                    reservation.getSeries() == null ? null : reservation.getSeries().getId(),
+                    reservation.getStartTime(), reservation.getEndTime(), reservation.getGameType(),
+                    reservation.getPrice(), reservation.isDeleted()), this::copy);
+    /**
+     * The tables in the order of their references, a row only references rows of the tables before it.
+     */
+    private final List<EntityTable<?>> tables = List.of(surfaceTypes, courts, users, series, reservations);
+
+    final UniqueIndex surfaceTypeNames = new UniqueIndex("surface_types.name");
+    final UniqueIndex courtNames = new UniqueIndex("courts.name");
+    final UniqueIndex phoneNumbers = new UniqueIndex("users.phone_number");
+    final StartTimeIndex reservationTimes = new StartTimeIndex();
+
+    /**
+     * Creates the database and restores it from the journal.
+     *
+     * @param objectMapper writes and reads the journal rows
+     * @param journalPath the journal file
+     * @param fsync whether every write is forced to the disk before it returns
+     * @param compactAfterLines number of superseded journal lines that start a compaction of the journal
+     */
+    @Autowired
+    public InMemoryDatabase(ObjectMapper objectMapper,
+                            @Value("${app.storage.journal-path:./data/journal.jsonl}") String journalPath,
+                            @Value("${app.storage.journal-fsync:false}") boolean fsync,
+                            @Value("${app.storage.journal-compact-after-lines:100000}") int compactAfterLines) {
+        this(objectMapper, journalPath, fsync, compactAfterLines, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param objectMapper writes and reads the journal rows
+     * @param journalPath the journal file
+     * @param fsync whether every write is forced to the disk before it returns
+     * @param compactAfterLines number of superseded journal lines that start a compaction of the journal
+     * @param compactionExecutor compacts the journal
+     */
+    InMemoryDatabase(ObjectMapper objectMapper, String journalPath, boolean fsync, int compactAfterLines,
+                     Executor compactionExecutor) {
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.journal = new Journal(Path.of(journalPath), fsync, this.objectMapper,
+                tables.stream().map(EntityTable::name).toList(), compactAfterLines, compactionExecutor);
+        restoring = true;
+        journal.replay(this::replay);
+        restoring = false;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void write(Runnable writer) {
+        write(() -> {
+            writer.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stores the values of the surface type, inserting a new row if it has no ID yet, which it is then given.
+     *
+     * @return the stored instance, to be copied before it leaves the database
+     */
+    SurfaceType store(SurfaceType surfaceType) {
+        long id = assignId(surfaceTypes, surfaceType);
+        surfaceTypeNames.check(id, surfaceType.getName());
+        SurfaceType stored = surfaceTypes.get(id);
+        track(surfaceTypes, id, stored);
+        if (stored == null) {
+            stored = new SurfaceType(id, surfaceType.getName(), surfaceType.getPricePerMinute());
+            surfaceTypes.put(stored);
+        } else {
+            stored.setName(surfaceType.getName());
+            stored.setPricePerMinute(surfaceType.getPricePerMinute());
+        }
+        stored.setDeleted(surfaceType.isDeleted());
+        surfaceTypeNames.put(id, stored.getName());
+        journal(surfaceTypes, List.of(stored));
+        return stored;
+    }
+
+    /**
+     * @see #store(SurfaceType)
+     */
+    Court store(Court court) {
+        long id = assignId(courts, court);
+        courtNames.check(id, court.getName());
+        SurfaceType surfaceType = reference(surfaceTypes, court.getSurfaceType());
+        Court stored = courts.get(id);
+        track(courts, id, stored);
+        if (stored == null) {
+            stored = new Court(id, court.getName(), surfaceType);
+            courts.put(stored);
+        } else {
+            stored.setName(court.getName());
+            stored.setSurfaceType(surfaceType);
+        }
+        stored.setDeleted(court.isDeleted());
+        courtNames.put(id, stored.getName());
+        journal(courts, List.of(stored));
+        return stored;
+    }
+
+    /**
+     * @see #store(SurfaceType)
+     */
+    User store(User user) {
+        long id = assignId(users, user);
+        phoneNumbers.check(id, user.getPhoneNumber());
+        User stored = users.get(id);
+        track(users, id, stored);
+        if (stored == null) {
+            stored = new User(id, user.getPhoneNumber(), user.getName());
+            users.put(stored);
+        } else {
+            stored.setPhoneNumber(user.getPhoneNumber());
+            stored.setName(user.getName());
+        }
+        stored.setDeleted(user.isDeleted());
+        phoneNumbers.put(id, stored.getPhoneNumber());
+        journal(users, List.of(stored));
+        return stored;
+    }
+
+    /**
+     * @see #store(SurfaceType)
+     */
+    ReservationSeries store(ReservationSeries reservationSeries) {
+        long id = assignId(series, reservationSeries);
+        User user = reference(users, reservationSeries.getUser());
+        Court court = reference(courts, reservationSeries.getCourt());
+        ReservationSeries stored = series.get(id);
+        track(series, id, stored);
+        if (stored == null) {
+            stored = new ReservationSeries(id, user, court, reservationSeries.getStartTime(),
+                    reservationSeries.getEndTime(), reservationSeries.getIntervalWeeks(),
+                    reservationSeries.getOccurrences(), reservationSeries.getGameType());
+            series.put(stored);
+        } else {
+            stored.setUser(user);
+            stored.setCourt(court);
+            stored.setStartTime(reservationSeries.getStartTime());
+            stored.setEndTime(reservationSeries.getEndTime());
+            stored.setIntervalWeeks(reservationSeries.getIntervalWeeks());
+            stored.setOccurrences(reservationSeries.getOccurrences());
+            stored.setGameType(reservationSeries.getGameType());
+        }
+        stored.setDeleted(reservationSeries.isDeleted());
+        journal(series, List.of(stored));
+        return stored;
+    }
+
+    /**
+     * @see #store(SurfaceType)
+     */
+    Reservation store(Reservation reservation) {
+        long id = assignId(reservations, reservation);
+        User user = reference(users, reservation.getUser());
+        Court court = reference(courts, reservation.getCourt());
+        ReservationSeries reservationSeries = reservation.getSeries() == null ? null
+                : reference(series, reservation.getSeries());
+        Reservation stored = reservations.get(id);
+        track(reservations, id, stored);
+        if (stored == null) {
+            stored = new Reservation(id, user, court, reservation.getStartTime(), reservation.getEndTime(),
+                    reservation.getGameType(), reservation.getPrice());
+            reservations.put(stored);
+        } else {
+            stored.setUser(user);
+            stored.setCourt(court);
+            stored.setStartTime(reservation.getStartTime());
+            stored.setEndTime(reservation.getEndTime());
+            stored.setGameType(reservation.getGameType());
+            stored.setPrice(reservation.getPrice());
+        }
+        stored.setSeries(reservationSeries);
+        stored.setDeleted(reservation.isDeleted());
+        reservationTimes.put(stored);
+        journal(reservations, List.of(stored));
+        return stored;
+    }
+
+    /**
+     * Marks the entity as deleted, it stays in the table and its indexes.
+     */
+    <E extends BaseEntity> void softDelete(EntityTable<E> table, Long id) {
+        E entity = table.live(id);
+        if (entity != null) {
+            softDeleteAll(table, List.of(entity));
+        }
+    }
+
+    /**
+     * @param entities stored entities, the deleted ones are skipped
+     */
+    <E extends BaseEntity> void softDeleteAll(EntityTable<E> table, List<E> entities) {
+        List<E> deleted = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            if (!entity.isDeleted()) {
+                track(table, entity.getId(), entity);
+                entity.setDeleted(true);
+                deleted.add(entity);
+            }
+        }
+        journal(table, deleted);
+    }
+
+    private SurfaceType copy(SurfaceType surfaceType) {
+        return deleted(new SurfaceType(surfaceType.getId(), surfaceType.getName(), surfaceType.getPricePerMinute()),
+                surfaceType);
+    }
+
+    private Court copy(Court court) {
+        return deleted(new Court(court.getId(), court.getName(), surfaceTypes.copy(court.getSurfaceType())), court);
+    }
+
+    private User copy(User user) {
+        return deleted(new User(user.getId(), user.getPhoneNumber(), user.getName()), user);
+    }
+
+    private ReservationSeries copy(ReservationSeries reservationSeries) {
+        return deleted(new ReservationSeries(reservationSeries.getId(), users.copy(reservationSeries.getUser()),
+                courts.copy(reservationSeries.getCourt()), reservationSeries.getStartTime(),
+                reservationSeries.getEndTime(), reservationSeries.getIntervalWeeks(),
+                reservationSeries.getOccurrences(), reservationSeries.getGameType()), reservationSeries);
+    }
+
+    private Reservation copy(Reservation reservation) {
+        Reservation copy = new Reservation(reservation.getId(), users.copy(reservation.getUser()),
+                courts.copy(reservation.getCourt()), reservation.getStartTime(), reservation.getEndTime(),
+                reservation.getGameType(), reservation.getPrice());
+        copy.setSeries(series.copy(reservation.getSeries()));
+        return deleted(copy, reservation);
+    }
+
+    private static <E extends BaseEntity> E deleted(E copy, E original) {
+        copy.setDeleted(original.isDeleted());
+        return copy;
+    }
+
+    private static <E extends BaseEntity> long assignId(EntityTable<E> table, E entity) {
+        if (entity.getId() == null) {
+            entity.setId(table.nextId());
+        }
+        return entity.getId();
+    }
+
+    /**
+     * Replaces a reference to another entity, possibly a detached copy, with the stored instance.
+     *
+     * @throws EntityNotFoundException if the referenced entity is not stored, or inserted by another transaction
+     *                                 still in flight
+     */
+    private <E extends BaseEntity> E reference(EntityTable<E> table, E entity) {
+        E stored = entity == null ? null : table.get(entity.getId());
+        if (stored == null) {
+            throw new EntityNotFoundException("Referenced " + table.name() + " row does not exist: "
+                    + (entity == null ? null : entity.getId()));
+        }
+        Changes inserting = restoring ? null : pendingInserts.get(new Written(table, stored.getId()));
+        if (inserting != null && inserting != currentChanges()) {
+            throw new EntityNotFoundException("Referenced " + table.name() + " row is not committed yet: "
+                    + stored.getId());
+        }
+        return stored;
+    }
+
+    /**
+     * Journals the written rows, right away outside a transaction, or once the transaction commits.
+     */
+    private <E extends BaseEntity> void journal(EntityTable<E> table, List<E> written) {
+        if (restoring || written.isEmpty()) {
+            return;
+        }
+        Changes changes = changes();
+        if (changes == null) {
+            journal.append(table.name(), written.stream().map(table::toRow).toList());
+            return;
+        }
+        for (E entity : written) {
+            changes.after.put(new Written(table, entity.getId()), table.toRow(entity));
+        }
+    }
+
+    /**
+     * Remembers the state of the row before its first write by the current transaction.
+     *
+     * @param stored the stored entity before the write, null for a row about to be inserted
+     */
+    private <E extends BaseEntity> void track(EntityTable<E> table, long id, E stored) {
+        Changes changes = restoring ? null : changes();
+        Written written = new Written(table, id);
+        if (changes != null && !changes.before.containsKey(written)) {
+            changes.before.put(written, stored == null ? null : table.toRow(stored));
+            if (stored == null) {
+                pendingInserts.put(written, changes);
+            }
+        }
+    }
+
+    /**
+     * @return writes of the current transaction, null outside a transaction or before its first write
+     */
+    private Changes currentChanges() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                ? (Changes) TransactionSynchronizationManager.getResource(this) : null;
+    }
+
+    /**
+     * @return writes of the current transaction, registered for the commit and rollback on the first write,
+     *         null outside a transaction
+     */
+    private Changes changes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes registered = new Changes();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    read(() -> {
+                        journalCommitted(registered);
+                        return null;
+                    });
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryDatabase.this);
+                    if (status != STATUS_COMMITTED) {
+                        write(() -> undo(registered));
+                    }
+                    releaseInserts(registered);
+                }
+            });
+            changes = registered;
+        }
+        return changes;
+    }
+
+    /**
+     * Lets other transactions reference the rows the completed transaction inserted.
+     */
+    private void releaseInserts(Changes changes) {
+        if (!changes.before.containsValue(null)) {
+            return;
+        }
+        write(() -> changes.before.forEach((written, row) -> {
+            if (row == null) {
+                pendingInserts.remove(written, changes);
+            }
+        }));
+    }
+
+    /**
+     * Journals the current state of every row the transaction wrote, the rows a row references first.
+     * Must be called under the lock.
+     */
+    private void journalCommitted(Changes changes) {
+        for (EntityTable<?> table : tables) {
+            List<Object> rows = changes.after.keySet().stream()
+                    .filter(written -> written.table() == table)
+                    .map(written -> currentRow(table, written.id()))
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (!rows.isEmpty()) {
+                journal.append(table.name(), rows);
+            }
+        }
+    }
+
+    /**
+     * Restores the rows the rolled back transaction wrote, the rows referencing others first.
+     * A row written by another transaction since is left as it is. Must be called under the write lock.
+     */
+    private void undo(Changes changes) {
+        List<Written> written = new ArrayList<>(changes.before.keySet());
+        Collections.reverse(written);
+        restoring = true;
+        try {
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                EntityTable<?> table = tables.get(i);
+                for (Written row : written) {
+                    if (row.table() == table
+                            && Objects.equals(currentRow(table, row.id()), changes.after.get(row))) {
+                        restore(table, row.id(), changes.before.get(row));
+                    }
+                }
+            }
+        } finally {
+            restoring = false;
+        }
+    }
+
+    private static <E extends BaseEntity> Object currentRow(EntityTable<E> table, long id) {
+        E entity = table.get(id);
+        return entity == null ? null : table.toRow(entity);
+    }
+
+    /**
+     * @param row the state to restore, null removes the row with its index entries
+     */
+    private void restore(EntityTable<?> table, long id, Object row) {
+        if (row != null) {
+            apply(row);
+            return;
+        }
+        table.remove(id);
+        if (table == surfaceTypes) {
+            surfaceTypeNames.remove(id);
+        } else if (table == courts) {
+            courtNames.remove(id);
+        } else if (table == users) {
+            phoneNumbers.remove(id);
+        } else if (table == reservations) {
+            reservationTimes.remove(id);
+        }
+    }
+
+    /**
+     * Restores the journaled state of the row. A row referencing a missing row is skipped, a journal written
+     * before references to uncommitted rows were rejected may hold a reference to a rolled back insert.
+     */
+    private void replay(String table, JsonNode row) {
+        try {
+            Class<?> rowType = switch (table) {
+                case "surface_types" -> SurfaceTypeRow.class;
+                case "courts" -> CourtRow.class;
+                case "users" -> UserRow.class;
+                case "reservation_series" -> SeriesRow.class;
+                case "reservations" -> ReservationRow.class;
+                default -> throw new IllegalStateException("Unknown journal table: " + table);
+            };
+            apply(objectMapper.treeToValue(row, rowType));
+        } catch (EntityNotFoundException e) {
+            // skipped like the rolled back row it references
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted journal row of " + table, e);
+        }
+    }
+
+    /**
+     * Stores the state of the row.
+     */
+    private void apply(Object row) {
+        if (row instanceof SurfaceTypeRow r) {
+            SurfaceType surfaceType = new SurfaceType(r.id(), r.name(), r.pricePerMinute());
+            surfaceType.setDeleted(r.deleted());
+            store(surfaceType);
+        } else if (row instanceof CourtRow r) {
+            Court court = new Court(r.id(), r.name(), surfaceTypes.get(r.surfaceTypeId()));
+            court.setDeleted(r.deleted());
+            store(court);
+        } else if (row instanceof UserRow r) {
+            User user = new User(r.id(), r.phoneNumber(), r.name());
+            user.setDeleted(r.deleted());
+            store(user);
+        } else if (row instanceof SeriesRow r) {
+            ReservationSeries reservationSeries = new ReservationSeries(r.id(), users.get(r.userId()),
+                    courts.get(r.courtId()), r.startTime(), r.endTime(), r.intervalWeeks(), r.occurrences(),
+                    r.gameType());
+            reservationSeries.setDeleted(r.deleted());
+            store(reservationSeries);
+        } else if (row instanceof ReservationRow r) {
+            Reservation reservation = new Reservation(r.id(), users.get(r.userId()), courts.get(r.courtId()),
+                    r.startTime(), r.endTime(), r.gameType(), r.price());
+            reservation.setSeries(series.get(r.seriesId()));
+            reservation.setDeleted(r.deleted());
+            store(reservation);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.inmemory.StartTimeIndex.Slot;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.Court;
+import cz.xmerta.tennisclub.storage.model.Reservation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * {@link ReservationDao} backed by the {@link InMemoryDatabase}. Listings walk the start time index
+ * of the court, user or series, so they come out in the order of the keyset pages.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryReservationDao implements ReservationDao {
+
+    private static final Function<Reservation, String> CURSOR_OF_ENTITY =
+            reservation -> KeysetCursor.encode(reservation.getStartTime(), reservation.getId());
+    private static final Function<ReservationView, String> CURSOR_OF_VIEW =
+            view -> KeysetCursor.encode(view.startTime(), view.id());
+
+    private final InMemoryDatabase database;
+
+    public InMemoryReservationDao(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public Reservation save(Reservation reservation) {
+        return database.write(() -> database.reservations.copy(database.store(reservation)));
+    }
+
+    @Override
+    public List<Reservation> saveAll(List<Reservation> reservations) {
+        return database.write(() -> reservations.stream()
+                .map(reservation -> database.reservations.copy(database.store(reservation)))
+                .toList());
+    }
+
+    @Override
+    public Optional<Reservation> findById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.reservations.copy(database.reservations.live(id))));
+    }
+
+    @Override
+    public KeysetPage<Reservation> findPage(String cursor, int limit) {
+        return page(index -> index.all(), reservation -> true, cursor, limit, database.reservations::copy,
+                CURSOR_OF_ENTITY);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPage(String cursor, int limit) {
+        return page(index -> index.all(), reservation -> true, cursor, limit, InMemoryReservationDao::toView,
+                CURSOR_OF_VIEW);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPageByCourtId(Long courtId, String cursor, int limit) {
+        return page(index -> index.byCourt(courtId), reservation -> true, cursor, limit,
+                InMemoryReservationDao::toView, CURSOR_OF_VIEW);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPageByUserId(Long userId, LocalDateTime endsAfter, String cursor,
+                                                            int limit) {
+        return page(index -> index.byUser(userId), endsAfter(endsAfter), cursor, limit,
+                InMemoryReservationDao::toView, CURSOR_OF_VIEW);
+    }
+
+    private static Predicate<Reservation> endsAfter(LocalDateTime endsAfter) {
+        return reservation -> endsAfter == null || reservation.getEndTime().isAfter(endsAfter);
+    }
+
+    private <T> KeysetPage<T> page(Function<StartTimeIndex, NavigableSet<Slot>> slots, Predicate<Reservation> filter,
+                                   String cursor, int limit, Function<Reservation, T> mapper,
+                                   Function<T, String> cursorOf) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor.TimeAndId after = cursor == null ? null : KeysetCursor.decodeTimeAndId(cursor);
+        List<T> page = database.read(() -> {
+            NavigableSet<Slot> ordered = slots.apply(database.reservationTimes);
+            if (after != null) {
+                ordered = ordered.tailSet(new Slot(after.time(), after.id()), false);
+            }
+            return collect(ordered, filter, limit + 1, mapper);
+        });
+        return KeysetPage.of(page, limit, cursorOf);
+    }
+
+    /**
+     * Must be called under the read lock.
+     *
+     * @return live reservations of the slots passing the filter, in the order of the slots
+     */
+    private <T> List<T> collect(Collection<Slot> slots, Predicate<Reservation> filter, int count,
+                                Function<Reservation, T> mapper) {
+        List<T> collected = new ArrayList<>();
+        for (Slot slot : slots) {
+            if (collected.size() == count) {
+                break;
+            }
+            Reservation reservation = database.reservations.live(slot.id());
+            if (reservation != null && filter.test(reservation)) {
+                collected.add(mapper.apply(reservation));
+            }
+        }
+        return collected;
+    }
+
+    private static ReservationView toView(Reservation reservation) {
+        return new ReservationView(reservation.getId(), reservation.getUser().getId(),
+                reservation.getUser().getPhoneNumber(), reservation.getUser().getName(),
+                reservation.getCourt().getId(), reservation.getStartTime(), reservation.getEndTime(),
+                reservation.getGameType(), reservation.getPrice());
+    }
+
+    @Override
+    public List<Reservation> findAll() {
+        return database.read(() -> database.reservations.copies(database.reservations.live()));
+    }
+
+    @Override
+    public Optional<ReservationView> findViewById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.reservations.live(id))).map(InMemoryReservationDao::toView);
+    }
+
+    @Override
+    public List<ReservationView> findAllViews() {
+        return database.read(() -> database.reservations.live().stream()
+                .map(InMemoryReservationDao::toView)
+                .toList());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        database.write(() -> database.softDelete(database.reservations, id));
+    }
+
+    @Override
+    public void deleteAll() {
+        database.write(() -> database.softDeleteAll(database.reservations, database.reservations.live()));
+    }
+
+    /**
+     * The in-memory engine keeps deleted entities, nothing is ever purged.
+     */
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return 0;
+    }
+
+    @Override
+    public long findMaxId() {
+        return database.read(database.reservations::lastId);
+    }
+
+    @Override
+    public RowFingerprint findLiveFingerprint() {
+        return database.read(() -> database.reservations.liveFingerprint(reservation -> RowFingerprint.hashInterval(
+                reservation.getId(), reservation.getCourt().getId(),
+                reservation.getStartTime().toEpochSecond(ZoneOffset.UTC),
+                reservation.getEndTime().toEpochSecond(ZoneOffset.UTC))));
+    }
+
+    @Override
+    public long countLiveUpTo(long upToId) {
+        return database.read(() -> database.reservations.live().stream()
+                .filter(reservation -> reservation.getId() <= upToId)
+                .count());
+    }
+
+    @Override
+    public List<Long> findLiveIdsInRange(long afterId, long upToId, int limit) {
+        return database.read(() -> database.reservations.liveAfter(afterId, limit).stream()
+                .map(Reservation::getId)
+                .filter(id -> id <= upToId)
+                .toList());
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return database.write(() -> {
+            List<Reservation> live = ids.stream()
+                    .map(database.reservations::live)
+                    .filter(Objects::nonNull)
+                    .toList();
+            database.softDeleteAll(database.reservations, live);
+            return live.size();
+        });
+    }
+
+    @Override
+    public List<Long> findIdsBySeriesId(Long seriesId) {
+        return database.read(() -> collect(database.reservationTimes.bySeries(seriesId), reservation -> true,
+                Integer.MAX_VALUE, Reservation::getId));
+    }
+
+    @Override
+    public void deleteBySeriesId(Long seriesId) {
+        database.write(() -> database.softDeleteAll(database.reservations,
+                collect(database.reservationTimes.bySeries(seriesId), reservation -> true, Integer.MAX_VALUE,
+                        Function.identity())));
+    }
+
+    /**
+     * Collects the reservations under the read lock and calls the action after releasing it,
+     * so the action may write.
+     */
+    @Override
+    public void forEachInRange(LocalDateTime from, LocalDateTime to, Consumer<Reservation> action) {
+        database.read(() -> collect(database.reservationTimes.intersecting(database.reservationTimes.all(), from, to),
+                reservation -> from == null || reservation.getEndTime().isAfter(from),
+                Integer.MAX_VALUE, database.reservations::copy)).forEach(action);
+    }
+
+    @Override
+    public List<ReservationView> findUpcomingByUserId(Long userId, LocalDateTime now) {
+        return database.read(() -> collect(database.reservationTimes.byUser(userId), endsAfter(now),
+                Integer.MAX_VALUE, InMemoryReservationDao::toView));
+    }
+
+    @Override
+    public List<ReservationView> findViewsByCourtId(Long courtId) {
+        return database.read(() -> collect(database.reservationTimes.byCourt(courtId), reservation -> true,
+                Integer.MAX_VALUE, InMemoryReservationDao::toView));
+    }
+
+    @Override
+    public List<ReservationView> findViewsByUserId(Long userId, LocalDateTime endsAfter) {
+        return database.read(() -> collect(database.reservationTimes.byUser(userId), endsAfter(endsAfter),
+                Integer.MAX_VALUE, InMemoryReservationDao::toView));
+    }
+
+    @Override
+    public Optional<Long> findOverlapping(Long courtId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        return database.read(() -> collect(intersecting(courtId, start, end),
+                reservation -> reservation.getEndTime().isAfter(start) && !reservation.getId().equals(excludeId),
+                1, Reservation::getId)).stream().findFirst();
+    }
+
+    @Override
+    public List<BookedInterval> findCourtOccupancy(LocalDateTime from, LocalDateTime to) {
+        return database.read(() -> {
+            List<BookedInterval> intervals = new ArrayList<>();
+            for (Court court : database.courts.live()) {
+                List<BookedInterval> booked = bookedIntervals(court.getId(), from, to);
+                intervals.addAll(booked.isEmpty() ? List.of(new BookedInterval(null, court.getId(), null, null)) : booked);
+            }
+            return intervals;
+        });
+    }
+
+    @Override
+    public void forEachBookedInterval(Consumer<BookedInterval> action) {
+        database.read(() -> database.reservations.live().stream()
+                        .map(reservation -> new BookedInterval(reservation.getId(), reservation.getCourt().getId(),
+                                reservation.getStartTime(), reservation.getEndTime()))
+                        .toList())
+                .forEach(action);
+    }
+
+    @Override
+    public List<BookedInterval> findBookedIntervals(Collection<Long> courtIds, LocalDateTime from, LocalDateTime to) {
+        return database.read(() -> courtIds.stream()
+                .distinct()
+                .sorted()
+                .flatMap(courtId -> bookedIntervals(courtId, from, to).stream())
+                .toList());
+    }
+
+    /**
+     * The in-memory engine keeps no archive, nothing is ever due for it.
+     */
+    @Override
+    public List<Long> findIdsEndedBefore(LocalDateTime cutoff, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int archive(Collection<Long> ids, LocalDateTime archivedAt) {
+        return 0;
+    }
+
+    @Override
+    public List<ReservationView> findArchivedViewsByUserId(Long userId) {
+        return List.of();
+    }
+
+    /**
+     * Must be called under the read lock.
+     */
+    private List<BookedInterval> bookedIntervals(long courtId, LocalDateTime from, LocalDateTime to) {
+        return collect(intersecting(courtId, from, to), reservation -> reservation.getEndTime().isAfter(from),
+                Integer.MAX_VALUE, reservation -> new BookedInterval(reservation.getId(), courtId,
+                        reservation.getStartTime(), reservation.getEndTime()));
+    }
+
+    private NavigableSet<Slot> intersecting(long courtId, LocalDateTime from, LocalDateTime to) {
+        return database.reservationTimes.intersecting(database.reservationTimes.byCourt(courtId), from, to);
+    }
+}
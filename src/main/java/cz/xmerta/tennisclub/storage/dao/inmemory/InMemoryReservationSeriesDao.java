@@ -0,0 +1,74 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.model.ReservationSeries;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link ReservationSeriesDao} backed by the {@link InMemoryDatabase}.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryReservationSeriesDao implements ReservationSeriesDao {
+
+    private final InMemoryDatabase database;
+
+    public InMemoryReservationSeriesDao(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public ReservationSeries save(ReservationSeries series) {
+        return database.write(() -> database.series.copy(database.store(series)));
+    }
+
+    @Override
+    public Collection<ReservationSeries> findAll() {
+        return database.read(() -> database.series.copies(database.series.live()));
+    }
+
+    @Override
+    public KeysetPage<ReservationSeries> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<ReservationSeries> page = database.read(() ->
+                database.series.copies(database.series.liveAfter(afterId, limit + 1)));
+        return KeysetPage.of(page, limit, series -> KeysetCursor.encode(series.getId()));
+    }
+
+    @Override
+    public Optional<ReservationSeries> findById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.series.copy(database.series.live(id))));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        database.write(() -> database.softDelete(database.series, id));
+    }
+
+    @Override
+    public void deleteAll() {
+        database.write(() -> database.softDeleteAll(database.series, database.series.live()));
+    }
+
+    /**
+     * The in-memory engine keeps deleted entities, nothing is ever purged.
+     */
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return 0;
+    }
+}
@@ -0,0 +1,102 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
+import cz.xmerta.tennisclub.storage.model.SurfaceType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SurfaceTypeDao} backed by the {@link InMemoryDatabase}.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemorySurfaceTypeDao implements SurfaceTypeDao {
+
+    private final InMemoryDatabase database;
+
+    public InMemorySurfaceTypeDao(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public SurfaceType save(SurfaceType surfaceType) {
+        return database.write(() -> database.surfaceTypes.copy(database.store(surfaceType)));
+    }
+
+    @Override
+    public Collection<SurfaceType> findAll() {
+        return database.read(() -> database.surfaceTypes.copies(database.surfaceTypes.live()));
+    }
+
+    @Override
+    public KeysetPage<SurfaceType> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<SurfaceType> page = database.read(() ->
+                database.surfaceTypes.copies(database.surfaceTypes.liveAfter(afterId, limit + 1)));
+        return KeysetPage.of(page, limit, surfaceType -> KeysetCursor.encode(surfaceType.getId()));
+    }
+
+    @Override
+    public List<SurfaceTypeView> findAllViews() {
+        return database.read(() -> database.surfaceTypes.live().stream()
+                .map(InMemorySurfaceTypeDao::toView)
+                .toList());
+    }
+
+    @Override
+    public KeysetPage<SurfaceTypeView> findViewPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<SurfaceTypeView> page = database.read(() -> database.surfaceTypes.liveAfter(afterId, limit + 1).stream()
+                .map(InMemorySurfaceTypeDao::toView)
+                .toList());
+        return KeysetPage.of(page, limit, view -> KeysetCursor.encode(view.id()));
+    }
+
+    private static SurfaceTypeView toView(SurfaceType surfaceType) {
+        return new SurfaceTypeView(surfaceType.getId(), surfaceType.getName(), surfaceType.getPricePerMinute());
+    }
+
+    @Override
+    public Optional<SurfaceType> findById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.surfaceTypes.copy(database.surfaceTypes.live(id))));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        database.write(() -> database.softDelete(database.surfaceTypes, id));
+    }
+
+    @Override
+    public void deleteAll() {
+        database.write(() -> database.softDeleteAll(database.surfaceTypes, database.surfaceTypes.live()));
+    }
+
+    /**
+     * The in-memory engine keeps deleted entities, nothing is ever purged.
+     */
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return 0;
+    }
+
+    @Override
+    public Optional<SurfaceType> findByName(String name) {
+        return Optional.ofNullable(database.read(() ->
+                database.surfaceTypes.copy(database.surfaceTypes.live(database.surfaceTypeNames.find(name)))));
+    }
+}
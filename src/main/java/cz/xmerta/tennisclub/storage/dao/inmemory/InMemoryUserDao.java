@@ -0,0 +1,123 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.model.User;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link UserDao} backed by the {@link InMemoryDatabase}.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryUserDao implements UserDao {
+
+    private final InMemoryDatabase database;
+
+    public InMemoryUserDao(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public User save(User user) {
+        return database.write(() -> database.users.copy(database.store(user)));
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return database.read(() -> database.users.copies(database.users.live()));
+    }
+
+    @Override
+    public KeysetPage<User> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<User> page = database.read(() -> database.users.copies(database.users.liveAfter(afterId, limit + 1)));
+        return KeysetPage.of(page, limit, user -> KeysetCursor.encode(user.getId()));
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(database.read(() -> database.users.copy(database.users.live(id))));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        database.write(() -> database.softDelete(database.users, id));
+    }
+
+    @Override
+    public void deleteAll() {
+        database.write(() -> database.softDeleteAll(database.users, database.users.live()));
+    }
+
+    /**
+     * The in-memory engine keeps deleted entities, nothing is ever purged.
+     */
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return 0;
+    }
+
+    @Override
+    public Optional<User> findByPhoneNumber(String phoneNumber) {
+        return Optional.ofNullable(database.read(() ->
+                database.users.copy(database.users.live(database.phoneNumbers.find(phoneNumber)))));
+    }
+
+    @Override
+    public User getReference(Long id) {
+        User user = database.read(() -> database.users.copy(database.users.get(id)));
+        if (user == null) {
+            throw new EntityNotFoundException("No user with ID " + id);
+        }
+        return user;
+    }
+
+    @Override
+    public RowFingerprint findLiveFingerprint() {
+        return database.read(() -> database.users.liveFingerprint(user -> RowFingerprint.hashPhone(
+                user.getId(), Long.parseLong(user.getPhoneNumber().substring(1)))));
+    }
+
+    /**
+     * Lists the phone numbers under the read lock and calls the action after releasing it.
+     */
+    @Override
+    public void forEachPhoneNumber(BiConsumer<String, Long> action) {
+        database.read(() -> database.users.live().stream()
+                        .map(user -> Map.entry(user.getPhoneNumber(), user.getId()))
+                        .toList())
+                .forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public long upsertByPhoneNumber(String phoneNumber, String name) {
+        return database.write(() -> {
+            User user = database.users.get(database.phoneNumbers.find(phoneNumber));
+            if (user == null) {
+                return database.store(new User(null, phoneNumber, name)).getId();
+            }
+            if (user.isDeleted()) {
+                database.store(new User(user.getId(), phoneNumber, name));
+            }
+            return user.getId();
+        });
+    }
+}
@@ -0,0 +1,348 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only file of JSON lines, each holding the full state of one row after a write:
+ * {@code {"table":"courts","row":{...}}}. Replaying the file in order and keeping the last state
+ * of every row restores the database. A line torn by a crash can only be the last one and is skipped.
+ * <p>
+ * Once the lines superseded by a later state of their row reach a threshold, the journal is compacted
+ * on the compaction executor: the file is moved aside and appends go on to a new one, the last state
+ * of every row is written out in the order of the tables, and the lines appended meanwhile are copied
+ * after it. On startup a file left aside by an interrupted compaction is replayed first, its lines
+ * being older, and the compaction is finished before the database is used.
+ */
+final class Journal implements Closeable {
+
+    /**
+     * Position of a row in a compacted journal, rows of the referenced tables come first.
+     */
+    private record RowKey(int table, long id) implements Comparable<RowKey> {
+
+        @Override
+        public int compareTo(RowKey other) {
+            return table != other.table ? Integer.compare(table, other.table) : Long.compare(id, other.id);
+        }
+    }
+
+    private final Path path;
+    private final Path compactingPath;
+    private final Path compactedPath;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+    private final List<String> tables;
+    private final int compactAfterLines;
+    private final Executor compactionExecutor;
+    private FileChannel channel;
+    /**
+     * Number of lines in the journal file.
+     */
+    private long lineCount;
+    /**
+     * Number of distinct rows as of the last compaction or replay, every further line may supersede another one.
+     */
+    private long rowCount;
+    private boolean compactionRequested;
+
+    /**
+     * @param path the journal file, created with its directory if missing
+     * @param fsync whether every append is forced to the disk before the write returns
+     * @param objectMapper writes and reads the rows
+     * @param tables names of the tables, a row only references rows of the tables before it
+     * @param compactAfterLines number of lines appended on top of the distinct rows that start a compaction
+     * @param compactionExecutor compacts the journal off the writing threads
+     */
+    Journal(Path path, boolean fsync, ObjectMapper objectMapper, List<String> tables, int compactAfterLines,
+            Executor compactionExecutor) {
+        this.path = path;
+        this.compactingPath = path.resolveSibling(path.getFileName() + ".compacting");
+        this.compactedPath = path.resolveSibling(path.getFileName() + ".compacted");
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        this.tables = tables;
+        this.compactAfterLines = compactAfterLines;
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    /**
+     * Passes every journaled row to the consumer in the order they were written, then opens the journal
+     * for appending. A journal with too many superseded lines, or left aside by an interrupted compaction,
+     * is compacted before this returns.
+     *
+     * @param apply receives the table name and the row
+     */
+    void replay(BiConsumer<String, JsonNode> apply) {
+        try {
+            Set<RowKey> distinct = new HashSet<>();
+            long replayed = 0;
+            boolean interrupted = Files.exists(compactingPath);
+            if (interrupted) {
+                replayed += replayFile(compactingPath, apply, distinct);
+            }
+            if (Files.exists(path)) {
+                replayed += replayFile(path, apply, distinct);
+            } else if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = open();
+            synchronized (this) {
+                lineCount = replayed;
+                rowCount = distinct.size();
+            }
+            if (interrupted || replayed - distinct.size() >= compactAfterLines) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + path, e);
+        }
+    }
+
+    private long replayFile(Path file, BiConsumer<String, JsonNode> apply, Set<RowKey> distinct) throws IOException {
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                JsonNode entry = line.isBlank() ? null : parse(line, next == null);
+                if (entry != null) {
+                    apply.accept(entry.get("table").asText(), entry.get("row"));
+                    distinct.add(keyOf(entry));
+                    replayed++;
+                }
+                line = next;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * @return the entry of the line, null for a torn last line
+     */
+    private JsonNode parse(String line, boolean last) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            if (last) {
+                return null;
+            }
+            throw new IllegalStateException("Corrupted journal " + path, e);
+        }
+    }
+
+    private RowKey keyOf(JsonNode entry) {
+        String table = entry.get("table").asText();
+        int index = tables.indexOf(table);
+        if (index < 0) {
+            throw new IllegalStateException("Unknown journal table: " + table);
+        }
+        return new RowKey(index, entry.get("row").get("id").asLong());
+    }
+
+    /**
+     * Appends the rows in a single write.
+     *
+     * @param table name of the table
+     * @param rows the new states of the rows
+     */
+    synchronized void append(String table, List<?> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (Object row : rows) {
+                ObjectNode entry = objectMapper.createObjectNode().put("table", table);
+                entry.set("row", objectMapper.valueToTree(row));
+                objectMapper.writeValue(lines, entry);
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to journal " + path, e);
+        }
+        lineCount += rows.size();
+        if (lineCount - rowCount >= compactAfterLines) {
+            requestCompaction();
+        }
+    }
+
+    /**
+     * Starts a compaction on the compaction executor unless one is already requested, must hold the monitor.
+     */
+    private void requestCompaction() {
+        if (compactionRequested) {
+            return;
+        }
+        compactionRequested = true;
+        try {
+            compactionExecutor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            // shutting down, the next start compacts the journal
+            compactionRequested = false;
+        }
+    }
+
+    /**
+     * Replaces the journal with the last state of every row, followed by the lines appended meanwhile.
+     * Appends wait only while the journal is moved aside and while the lines appended meanwhile are copied.
+     * Runs on startup before the journal is appended to, and later only on the compaction executor,
+     * one compaction at a time.
+     */
+    void compact() {
+        try {
+            synchronized (this) {
+                // a file already aside is older than the journal, it is compacted first
+                if (!Files.exists(compactingPath)) {
+                    Files.move(path, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+                    reopen();
+                    lineCount = 0;
+                }
+            }
+            long compacted = writeLastStates();
+            synchronized (this) {
+                long appended = copyAppended();
+                Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                reopen();
+                Files.delete(compactingPath);
+                lineCount = compacted + appended;
+                rowCount = compacted;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact journal " + path, e);
+        } finally {
+            synchronized (this) {
+                compactionRequested = false;
+            }
+        }
+    }
+
+    /**
+     * Writes the last state of every row of the file moved aside to the compacted file.
+     *
+     * @return number of rows written
+     */
+    private long writeLastStates() throws IOException {
+        Map<RowKey, String> lastStates = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(compactingPath, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                JsonNode entry = line.isBlank() ? null : parse(line, next == null);
+                if (entry != null) {
+                    lastStates.put(keyOf(entry), line);
+                }
+                line = next;
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(compactedPath, StandardCharsets.UTF_8)) {
+            for (String line : lastStates.values()) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        force(compactedPath);
+        return lastStates.size();
+    }
+
+    /**
+     * Copies the complete lines of the journal, appended since it was moved aside, after the compacted rows.
+     * Must hold the monitor.
+     *
+     * @return number of lines copied
+     */
+    private long copyAppended() throws IOException {
+        byte[] appended = Files.readAllBytes(path);
+        int end = appended.length;
+        // a line torn by a crash before the restart is left out, the rows are written as complete lines
+        while (end > 0 && appended[end - 1] != '\n') {
+            end--;
+        }
+        long copied = 0;
+        for (int i = 0; i < end; i++) {
+            if (appended[i] == '\n') {
+                copied++;
+            }
+        }
+        try (FileChannel compacted = FileChannel.open(compactedPath, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(appended, 0, end);
+            while (buffer.hasRemaining()) {
+                compacted.write(buffer);
+            }
+            compacted.force(false);
+        }
+        return copied;
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel written = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            written.force(false);
+        }
+    }
+
+    /**
+     * Points the channel to the file now at the journal path, must hold the monitor.
+     */
+    private void reopen() throws IOException {
+        channel.close();
+        channel = open();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Waits for a compaction in progress and closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        if (compactionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            try {
+                executorService.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
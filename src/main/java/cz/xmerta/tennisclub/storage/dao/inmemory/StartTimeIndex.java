@@ -0,0 +1,133 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import cz.xmerta.tennisclub.storage.model.Reservation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Reservations ordered by start time and ID, the order of every listing and keyset page, overall and grouped
+ * by court, user and series. Soft-deleted reservations stay indexed and are skipped by the readers.
+ * Not thread-safe, guarded by the lock of the {@link InMemoryDatabase}.
+ */
+final class StartTimeIndex {
+
+    /**
+     * Position of a reservation in the order.
+     */
+    record Slot(LocalDateTime start, long id) implements Comparable<Slot> {
+
+        private static final Comparator<Slot> ORDER =
+                Comparator.comparing(Slot::start).thenComparingLong(Slot::id);
+
+        @Override
+        public int compareTo(Slot other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Where a reservation is indexed, the entity itself may already be changed by the caller.
+     */
+    private record Indexed(Slot slot, long courtId, long userId, long seriesId) {
+    }
+
+    private static final long NO_SERIES = 0L;
+
+    private final NavigableSet<Slot> all = new TreeSet<>();
+    private final DenseArray<NavigableSet<Slot>> byCourt = new DenseArray<>();
+    private final DenseArray<NavigableSet<Slot>> byUser = new DenseArray<>();
+    private final DenseArray<NavigableSet<Slot>> bySeries = new DenseArray<>();
+    private final DenseArray<Indexed> indexed = new DenseArray<>();
+    /**
+     * Longest reservation ever indexed, bounds how far before a window a reservation intersecting it may start.
+     */
+    private Duration longest = Duration.ZERO;
+
+    void put(Reservation reservation) {
+        long id = reservation.getId();
+        remove(id);
+        Indexed current = new Indexed(new Slot(reservation.getStartTime(), id),
+                reservation.getCourt().getId(), reservation.getUser().getId(),
+                reservation.getSeries() == null ? NO_SERIES : reservation.getSeries().getId());
+        all.add(current.slot());
+        group(byCourt, current.courtId()).add(current.slot());
+        group(byUser, current.userId()).add(current.slot());
+        if (current.seriesId() != NO_SERIES) {
+            group(bySeries, current.seriesId()).add(current.slot());
+        }
+        indexed.set(id, current);
+        Duration duration = Duration.between(reservation.getStartTime(), reservation.getEndTime());
+        if (duration.compareTo(longest) > 0) {
+            longest = duration;
+        }
+    }
+
+    /**
+     * Drops the reservation from the index, if indexed.
+     */
+    void remove(long id) {
+        Indexed previous = indexed.get(id);
+        if (previous != null) {
+            all.remove(previous.slot());
+            group(byCourt, previous.courtId()).remove(previous.slot());
+            group(byUser, previous.userId()).remove(previous.slot());
+            if (previous.seriesId() != NO_SERIES) {
+                group(bySeries, previous.seriesId()).remove(previous.slot());
+            }
+            indexed.set(id, null);
+        }
+    }
+
+    /**
+     * Narrows the slots to the reservations which may intersect [from, to), the callers check the end times.
+     *
+     * @param slots slots of this index
+     * @param from start of the window, null for no lower bound
+     * @param to end of the window, null for no upper bound
+     * @return the slots starting before the end of the window and at most the longest reservation before its start
+     */
+    NavigableSet<Slot> intersecting(NavigableSet<Slot> slots, LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            slots = slots.tailSet(new Slot(from.minus(longest), Long.MIN_VALUE), true);
+        }
+        if (to != null) {
+            slots = slots.headSet(new Slot(to, Long.MIN_VALUE), false);
+        }
+        return slots;
+    }
+
+    private static NavigableSet<Slot> group(DenseArray<NavigableSet<Slot>> groups, long key) {
+        NavigableSet<Slot> group = groups.get(key);
+        if (group == null) {
+            group = new TreeSet<>();
+            groups.set(key, group);
+        }
+        return group;
+    }
+
+    private static NavigableSet<Slot> find(DenseArray<NavigableSet<Slot>> groups, long key) {
+        NavigableSet<Slot> group = groups.get(key);
+        return group == null ? Collections.emptyNavigableSet() : Collections.unmodifiableNavigableSet(group);
+    }
+
+    NavigableSet<Slot> all() {
+        return Collections.unmodifiableNavigableSet(all);
+    }
+
+    NavigableSet<Slot> byCourt(long courtId) {
+        return find(byCourt, courtId);
+    }
+
+    NavigableSet<Slot> byUser(long userId) {
+        return find(byUser, userId);
+    }
+
+    NavigableSet<Slot> bySeries(long seriesId) {
+        return find(bySeries, seriesId);
+    }
+}
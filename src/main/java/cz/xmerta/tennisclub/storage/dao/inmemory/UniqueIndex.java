@@ -0,0 +1,62 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import jakarta.persistence.EntityExistsException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unique column of a table, such as a name or phone number, mapped to the ID of its row.
+ * Like the unique constraint of the database, soft-deleted rows keep their value.
+ * Not thread-safe, guarded by the lock of the {@link InMemoryDatabase}.
+ */
+final class UniqueIndex {
+
+    private final String column;
+    private final Map<String, Long> ids = new HashMap<>();
+    /**
+     * The value each row is indexed under, the entity itself may already be changed by the caller.
+     */
+    private final DenseArray<String> values = new DenseArray<>();
+
+    UniqueIndex(String column) {
+        this.column = column;
+    }
+
+    /**
+     * @return ID of the row with the value, null if there is none
+     */
+    Long find(String value) {
+        return ids.get(value);
+    }
+
+    /**
+     * @throws EntityExistsException if another row has the value
+     */
+    void check(long id, String value) {
+        Long owner = ids.get(value);
+        if (owner != null && owner != id) {
+            throw new EntityExistsException("Unique index violation on " + column + ": " + value);
+        }
+    }
+
+    void put(long id, String value) {
+        String previous = values.get(id);
+        if (previous != null) {
+            ids.remove(previous);
+        }
+        ids.put(value, id);
+        values.set(id, value);
+    }
+
+    /**
+     * Drops the value of the row, for a row that is removed altogether.
+     */
+    void remove(long id) {
+        String previous = values.get(id);
+        if (previous != null) {
+            ids.remove(previous);
+            values.set(id, null);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package cz.xmerta.tennisclub.storage.dao.jpa;
+
+import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.CourtView;
+import cz.xmerta.tennisclub.storage.model.Court;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lookups of single courts and the full catalog go through the query cache, backed by the second-level cache
+ * of courts and surface types. Hibernate invalidates both on every write to the tables, bulk soft deletes included.
+ */
+@Repository
+@Profile("!inmemory")
+public class JpaCourtDao implements CourtDao {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaCourtDao(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Court save(Court court) {
+        if (court.getId() == null) {
+            entityManager.persist(court);
+        } else {
+            court = entityManager.merge(court);
+        }
+        return court;
+    }
+
+    @Override
+    public Collection<Court> findAll() {
+        return entityManager.createQuery("SELECT c FROM Court c JOIN FETCH c.surfaceType WHERE c.isDeleted = false", Court.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public List<CourtView> findAllViews() {
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.CourtView(c.id, c.name, c.surfaceType.id) " +
+                                "FROM Court c WHERE c.isDeleted = false", CourtView.class)
+                .getResultList();
+    }
+
+    @Override
+    public KeysetPage<Court> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<Court> page = entityManager.createQuery(
+                        "SELECT c FROM Court c JOIN FETCH c.surfaceType WHERE c.id > :afterId AND c.isDeleted = false ORDER BY c.id", Court.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        return KeysetPage.of(page, limit, court -> KeysetCursor.encode(court.getId()));
+    }
+
+    @Override
+    public Optional<Court> findById(Long id) {
+        return entityManager.createQuery("SELECT c FROM Court c JOIN FETCH c.surfaceType WHERE c.id = :id AND c.isDeleted = false", Court.class)
+                .setParameter("id", id)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Court> findByIds(Collection<Long> ids) {
+        return entityManager.createQuery("SELECT c FROM Court c JOIN FETCH c.surfaceType WHERE c.id IN :ids AND c.isDeleted = false", Court.class)
+                .setParameter("ids", ids)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<Court> findByName(String name) {
+        return entityManager.createQuery(
+                        "SELECT c FROM Court c JOIN FETCH c.surfaceType WHERE c.name = :name AND c.isDeleted = false", Court.class)
+                .setParameter("name", name)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entityManager.createQuery(
+                        "UPDATE Court c SET c.isDeleted = true, c.deletedAt = :deletedAt " +
+                                "WHERE c.id = :id AND c.isDeleted = false")
+                .setParameter("id", id)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public void deleteAll() {
+        entityManager.createQuery(
+                        "UPDATE Court c SET c.isDeleted = true, c.deletedAt = :deletedAt WHERE c.isDeleted = false")
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT c.id FROM Court c WHERE c.isDeleted = true AND c.deletedAt < :deletedBefore " +
+                                "AND c.id > :afterId " +
+                                "AND NOT EXISTS (SELECT r.id FROM Reservation r WHERE r.court = c) " +
+                                "AND NOT EXISTS (SELECT s.id FROM ReservationSeries s WHERE s.court = c) " +
+                                "AND NOT EXISTS (SELECT a.id FROM ArchivedReservation a WHERE a.courtId = c.id) " +
+                                "ORDER BY c.id", Long.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return entityManager.createQuery("DELETE FROM Court c WHERE c.id IN :ids AND c.isDeleted = true")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,428 @@
+package cz.xmerta.tennisclub.storage.dao.jpa;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.model.Reservation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("!inmemory")
+public class JpaReservationDao implements ReservationDao {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Associations are lazy, every read of whole reservations fetches what the callers use in the same query.
+     */
+    private static final String SELECT_FETCHED = "SELECT r FROM Reservation r JOIN FETCH r.court c " +
+            "JOIN FETCH c.surfaceType JOIN FETCH r.user ";
+
+    /**
+     * Selects the listed columns straight into {@link ReservationView}, the court is referenced by its foreign key only.
+     */
+    private static final String SELECT_VIEW = "SELECT new cz.xmerta.tennisclub.storage.dao.projection.ReservationView(" +
+            "r.id, u.id, u.phoneNumber, u.name, r.court.id, r.startTime, r.endTime, r.gameType, r.price) " +
+            "FROM Reservation r JOIN r.user u ";
+
+    private static final Function<Reservation, String> CURSOR_OF_ENTITY =
+            reservation -> KeysetCursor.encode(reservation.getStartTime(), reservation.getId());
+    private static final Function<ReservationView, String> CURSOR_OF_VIEW =
+            view -> KeysetCursor.encode(view.startTime(), view.id());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaReservationDao(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Reservation save(Reservation reservation) {
+        if (reservation.getId() == null) {
+            entityManager.persist(reservation);
+        } else {
+            reservation = entityManager.merge(reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Persists the reservations in one flush, so the inserts can be sent as JDBC batches.
+     */
+    @Override
+    public List<Reservation> saveAll(List<Reservation> reservations) {
+        reservations.forEach(this::save);
+        entityManager.flush();
+        return reservations;
+    }
+
+    @Override
+    public Optional<Reservation> findById(Long id) {
+        return entityManager.createQuery(
+                        SELECT_FETCHED + "WHERE r.id = :id AND r.isDeleted = false", Reservation.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Lists live reservations ordered by start time and ID, seeking past the (start time, ID) of the cursor.
+     */
+    @Override
+    public KeysetPage<Reservation> findPage(String cursor, int limit) {
+        return findPageWhere(SELECT_FETCHED, Reservation.class, "", Map.of(), cursor, limit, CURSOR_OF_ENTITY);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPage(String cursor, int limit) {
+        return findPageWhere(SELECT_VIEW, ReservationView.class, "", Map.of(), cursor, limit, CURSOR_OF_VIEW);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPageByCourtId(Long courtId, String cursor, int limit) {
+        return findPageWhere(SELECT_VIEW, ReservationView.class, "r.court.id = :courtId", Map.of("courtId", courtId),
+                cursor, limit, CURSOR_OF_VIEW);
+    }
+
+    @Override
+    public KeysetPage<ReservationView> findViewPageByUserId(Long userId, LocalDateTime endsAfter, String cursor, int limit) {
+        return findPageWhere(SELECT_VIEW, ReservationView.class, userFilter(endsAfter), userParameters(userId, endsAfter),
+                cursor, limit, CURSOR_OF_VIEW);
+    }
+
+    private static String userFilter(LocalDateTime endsAfter) {
+        return endsAfter == null ? "r.user.id = :userId" : "r.user.id = :userId AND r.endTime > :endsAfter";
+    }
+
+    private static Map<String, Object> userParameters(Long userId, LocalDateTime endsAfter) {
+        return endsAfter == null ? Map.of("userId", userId) : Map.of("userId", userId, "endsAfter", endsAfter);
+    }
+
+    private <T> KeysetPage<T> findPageWhere(String select, Class<T> type, String filter, Map<String, Object> parameters,
+                                            String cursor, int limit, Function<T, String> cursorOf) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor.TimeAndId after = cursor == null ? null : KeysetCursor.decodeTimeAndId(cursor);
+        StringBuilder jpql = new StringBuilder(select + "WHERE r.isDeleted = false");
+        if (!filter.isEmpty()) {
+            jpql.append(" AND ").append(filter);
+        }
+        if (after != null) {
+            jpql.append(" AND (r.startTime > :afterTime OR (r.startTime = :afterTime AND r.id > :afterId))");
+        }
+        jpql.append(" ORDER BY r.startTime, r.id");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("afterTime", after.time());
+            query.setParameter("afterId", after.id());
+        }
+        List<T> page = query.setMaxResults(limit + 1).getResultList();
+        return KeysetPage.of(page, limit, cursorOf);
+    }
+
+    @Override
+    public List<Reservation> findAll() {
+        return entityManager.createQuery(
+                        SELECT_FETCHED + "WHERE r.isDeleted = false", Reservation.class)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<ReservationView> findViewById(Long id) {
+        return entityManager.createQuery(
+                        SELECT_VIEW + "WHERE r.id = :id AND r.isDeleted = false", ReservationView.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<ReservationView> findAllViews() {
+        return entityManager.createQuery(
+                        SELECT_VIEW + "WHERE r.isDeleted = false", ReservationView.class)
+                .getResultList();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entityManager.createQuery(
+                        "UPDATE Reservation r SET r.isDeleted = true, r.deletedAt = :deletedAt " +
+                                "WHERE r.id = :id AND r.isDeleted = false")
+                .setParameter("id", id)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public void deleteAll() {
+        entityManager.createQuery(
+                        "UPDATE Reservation r SET r.isDeleted = true, r.deletedAt = :deletedAt WHERE r.isDeleted = false")
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Reservation r WHERE r.isDeleted = true AND r.deletedAt < :deletedBefore " +
+                                "AND r.id > :afterId ORDER BY r.id", Long.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return entityManager.createQuery("DELETE FROM Reservation r WHERE r.id IN :ids AND r.isDeleted = true")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public long findMaxId() {
+        return entityManager.createQuery("SELECT COALESCE(MAX(r.id), 0L) FROM Reservation r", Long.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public RowFingerprint findLiveFingerprint() {
+        // operands are cast to Long, H2 types the remainder as narrow as the divisor
+        String x1 = "CAST(MOD(r.id * 65599 + r.court.id, " + RowFingerprint.MODULUS + ") AS Long)";
+        String x2 = "(CAST(MOD(EXTRACT(EPOCH FROM r.startTime), " + RowFingerprint.MODULUS + ") AS Long) + 1)";
+        String x3 = "(CAST(MOD(EXTRACT(EPOCH FROM r.endTime), " + RowFingerprint.MODULUS + ") AS Long) + 1)";
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint(COUNT(r), COALESCE(SUM(" +
+                                "MOD(MOD(" + x1 + " * " + x2 + ", " + RowFingerprint.MODULUS + ") * " + x3 + " + " + x2 +
+                                ", " + RowFingerprint.MODULUS + ")), 0L)) " +
+                                "FROM Reservation r WHERE r.isDeleted = false", RowFingerprint.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public long countLiveUpTo(long upToId) {
+        return entityManager.createQuery(
+                        "SELECT COUNT(r) FROM Reservation r WHERE r.id <= :upToId AND r.isDeleted = false", Long.class)
+                .setParameter("upToId", upToId)
+                .getSingleResult();
+    }
+
+    @Override
+    public List<Long> findLiveIdsInRange(long afterId, long upToId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Reservation r WHERE r.id > :afterId AND r.id <= :upToId " +
+                                "AND r.isDeleted = false ORDER BY r.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setParameter("upToId", upToId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        return entityManager.createQuery(
+                        "UPDATE Reservation r SET r.isDeleted = true, r.deletedAt = :deletedAt " +
+                                "WHERE r.id IN :ids AND r.isDeleted = false")
+                .setParameter("ids", ids)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findIdsBySeriesId(Long seriesId) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Reservation r WHERE r.series.id = :seriesId AND r.isDeleted = false", Long.class)
+                .setParameter("seriesId", seriesId)
+                .getResultList();
+    }
+
+    @Override
+    public void deleteBySeriesId(Long seriesId) {
+        entityManager.createQuery(
+                        "UPDATE Reservation r SET r.isDeleted = true, r.deletedAt = :deletedAt " +
+                                "WHERE r.series.id = :seriesId AND r.isDeleted = false")
+                .setParameter("seriesId", seriesId)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    /**
+     * Reads the rows through a cursor in chunks of the fetch size. Each reservation and its user are detached
+     * once the action is done with them, so the persistence context does not grow with the result.
+     */
+    @Override
+    public void forEachInRange(LocalDateTime from, LocalDateTime to, Consumer<Reservation> action) {
+        StringBuilder jpql = new StringBuilder(SELECT_FETCHED + "WHERE r.isDeleted = false");
+        if (from != null) {
+            jpql.append(" AND r.endTime > :from");
+        }
+        if (to != null) {
+            jpql.append(" AND r.startTime < :to");
+        }
+        jpql.append(" ORDER BY r.startTime, r.id");
+
+        TypedQuery<Reservation> query = entityManager.createQuery(jpql.toString(), Reservation.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        try (Stream<Reservation> reservations = query.getResultStream()) {
+            reservations.forEach(reservation -> {
+                action.accept(reservation);
+                entityManager.detach(reservation);
+                entityManager.detach(reservation.getUser());
+            });
+        }
+    }
+
+    @Override
+    public List<ReservationView> findUpcomingByUserId(Long userId, LocalDateTime now) {
+        return entityManager.createQuery(
+                        SELECT_VIEW + "WHERE r.user.id = :userId AND r.endTime > :now AND r.isDeleted = false " +
+                                "ORDER BY r.startTime, r.id", ReservationView.class)
+                .setParameter("userId", userId)
+                .setParameter("now", now)
+                .getResultList();
+    }
+
+    @Override
+    public List<ReservationView> findViewsByCourtId(Long courtId) {
+        return entityManager.createQuery(
+                        SELECT_VIEW + "WHERE r.court.id = :courtId AND r.isDeleted = false " +
+                                "ORDER BY r.startTime, r.id", ReservationView.class)
+                .setParameter("courtId", courtId)
+                .getResultList();
+    }
+
+    @Override
+    public List<ReservationView> findViewsByUserId(Long userId, LocalDateTime endsAfter) {
+        TypedQuery<ReservationView> query = entityManager.createQuery(
+                SELECT_VIEW + "WHERE r.isDeleted = false AND " + userFilter(endsAfter) + " ORDER BY r.startTime, r.id",
+                ReservationView.class);
+        userParameters(userId, endsAfter).forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    @Override
+    public Optional<Long> findOverlapping(Long courtId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Reservation r WHERE r.court.id = :courtId AND r.isDeleted = false " +
+                                "AND r.startTime < :end AND r.endTime > :start " +
+                                "AND (:excludeId IS NULL OR r.id <> :excludeId)", Long.class)
+                .setParameter("courtId", courtId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("excludeId", excludeId)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<BookedInterval> findCourtOccupancy(LocalDateTime from, LocalDateTime to) {
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.BookedInterval(" +
+                                "r.id, c.id, r.startTime, r.endTime) " +
+                                "FROM Court c LEFT JOIN Reservation r ON r.court.id = c.id AND r.isDeleted = false " +
+                                "AND r.startTime < :to AND r.endTime > :from " +
+                                "WHERE c.isDeleted = false ORDER BY c.id, r.startTime", BookedInterval.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    @Override
+    public void forEachBookedInterval(Consumer<BookedInterval> action) {
+        try (Stream<BookedInterval> intervals = entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.BookedInterval(" +
+                                "r.id, r.court.id, r.startTime, r.endTime) " +
+                                "FROM Reservation r WHERE r.isDeleted = false", BookedInterval.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            intervals.forEach(action);
+        }
+    }
+
+    @Override
+    public List<BookedInterval> findBookedIntervals(Collection<Long> courtIds, LocalDateTime from, LocalDateTime to) {
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.BookedInterval(" +
+                                "r.id, r.court.id, r.startTime, r.endTime) " +
+                                "FROM Reservation r WHERE r.court.id IN :courtIds AND r.isDeleted = false " +
+                                "AND r.startTime < :to AND r.endTime > :from " +
+                                "ORDER BY r.court.id, r.startTime", BookedInterval.class)
+                .setParameter("courtIds", courtIds)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> findIdsEndedBefore(LocalDateTime cutoff, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Reservation r WHERE r.id > :afterId AND r.endTime < :cutoff " +
+                                "AND r.isDeleted = false ORDER BY r.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Copies the rows into the {@code reservations_archive} table with one INSERT ... SELECT and removes them
+     * from the {@code reservations} table with one DELETE.
+     */
+    @Override
+    public int archive(Collection<Long> ids, LocalDateTime archivedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.createQuery(
+                        "INSERT INTO ArchivedReservation (id, userId, courtId, seriesId, startTime, endTime, " +
+                                "gameType, price, isDeleted, archivedAt) " +
+                                "SELECT r.id, r.user.id, r.court.id, r.series.id, r.startTime, r.endTime, " +
+                                "r.gameType, r.price, r.isDeleted, :archivedAt FROM Reservation r " +
+                                "WHERE r.id IN :ids AND r.isDeleted = false")
+                .setParameter("ids", ids)
+                .setParameter("archivedAt", archivedAt)
+                .executeUpdate();
+        return entityManager.createQuery("DELETE FROM Reservation r WHERE r.id IN :ids AND r.isDeleted = false")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public List<ReservationView> findArchivedViewsByUserId(Long userId) {
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.ReservationView(" +
+                                "a.id, u.id, u.phoneNumber, u.name, a.courtId, a.startTime, a.endTime, a.gameType, a.price) " +
+                                "FROM ArchivedReservation a JOIN User u ON u.id = a.userId " +
+                                "WHERE a.userId = :userId AND a.isDeleted = false " +
+                                "ORDER BY a.startTime, a.id", ReservationView.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+}
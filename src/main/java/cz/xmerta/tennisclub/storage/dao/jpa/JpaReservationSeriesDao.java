@@ -0,0 +1,106 @@
+package cz.xmerta.tennisclub.storage.dao.jpa;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.model.ReservationSeries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile("!inmemory")
+public class JpaReservationSeriesDao implements ReservationSeriesDao {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaReservationSeriesDao(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public ReservationSeries save(ReservationSeries series) {
+        if (series.getId() == null) {
+            entityManager.persist(series);
+        } else {
+            series = entityManager.merge(series);
+        }
+        return series;
+    }
+
+    @Override
+    public Collection<ReservationSeries> findAll() {
+        return entityManager.createQuery(
+                        "SELECT s FROM ReservationSeries s JOIN FETCH s.court c JOIN FETCH c.surfaceType " +
+                                "JOIN FETCH s.user WHERE s.isDeleted = false", ReservationSeries.class)
+                .getResultList();
+    }
+
+    @Override
+    public KeysetPage<ReservationSeries> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<ReservationSeries> page = entityManager.createQuery(
+                        "SELECT s FROM ReservationSeries s JOIN FETCH s.court c JOIN FETCH c.surfaceType " +
+                                "JOIN FETCH s.user WHERE s.id > :afterId AND s.isDeleted = false ORDER BY s.id", ReservationSeries.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        return KeysetPage.of(page, limit, series -> KeysetCursor.encode(series.getId()));
+    }
+
+    @Override
+    public Optional<ReservationSeries> findById(Long id) {
+        return entityManager.createQuery(
+                        "SELECT s FROM ReservationSeries s JOIN FETCH s.court c JOIN FETCH c.surfaceType " +
+                                "JOIN FETCH s.user WHERE s.id = :id AND s.isDeleted = false", ReservationSeries.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entityManager.createQuery(
+                        "UPDATE ReservationSeries s SET s.isDeleted = true, s.deletedAt = :deletedAt " +
+                                "WHERE s.id = :id AND s.isDeleted = false")
+                .setParameter("id", id)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public void deleteAll() {
+        entityManager.createQuery(
+                        "UPDATE ReservationSeries s SET s.isDeleted = true, s.deletedAt = :deletedAt WHERE s.isDeleted = false")
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT s.id FROM ReservationSeries s WHERE s.isDeleted = true AND s.deletedAt < :deletedBefore " +
+                                "AND s.id > :afterId " +
+                                "AND NOT EXISTS (SELECT r.id FROM Reservation r WHERE r.series = s) " +
+                                "ORDER BY s.id", Long.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return entityManager.createQuery("DELETE FROM ReservationSeries s WHERE s.id IN :ids AND s.isDeleted = true")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
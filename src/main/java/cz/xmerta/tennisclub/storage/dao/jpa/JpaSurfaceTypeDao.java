@@ -0,0 +1,139 @@
+package cz.xmerta.tennisclub.storage.dao.jpa;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
+import cz.xmerta.tennisclub.storage.model.SurfaceType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile("!inmemory")
+public class JpaSurfaceTypeDao implements SurfaceTypeDao {
+
+    private static final String SELECT_VIEW = "SELECT new cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView(" +
+            "s.id, s.name, s.pricePerMinute) FROM SurfaceType s ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaSurfaceTypeDao(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public SurfaceType save(SurfaceType surfaceType) {
+        if (surfaceType.getId() == null) {
+            entityManager.persist(surfaceType);
+        } else {
+            surfaceType = entityManager.merge(surfaceType);
+        }
+        return surfaceType;
+    }
+
+    @Override
+    public Collection<SurfaceType> findAll() {
+        return entityManager.createQuery("SELECT s FROM SurfaceType s WHERE s.isDeleted = false", SurfaceType.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public KeysetPage<SurfaceType> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<SurfaceType> page = entityManager.createQuery(
+                        "SELECT s FROM SurfaceType s WHERE s.id > :afterId AND s.isDeleted = false ORDER BY s.id", SurfaceType.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        return KeysetPage.of(page, limit, surfaceType -> KeysetCursor.encode(surfaceType.getId()));
+    }
+
+    @Override
+    public List<SurfaceTypeView> findAllViews() {
+        return entityManager.createQuery(
+                        SELECT_VIEW + "WHERE s.isDeleted = false", SurfaceTypeView.class)
+                .getResultList();
+    }
+
+    @Override
+    public KeysetPage<SurfaceTypeView> findViewPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<SurfaceTypeView> page = entityManager.createQuery(
+                        SELECT_VIEW + "WHERE s.id > :afterId AND s.isDeleted = false ORDER BY s.id", SurfaceTypeView.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        return KeysetPage.of(page, limit, view -> KeysetCursor.encode(view.id()));
+    }
+
+    @Override
+    public Optional<SurfaceType> findById(Long id) {
+        return entityManager.createQuery("SELECT s FROM SurfaceType s WHERE s.id = :id AND s.isDeleted = false", SurfaceType.class)
+                .setParameter("id", id)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entityManager.createQuery(
+                        "UPDATE SurfaceType s SET s.isDeleted = true, s.deletedAt = :deletedAt " +
+                                "WHERE s.id = :id AND s.isDeleted = false")
+                .setParameter("id", id)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public void deleteAll() {
+        entityManager.createQuery(
+                        "UPDATE SurfaceType s SET s.isDeleted = true, s.deletedAt = :deletedAt WHERE s.isDeleted = false")
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT s.id FROM SurfaceType s WHERE s.isDeleted = true AND s.deletedAt < :deletedBefore " +
+                                "AND s.id > :afterId " +
+                                "AND NOT EXISTS (SELECT c.id FROM Court c WHERE c.surfaceType = s) " +
+                                "ORDER BY s.id", Long.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return entityManager.createQuery("DELETE FROM SurfaceType s WHERE s.id IN :ids AND s.isDeleted = true")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public Optional<SurfaceType> findByName(String name) {
+        return entityManager.createQuery(
+                        "SELECT s FROM SurfaceType s WHERE s.name = :name AND s.isDeleted = false", SurfaceType.class)
+                .setParameter("name", name)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+}
\ No newline at end of file
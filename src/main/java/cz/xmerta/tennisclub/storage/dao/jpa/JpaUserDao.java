@@ -0,0 +1,196 @@
+package cz.xmerta.tennisclub.storage.dao.jpa;
+
+import cz.xmerta.tennisclub.storage.dao.KeysetCursor;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("!inmemory")
+public class JpaUserDao implements UserDao {
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final int UPSERT_ATTEMPTS = 3;
+    private static final String UNIQUE_VIOLATION = "23505";
+    /**
+     * Inserts the user or revives a soft-deleted one, returning the ID either way. A live user keeps its name,
+     * the update only makes the row part of the result. The ID is drawn from the sequence Hibernate uses for
+     * users: its pooled-lo optimizer hands out the block starting at a fetched value, so the value taken here
+     * starts a block no session uses.
+     */
+    private static final String UPSERT = "SELECT id FROM FINAL TABLE (MERGE INTO users u " +
+            "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) AS s(phone_number, name) " +
+            "ON u.phone_number = s.phone_number " +
+            "WHEN MATCHED THEN UPDATE SET name = CASE WHEN u.is_deleted THEN s.name ELSE u.name END, is_deleted = FALSE, " +
+            "deleted_at = NULL " +
+            "WHEN NOT MATCHED THEN INSERT (id, phone_number, name, is_deleted) " +
+            "VALUES (NEXT VALUE FOR users_seq, s.phone_number, s.name, FALSE))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaUserDao(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public User save(User user) {
+        if (user.getId() == null) {
+            entityManager.persist(user);
+        } else {
+            user = entityManager.merge(user);
+        }
+        return user;
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return entityManager.createQuery(
+                        "SELECT u FROM User u WHERE u.isDeleted = false", User.class)
+                .getResultList();
+    }
+
+    @Override
+    public KeysetPage<User> findPage(String cursor, int limit) {
+        KeysetPage.checkLimit(limit);
+        long afterId = cursor == null ? 0L : KeysetCursor.decodeId(cursor);
+        List<User> page = entityManager.createQuery(
+                        "SELECT u FROM User u WHERE u.id > :afterId AND u.isDeleted = false ORDER BY u.id", User.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        return KeysetPage.of(page, limit, user -> KeysetCursor.encode(user.getId()));
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return entityManager.createQuery(
+                        "SELECT u FROM User u WHERE u.id = :id AND u.isDeleted = false", User.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entityManager.createQuery(
+                        "UPDATE User u SET u.isDeleted = true, u.deletedAt = :deletedAt " +
+                                "WHERE u.id = :id AND u.isDeleted = false")
+                .setParameter("id", id)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public void deleteAll() {
+        entityManager.createQuery(
+                        "UPDATE User u SET u.isDeleted = true, u.deletedAt = :deletedAt WHERE u.isDeleted = false")
+                .setParameter("deletedAt", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    @Override
+    public List<Long> findPurgeableIds(LocalDateTime deletedBefore, long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT u.id FROM User u WHERE u.isDeleted = true AND u.deletedAt < :deletedBefore " +
+                                "AND u.id > :afterId " +
+                                "AND NOT EXISTS (SELECT r.id FROM Reservation r WHERE r.user = u) " +
+                                "AND NOT EXISTS (SELECT s.id FROM ReservationSeries s WHERE s.user = u) " +
+                                "AND NOT EXISTS (SELECT a.id FROM ArchivedReservation a WHERE a.userId = u.id) " +
+                                "ORDER BY u.id", Long.class)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int purge(Collection<Long> ids) {
+        return entityManager.createQuery("DELETE FROM User u WHERE u.id IN :ids AND u.isDeleted = true")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public Optional<User> findByPhoneNumber(String phoneNumber) {
+        List<User> result = entityManager.createQuery(
+                        "SELECT u FROM User u WHERE u.phoneNumber = :phoneNumber AND u.isDeleted = false", User.class)
+                .setParameter("phoneNumber", phoneNumber)
+                .getResultList();
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
+    }
+
+    @Override
+    public User getReference(Long id) {
+        return entityManager.getReference(User.class, id);
+    }
+
+    @Override
+    public RowFingerprint findLiveFingerprint() {
+        // phone numbers are validated as + and 12 digits, operands are cast to Long,
+        // H2 types the remainder as narrow as the divisor
+        String x1 = "CAST(MOD(u.id * 65599, " + RowFingerprint.MODULUS + ") AS Long)";
+        String x2 = "(CAST(SUBSTRING(u.phoneNumber, 5) AS Long) + 1)";
+        String x3 = "(CAST(SUBSTRING(u.phoneNumber, 2, 3) AS Long) + 1)";
+        return entityManager.createQuery(
+                        "SELECT new cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint(COUNT(u), COALESCE(SUM(" +
+                                "MOD(MOD(" + x1 + " * " + x2 + ", " + RowFingerprint.MODULUS + ") * " + x3 + " + " + x2 +
+                                ", " + RowFingerprint.MODULUS + ")), 0L)) " +
+                                "FROM User u WHERE u.isDeleted = false", RowFingerprint.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public void forEachPhoneNumber(BiConsumer<String, Long> action) {
+        try (Stream<Object[]> rows = entityManager.createQuery(
+                        "SELECT u.phoneNumber, u.id FROM User u WHERE u.isDeleted = false", Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(row -> action.accept((String) row[0], (Long) row[1]));
+        }
+    }
+
+    /**
+     * Finds or creates the user in a single statement, run on the JDBC connection of the session, so a unique key
+     * violation by a concurrent insert of the same phone number does not mark the transaction for rollback.
+     * The statement is retried, then finding the row.
+     */
+    @Override
+    public long upsertByPhoneNumber(String phoneNumber, String name) {
+        // a user persisted earlier in the transaction must be in the table before the merge looks for it
+        entityManager.flush();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                statement.setString(1, phoneNumber);
+                statement.setString(2, name);
+                for (int attempt = 1; ; attempt++) {
+                    try (ResultSet result = statement.executeQuery()) {
+                        result.next();
+                        return result.getLong(1);
+                    } catch (SQLException e) {
+                        if (!UNIQUE_VIOLATION.equals(e.getSQLState()) || attempt == UPSERT_ATTEMPTS) {
+                            throw e;
+                        }
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package cz.xmerta.tennisclub.storage.dao.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the booked time of a court, selected directly by JPQL without loading entities.
+ * The reservation fields are null for a court that has no reservation in the queried window.
+ *
+ * @param reservationId ID of the reservation, null for a free court
+ * @param courtId ID of the court
+ * @param startTime start of the reservation, null for a free court
+ * @param endTime end of the reservation, null for a free court
+ */
+public record BookedInterval(Long reservationId, Long courtId, LocalDateTime startTime, LocalDateTime endTime) {
+}
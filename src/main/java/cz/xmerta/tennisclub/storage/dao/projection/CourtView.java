@@ -0,0 +1,11 @@
+package cz.xmerta.tennisclub.storage.dao.projection;
+
+/**
+ * Read-only projection of a court, selected directly by JPQL without loading the court or its surface type.
+ *
+ * @param id ID of the court
+ * @param name name of the court
+ * @param surfaceTypeId ID of the surface type of the court
+ */
+public record CourtView(Long id, String name, Long surfaceTypeId) {
+}
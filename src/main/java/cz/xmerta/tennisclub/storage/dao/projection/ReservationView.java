@@ -0,0 +1,23 @@
+package cz.xmerta.tennisclub.storage.dao.projection;
+
+import cz.xmerta.tennisclub.storage.model.GameType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a reservation with its user, selected directly by JPQL for the listing endpoints.
+ * No managed entity, proxy or dirty-checking snapshot is created for it.
+ *
+ * @param id ID of the reservation
+ * @param userId ID of the user
+ * @param phoneNumber phone number of the user
+ * @param userName name of the user
+ * @param courtId ID of the court
+ * @param startTime start of the reservation
+ * @param endTime end of the reservation
+ * @param gameType the game type
+ * @param price the price of the reservation
+ */
+public record ReservationView(Long id, Long userId, String phoneNumber, String userName, Long courtId,
+                              LocalDateTime startTime, LocalDateTime endTime, GameType gameType, double price) {
+}
@@ -0,0 +1,54 @@
+package cz.xmerta.tennisclub.storage.dao.projection;
+
+/**
+ * Number of the live rows of a table and the sum of a hash of every row, selected by JPQL in a single aggregate.
+ * The hash covers the ID and the indexed columns of the row, so an in-memory index restored from a journal
+ * matches only if it holds the same rows with the same content, not just the same IDs.
+ * The DAOs compute {@link #hash(long, long, long, long)} with the same arithmetic in JPQL.
+ *
+ * @param count number of live rows
+ * @param hashSum sum of the hashes of the rows, 0 for none
+ */
+public record RowFingerprint(Long count, Long hashSum) {
+
+    /**
+     * Prime all hash arithmetic is done modulo of, small enough for the products to fit into a long.
+     */
+    public static final long MODULUS = 2147483647L;
+
+    /**
+     * Splits a numeric phone number into the two hashed parts, its last nine digits and the rest.
+     */
+    public static final long PHONE_SPLIT = 1_000_000_000L;
+
+    /**
+     * Hashes a row into [0, {@link #MODULUS}). Non-linear in the columns, so a row whose columns change
+     * together, such as an interval moved in time, still changes the sum.
+     *
+     * @param id the ID of the row
+     * @param key the first hashed column, below 65599 times the modulus
+     * @param first the second hashed column, non-negative
+     * @param second the third hashed column, non-negative
+     * @return the hash of the row
+     */
+    public static long hash(long id, long key, long first, long second) {
+        long x1 = (id * 65599 + key) % MODULUS;
+        long x2 = first % MODULUS + 1;
+        long x3 = second % MODULUS + 1;
+        return (x1 * x2 % MODULUS * x3 + x2) % MODULUS;
+    }
+
+    /**
+     * @return hash of a booked interval, by court and epoch seconds of its start and end in UTC
+     */
+    public static long hashInterval(long id, long courtId, long startEpochSecond, long endEpochSecond) {
+        return hash(id, courtId, startEpochSecond, endEpochSecond);
+    }
+
+    /**
+     * @return hash of a user, by the digits of its phone number
+     */
+    public static long hashPhone(long id, long phoneDigits) {
+        return hash(id, 0, phoneDigits % PHONE_SPLIT, phoneDigits / PHONE_SPLIT);
+    }
+}
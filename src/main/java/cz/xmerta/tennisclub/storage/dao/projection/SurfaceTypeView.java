@@ -0,0 +1,11 @@
+package cz.xmerta.tennisclub.storage.dao.projection;
+
+/**
+ * Read-only projection of a surface type, selected directly by JPQL without loading the entity.
+ *
+ * @param id ID of the surface type
+ * @param name name of the surface type
+ * @param pricePerMinute price per minute of play
+ */
+public record SurfaceTypeView(Long id, String name, double pricePerMinute) {
+}
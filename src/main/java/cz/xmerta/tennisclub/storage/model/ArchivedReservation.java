@@ -0,0 +1,94 @@
+package cz.xmerta.tennisclub.storage.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reservation moved out of the {@code reservations} table once it ended long enough ago, kept for history only.
+ * It keeps the ID of the reservation and references its user, court and series by their IDs only,
+ * so the archive never constrains or loads the live tables.
+ */
+@Entity
+@Table(name = "reservations_archive", indexes = {
+        @Index(name = "idx_reservation_archive_user_start", columnList = "user_id, start_time"),
+        @Index(name = "idx_reservation_archive_court", columnList = "court_id")
+})
+public class ArchivedReservation {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "court_id", nullable = false)
+    private Long courtId;
+
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GameType gameType;
+
+    @Column(nullable = false)
+    private double price;
+
+    @Column(name = "is_deleted", nullable = false)
+    private boolean isDeleted;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * No-argument constructor for Hibernate.
+     */
+    protected ArchivedReservation() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCourtId() {
+        return courtId;
+    }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public boolean isDeleted() {
+        return isDeleted;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
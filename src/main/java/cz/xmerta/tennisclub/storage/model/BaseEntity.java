@@ -3,16 +3,29 @@ package cz.xmerta.tennisclub.storage.model;
 import jakarta.persistence.*;
 
 import java.io.Serializable;
-
+import java.time.LocalDateTime;
+
+/**
+ * Common base of all entities. IDs come from a sequence per table (e.g. {@code reservations_seq}),
+ * allocated in blocks by a pooled optimizer, so persisting new entities needs no round trip per row
+ * and Hibernate can send the inserts as JDBC batches. The block size is set by
+ * {@code spring.jpa.properties.app.id.allocation-size}, the optimizer by
+ * {@code hibernate.id.optimizer.pooled.preferred}.
+ * <p>
+ * Deletes are soft, the time of the delete is kept so the rows can be purged once the retention runs out.
+ */
 @MappedSuperclass
 public abstract class BaseEntity implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence
     private Long id;
 
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted = false;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Long getId() {
         return id;
     }
@@ -26,6 +39,18 @@ public abstract class BaseEntity implements Serializable {
     }
 
     public void setDeleted(boolean deleted) {
+        if (deleted && !isDeleted) {
+            deletedAt = LocalDateTime.now();
+        } else if (!deleted) {
+            deletedAt = null;
+        }
         isDeleted = deleted;
     }
+
+    /**
+     * @return when the entity was deleted, null for a live one
+     */
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
 }
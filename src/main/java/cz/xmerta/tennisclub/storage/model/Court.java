@@ -5,9 +5,17 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/**
+ * A court of the club. Courts are rarely changed and read on every booking, so they are kept
+ * in the second-level cache.
+ */
 @Entity
 @Table(name = "courts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Court extends BaseEntity {
 
     @NotBlank(message = "Name cannot be blank.")
@@ -17,7 +25,7 @@ public class Court extends BaseEntity {
 
     @Valid
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "surface_type_id", nullable = false)
     private SurfaceType surfaceType;
 
@@ -0,0 +1,33 @@
+package cz.xmerta.tennisclub.storage.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator whose block size comes from the {@value #ALLOCATION_SIZE_SETTING} Hibernate setting
+ * ({@code spring.jpa.properties.app.id.allocation-size}) instead of the mapping, so it can be tuned per deployment
+ * together with the JDBC batch size. Falls back to {@value #DEFAULT_ALLOCATION_SIZE} when the setting is missing.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "app.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object setting = serviceRegistry.requireService(ConfigurationService.class)
+                .getSettings()
+                .get(ALLOCATION_SIZE_SETTING);
+        int allocationSize = setting == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(setting.toString().trim());
+        if (allocationSize < 1) {
+            throw new MappingException(ALLOCATION_SIZE_SETTING + " must be positive: " + allocationSize);
+        }
+        parameters.put(INCREMENT_PARAM, Integer.toString(allocationSize));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservation_court_time", columnList = "court_id, start_time, end_time, is_deleted"),
+        @Index(name = "idx_reservation_start_id", columnList = "start_time, id"),
+        @Index(name = "idx_reservation_user_end", columnList = "user_id, end_time")
+})
 public class Reservation extends BaseEntity {
     /**
      * No-argument constructor for Hibernate.
@@ -31,22 +35,22 @@ public class Reservation extends BaseEntity {
 
     @Valid
     @NotNull(message = "User cannot be null.")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @Valid
     @NotNull(message = "Court cannot be null.")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "court_id", nullable = false)
     private Court court;
 
     @NotNull(message = "Start time cannot be null.")
-    @Column(nullable = false)
+    @Column(name = "start_time", nullable = false)
     private LocalDateTime startTime;
 
     @NotNull(message = "End time cannot be null.")
-    @Column(nullable = false)
+    @Column(name = "end_time", nullable = false)
     private LocalDateTime endTime;
 
     @NotNull(message = "Game type cannot be null.")
@@ -58,6 +62,10 @@ public class Reservation extends BaseEntity {
     @Column(nullable = false)
     private double price;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private ReservationSeries series;
+
     public User getUser() {
         return user;
     }
@@ -105,4 +113,15 @@ public class Reservation extends BaseEntity {
     public void setPrice(double price) {
         this.price = price;
     }
+
+    /**
+     * @return the recurring series this reservation is an occurrence of, null for a single reservation
+     */
+    public ReservationSeries getSeries() {
+        return series;
+    }
+
+    public void setSeries(ReservationSeries series) {
+        this.series = series;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package cz.xmerta.tennisclub.storage.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recurring booking of the same court at the same time every one or two weeks.
+ * It is expanded into concrete {@link Reservation} occurrences referencing it.
+ */
+@Entity
+@Table(name = "reservation_series")
+public class ReservationSeries extends BaseEntity {
+
+    @Valid
+    @NotNull(message = "User cannot be null.")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Valid
+    @NotNull(message = "Court cannot be null.")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "court_id", nullable = false)
+    private Court court;
+
+    @NotNull(message = "Start time cannot be null.")
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time cannot be null.")
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Min(value = 1, message = "Interval must be 1 or 2 weeks.")
+    @Max(value = 2, message = "Interval must be 1 or 2 weeks.")
+    @Column(nullable = false)
+    private int intervalWeeks;
+
+    @Min(value = 1, message = "Series must have at least one occurrence.")
+    @Max(value = 104, message = "Series can have at most 104 occurrences.")
+    @Column(nullable = false)
+    private int occurrences;
+
+    @NotNull(message = "Game type cannot be null.")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GameType gameType;
+
+    /**
+     * No-argument constructor for Hibernate.
+     */
+    protected ReservationSeries() {}
+
+    /**
+     * Argument constructor for testing and other.
+     */
+    public ReservationSeries(Long id, User user, Court court, LocalDateTime startTime, LocalDateTime endTime,
+                             int intervalWeeks, int occurrences, GameType gameType) {
+        this.setId(id);
+        this.user = user;
+        this.court = court;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.intervalWeeks = intervalWeeks;
+        this.occurrences = occurrences;
+        this.gameType = gameType;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Court getCourt() {
+        return court;
+    }
+
+    public void setCourt(Court court) {
+        this.court = court;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+
+    public void setIntervalWeeks(int intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public void setGameType(GameType gameType) {
+        this.gameType = gameType;
+    }
+}
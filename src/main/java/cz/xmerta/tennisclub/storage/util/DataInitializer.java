@@ -25,7 +25,8 @@ public class DataInitializer {
 
     @PostConstruct
     public void initialize() {
-        if (!initializeData) {
+        // a persistent store, such as the journal of the in-memory profile, keeps the catalog across restarts
+        if (!initializeData || !surfaceTypeService.findAll().isEmpty()) {
             return;
         }
 
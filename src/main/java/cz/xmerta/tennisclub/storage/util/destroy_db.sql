@@ -1,4 +1,11 @@
+DROP TABLE IF EXISTS RESERVATIONS_ARCHIVE;
 DROP TABLE IF EXISTS RESERVATIONS;
+DROP TABLE IF EXISTS RESERVATION_SERIES;
 DROP TABLE IF EXISTS COURTS;
 DROP TABLE IF EXISTS USERS;
 DROP TABLE IF EXISTS SURFACE_TYPES;
+DROP SEQUENCE IF EXISTS RESERVATIONS_SEQ;
+DROP SEQUENCE IF EXISTS RESERVATION_SERIES_SEQ;
+DROP SEQUENCE IF EXISTS COURTS_SEQ;
+DROP SEQUENCE IF EXISTS USERS_SEQ;
+DROP SEQUENCE IF EXISTS SURFACE_TYPES_SEQ;
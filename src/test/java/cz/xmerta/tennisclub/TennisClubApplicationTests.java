@@ -1,13 +1,33 @@
 package cz.xmerta.tennisclub;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
+@AutoConfigureTestDatabase
 class TennisClubApplicationTests {
 
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+    @Autowired
+    private ScheduledTaskHolder scheduledTasks;
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * A long archive or purge run must not hold up the expiry of slot holds, so no task waits for another.
+     */
+    @Test
+    void taskScheduler_ThreadPerScheduledTask() {
+        assertThat(taskScheduler.getPoolSize()).isGreaterThanOrEqualTo(scheduledTasks.getScheduledTasks().size());
+    }
+
 }
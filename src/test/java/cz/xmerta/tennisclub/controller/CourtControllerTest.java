@@ -1,8 +1,12 @@
 package cz.xmerta.tennisclub.controller;
 
 import cz.xmerta.tennisclub.controller.dto.mapper.CourtDtoMapper;
+import cz.xmerta.tennisclub.service.AvailabilityService;
 import cz.xmerta.tennisclub.service.CourtService;
 import cz.xmerta.tennisclub.service.SurfaceTypeService;
+import cz.xmerta.tennisclub.service.TimeSlot;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.CourtView;
 import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +18,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -31,6 +40,8 @@ class CourtControllerTest {
     private CourtService courtService;
     @MockBean
     private SurfaceTypeService surfaceTypeService;
+    @MockBean
+    private AvailabilityService availabilityService;
 
     private Court court1;
     private Court court2;
@@ -48,7 +59,8 @@ class CourtControllerTest {
 
     @Test
     void getAll() throws Exception {
-        when(courtService.findAll()).thenReturn(Arrays.asList(court1, court2));
+        when(courtService.findAllViews()).thenReturn(Arrays.asList(
+                new CourtView(1L, "Court 1", 1L), new CourtView(2L, "Court 2", 1L)));
 
         mockMvc.perform(get("/api/courts")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -59,7 +71,30 @@ class CourtControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].name").value("Court 2"));
 
-        verify(courtService, times(1)).findAll();
+        verify(courtService, times(1)).findAllViews();
+        verify(courtService, never()).findAll();
+    }
+
+    @Test
+    void getPage() throws Exception {
+        when(courtService.findPage("abc", 1)).thenReturn(new KeysetPage<>(List.of(court1), "def"));
+
+        mockMvc.perform(get("/api/courts?limit=1&cursor=abc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+
+        verify(courtService, never()).findAll();
+    }
+
+    @Test
+    void getPage_InvalidCursor() throws Exception {
+        when(courtService.findPage("abc", 1)).thenThrow(new IllegalArgumentException("Invalid cursor: abc"));
+
+        mockMvc.perform(get("/api/courts?limit=1&cursor=abc"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -194,4 +229,41 @@ class CourtControllerTest {
 
         verify(courtService, times(1)).deleteAll();
     }
+
+    @Test
+    void getAvailability_Ok() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 14, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 14, 20, 0);
+        Map<Long, List<TimeSlot>> freeSlots = new LinkedHashMap<>();
+        freeSlots.put(1L, List.of(new TimeSlot(from, LocalDateTime.of(2025, 1, 14, 10, 0))));
+        freeSlots.put(2L, List.of());
+        when(availabilityService.findFreeSlots(from, to, Duration.ofMinutes(30))).thenReturn(freeSlots);
+
+        mockMvc.perform(get("/api/courts/availability")
+                        .param("from", "2025-01-14T08:00:00")
+                        .param("to", "2025-01-14T20:00:00")
+                        .param("minDuration", "30")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].courtId").value(1))
+                .andExpect(jsonPath("$[0].freeSlots.length()").value(1))
+                .andExpect(jsonPath("$[0].freeSlots[0].startTime").value("2025-01-14T08:00:00"))
+                .andExpect(jsonPath("$[1].courtId").value(2))
+                .andExpect(jsonPath("$[1].freeSlots.length()").value(0));
+
+        verify(availabilityService, times(1)).findFreeSlots(from, to, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void getAvailability_InvalidWindow() throws Exception {
+        when(availabilityService.findFreeSlots(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Availability window start must be before its end."));
+
+        mockMvc.perform(get("/api/courts/availability")
+                        .param("from", "2025-01-14T20:00:00")
+                        .param("to", "2025-01-14T08:00:00")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,52 @@
+package cz.xmerta.tennisclub.controller;
+
+import cz.xmerta.tennisclub.service.job.BackgroundJobs;
+import cz.xmerta.tennisclub.service.job.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JobController.class)
+class JobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BackgroundJobs backgroundJobs;
+
+    @Test
+    void getById_ReportsProgress() throws Exception {
+        when(backgroundJobs.find(7L)).thenReturn(Optional.of(new JobStatus(7L, "reservations.delete-all",
+                JobStatus.State.RUNNING, 500L, 1200L, null, LocalDateTime.of(2025, 1, 14, 10, 0), null)));
+
+        mockMvc.perform(get("/api/jobs/7")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.processed").value(500))
+                .andExpect(jsonPath("$.total").value(1200));
+
+        verify(backgroundJobs, times(1)).find(7L);
+    }
+
+    @Test
+    void getById_WhenNotExists() throws Exception {
+        when(backgroundJobs.find(7L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/jobs/7")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+}
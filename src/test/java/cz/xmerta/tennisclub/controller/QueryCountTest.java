@@ -0,0 +1,182 @@
+package cz.xmerta.tennisclub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.service.index.PhoneNumberIndex;
+import cz.xmerta.tennisclub.service.readmodel.ReservationReadModel;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements every read endpoint issues. Associations are lazy and fetched by the DAO queries,
+ * so the count must not grow with the number of listed rows. Listings served by the read model must issue none.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "app.index-journal.enabled=false"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Transactional
+class QueryCountTest {
+
+    private static final int MAX_QUERIES_PER_REQUEST = 2;
+    private static final String PHONE_NUMBER = "+420111222333";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PhoneNumberIndex phoneNumberIndex;
+    @Autowired
+    private ReservationReadModel readModel;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User user;
+    private Court court;
+    private Reservation reservation;
+    private final List<Reservation> seeded = new ArrayList<>();
+
+    private record Measurement(long statements, int rows) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        user = new User(null, PHONE_NUMBER, "Query Counter");
+        entityManager.persist(user);
+        // the test transaction never commits, so the user is indexed and projected by hand
+        phoneNumberIndex.put(PHONE_NUMBER, user.getId());
+        readModel.on(new UserSavedEvent(user.getId(), PHONE_NUMBER, user.getName()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        phoneNumberIndex.remove(PHONE_NUMBER, user.getId());
+        readModel.on(new ReservationsDeletedEvent(seeded.stream().map(Reservation::getId).toList()));
+    }
+
+    @Test
+    void readEndpoints_QueryCountIndependentOfResultSize() throws Exception {
+        seed(1, 2, LocalDateTime.of(2032, 1, 1, 8, 0));
+        Map<String, Measurement> small = measure();
+
+        seed(5, 20, LocalDateTime.of(2032, 2, 1, 8, 0));
+        Map<String, Measurement> large = measure();
+
+        assertRows(small, 2, 2);
+        assertRows(large, 20, 102);
+        assertThat(statements(large)).isEqualTo(statements(small));
+        assertThat(statements(large).values())
+                .allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(MAX_QUERIES_PER_REQUEST));
+        // served by the read model, the paged variants by the database
+        assertThat(large.get("court reservations").statements()).isZero();
+        assertThat(large.get("user reservations").statements()).isZero();
+        assertThat(large.get("court reservation page").statements()).isPositive();
+        assertThat(large.get("user reservation page").statements()).isPositive();
+    }
+
+    /**
+     * @param courtRows reservations of the last seeded court
+     * @param userRows reservations of the user
+     */
+    private static void assertRows(Map<String, Measurement> measurements, int courtRows, int userRows) {
+        assertThat(measurements.get("court reservations").rows()).isEqualTo(courtRows);
+        assertThat(measurements.get("court reservation page").rows()).isEqualTo(courtRows);
+        assertThat(measurements.get("user reservations").rows()).isEqualTo(userRows);
+        assertThat(measurements.get("user reservation page").rows()).isEqualTo(userRows);
+    }
+
+    private static Map<String, Long> statements(Map<String, Measurement> measurements) {
+        Map<String, Long> statements = new LinkedHashMap<>();
+        measurements.forEach((endpoint, measurement) -> statements.put(endpoint, measurement.statements()));
+        return statements;
+    }
+
+    /**
+     * Adds courts, each with its own surface type, and reservations of the user spread over them.
+     * The test transaction never commits, so the reservations are passed to the read model by hand.
+     */
+    private void seed(int courts, int reservationsPerCourt, LocalDateTime from) {
+        for (int i = 0; i < courts; i++) {
+            SurfaceType surfaceType = new SurfaceType(null, "Counted " + from + " " + i, 1.0 + i);
+            entityManager.persist(surfaceType);
+            court = new Court(null, "Counted " + from + " " + i, surfaceType);
+            entityManager.persist(court);
+            for (int j = 0; j < reservationsPerCourt; j++) {
+                LocalDateTime start = from.plusHours(j);
+                reservation = new Reservation(null, user, court, start, start.plusMinutes(45), GameType.SINGLE, 45.0);
+                entityManager.persist(reservation);
+                seeded.add(reservation);
+            }
+        }
+        entityManager.flush();
+        readModel.on(ReservationsSavedEvent.of(seeded));
+    }
+
+    /**
+     * @return number of statements and listed rows per endpoint, keyed by a label that does not depend
+     * on the seeded IDs
+     */
+    private Map<String, Measurement> measure() throws Exception {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put("all reservations", "/api/reservations");
+        endpoints.put("reservation page", "/api/reservations?limit=500");
+        endpoints.put("reservation", "/api/reservations/" + reservation.getId());
+        endpoints.put("court reservations", "/api/reservations/court/" + court.getId());
+        endpoints.put("court reservation page", "/api/reservations/court/" + court.getId() + "?limit=500");
+        endpoints.put("user reservations", "/api/reservations/user/" + PHONE_NUMBER + "?pastReservations=true");
+        endpoints.put("user reservation page", "/api/reservations/user/" + PHONE_NUMBER + "?pastReservations=true&limit=500");
+        endpoints.put("all courts", "/api/courts");
+        endpoints.put("court page", "/api/courts?limit=500");
+        endpoints.put("court", "/api/courts/" + court.getId());
+        endpoints.put("all surface types", "/api/surfacetypes");
+
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+            measurements.put(endpoint.getKey(), measure(endpoint.getValue()));
+        }
+        return measurements;
+    }
+
+    /**
+     * Runs the request against an empty persistence context, so nothing is served from the first level cache.
+     * The request is made once before counting, so application caches are equally warm for every dataset.
+     */
+    private Measurement measure(String url) throws Exception {
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        String body = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        long statements = statistics.getPrepareStatementCount();
+        JsonNode json = objectMapper.readTree(body);
+        JsonNode rows = json.has("items") ? json.get("items") : json;
+        return new Measurement(statements, rows.isArray() ? rows.size() : 1);
+    }
+}
@@ -2,7 +2,13 @@ package cz.xmerta.tennisclub.controller;
 
 import cz.xmerta.tennisclub.controller.dto.mapper.ReservationDtoMapper;
 import cz.xmerta.tennisclub.service.CourtService;
+import cz.xmerta.tennisclub.service.ReservationBatchResult;
 import cz.xmerta.tennisclub.service.ReservationService;
+import cz.xmerta.tennisclub.service.hold.ReservationHold;
+import cz.xmerta.tennisclub.service.job.JobStatus;
+import cz.xmerta.tennisclub.service.job.ReservationDeleteAllJob;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
 import cz.xmerta.tennisclub.storage.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,9 +18,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -32,10 +41,14 @@ class ReservationControllerTest {
     private ReservationService reservationService;
     @MockBean
     private CourtService courtService;
+    @MockBean
+    private ReservationDeleteAllJob reservationDeleteAllJob;
 
     private Reservation reservation1;
     private Reservation reservation2;
     private Reservation updatedReservation;
+    private ReservationView view1;
+    private ReservationView view2;
 
     @BeforeEach
     void setUp() {
@@ -73,11 +86,20 @@ class ReservationControllerTest {
                 GameType.SINGLE,
                 40.0
         );
+
+        view1 = viewOf(reservation1);
+        view2 = viewOf(reservation2);
+    }
+
+    private static ReservationView viewOf(Reservation reservation) {
+        return new ReservationView(reservation.getId(), reservation.getUser().getId(),
+                reservation.getUser().getPhoneNumber(), reservation.getUser().getName(), reservation.getCourt().getId(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getGameType(), reservation.getPrice());
     }
 
     @Test
     void getAll() throws Exception {
-        when(reservationService.findAll()).thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationService.findAllViews()).thenReturn(Arrays.asList(view1, view2));
 
         mockMvc.perform(get("/api/reservations")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -85,15 +107,18 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].price").value(30.0))
+                .andExpect(jsonPath("$[0].user.phoneNumber").value("+420123456789"))
+                .andExpect(jsonPath("$[0].courtId").value(1))
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].price").value(25.0));
 
-        verify(reservationService, times(1)).findAll();
+        verify(reservationService, times(1)).findAllViews();
+        verify(reservationService, never()).findAll();
     }
 
     @Test
     void getById_WhenExists() throws Exception {
-        when(reservationService.findById(1L)).thenReturn(Optional.of(reservation1));
+        when(reservationService.findViewById(1L)).thenReturn(Optional.of(view1));
 
         mockMvc.perform(get("/api/reservations/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -101,18 +126,18 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.price").value(30.0));
 
-        verify(reservationService, times(1)).findById(1L);
+        verify(reservationService, times(1)).findViewById(1L);
     }
 
     @Test
     void getById_WhenNotExists() throws Exception {
-        when(reservationService.findById(1L)).thenReturn(Optional.empty());
+        when(reservationService.findViewById(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/reservations/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(reservationService, times(1)).findById(1L);
+        verify(reservationService, times(1)).findViewById(1L);
     }
 
     @Test
@@ -198,19 +223,24 @@ class ReservationControllerTest {
     }
 
     @Test
-    void deleteAll() throws Exception {
-        doNothing().when(reservationService).deleteAll();
+    void deleteAll_StartsJob() throws Exception {
+        when(reservationDeleteAllJob.start()).thenReturn(new JobStatus(7L, "reservations.delete-all",
+                JobStatus.State.QUEUED, 0L, null, null, LocalDateTime.of(2025, 1, 14, 10, 0), null));
 
         mockMvc.perform(delete("/api/reservations")
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/7"))
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
 
-        verify(reservationService, times(1)).deleteAll();
+        verify(reservationDeleteAllJob, times(1)).start();
+        verify(reservationService, never()).deleteAll();
     }
 
     @Test
     void getReservationsByCourt() throws Exception {
-        when(reservationService.getReservationsByCourtID(1L)).thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationService.getReservationViewsByCourtID(1L)).thenReturn(Arrays.asList(view1, view2));
 
         mockMvc.perform(get("/api/reservations/court/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -221,13 +251,13 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].price").value(25.0));
 
-        verify(reservationService, times(1)).getReservationsByCourtID(1L);
+        verify(reservationService, times(1)).getReservationViewsByCourtID(1L);
     }
 
     @Test
     void getReservationsByUser_Ok() throws Exception {
-        when(reservationService.getUpcomingReservationsByUserPhoneNumber("+420123456789"))
-                .thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationService.getReservationViewsByUserPhoneNumber("+420123456789", true))
+                .thenReturn(Arrays.asList(view1, view2));
 
         mockMvc.perform(get("/api/reservations/user/+420123456789")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -238,12 +268,12 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].price").value(25.0));
 
-        verify(reservationService, times(1)).getUpcomingReservationsByUserPhoneNumber("+420123456789");
+        verify(reservationService, times(1)).getReservationViewsByUserPhoneNumber("+420123456789", true);
     }
 
     @Test
     void getReservationsByUser_UserNotFound() throws Exception {
-        when(reservationService.getUpcomingReservationsByUserPhoneNumber("+420123456789"))
+        when(reservationService.getReservationViewsByUserPhoneNumber("+420123456789", true))
                 .thenThrow(new IllegalArgumentException("User with phone number +420123456789 not found."));
 
         mockMvc.perform(get("/api/reservations/user/+420123456789")
@@ -251,6 +281,211 @@ class ReservationControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("User with phone number +420123456789 not found."));
 
-        verify(reservationService, times(1)).getUpcomingReservationsByUserPhoneNumber("+420123456789");
+        verify(reservationService, times(1)).getReservationViewsByUserPhoneNumber("+420123456789", true);
+    }
+
+    @Test
+    void getReservationHistoryByUser_Ok() throws Exception {
+        when(reservationService.getReservationHistoryByUserPhoneNumber("+420123456789"))
+                .thenReturn(Arrays.asList(view1, view2));
+
+        mockMvc.perform(get("/api/reservations/user/+420123456789/history")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+
+        verify(reservationService, times(1)).getReservationHistoryByUserPhoneNumber("+420123456789");
+    }
+
+    @Test
+    void createBatch_ReportsEveryItem() throws Exception {
+        when(reservationService.getCourtService()).thenReturn(courtService);
+        when(courtService.findAllByIds(any())).thenReturn(Map.of(1L, reservation1.getCourt()));
+        when(reservationService.saveBatch(anyList())).thenReturn(Arrays.asList(
+                ReservationBatchResult.created(reservation1),
+                ReservationBatchResult.conflict("The reservation time overlaps with another reservation of the batch.")));
+
+        mockMvc.perform(post("/api/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"price\": 1.0, \"gameType\": \"SINGLE\"}," +
+                                "{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"123\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"price\": 1.0, \"gameType\": \"SINGLE\"}," +
+                                "{\"courtId\": 9, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"price\": 1.0, \"gameType\": \"SINGLE\"}," +
+                                "{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:30\", \"endTime\": \"2025-01-14T11:30\", \"price\": 1.0, \"gameType\": \"SINGLE\"}," +
+                                "null" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].price").value(30.0))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[2].status").value("INVALID"))
+                .andExpect(jsonPath("$[2].message").value("Court ID 9 does not exist."))
+                .andExpect(jsonPath("$[3].index").value(3))
+                .andExpect(jsonPath("$[3].status").value("CONFLICT"))
+                .andExpect(jsonPath("$[4].status").value("INVALID"))
+                .andExpect(jsonPath("$[4].message").value("Reservation must not be null."));
+
+        verify(reservationService, times(1)).saveBatch(argThat(reservations -> reservations.size() == 2));
+        verify(courtService, never()).findById(anyLong());
+    }
+
+    @Test
+    void createSeries_Ok() throws Exception {
+        when(reservationService.getCourtService()).thenReturn(courtService);
+        when(courtService.findById(1L)).thenReturn(Optional.of(reservation1.getCourt()));
+        when(reservationService.saveSeries(any(ReservationSeries.class))).thenReturn(List.of(reservation1, reservation2));
+
+        mockMvc.perform(post("/api/reservations/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"intervalWeeks\": 1, \"occurrences\": 2, \"gameType\": \"SINGLE\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+
+        verify(reservationService, times(1)).saveSeries(argThat(series ->
+                series.getIntervalWeeks() == 1 && series.getOccurrences() == 2));
+    }
+
+    @Test
+    void createSeries_InvalidInterval() throws Exception {
+        mockMvc.perform(post("/api/reservations/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"intervalWeeks\": 3, \"occurrences\": 2, \"gameType\": \"SINGLE\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(reservationService, never()).saveSeries(any());
+    }
+
+    @Test
+    void deleteSeries_WhenNotExists() throws Exception {
+        when(reservationService.findSeriesById(5L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/reservations/series/5"))
+                .andExpect(status().isNotFound());
+
+        verify(reservationService, never()).deleteSeries(anyLong());
+    }
+
+    @Test
+    void createHold_Ok() throws Exception {
+        when(reservationService.getCourtService()).thenReturn(courtService);
+        when(courtService.findById(1L)).thenReturn(Optional.of(reservation1.getCourt()));
+        when(reservationService.placeHold(any(Reservation.class), eq(java.time.Duration.ofMinutes(5))))
+                .thenReturn(new ReservationHold(7L, reservation1, LocalDateTime.of(2025, 1, 10, 8, 5)));
+
+        mockMvc.perform(post("/api/reservations/holds?minutes=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"price\": 1.0, \"gameType\": \"SINGLE\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.price").value(30.0))
+                .andExpect(jsonPath("$.expiresAt").value("2025-01-10T08:05:00"));
+    }
+
+    @Test
+    void createHold_TooLong() throws Exception {
+        mockMvc.perform(post("/api/reservations/holds?minutes=120")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courtId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"price\": 1.0, \"gameType\": \"SINGLE\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(reservationService, never()).placeHold(any(), any());
+    }
+
+    @Test
+    void confirmHold_Ok() throws Exception {
+        when(reservationService.confirmHold(7L)).thenReturn(reservation1);
+
+        mockMvc.perform(post("/api/reservations/holds/7/confirm"))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("30.0"));
+    }
+
+    @Test
+    void releaseHold_WhenNotExists() throws Exception {
+        when(reservationService.releaseHold(7L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/reservations/holds/7"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createOnAnyCourt_Ok() throws Exception {
+        when(reservationService.saveToBestFitCourt(any(Reservation.class), eq(1L))).thenReturn(reservation1);
+
+        mockMvc.perform(post("/api/reservations/auto")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"surfaceTypeId\": 1, \"user\": {\"name\": \"John Doe\", \"phoneNumber\": \"+420123456789\"}, \"startTime\": \"2025-01-14T10:00\", \"endTime\": \"2025-01-14T11:00\", \"gameType\": \"SINGLE\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.courtId").value(1))
+                .andExpect(jsonPath("$.price").value(30.0));
+
+        verify(reservationService, times(1)).saveToBestFitCourt(argThat(reservation -> reservation.getCourt() == null), eq(1L));
+    }
+
+    @Test
+    void getPage() throws Exception {
+        when(reservationService.findViewPage(null, 2)).thenReturn(new KeysetPage<>(List.of(view1, view2), "next"));
+
+        mockMvc.perform(get("/api/reservations?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(reservationService, never()).findAll();
+    }
+
+    @Test
+    void getPageByUser_UpcomingByDefault() throws Exception {
+        when(reservationService.getReservationViewPageByUserPhoneNumber("+420123456789", true, "abc", 5))
+                .thenReturn(new KeysetPage<>(List.of(view2), null));
+
+        mockMvc.perform(get("/api/reservations/user/+420123456789?limit=5&cursor=abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void export_StreamsJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            java.util.function.Consumer<Reservation> action = invocation.getArgument(2);
+            action.accept(reservation1);
+            action.accept(reservation2);
+            return null;
+        }).when(reservationService).exportReservations(eq(LocalDateTime.of(2025, 1, 14, 0, 0)), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/reservations/export?from=2025-01-14T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+        verify(reservationService, never()).findAll();
+    }
+
+    @Test
+    void streamAll_EmptyArray() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reservations?stream=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+        verify(reservationService, times(1)).exportReservations(isNull(), isNull(), any());
+    }
+
+    @Test
+    void export_InvalidWindow() throws Exception {
+        mockMvc.perform(get("/api/reservations/export?from=2025-01-14T00:00:00&to=2025-01-13T00:00:00"))
+                .andExpect(status().isBadRequest());
     }
 }
@@ -0,0 +1,105 @@
+package cz.xmerta.tennisclub.controller;
+
+import cz.xmerta.tennisclub.service.index.PhoneNumberIndex;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Updates an occurrence of a series through the API and cancels the series, against the database.
+ */
+@SpringBootTest(properties = "app.index-journal.enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Transactional
+class ReservationSeriesUpdateTest {
+
+    private static final String PHONE_NUMBER = "+420111222444";
+    private static final LocalDateTime START = LocalDateTime.of(2033, 3, 7, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PhoneNumberIndex phoneNumberIndex;
+    @Autowired
+    private ReservationDao reservationDao;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User user;
+    private Court court;
+    private ReservationSeries series;
+    private final List<Reservation> occurrences = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = new User(null, PHONE_NUMBER, "Series Player");
+        entityManager.persist(user);
+        // the test transaction never commits, so the user is indexed by hand
+        phoneNumberIndex.put(PHONE_NUMBER, user.getId());
+        SurfaceType surfaceType = new SurfaceType(null, "Series clay", 1.0);
+        entityManager.persist(surfaceType);
+        court = new Court(null, "Series court", surfaceType);
+        entityManager.persist(court);
+        series = new ReservationSeries(null, user, court, START, START.plusHours(1), 1, 3, GameType.SINGLE);
+        entityManager.persist(series);
+        for (int week = 0; week < series.getOccurrences(); week++) {
+            Reservation occurrence = new Reservation(null, user, court, START.plusWeeks(week),
+                    START.plusWeeks(week).plusHours(1), GameType.SINGLE, 60.0);
+            occurrence.setSeries(series);
+            entityManager.persist(occurrence);
+            occurrences.add(occurrence);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        phoneNumberIndex.remove(PHONE_NUMBER, user.getId());
+    }
+
+    @Test
+    void deleteSeries_CancelsUpdatedOccurrence() throws Exception {
+        Reservation updated = occurrences.get(1);
+        mockMvc.perform(put("/api/reservations/" + updated.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"courtId\": " + court.getId() + ", \"user\": {\"name\": \"Series Player\", " +
+                                "\"phoneNumber\": \"" + PHONE_NUMBER + "\"}, \"startTime\": \"2033-03-14T12:00\", " +
+                                "\"endTime\": \"2033-03-14T13:00\", \"gameType\": \"DOUBLE\", \"price\": 1}"))
+                .andExpect(status().isOk());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(reservationDao.findIdsBySeriesId(series.getId()))
+                .containsExactlyInAnyOrderElementsOf(occurrences.stream().map(Reservation::getId).toList());
+
+        mockMvc.perform(delete("/api/reservations/series/" + series.getId()))
+                .andExpect(status().isNoContent());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(reservationDao.findById(updated.getId())).isEmpty();
+        assertThat(reservationDao.findIdsBySeriesId(series.getId())).isEmpty();
+    }
+}
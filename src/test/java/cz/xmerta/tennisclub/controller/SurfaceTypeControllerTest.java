@@ -1,6 +1,7 @@
 package cz.xmerta.tennisclub.controller;
 
 import cz.xmerta.tennisclub.service.SurfaceTypeService;
+import cz.xmerta.tennisclub.storage.dao.projection.SurfaceTypeView;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import cz.xmerta.tennisclub.controller.dto.mapper.SurfaceTypeDtoMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,7 +43,8 @@ class SurfaceTypeControllerTest {
 
     @Test
     void getAll() throws Exception {
-        when(surfaceTypeService.findAll()).thenReturn(Arrays.asList(surfaceType1, surfaceType2));
+        when(surfaceTypeService.findAllViews()).thenReturn(Arrays.asList(
+                new SurfaceTypeView(1L, "Clay", 0.5), new SurfaceTypeView(2L, "Grass", 0.8)));
 
         mockMvc.perform(get("/api/surfacetypes")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -53,7 +55,8 @@ class SurfaceTypeControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].name").value("Grass"));
 
-        verify(surfaceTypeService, times(1)).findAll();
+        verify(surfaceTypeService, times(1)).findAllViews();
+        verify(surfaceTypeService, never()).findAll();
     }
 
     @Test
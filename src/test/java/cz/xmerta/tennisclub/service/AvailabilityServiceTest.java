@@ -0,0 +1,131 @@
+package cz.xmerta.tennisclub.service;
+
+import cz.xmerta.tennisclub.service.hold.SlotHolds;
+import cz.xmerta.tennisclub.service.index.CourtIntervalIndex;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceTest {
+
+    @Mock
+    private ReservationDao reservationDao;
+
+    @Mock
+    private CourtService courtService;
+
+    @Spy
+    private CourtIntervalIndex reservationIndex = new CourtIntervalIndex();
+
+    @Spy
+    private SlotHolds slotHolds = new SlotHolds(1000);
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        from = at(8, 0);
+        to = at(20, 0);
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2025, 1, 14, hour, minute);
+    }
+
+    @Test
+    void findFreeSlots_GapsPerCourt() {
+        when(reservationDao.findCourtOccupancy(from, to)).thenReturn(Arrays.asList(
+                new BookedInterval(1L, 1L, at(7, 0), at(9, 0)),
+                new BookedInterval(2L, 1L, at(10, 0), at(11, 0)),
+                new BookedInterval(3L, 1L, at(11, 0), at(12, 0)),
+                new BookedInterval(4L, 1L, at(19, 30), at(21, 0)),
+                new BookedInterval(null, 2L, null, null)
+        ));
+
+        Map<Long, List<TimeSlot>> freeSlots = availabilityService.findFreeSlots(from, to, Duration.ZERO);
+
+        assertThat(freeSlots.keySet()).containsExactly(1L, 2L);
+        assertThat(freeSlots.get(1L)).containsExactly(
+                new TimeSlot(at(9, 0), at(10, 0)),
+                new TimeSlot(at(12, 0), at(19, 30)));
+        assertThat(freeSlots.get(2L)).containsExactly(new TimeSlot(from, to));
+        verify(reservationDao, times(1)).findCourtOccupancy(from, to);
+    }
+
+    @Test
+    void findFreeSlots_ShortGapsSkipped() {
+        when(reservationDao.findCourtOccupancy(from, to)).thenReturn(Arrays.asList(
+                new BookedInterval(1L, 1L, at(8, 0), at(9, 0)),
+                new BookedInterval(2L, 1L, at(9, 15), at(20, 0))
+        ));
+
+        Map<Long, List<TimeSlot>> freeSlots = availabilityService.findFreeSlots(from, to, Duration.ofMinutes(30));
+
+        assertThat(freeSlots.get(1L)).isEmpty();
+    }
+
+    @Test
+    void findFreeSlots_WarmIndexWithoutQuery() {
+        SurfaceType clay = new SurfaceType(1L, "Clay", 5.0);
+        when(courtService.findAll()).thenReturn(List.of(new Court(2L, "Court 2", clay), new Court(1L, "Court 1", clay)));
+        reservationIndex.rebuild(List.of(
+                new CourtIntervalIndex.Interval(1L, 1L, at(7, 0), at(9, 0)),
+                new CourtIntervalIndex.Interval(2L, 1L, at(10, 0), at(11, 0)),
+                new CourtIntervalIndex.Interval(3L, 1L, at(19, 30), at(21, 0)),
+                new CourtIntervalIndex.Interval(4L, 1L, at(21, 0), at(22, 0)),
+                new CourtIntervalIndex.Interval(5L, 3L, at(10, 0), at(11, 0))));
+
+        Map<Long, List<TimeSlot>> freeSlots = availabilityService.findFreeSlots(from, to, Duration.ZERO);
+
+        assertThat(freeSlots.keySet()).containsExactly(1L, 2L);
+        assertThat(freeSlots.get(1L)).containsExactly(
+                new TimeSlot(at(9, 0), at(10, 0)),
+                new TimeSlot(at(11, 0), at(19, 30)));
+        assertThat(freeSlots.get(2L)).containsExactly(new TimeSlot(from, to));
+        verify(reservationDao, never()).findCourtOccupancy(any(), any());
+    }
+
+    @Test
+    void findFreeSlots_HeldSlotNotFree() {
+        Court court = new Court(1L, "Court 1", new SurfaceType(1L, "Clay", 5.0));
+        when(courtService.findAll()).thenReturn(List.of(court));
+        reservationIndex.rebuild(List.of(new CourtIntervalIndex.Interval(1L, 1L, at(12, 0), at(13, 0))));
+        slotHolds.add(new Reservation(null, new User(null, "+420123456789", "John Doe"), court,
+                at(10, 0), at(11, 0), GameType.SINGLE, 30.0), Duration.ofMinutes(10));
+
+        Map<Long, List<TimeSlot>> freeSlots = availabilityService.findFreeSlots(from, to, Duration.ZERO);
+
+        assertThat(freeSlots.get(1L)).containsExactly(
+                new TimeSlot(from, at(10, 0)),
+                new TimeSlot(at(11, 0), at(12, 0)),
+                new TimeSlot(at(13, 0), to));
+    }
+
+    @Test
+    void findFreeSlots_InvalidWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityService.findFreeSlots(to, from, Duration.ZERO));
+        verify(reservationDao, never()).findCourtOccupancy(any(), any());
+    }
+}
@@ -0,0 +1,105 @@
+package cz.xmerta.tennisclub.service;
+
+import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.model.Court;
+import cz.xmerta.tennisclub.storage.model.SurfaceType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Courts and surface types are served from the second-level and query cache once loaded, and every write
+ * through the services, soft deletes included, is visible to the next lookup.
+ * Not transactional, each service call commits on its own so the cache sees the same lifecycle as in production.
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "app.index-journal.enabled=false"})
+@AutoConfigureTestDatabase
+class CatalogCacheTest {
+
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private SurfaceTypeService surfaceTypeService;
+    @Autowired
+    private CourtDao courtDao;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private SurfaceType surfaceType;
+    private Court court;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String suffix = Long.toString(System.nanoTime());
+        surfaceType = surfaceTypeService.save(new SurfaceType(null, "Cached " + suffix, 1.5));
+        court = courtService.save(new Court(null, "Cached " + suffix, surfaceType));
+    }
+
+    @Test
+    void findById_RepeatedLookupsHitNoDatabase() {
+        courtService.findById(court.getId());
+        courtService.findById(court.getId());
+        statistics.clear();
+
+        Court cached = courtService.findById(court.getId()).orElseThrow();
+
+        assertThat(cached.getName()).isEqualTo(court.getName());
+        assertThat(cached.getSurfaceType().getId()).isEqualTo(surfaceType.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void save_InvalidatesCachedCourt() {
+        courtService.findById(court.getId());
+        courtDao.findByName(court.getName());
+
+        courtService.save(new Court(court.getId(), court.getName() + " renamed", surfaceType));
+
+        assertThat(courtService.findById(court.getId())).get()
+                .extracting(Court::getName).isEqualTo(court.getName() + " renamed");
+        assertThat(courtDao.findByName(court.getName())).isEmpty();
+    }
+
+    @Test
+    void softDelete_InvalidatesCachedCourtAndQueries() {
+        courtService.findById(court.getId());
+        courtDao.findByName(court.getName());
+        int catalogSize = courtService.findAll().size();
+
+        courtService.deleteById(court.getId());
+
+        assertThat(courtService.findById(court.getId())).isEmpty();
+        assertThat(courtDao.findByName(court.getName())).isEmpty();
+        assertThat(courtService.findAll()).hasSize(catalogSize - 1);
+    }
+
+    @Test
+    void softDelete_InvalidatesCachedSurfaceType() {
+        surfaceTypeService.findById(surfaceType.getId());
+        surfaceTypeService.findById(surfaceType.getId());
+
+        surfaceTypeService.deleteById(surfaceType.getId());
+
+        assertThat(surfaceTypeService.findById(surfaceType.getId())).isEmpty();
+    }
+
+    @Test
+    void surfaceTypeUpdate_InvalidatesCachedSurfaceType() {
+        surfaceTypeService.findById(surfaceType.getId());
+
+        surfaceTypeService.save(new SurfaceType(surfaceType.getId(), surfaceType.getName(), 2.5));
+
+        assertThat(surfaceTypeService.findById(surfaceType.getId())).get()
+                .extracting(SurfaceType::getPricePerMinute).isEqualTo(2.5);
+    }
+}
@@ -0,0 +1,254 @@
+package cz.xmerta.tennisclub.service;
+
+import cz.xmerta.tennisclub.service.lock.CourtLocks;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress test of concurrent bookings: many threads compete for the same slots, only one booking of each slot
+ * may win, and threads booking different slots must all succeed. The stored rows are checked in the database.
+ * Bookings of courts behind different lock stripes must be in flight at the same time, and the throughput
+ * of uncontended bookings is reported to the test report.
+ */
+@SpringBootTest(properties = "app.index-journal.enabled=false")
+@AutoConfigureTestDatabase
+class ReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SLOTS_PER_COURT = 25;
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private CourtService courtService;
+    @Autowired
+    private SurfaceTypeService surfaceTypeService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ReservationDao reservationDao;
+    @Autowired
+    private CourtLocks courtLocks;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Court> courts;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = Long.toString(System.nanoTime());
+        SurfaceType surfaceType = surfaceTypeService.save(new SurfaceType(null, "Stress " + suffix, 1.0));
+        courts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            courts.add(courtService.save(new Court(null, "Stress " + i + " " + suffix, surfaceType)));
+        }
+        String phoneNumber = "+420" + suffix.substring(suffix.length() - 9);
+        user = userService.findByPhoneNumber(phoneNumber)
+                .orElseGet(() -> userService.save(new User(null, phoneNumber, "Stress Tester")));
+    }
+
+    private Reservation reservationAt(Court court, LocalDateTime start) {
+        return new Reservation(null, new User(null, user.getPhoneNumber(), user.getName()), court,
+                start, start.plusMinutes(45), GameType.SINGLE, 1.0);
+    }
+
+    @Test
+    void concurrentBookings_SameSlots_NoDoubleBooking() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2031, 3, 1, 0, 0);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int slot = 0; slot < SLOTS_PER_COURT; slot++) {
+                for (Court court : courts) {
+                    // slots start every 30 minutes and last 45, so neighbours overlap as well
+                    try {
+                        reservationService.save(reservationAt(court, day.plusMinutes(30L * slot)));
+                        booked.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        assertThat(booked.get() + rejected.get()).isEqualTo(THREADS * SLOTS_PER_COURT * courts.size());
+        assertThat(storedRows()).isEqualTo(booked.get());
+        for (Court court : courts) {
+            assertNoOverlap(reservationDao.findViewsByCourtId(court.getId()));
+        }
+        // winners form a maximal set of non-overlapping slots, so at least every third slot is booked
+        assertThat(booked.get()).isGreaterThanOrEqualTo(courts.size() * ((SLOTS_PER_COURT + 2) / 3));
+    }
+
+    @Test
+    void concurrentBookings_DistinctSlots_AllBooked(TestReporter reporter) throws Exception {
+        LocalDateTime day = LocalDateTime.of(2031, 4, 1, 0, 0);
+        AtomicInteger booked = new AtomicInteger();
+        long startedAt = System.nanoTime();
+
+        runConcurrently(thread -> {
+            for (int slot = 0; slot < SLOTS_PER_COURT; slot++) {
+                for (Court court : courts) {
+                    LocalDateTime start = day.plusDays(thread).plusMinutes(45L * slot);
+                    reservationService.save(reservationAt(court, start));
+                    booked.incrementAndGet();
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        // reported, not asserted, the rate depends on the machine
+        reporter.publishEntry("bookingsPerSecond", String.format("%.0f", booked.get() / seconds));
+
+        assertThat(booked.get()).isEqualTo(THREADS * SLOTS_PER_COURT * courts.size());
+        assertThat(storedRows()).isEqualTo(booked.get());
+        for (Court court : courts) {
+            assertNoOverlap(reservationDao.findViewsByCourtId(court.getId()));
+        }
+    }
+
+    @Test
+    void concurrentBookings_CourtsOfDifferentStripes_InFlightTogether() throws Exception {
+        Court[] pair = courtsOfDifferentStripes();
+        LocalDateTime start = LocalDateTime.of(2031, 6, 1, 10, 0);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch bothBooked = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Court court : pair) {
+                futures.add(executor.submit(() -> transaction.execute(status -> {
+                    reservationService.save(reservationAt(court, start));
+                    // the court stays locked until the transaction completes, so the other booking
+                    // can only get here meanwhile if its court is locked separately
+                    bothBooked.countDown();
+                    return awaitOther(bothBooked);
+                })));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(1, TimeUnit.MINUTES)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(storedRows()).isEqualTo(2);
+    }
+
+    /**
+     * @return two of the test courts whose bookings are serialized by different lock stripes
+     */
+    private Court[] courtsOfDifferentStripes() {
+        for (Court first : courts) {
+            for (Court second : courts) {
+                // a court of the same stripe is locked by the thread holding the first one
+                if (first != second && !courtLocks.callLocked(first.getId(),
+                        () -> courtLocks.isHeldByCurrentThread(second.getId()))) {
+                    return new Court[]{first, second};
+                }
+            }
+        }
+        throw new IllegalStateException("All test courts share a lock stripe");
+    }
+
+    private static boolean awaitOther(CountDownLatch bothBooked) {
+        try {
+            return bothBooked.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Test
+    void concurrentBookings_FirstTimeUsers_OneUserPerPhoneNumber() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2031, 5, 1, 0, 0);
+        long base = System.nanoTime() % 1_000_000_000L;
+        List<String> phoneNumbers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            phoneNumbers.add(String.format("+421%09d", (base + i) % 1_000_000_000L));
+        }
+
+        runConcurrently(thread -> {
+            // every thread books its own slots, all of them first bookings of the same phone numbers
+            Court court = courts.get(thread % courts.size());
+            for (int i = 0; i < phoneNumbers.size(); i++) {
+                LocalDateTime start = day.plusDays(thread).plusHours(i);
+                reservationService.save(new Reservation(null, new User(null, phoneNumbers.get(i), "First Timer"),
+                        court, start, start.plusMinutes(45), GameType.SINGLE, 1.0));
+            }
+        });
+
+        Collection<User> users = userService.findAll();
+        for (String phoneNumber : phoneNumbers) {
+            assertThat(users).filteredOn(found -> found.getPhoneNumber().equals(phoneNumber)).hasSize(1);
+            assertThat(reservationService.getReservationViewsByUserPhoneNumber(phoneNumber, false)).hasSize(THREADS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Starts all workers at once and waits for them.
+     */
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of live reservations of the test courts stored in the database
+     */
+    private int storedRows() {
+        return courts.stream().mapToInt(court -> reservationDao.findViewsByCourtId(court.getId()).size()).sum();
+    }
+
+    private static void assertNoOverlap(List<ReservationView> stored) {
+        List<ReservationView> reservations = new ArrayList<>(stored);
+        reservations.sort(Comparator.comparing(ReservationView::startTime));
+        for (int i = 1; i < reservations.size(); i++) {
+            assertThat(reservations.get(i).startTime())
+                    .isAfterOrEqualTo(reservations.get(i - 1).endTime());
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.service.cache.UpcomingReservationsCache;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.hold.ReservationHold;
+import cz.xmerta.tennisclub.service.hold.SlotHolds;
+import cz.xmerta.tennisclub.service.index.CourtIntervalIndex;
+import cz.xmerta.tennisclub.service.lock.CourtLocks;
+import cz.xmerta.tennisclub.service.readmodel.ReservationReadModel;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
 import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
 import cz.xmerta.tennisclub.storage.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,6 +47,27 @@ class ReservationServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ReservationSeriesDao reservationSeriesDao;
+
+    @Spy
+    private CourtIntervalIndex reservationIndex = new CourtIntervalIndex();
+
+    @Spy
+    private CourtLocks courtLocks = new CourtLocks(4);
+
+    @Spy
+    private SlotHolds slotHolds = new SlotHolds(1000);
+
+    @Mock
+    private ReservationReadModel readModel;
+
+    @Spy
+    private UpcomingReservationsCache upcomingCache = new UpcomingReservationsCache();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ReservationService reservationService;
     private SurfaceType surfaceType;
@@ -38,6 +77,8 @@ class ReservationServiceTest {
     private Reservation reservation1;
     private Reservation reservation2;
     private Reservation reservationNewUser;
+    private long nextId = 100;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -71,7 +112,8 @@ class ReservationServiceTest {
     void save_Valid() {
         when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
         when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
-        when(reservationDao.findAll()).thenReturn(Collections.singletonList(reservation1));
+        when(reservationDao.findOverlapping(court.getId(), reservation2.getStartTime(), reservation2.getEndTime(), 2L))
+                .thenReturn(Optional.empty());
         when(reservationDao.save(any(Reservation.class))).thenReturn(reservation2);
 
         Reservation savedReservation = reservationService.save(reservation2);
@@ -79,7 +121,10 @@ class ReservationServiceTest {
         assertThat(savedReservation).isNotNull();
         assertThat(savedReservation.getId()).isEqualTo(2L);
         assertThat(savedReservation.getPrice()).isEqualTo(5130.0);
+        assertThat(courtLocks.isHeldByCurrentThread(court.getId())).isFalse();
+        verify(courtLocks, times(1)).callLocked(eq(court.getId()), any());
         verify(reservationDao, times(1)).save(reservation2);
+        verify(eventPublisher, times(1)).publishEvent(ReservationsSavedEvent.of(List.of(reservation2)));
     }
 
     @Test
@@ -94,7 +139,7 @@ class ReservationServiceTest {
     void save_ReservationTimeOverlaps() {
         when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
         when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
-        when(reservationDao.findAll()).thenReturn(Collections.singletonList(reservation1));
+        when(reservationDao.findOverlapping(eq(court.getId()), any(), any(), isNull())).thenReturn(Optional.of(1L));
 
         Reservation overlappingReservation = new Reservation(
                 null,
@@ -107,6 +152,7 @@ class ReservationServiceTest {
         );
 
         assertThrows(IllegalArgumentException.class, () -> reservationService.save(overlappingReservation));
+        assertThat(courtLocks.isHeldByCurrentThread(court.getId())).isFalse();
         verify(reservationDao, never()).save(any(Reservation.class));
     }
 
@@ -133,12 +179,12 @@ class ReservationServiceTest {
 
     @Test
     void getReservationsByCourt_ShouldReturnReservationsID() {
-        when(reservationDao.findByCourtId(1L)).thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationDao.findViewsByCourtId(1L)).thenReturn(Arrays.asList(view(reservation1), view(reservation2)));
 
-        Collection<Reservation> reservations = reservationService.getReservationsByCourtID(1L);
+        Collection<ReservationView> reservations = reservationService.getReservationViewsByCourtID(1L);
 
         assertThat(reservations).hasSize(2);
-        verify(reservationDao, times(1)).findByCourtId(1L);
+        verify(reservationDao, times(1)).findViewsByCourtId(1L);
     }
 
     @Test
@@ -162,33 +208,35 @@ class ReservationServiceTest {
     @Test
     void getReservationsByUser_WhenUserPhoneNumberExists() {
         when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
-        when(reservationDao.findByUserId(user.getId())).thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationDao.findViewsByUserId(user.getId(), null))
+                .thenReturn(Arrays.asList(view(reservation1), view(reservation2)));
 
-        Collection<Reservation> reservations = reservationService.getReservationsByUserPhoneNumber(user.getPhoneNumber());
+        Collection<ReservationView> reservations = reservationService.getReservationViewsByUserPhoneNumber(user.getPhoneNumber(), false);
 
         assertThat(reservations).hasSize(2);
-        assertThat(reservations).extracting(Reservation::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(reservations).extracting(ReservationView::id).containsExactlyInAnyOrder(1L, 2L);
         verify(userService, times(1)).findByPhoneNumber(user.getPhoneNumber());
-        verify(reservationDao, times(1)).findByUserId(user.getId());
+        verify(reservationDao, times(1)).findViewsByUserId(user.getId(), null);
     }
 
     @Test
     void getReservationsByCourt_WhenCourtIDExists() {
-        when(reservationDao.findByCourtId(court.getId())).thenReturn(Arrays.asList(reservation1, reservation2));
+        when(reservationDao.findViewsByCourtId(court.getId())).thenReturn(Arrays.asList(view(reservation1), view(reservation2)));
 
-        Collection<Reservation> reservations = reservationService.getReservationsByCourtID(court.getId());
+        Collection<ReservationView> reservations = reservationService.getReservationViewsByCourtID(court.getId());
 
         assertThat(reservations).hasSize(2);
-        assertThat(reservations).extracting(Reservation::getId).containsExactlyInAnyOrder(1L, 2L);
-        verify(reservationDao, times(1)).findByCourtId(court.getId());
+        assertThat(reservations).extracting(ReservationView::id).containsExactlyInAnyOrder(1L, 2L);
+        verify(reservationDao, times(1)).findViewsByCourtId(court.getId());
     }
 
     @Test
     void save_UserDoesNotExist() {
         when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
         when(userService.findByPhoneNumber(newUser.getPhoneNumber())).thenReturn(Optional.empty());
-        when(userService.save(any(User.class))).thenReturn(new User(2L, newUser.getPhoneNumber(), newUser.getName()));
-        when(reservationDao.findAll()).thenReturn(Collections.singletonList(reservation2));
+        when(userService.upsertByPhoneNumber(newUser.getPhoneNumber(), newUser.getName()))
+                .thenReturn(new User(2L, newUser.getPhoneNumber(), newUser.getName()));
+        when(reservationDao.findOverlapping(eq(court.getId()), any(), any(), isNull())).thenReturn(Optional.empty());
         when(reservationDao.save(any(Reservation.class))).thenReturn(reservation1);
 
         Reservation newReservation = new Reservation(
@@ -205,7 +253,545 @@ class ReservationServiceTest {
 
         assertThat(savedReservation).isNotNull();
         assertThat(savedReservation.getUser().getId()).isEqualTo(1L);
-        verify(userService, times(1)).save(any(User.class));
+        verify(userService, times(1)).upsertByPhoneNumber(newUser.getPhoneNumber(), newUser.getName());
+        verify(userService, never()).save(any(User.class));
         verify(reservationDao, times(1)).save(newReservation);
     }
+
+    @Test
+    void save_ReservationTimeOverlaps_WarmIndex() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        stubBookedIntervals(reservation1);
+        reservationService.warmUpIndex();
+
+        Reservation overlappingReservation = new Reservation(
+                null,
+                user,
+                court,
+                LocalDateTime.of(2025, 1, 14, 10, 30),
+                LocalDateTime.of(2025, 1, 14, 11, 30),
+                GameType.SINGLE,
+                30.0
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.save(overlappingReservation));
+        verify(reservationDao, never()).findOverlapping(any(), any(), any(), any());
+        verify(reservationDao, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void save_FreeSlot_WarmIndexSkipsDatabase() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        stubBookedIntervals(reservation1);
+        when(reservationDao.save(reservation2)).thenReturn(reservation2);
+        reservationService.warmUpIndex();
+
+        reservationService.save(reservation2);
+
+        verify(reservationDao, never()).findOverlapping(any(), any(), any(), any());
+        verify(reservationDao, times(1)).save(reservation2);
+        assertThat(reservationIndex.overlaps(court.getId(),
+                reservation2.getStartTime(), reservation2.getEndTime(), null)).isTrue();
+    }
+
+    @Test
+    void save_UpdateDoesNotOverlapItself_WarmIndex() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        stubBookedIntervals(reservation1, reservation2);
+        reservationService.warmUpIndex();
+
+        Reservation movedReservation = new Reservation(
+                1L,
+                user,
+                court,
+                LocalDateTime.of(2025, 1, 14, 10, 30),
+                LocalDateTime.of(2025, 1, 14, 11, 30),
+                GameType.SINGLE,
+                30.0
+        );
+        when(reservationDao.save(movedReservation)).thenReturn(movedReservation);
+
+        reservationService.save(movedReservation);
+
+        assertThat(reservationIndex.overlaps(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 10, 30), null)).isFalse();
+        assertThat(reservationIndex.overlaps(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 11, 0), LocalDateTime.of(2025, 1, 14, 11, 15), null)).isTrue();
+        verify(reservationDao, never()).findOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    void warmUpIndex_RestoredIndexMatchesDatabase() {
+        reservationIndex.rebuild(List.of(new CourtIntervalIndex.Interval(1L, court.getId(),
+                reservation1.getStartTime(), reservation1.getEndTime())));
+        when(reservationDao.findLiveFingerprint()).thenReturn(new RowFingerprint(1L, hashOf(reservation1)));
+
+        reservationService.warmUpIndex();
+
+        assertThat(reservationIndex.size()).isEqualTo(1);
+        verify(reservationDao, never()).forEachBookedInterval(any());
+    }
+
+    @Test
+    void warmUpIndex_StaleRestoredIndexRebuilt() {
+        reservationIndex.rebuild(List.of(new CourtIntervalIndex.Interval(1L, court.getId(),
+                reservation1.getStartTime(), reservation1.getEndTime())));
+        when(reservationDao.findLiveFingerprint())
+                .thenReturn(new RowFingerprint(2L, hashOf(reservation1) + hashOf(reservation2)));
+        stubBookedIntervals(reservation1, reservation2);
+
+        reservationService.warmUpIndex();
+
+        assertThat(reservationIndex.size()).isEqualTo(2);
+        assertThat(reservationIndex.idSum()).isEqualTo(3L);
+    }
+
+    @Test
+    void warmUpIndex_RestoredIndexWithMovedReservationRebuilt() {
+        // the journal lost the record of reservation 1 moving to another day, count and IDs still match
+        reservationIndex.rebuild(List.of(new CourtIntervalIndex.Interval(1L, court.getId(),
+                reservation1.getStartTime().minusDays(1), reservation1.getEndTime().minusDays(1))));
+        when(reservationDao.findLiveFingerprint()).thenReturn(new RowFingerprint(1L, hashOf(reservation1)));
+        stubBookedIntervals(reservation1);
+
+        reservationService.warmUpIndex();
+
+        assertThat(reservationIndex.overlaps(court.getId(), reservation1.getStartTime(), reservation1.getEndTime(), null))
+                .isTrue();
+    }
+
+    /**
+     * Makes the DAO stream the court and time of the reservations to the warm-up.
+     */
+    private void stubBookedIntervals(Reservation... reservations) {
+        doAnswer(invocation -> {
+            Consumer<BookedInterval> action = invocation.getArgument(0);
+            for (Reservation reservation : reservations) {
+                action.accept(new BookedInterval(reservation.getId(), reservation.getCourt().getId(),
+                        reservation.getStartTime(), reservation.getEndTime()));
+            }
+            return null;
+        }).when(reservationDao).forEachBookedInterval(any());
+    }
+
+    private static long hashOf(Reservation reservation) {
+        return RowFingerprint.hashInterval(reservation.getId(), reservation.getCourt().getId(),
+                reservation.getStartTime().toEpochSecond(ZoneOffset.UTC),
+                reservation.getEndTime().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    @Test
+    void deleteById_RemovesFromIndex() {
+        stubBookedIntervals(reservation1);
+        reservationService.warmUpIndex();
+        when(reservationDao.findById(1L)).thenReturn(Optional.of(reservation1));
+        doAnswer(invocation -> {
+            assertThat(courtLocks.isHeldByCurrentThread(court.getId())).isTrue();
+            return null;
+        }).when(reservationDao).deleteById(1L);
+
+        reservationService.deleteById(1L);
+
+        assertThat(reservationIndex.size()).isZero();
+        verify(eventPublisher, times(1)).publishEvent(new ReservationsDeletedEvent(List.of(1L)));
+    }
+
+    @Test
+    void getReservationViewsByCourtID_WarmReadModel() {
+        ReservationView view = new ReservationView(1L, user.getId(), user.getPhoneNumber(), user.getName(),
+                court.getId(), reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 30.0);
+        when(readModel.isWarm()).thenReturn(true);
+        when(readModel.findByCourtId(court.getId())).thenReturn(List.of(view));
+
+        assertThat(reservationService.getReservationViewsByCourtID(court.getId())).containsExactly(view);
+        verify(reservationDao, never()).findViewsByCourtId(anyLong());
+    }
+
+    @Test
+    void getReservationViewsByUserPhoneNumber_ColdReadModel() {
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findViewsByUserId(user.getId(), null)).thenReturn(List.of());
+
+        assertThat(reservationService.getReservationViewsByUserPhoneNumber(user.getPhoneNumber(), false)).isEmpty();
+        verify(readModel, never()).findByUserId(anyLong(), any());
+    }
+
+    @Test
+    void archiveEndedBefore_RemovesFromIndexAndPublishesDeletion() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 15, 0, 0);
+        stubBookedIntervals(reservation1, reservation2);
+        reservationService.warmUpIndex();
+        when(reservationDao.findIdsEndedBefore(cutoff, 0L, 10)).thenReturn(List.of(1L));
+        when(reservationDao.archive(eq(List.of(1L)), any())).thenReturn(1);
+
+        assertThat(reservationService.archiveEndedBefore(cutoff, 0L, 10)).containsExactly(1L);
+
+        assertThat(reservationIndex.size()).isEqualTo(1);
+        verify(eventPublisher, times(1)).publishEvent(new ReservationsDeletedEvent(List.of(1L)));
+    }
+
+    @Test
+    void deleteBatch_RemovesFromIndexAndPublishesDeletion() {
+        stubBookedIntervals(reservation1, reservation2);
+        reservationService.warmUpIndex();
+        when(reservationDao.findLiveIdsInRange(0L, 2L, 1)).thenReturn(List.of(1L));
+
+        assertThat(reservationService.deleteBatch(0L, 2L, 1)).containsExactly(1L);
+
+        verify(reservationDao, times(1)).deleteByIds(List.of(1L));
+        verify(reservationDao, never()).deleteAll();
+        assertThat(reservationIndex.size()).isEqualTo(1);
+        verify(eventPublisher, times(1)).publishEvent(new ReservationsDeletedEvent(List.of(1L)));
+    }
+
+    @Test
+    void archiveEndedBefore_NothingDue() {
+        when(reservationDao.findIdsEndedBefore(any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        assertThat(reservationService.archiveEndedBefore(LocalDateTime.now(), 0L, 10)).isEmpty();
+
+        verify(reservationDao, never()).archive(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void getReservationHistoryByUserPhoneNumber_MergesArchiveByStartTime() {
+        ReservationView current = new ReservationView(1L, user.getId(), user.getPhoneNumber(), user.getName(),
+                court.getId(), reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 30.0);
+        ReservationView archived = new ReservationView(9L, user.getId(), user.getPhoneNumber(), user.getName(),
+                court.getId(), reservation1.getStartTime().minusYears(2), reservation1.getEndTime().minusYears(2),
+                GameType.SINGLE, 30.0);
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findViewsByUserId(user.getId(), null)).thenReturn(List.of(current));
+        when(reservationDao.findArchivedViewsByUserId(user.getId())).thenReturn(List.of(archived));
+
+        assertThat(reservationService.getReservationHistoryByUserPhoneNumber(user.getPhoneNumber()))
+                .containsExactly(archived, current);
+    }
+
+    @Test
+    void saveBatch_SinglePassMerge() {
+        Court court2 = new Court(2L, "Court 2", surfaceType);
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of(
+                new BookedInterval(1L, 1L, LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 11, 0))));
+        when(reservationDao.saveAll(anyList())).thenAnswer(invocation -> persistedAll(invocation.getArgument(0)));
+
+        List<Reservation> batch = Arrays.asList(
+                new Reservation(null, newUser, court2, LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 11, 0), GameType.SINGLE, 1.0),
+                new Reservation(null, newUser, court, LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), GameType.SINGLE, 1.0),
+                new Reservation(null, newUser, court, LocalDateTime.of(2025, 1, 14, 12, 0), LocalDateTime.of(2025, 1, 14, 13, 0), GameType.DOUBLE, 1.0),
+                new Reservation(null, newUser, court, LocalDateTime.of(2025, 1, 14, 11, 0), LocalDateTime.of(2025, 1, 14, 12, 30), GameType.SINGLE, 1.0),
+                new Reservation(null, newUser, court, LocalDateTime.of(2025, 1, 14, 15, 0), LocalDateTime.of(2025, 1, 14, 14, 0), GameType.SINGLE, 1.0)
+        );
+
+        List<ReservationBatchResult> results = reservationService.saveBatch(batch);
+
+        assertThat(results).extracting(ReservationBatchResult::status).containsExactly(
+                ReservationBatchResult.Status.CREATED,
+                ReservationBatchResult.Status.CONFLICT,
+                ReservationBatchResult.Status.CONFLICT,
+                ReservationBatchResult.Status.CREATED,
+                ReservationBatchResult.Status.INVALID);
+        assertThat(results.get(0).reservation().getUser()).isSameAs(user);
+        assertThat(results.get(0).reservation().getId()).isNotNull();
+        assertThat(results.get(3).reservation().getPrice()).isEqualTo(57.0 * 90);
+        assertThat(reservationIndex.overlaps(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 11, 0), LocalDateTime.of(2025, 1, 14, 12, 30), null)).isTrue();
+        verify(userService, times(1)).findByPhoneNumber(user.getPhoneNumber());
+        verify(reservationDao, times(1)).findBookedIntervals(any(), any(), any());
+        verify(reservationDao, times(1)).saveAll(argThat(reservations -> reservations.size() == 2));
+        verify(reservationDao, never()).findAll();
+        assertThat(courtLocks.isHeldByCurrentThread(court.getId())).isFalse();
+    }
+
+    @Test
+    void saveBatch_ConflictingItemsCreateNoUsers() {
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of(
+                new BookedInterval(1L, 1L, reservation1.getStartTime(), reservation1.getEndTime())));
+        when(reservationDao.saveAll(anyList())).thenAnswer(invocation -> persistedAll(invocation.getArgument(0)));
+
+        List<ReservationBatchResult> results = reservationService.saveBatch(List.of(
+                new Reservation(null, newUser, court, reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 1.0)));
+
+        assertThat(results).extracting(ReservationBatchResult::status).containsExactly(ReservationBatchResult.Status.CONFLICT);
+        verify(userService, never()).findByPhoneNumber(any());
+        verify(userService, never()).upsertByPhoneNumber(any(), any());
+    }
+
+    @Test
+    void saveBatch_NullItemRejected() {
+        List<Reservation> batch = Arrays.asList(reservation1, null);
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.saveBatch(batch));
+        verify(reservationDao, never()).saveAll(anyList());
+    }
+
+    @Test
+    void save_EndBeforeStart() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+
+        Reservation invalidReservation = new Reservation(
+                null,
+                user,
+                court,
+                LocalDateTime.of(2025, 1, 14, 11, 0),
+                LocalDateTime.of(2025, 1, 14, 10, 0),
+                GameType.SINGLE,
+                30.0
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.save(invalidReservation));
+        verify(reservationDao, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void saveSeries_ExpandsOccurrencesWithOneRangeQuery() {
+        ReservationSeries series = new ReservationSeries(null, newUser, court,
+                LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 11, 0), 2, 3, GameType.SINGLE);
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of());
+        when(reservationSeriesDao.save(series)).thenReturn(series);
+        when(reservationDao.saveAll(anyList())).thenAnswer(invocation -> persistedAll(invocation.getArgument(0)));
+
+        List<Reservation> occurrences = reservationService.saveSeries(series);
+
+        assertThat(occurrences).extracting(Reservation::getStartTime).containsExactly(
+                LocalDateTime.of(2025, 1, 14, 10, 0),
+                LocalDateTime.of(2025, 1, 28, 10, 0),
+                LocalDateTime.of(2025, 2, 11, 10, 0));
+        assertThat(occurrences).allSatisfy(occurrence -> {
+            assertThat(occurrence.getSeries()).isSameAs(series);
+            assertThat(occurrence.getUser()).isSameAs(user);
+            assertThat(occurrence.getPrice()).isEqualTo(57.0 * 60);
+        });
+        assertThat(reservationIndex.size()).isEqualTo(3);
+        verify(reservationDao, times(1)).findBookedIntervals(List.of(court.getId()),
+                LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 2, 11, 11, 0));
+        verify(reservationDao, never()).findAll();
+        verify(reservationDao, never()).findOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    void saveSeries_ConflictSavesNothing() {
+        ReservationSeries series = new ReservationSeries(null, newUser, court,
+                LocalDateTime.of(2025, 1, 7, 10, 30), LocalDateTime.of(2025, 1, 7, 11, 30), 1, 4, GameType.SINGLE);
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of(
+                new BookedInterval(1L, 1L, reservation1.getStartTime(), reservation1.getEndTime())));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.saveSeries(series));
+
+        assertThat(exception.getMessage()).contains("2025-01-14T10:30");
+        verify(reservationSeriesDao, never()).save(any());
+        verify(reservationDao, never()).saveAll(anyList());
+        assertThat(courtLocks.isHeldByCurrentThread(court.getId())).isFalse();
+    }
+
+    @Test
+    void saveSeries_OccurrencesOverlapEachOther() {
+        ReservationSeries series = new ReservationSeries(null, newUser, court,
+                LocalDateTime.of(2025, 1, 7, 10, 0), LocalDateTime.of(2025, 1, 15, 10, 0), 1, 2, GameType.SINGLE);
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.saveSeries(series));
+        verify(reservationDao, never()).findBookedIntervals(any(), any(), any());
+    }
+
+    @Test
+    void deleteSeries_RemovesOccurrencesFromIndex() {
+        reservationIndex.rebuild(List.of(
+                new CourtIntervalIndex.Interval(1L, 1L, reservation1.getStartTime(), reservation1.getEndTime()),
+                new CourtIntervalIndex.Interval(2L, 1L, reservation2.getStartTime(), reservation2.getEndTime())));
+        when(reservationDao.findIdsBySeriesId(5L)).thenReturn(List.of(1L));
+
+        reservationService.deleteSeries(5L);
+
+        verify(reservationDao, times(1)).deleteBySeriesId(5L);
+        verify(reservationSeriesDao, times(1)).deleteById(5L);
+        assertThat(reservationIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void placeHold_BlocksOtherBookingsUntilConfirmed() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findOverlapping(any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(reservationDao.save(any(Reservation.class))).thenAnswer(invocation -> persisted(invocation.getArgument(0)));
+        Reservation held = new Reservation(null, newUser, court,
+                reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 1.0);
+        Reservation competing = new Reservation(null, user, court,
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), GameType.SINGLE, 1.0);
+
+        ReservationHold hold = reservationService.placeHold(held, Duration.ofMinutes(10));
+
+        assertThat(hold.reservation().getPrice()).isEqualTo(57.0 * 60);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.save(competing));
+        assertThat(exception.getMessage()).contains("held");
+        assertThrows(IllegalArgumentException.class, () -> reservationService.placeHold(competing, Duration.ofMinutes(5)));
+        verify(reservationDao, never()).save(any(Reservation.class));
+
+        Reservation confirmed = reservationService.confirmHold(hold.id());
+
+        assertThat(confirmed.getUser()).isSameAs(user);
+        assertThat(confirmed.getId()).isNotNull();
+        assertThat(confirmed.getPrice()).isEqualTo(57.0 * 60);
+        assertThat(hold.reservation()).isNotSameAs(confirmed);
+        assertThat(hold.reservation().getId()).isNull();
+        assertThat(hold.reservation().getUser()).isSameAs(newUser);
+        assertThat(slotHolds.size()).isZero();
+        assertThrows(IllegalArgumentException.class, () -> reservationService.confirmHold(hold.id()));
+    }
+
+    @Test
+    void placeHold_SlotAlreadyBooked() {
+        when(courtService.findById(court.getId())).thenReturn(Optional.of(court));
+        when(reservationDao.findOverlapping(any(), any(), any(), any())).thenReturn(Optional.of(1L));
+        Reservation held = new Reservation(null, newUser, court,
+                reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.placeHold(held, Duration.ofMinutes(10)));
+        assertThat(slotHolds.size()).isZero();
+    }
+
+    @Test
+    void saveBatch_ReportsHeldSlots() {
+        slotHolds.add(new Reservation(null, newUser, court,
+                reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 1.0), Duration.ofMinutes(10));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of());
+        when(reservationDao.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ReservationBatchResult> results = reservationService.saveBatch(List.of(
+                new Reservation(null, newUser, court, reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 1.0)));
+
+        assertThat(results).extracting(ReservationBatchResult::status).containsExactly(ReservationBatchResult.Status.CONFLICT);
+    }
+
+    @Test
+    void releaseHold_FreesSlot() {
+        ReservationHold hold = slotHolds.add(reservation1, Duration.ofMinutes(10));
+
+        assertThat(reservationService.releaseHold(hold.id())).isTrue();
+        assertThat(reservationService.releaseHold(hold.id())).isFalse();
+    }
+
+    @Test
+    void saveToBestFitCourt_ChoosesShortestGap() {
+        SurfaceType grass = new SurfaceType(2L, "Grass", 10.0);
+        Court court2 = new Court(2L, "Court 2", surfaceType);
+        Court court3 = new Court(3L, "Court 3", surfaceType);
+        Court grassCourt = new Court(4L, "Court 4", grass);
+        when(courtService.findAll()).thenReturn(List.of(grassCourt, court3, court2, court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of(
+                new BookedInterval(1L, 1L, LocalDateTime.of(2025, 1, 14, 11, 30), LocalDateTime.of(2025, 1, 14, 12, 30)),
+                new BookedInterval(2L, 2L, LocalDateTime.of(2025, 1, 14, 9, 0), LocalDateTime.of(2025, 1, 14, 10, 0)),
+                new BookedInterval(3L, 2L, LocalDateTime.of(2025, 1, 14, 11, 0), LocalDateTime.of(2025, 1, 14, 12, 0)),
+                new BookedInterval(4L, 3L, LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30))));
+        when(reservationDao.save(any(Reservation.class))).thenAnswer(invocation -> persisted(invocation.getArgument(0)));
+        Reservation reservation = new Reservation(null, newUser, null,
+                LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 11, 0), GameType.SINGLE, 0);
+
+        Reservation saved = reservationService.saveToBestFitCourt(reservation, surfaceType.getId());
+
+        assertThat(saved.getCourt()).isSameAs(court2);
+        assertThat(saved.getPrice()).isEqualTo(57.0 * 60);
+        assertThat(reservationIndex.overlaps(court2.getId(), saved.getStartTime(), saved.getEndTime(), null)).isTrue();
+        verify(reservationDao, times(1)).findBookedIntervals(eq(new java.util.TreeSet<>(List.of(1L, 2L, 3L))),
+                eq(LocalDateTime.of(2025, 1, 14, 0, 0)), eq(LocalDateTime.of(2025, 1, 15, 0, 0)));
+        verify(courtService, never()).findById(anyLong());
+        verify(reservationDao, never()).findOverlapping(any(), any(), any(), any());
+    }
+
+    @Test
+    void saveToBestFitCourt_NoFreeCourt() {
+        when(courtService.findAll()).thenReturn(List.of(court));
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findBookedIntervals(any(), any(), any())).thenReturn(List.of(
+                new BookedInterval(1L, 1L, reservation1.getStartTime(), reservation1.getEndTime())));
+        Reservation reservation = new Reservation(null, newUser, null,
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), GameType.SINGLE, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.saveToBestFitCourt(reservation, null));
+        verify(reservationDao, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void saveToBestFitCourt_UnknownSurface() {
+        when(courtService.findAll()).thenReturn(List.of(court));
+        Reservation reservation = new Reservation(null, newUser, null,
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), GameType.SINGLE, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> reservationService.saveToBestFitCourt(reservation, 9L));
+        verify(reservationDao, never()).findBookedIntervals(any(), any(), any());
+    }
+
+    @Test
+    void getReservationViewsByUserPhoneNumber_ColdReadModelUpcomingQueriedOnceThenCached() {
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        ReservationView upcoming = new ReservationView(3L, user.getId(), user.getPhoneNumber(), user.getName(),
+                court.getId(), tomorrow, tomorrow.plusHours(1), GameType.SINGLE, 30.0);
+        when(reservationDao.findUpcomingByUserId(eq(user.getId()), any())).thenReturn(List.of(upcoming));
+
+        reservationService.getReservationViewsByUserPhoneNumber(user.getPhoneNumber(), true);
+        Collection<ReservationView> reservations =
+                reservationService.getReservationViewsByUserPhoneNumber(user.getPhoneNumber(), true);
+
+        assertThat(reservations).containsExactly(upcoming);
+        verify(reservationDao, times(1)).findUpcomingByUserId(eq(user.getId()), any());
+        verify(reservationDao, never()).findViewsByUserId(anyLong(), any());
+    }
+
+    @Test
+    void getReservationViewsByUserPhoneNumber_WarmReadModelUpcomingNotCached() {
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(readModel.isWarm()).thenReturn(true);
+        when(readModel.findByUserId(eq(user.getId()), any())).thenReturn(List.of());
+
+        assertThat(reservationService.getReservationViewsByUserPhoneNumber(user.getPhoneNumber(), true)).isEmpty();
+        verify(reservationDao, never()).findUpcomingByUserId(anyLong(), any());
+        assertThat(upcomingCache.size()).isZero();
+    }
+
+    @Test
+    void getReservationViewPageByUserPhoneNumber_UpcomingOnly() {
+        ReservationView upcoming = view(reservation2);
+        when(userService.findByPhoneNumber(user.getPhoneNumber())).thenReturn(Optional.of(user));
+        when(reservationDao.findViewPageByUserId(eq(user.getId()), notNull(), isNull(), eq(10)))
+                .thenReturn(new KeysetPage<>(List.of(upcoming), null));
+
+        assertThat(reservationService.getReservationViewPageByUserPhoneNumber(user.getPhoneNumber(), true, null, 10).items())
+                .containsExactly(upcoming);
+        verify(reservationDao, never()).findViewsByUserId(anyLong(), any());
+    }
+
+    private static ReservationView view(Reservation reservation) {
+        return new ReservationView(reservation.getId(), reservation.getUser().getId(),
+                reservation.getUser().getPhoneNumber(), reservation.getUser().getName(), reservation.getCourt().getId(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getGameType(), reservation.getPrice());
+    }
+
+    /**
+     * Answers a DAO save the way persisting does, new reservations get an ID.
+     */
+    private Reservation persisted(Reservation reservation) {
+        if (reservation.getId() == null) {
+            reservation.setId(nextId++);
+        }
+        return reservation;
+    }
+
+    private List<Reservation> persistedAll(List<Reservation> reservations) {
+        reservations.forEach(this::persisted);
+        return reservations;
+    }
 }
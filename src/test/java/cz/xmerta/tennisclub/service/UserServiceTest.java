@@ -1,16 +1,30 @@
 package cz.xmerta.tennisclub.service;
 
+import cz.xmerta.tennisclub.service.cache.UserLookupCache;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.service.index.PhoneNumberIndex;
 import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
 import cz.xmerta.tennisclub.storage.model.User;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -21,6 +35,18 @@ class UserServiceTest {
     @Mock
     private UserDao userDao;
 
+    @Spy
+    private PhoneNumberIndex phoneNumberIndex = new PhoneNumberIndex();
+
+    @Spy
+    private UserLookupCache userLookupCache = new UserLookupCache();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -75,6 +101,7 @@ class UserServiceTest {
 
         verify(userDao, times(1)).findByPhoneNumber(updatedUser.getPhoneNumber());
         verify(userDao, times(1)).save(updatedUser);
+        verify(eventPublisher, times(1)).publishEvent(new UserSavedEvent(1L, "+420123456787", "John Smith"));
     }
 
     @Test
@@ -152,4 +179,177 @@ class UserServiceTest {
 
         verify(userDao, times(1)).findByPhoneNumber("+420123456789");
     }
+
+    @Test
+    void findByPhoneNumber_ColdIndex_RepeatedLookupServedFromCache() {
+        when(userDao.findByPhoneNumber("+420123456789")).thenReturn(Optional.of(existingUser));
+
+        userService.findByPhoneNumber("+420123456789");
+        Optional<User> result = userService.findByPhoneNumber("+420123456789");
+
+        assertThat(result).get().extracting(User::getId).isEqualTo(1L);
+        verify(userDao, times(1)).findByPhoneNumber("+420123456789");
+    }
+
+    @Test
+    void save_ColdIndex_InvalidatesCachedMiss() {
+        when(userDao.findByPhoneNumber(newUser.getPhoneNumber())).thenReturn(Optional.empty());
+        when(userDao.save(newUser)).thenReturn(existingUser);
+        assertThat(userService.findByPhoneNumber(newUser.getPhoneNumber())).isEmpty();
+
+        userService.save(newUser);
+        when(userDao.findByPhoneNumber(newUser.getPhoneNumber())).thenReturn(Optional.of(existingUser));
+
+        assertThat(userService.findByPhoneNumber(newUser.getPhoneNumber())).isPresent();
+        verify(userLookupCache).invalidate(newUser.getPhoneNumber());
+    }
+
+    @Test
+    void deleteById_ColdIndex_InvalidatesCachedUser() {
+        when(userDao.findByPhoneNumber("+420123456789")).thenReturn(Optional.of(existingUser));
+        userService.findByPhoneNumber("+420123456789");
+
+        userService.deleteById(1L);
+        when(userDao.findByPhoneNumber("+420123456789")).thenReturn(Optional.empty());
+
+        assertThat(userService.findByPhoneNumber("+420123456789")).isEmpty();
+        verify(userDao, times(2)).findByPhoneNumber("+420123456789");
+    }
+
+    @Test
+    void warmUpIndex_RestoredIndexMatchesDatabase() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+        when(userDao.findLiveFingerprint()).thenReturn(new RowFingerprint(1L, RowFingerprint.hashPhone(1L, 420123456789L)));
+
+        userService.warmUpIndex();
+
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(1L);
+        verify(userDao, never()).forEachPhoneNumber(any());
+    }
+
+    @Test
+    void warmUpIndex_StaleRestoredIndexRebuilt() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+        // same user, phone number changed while its journal record was lost
+        when(userDao.findLiveFingerprint()).thenReturn(new RowFingerprint(1L, RowFingerprint.hashPhone(1L, 420123456787L)));
+        doAnswer(invocation -> {
+            invocation.<BiConsumer<String, Long>>getArgument(0).accept("+420123456787", 1L);
+            return null;
+        }).when(userDao).forEachPhoneNumber(any());
+
+        userService.warmUpIndex();
+
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(phoneNumberIndex.get("+420123456787")).isEqualTo(1L);
+    }
+
+    @Test
+    void findByPhoneNumber_WarmIndex_ServedWithoutQuery() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+        when(userDao.getReference(1L)).thenReturn(existingUser);
+
+        Optional<User> result = userService.findByPhoneNumber("+420123456789");
+
+        assertThat(result).get().extracting(User::getId).isEqualTo(1L);
+        verify(userDao, never()).findByPhoneNumber(any());
+    }
+
+    @Test
+    void findByPhoneNumber_WarmIndex_UnknownNumberWithoutQuery() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+
+        assertThat(userService.findByPhoneNumber("+420999999999")).isEmpty();
+
+        verify(userDao, never()).findByPhoneNumber(any());
+        verify(userDao, never()).getReference(any());
+    }
+
+    @Test
+    void save_WarmIndex_DuplicatePhoneNumber() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+        when(userDao.getReference(1L)).thenReturn(existingUser);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.save(newUser));
+
+        verify(userDao, never()).save(any(User.class));
+    }
+
+    @Test
+    void save_PhoneNumberOfInFlightSaveRejected() {
+        phoneNumberIndex.rebuild(sink -> { });
+        when(userDao.save(any(User.class))).thenReturn(existingUser);
+        User sameNumber = new User(null, "+420123456789", "Jane Doe");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.save(newUser);
+
+            CompletionException rejected = assertThrows(CompletionException.class,
+                    () -> CompletableFuture.runAsync(() -> userService.save(sameNumber)).join());
+            assertThat(rejected).hasCauseInstanceOf(IllegalArgumentException.class);
+
+            // rolled back, the phone number is free again
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        CompletableFuture.runAsync(() -> userService.save(sameNumber)).join();
+
+        verify(userDao).save(sameNumber);
+    }
+
+    @Test
+    void save_IndexesNewUser() {
+        phoneNumberIndex.rebuild(sink -> { });
+        when(userDao.save(newUser)).thenReturn(existingUser);
+
+        userService.save(newUser);
+
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(1L);
+    }
+
+    @Test
+    void save_ChangedPhoneNumber_ReindexesUser() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+        when(userDao.save(updatedUser)).thenReturn(updatedUser);
+
+        userService.save(updatedUser);
+
+        assertThat(phoneNumberIndex.get("+420123456787")).isEqualTo(1L);
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+    }
+
+    @Test
+    void deleteById_RemovesUserFromIndex() {
+        phoneNumberIndex.rebuild(sink -> sink.add("+420123456789", 1L));
+
+        userService.deleteById(1L);
+
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+    }
+
+    @Test
+    void upsertByPhoneNumber_IndexesUser() {
+        phoneNumberIndex.rebuild(sink -> { });
+        when(userDao.upsertByPhoneNumber("+420123456789", "John Doe")).thenReturn(1L);
+        when(userDao.getReference(1L)).thenReturn(existingUser);
+
+        User user = userService.upsertByPhoneNumber("+420123456789", "John Doe");
+
+        assertThat(user.getId()).isEqualTo(1L);
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(1L);
+        verify(userDao, never()).findByPhoneNumber(any());
+        verify(userDao, never()).save(any(User.class));
+    }
+
+    @Test
+    void upsertByPhoneNumber_InvalidUser() {
+        assertThrows(ConstraintViolationException.class,
+                () -> userService.upsertByPhoneNumber("123", "John Doe"));
+        assertThrows(ConstraintViolationException.class,
+                () -> userService.upsertByPhoneNumber("+420123456789", "J"));
+
+        verify(userDao, never()).upsertByPhoneNumber(any(), any());
+    }
 }
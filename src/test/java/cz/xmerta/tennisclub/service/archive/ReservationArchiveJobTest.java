@@ -0,0 +1,60 @@
+package cz.xmerta.tennisclub.service.archive;
+
+import cz.xmerta.tennisclub.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ReservationArchiveJobTest {
+
+    private ReservationService reservationService;
+    private ReservationArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        job = new ReservationArchiveJob(reservationService, 30, 100);
+    }
+
+    @Test
+    void archive_RunsBatchesAfterPreviousUntilOneIsNotFull() {
+        when(reservationService.archiveEndedBefore(any(), anyLong(), eq(100)))
+                .thenReturn(ids(1, 100), ids(150, 100), ids(400, 42));
+
+        assertThat(job.archive()).isEqualTo(242);
+
+        verify(reservationService).archiveEndedBefore(any(), eq(0L), eq(100));
+        verify(reservationService).archiveEndedBefore(any(), eq(100L), eq(100));
+        verify(reservationService).archiveEndedBefore(any(), eq(249L), eq(100));
+        verify(reservationService, times(3)).archiveEndedBefore(any(), anyLong(), eq(100));
+    }
+
+    private static List<Long> ids(long first, int count) {
+        return LongStream.range(first, first + count).boxed().toList();
+    }
+
+    @Test
+    void archive_CutoffIsHorizonBeforeNow() {
+        when(reservationService.archiveEndedBefore(any(), anyLong(), anyInt())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now().minusDays(30);
+
+        job.archive();
+
+        verify(reservationService).archiveEndedBefore(
+                argThat(cutoff -> !cutoff.isBefore(before) && !cutoff.isAfter(LocalDateTime.now().minusDays(30))),
+                eq(0L), eq(100));
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ReservationArchiveJob(reservationService, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ReservationArchiveJob(reservationService, 30, 0));
+    }
+}
@@ -0,0 +1,157 @@
+package cz.xmerta.tennisclub.service.cache;
+
+import cz.xmerta.tennisclub.service.event.AllReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.GameType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpcomingReservationsCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 14, 10, 0);
+
+    private UpcomingReservationsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UpcomingReservationsCache(100);
+        loads = new AtomicInteger();
+    }
+
+    private static ReservationView reservation(long id, int startHour, int endHour) {
+        return new ReservationView(id, 1L, "+420123456789", "John Doe", 1L, NOW.plusHours(startHour),
+                NOW.plusHours(endHour), GameType.SINGLE, 30.0);
+    }
+
+    private List<ReservationView> get(long userId, LocalDateTime now, List<ReservationView> loaded) {
+        return cache.get(userId, now, id -> {
+            loads.incrementAndGet();
+            return loaded;
+        });
+    }
+
+    private static ReservationsSavedEvent.Item item(long id, long userId) {
+        return new ReservationsSavedEvent.Item(id, userId, 1L, NOW, NOW.plusHours(1), GameType.SINGLE, 30.0);
+    }
+
+    @Test
+    void get_LoadsOnceThenServesCached() {
+        ReservationView loaded = reservation(1L, 1, 2);
+
+        get(1L, NOW, List.of(loaded));
+        List<ReservationView> cached = get(1L, NOW, List.of());
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cached).containsExactly(loaded);
+    }
+
+    @Test
+    void get_ReservationsEndedSinceLoadLeftOut() {
+        get(1L, NOW, List.of(reservation(1L, 0, 1), reservation(2L, 2, 3)));
+
+        assertThat(get(1L, NOW.plusMinutes(90), List.of()))
+                .extracting(ReservationView::id).containsExactly(2L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void onSaved_InvalidatesUserOfReservation() {
+        get(1L, NOW, List.of());
+        get(2L, NOW, List.of());
+
+        cache.on(new ReservationsSavedEvent(List.of(item(5L, 1L))));
+
+        assertThat(cache.size()).isEqualTo(1);
+        get(1L, NOW, List.of());
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void onSaved_InvalidatesPreviousUserOfMovedReservation() {
+        get(1L, NOW, List.of(reservation(5L, 1, 2)));
+
+        cache.on(new ReservationsSavedEvent(List.of(item(5L, 2L))));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void onDeleted_InvalidatesUsersListingReservation() {
+        get(1L, NOW, List.of(reservation(5L, 1, 2)));
+        get(2L, NOW, List.of());
+
+        cache.on(new ReservationsDeletedEvent(List.of(5L)));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void onAllDeleted_Clears() {
+        get(1L, NOW, List.of());
+        get(2L, NOW, List.of());
+
+        cache.on(new AllReservationsDeletedEvent());
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void onUserSaved_InvalidatesRenamedUser() {
+        get(1L, NOW, List.of(reservation(5L, 1, 2)));
+
+        cache.on(new UserSavedEvent(1L, "+420123456789", "John Smith"));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_LoadRacingInvalidationNotCached() {
+        cache.get(1L, NOW, id -> {
+            cache.on(new ReservationsDeletedEvent(List.of(9L)));
+            return List.of(reservation(5L, 1, 2));
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_FullCacheEvicts() {
+        for (long userId = 0; userId < 250; userId++) {
+            get(userId, NOW, List.of());
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new UpcomingReservationsCache(0));
+    }
+
+    @Test
+    void bindTo_CountsHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        get(1L, NOW, List.of());
+        get(1L, NOW, List.of());
+
+        assertThat(registry.get("reservations.upcoming.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("reservations.upcoming.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("reservations.upcoming.cache.size").gauge().value()).isEqualTo(1.0);
+    }
+}
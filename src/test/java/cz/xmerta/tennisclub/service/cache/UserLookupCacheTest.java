@@ -0,0 +1,151 @@
+package cz.xmerta.tennisclub.service.cache;
+
+import cz.xmerta.tennisclub.storage.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserLookupCacheTest {
+
+    private static final String PHONE_NUMBER = "+420123456789";
+
+    private MutableClock clock;
+    private UserLookupCache cache;
+    private AtomicInteger loads;
+    private Optional<User> stored;
+    private Function<String, Optional<User>> loader;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-10T08:00:00Z"));
+        cache = new UserLookupCache(100, Duration.ofSeconds(30), clock);
+        loads = new AtomicInteger();
+        stored = Optional.of(new User(1L, PHONE_NUMBER, "John Doe"));
+        loader = phoneNumber -> {
+            loads.incrementAndGet();
+            return stored;
+        };
+    }
+
+    @Test
+    void get_RepeatedLookupServedFromCache() {
+        cache.get(PHONE_NUMBER, loader);
+        Optional<User> cached = cache.get(PHONE_NUMBER, loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cached).get().extracting(User::getId, User::getName).containsExactly(1L, "John Doe");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void get_MissCachedUntilTtl() {
+        stored = Optional.empty();
+
+        assertThat(cache.get(PHONE_NUMBER, loader)).isEmpty();
+        clock.advance(Duration.ofSeconds(29));
+        assertThat(cache.get(PHONE_NUMBER, loader)).isEmpty();
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().negativeHits()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        cache.get(PHONE_NUMBER, loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_NextLookupLoads() {
+        stored = Optional.empty();
+        cache.get(PHONE_NUMBER, loader);
+        stored = Optional.of(new User(1L, PHONE_NUMBER, "John Doe"));
+
+        cache.invalidate(PHONE_NUMBER);
+
+        assertThat(cache.get(PHONE_NUMBER, loader)).isPresent();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidateUser_DropsEveryLookupOfTheUser() {
+        cache.get(PHONE_NUMBER, loader);
+        cache.get("+420987654321", phoneNumber -> Optional.of(new User(2L, phoneNumber, "Jane Doe")));
+
+        cache.invalidateUser(1L);
+
+        assertThat(cache.stats().size()).isEqualTo(1);
+        cache.get(PHONE_NUMBER, loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_InvalidationDuringLoadNotCached() {
+        cache.get(PHONE_NUMBER, phoneNumber -> {
+            cache.invalidate(phoneNumber);
+            return stored;
+        });
+
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void get_FullCacheEvicts() {
+        for (int i = 0; i < 250; i++) {
+            cache.get("+420" + (100_000_000 + i), phoneNumber -> Optional.empty());
+        }
+
+        assertThat(cache.stats().size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void bindTo_ExposesHitRate() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get(PHONE_NUMBER, loader);
+        cache.get(PHONE_NUMBER, loader);
+        cache.get(PHONE_NUMBER, loader);
+
+        assertThat(registry.get("users.lookup.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2.0);
+        assertThat(registry.get("users.lookup.cache.hit.rate").gauge().value()).isEqualTo(2.0 / 3);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package cz.xmerta.tennisclub.service.hold;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void advance_FiresWithinOneTickAfterDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.schedule("a", 25);
+
+        assertThat(wheel.advance(25)).isEmpty();
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_CascadesFromHigherLevels() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.schedule(1, 55);
+        wheel.schedule(2, 170);
+        wheel.schedule(3, 1_005);
+
+        assertThat(wheel.advance(50)).isEmpty();
+        assertThat(wheel.advance(60)).containsExactly(1);
+        assertThat(wheel.advance(170)).isEmpty();
+        assertThat(wheel.advance(180)).containsExactly(2);
+        assertThat(wheel.advance(1_000)).isEmpty();
+        assertThat(wheel.advance(1_010)).containsExactly(3);
+    }
+
+    @Test
+    void advance_NeverEarlyNorLateForRandomDeadlines() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 3);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long deadline = 3 + random.nextInt(50_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        int fired = 0;
+        for (long now = 0; now <= 50_020; now += 7) {
+            for (long deadline : wheel.advance(now)) {
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                assertThat(now - deadline).isLessThan(10 + 7);
+                fired++;
+            }
+        }
+        assertThat(fired).isEqualTo(deadlines.size());
+    }
+
+    @Test
+    void cancel_PreventsFiring() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("a", 500);
+        wheel.schedule("b", 500);
+
+        assertThat(wheel.cancel(timeout)).isTrue();
+        assertThat(wheel.cancel(timeout)).isFalse();
+        assertThat(wheel.advance(1_000)).containsExactly("b");
+    }
+
+    @Test
+    void schedule_PastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 100);
+        wheel.schedule("late", 50);
+
+        assertThat(wheel.advance(100)).containsExactly("late");
+    }
+}
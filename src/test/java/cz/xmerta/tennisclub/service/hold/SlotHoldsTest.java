@@ -0,0 +1,109 @@
+package cz.xmerta.tennisclub.service.hold;
+
+import cz.xmerta.tennisclub.storage.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlotHoldsTest {
+
+    private MutableClock clock;
+    private SlotHolds slotHolds;
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-10T08:00:00Z"));
+        slotHolds = new SlotHolds(1000, clock);
+        Court court = new Court(1L, "Court 1", new SurfaceType(1L, "Clay", 0.5));
+        reservation = new Reservation(null, new User(null, "+420123456789", "John Doe"), court,
+                LocalDateTime.of(2025, 1, 14, 10, 0), LocalDateTime.of(2025, 1, 14, 11, 0), GameType.SINGLE, 30.0);
+    }
+
+    @Test
+    void add_BlocksOverlappingSlot() {
+        ReservationHold hold = slotHolds.add(reservation, Duration.ofMinutes(10));
+
+        assertThat(slotHolds.overlaps(1L, LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), null)).isTrue();
+        assertThat(slotHolds.overlaps(1L, LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), hold.id())).isFalse();
+        assertThat(slotHolds.overlaps(2L, LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), null)).isFalse();
+        assertThat(hold.expiresAt()).isEqualTo(LocalDateTime.of(2025, 1, 10, 8, 10));
+    }
+
+    @Test
+    void expire_ReleasesSlotAfterTtl() {
+        ReservationHold hold = slotHolds.add(reservation, Duration.ofMinutes(10));
+
+        clock.advance(Duration.ofMinutes(9));
+        slotHolds.expire();
+        assertThat(slotHolds.find(hold.id())).isPresent();
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(slotHolds.find(hold.id())).isEmpty();
+        clock.advance(Duration.ofSeconds(1));
+        slotHolds.expire();
+        assertThat(slotHolds.size()).isZero();
+        assertThat(slotHolds.overlaps(1L, reservation.getStartTime(), reservation.getEndTime(), null)).isFalse();
+    }
+
+    @Test
+    void overlaps_ExpiredHoldIgnoredBeforeTick() {
+        ReservationHold expired = slotHolds.add(reservation, Duration.ofMinutes(10));
+
+        clock.advance(Duration.ofMinutes(10));
+
+        assertThat(slotHolds.size()).isEqualTo(1);
+        assertThat(slotHolds.overlaps(1L, reservation.getStartTime(), reservation.getEndTime(), null)).isFalse();
+
+        ReservationHold hold = slotHolds.add(reservation, Duration.ofMinutes(10));
+
+        assertThat(slotHolds.find(expired.id())).isEmpty();
+        assertThat(slotHolds.size()).isEqualTo(1);
+        assertThat(slotHolds.overlaps(1L, reservation.getStartTime(), reservation.getEndTime(), null)).isTrue();
+        assertThat(slotHolds.overlaps(1L, reservation.getStartTime(), reservation.getEndTime(), hold.id())).isFalse();
+    }
+
+    @Test
+    void remove_ReleasesSlotImmediately() {
+        ReservationHold hold = slotHolds.add(reservation, Duration.ofMinutes(10));
+
+        assertThat(slotHolds.remove(hold.id())).contains(hold);
+        assertThat(slotHolds.remove(hold.id())).isEmpty();
+        assertThat(slotHolds.overlaps(1L, reservation.getStartTime(), reservation.getEndTime(), null)).isFalse();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cz.xmerta.tennisclub.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourtIntervalIndexTest {
+
+    private CourtIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CourtIntervalIndex();
+        index.rebuild(List.of(
+                new CourtIntervalIndex.Interval(1L, 1L, at(10, 0), at(11, 0)),
+                new CourtIntervalIndex.Interval(2L, 1L, at(12, 0), at(13, 0)),
+                new CourtIntervalIndex.Interval(3L, 2L, at(10, 0), at(11, 0))
+        ));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2025, 1, 14, hour, minute);
+    }
+
+    @Test
+    void rebuild_MarksWarm() {
+        assertThat(index.isWarm()).isTrue();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(new CourtIntervalIndex().isWarm()).isFalse();
+    }
+
+    @Test
+    void rebuild_WritesDuringLoadingApplyAfterIt() throws InterruptedException {
+        CourtIntervalIndex.Interval committed = new CourtIntervalIndex.Interval(4L, 1L, at(14, 0), at(15, 0));
+        Thread writer = new Thread(() -> index.put(committed));
+
+        index.rebuild(sink -> {
+            writer.start();
+            try {
+                writer.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertThat(writer.isAlive()).isTrue();
+            sink.accept(new CourtIntervalIndex.Interval(1L, 1L, at(10, 0), at(11, 0)));
+        });
+        writer.join();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.overlaps(1L, at(14, 30), at(14, 45), null)).isTrue();
+    }
+
+    @Test
+    void overlaps_Detected() {
+        assertThat(index.overlaps(1L, at(10, 30), at(11, 30), null)).isTrue();
+        assertThat(index.overlaps(1L, at(9, 0), at(14, 0), null)).isTrue();
+        assertThat(index.overlaps(1L, at(12, 15), at(12, 45), null)).isTrue();
+    }
+
+    @Test
+    void overlaps_AdjacentIntervalsDoNotOverlap() {
+        assertThat(index.overlaps(1L, at(11, 0), at(12, 0), null)).isFalse();
+        assertThat(index.overlaps(1L, at(9, 0), at(10, 0), null)).isFalse();
+        assertThat(index.overlaps(1L, at(13, 0), at(14, 0), null)).isFalse();
+    }
+
+    @Test
+    void overlaps_OtherCourtIgnored() {
+        assertThat(index.overlaps(3L, at(10, 0), at(11, 0), null)).isFalse();
+        assertThat(index.overlaps(2L, at(12, 0), at(13, 0), null)).isFalse();
+    }
+
+    @Test
+    void overlaps_ExcludedIntervalIgnored() {
+        assertThat(index.overlaps(1L, at(12, 30), at(13, 30), 2L)).isFalse();
+        assertThat(index.overlaps(1L, at(10, 30), at(13, 30), 2L)).isTrue();
+    }
+
+    @Test
+    void intersecting_OrderedAndClippedToWindow() {
+        assertThat(index.intersecting(1L, at(10, 30), at(12, 30)))
+                .extracting(CourtIntervalIndex.Interval::id).containsExactly(1L, 2L);
+        assertThat(index.intersecting(1L, at(11, 0), at(12, 0))).isEmpty();
+        assertThat(index.intersecting(1L, at(9, 0), at(10, 0))).isEmpty();
+        assertThat(index.intersecting(1L, at(12, 59), at(23, 0)))
+                .extracting(CourtIntervalIndex.Interval::id).containsExactly(2L);
+        assertThat(index.intersecting(3L, at(0, 0), at(23, 0))).isEmpty();
+    }
+
+    @Test
+    void put_ReplacesIntervalWithSameId() {
+        index.put(new CourtIntervalIndex.Interval(1L, 1L, at(8, 0), at(9, 0)));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.overlaps(1L, at(10, 0), at(11, 0), null)).isFalse();
+        assertThat(index.overlaps(1L, at(8, 30), at(9, 30), null)).isTrue();
+    }
+
+    @Test
+    void remove_And_Clear() {
+        index.remove(2L);
+        assertThat(index.overlaps(1L, at(12, 0), at(13, 0), null)).isFalse();
+
+        index.clear();
+        assertThat(index.size()).isZero();
+        assertThat(index.isWarm()).isTrue();
+        assertThat(index.overlaps(2L, at(10, 0), at(11, 0), null)).isFalse();
+    }
+
+    @Test
+    void remove_KeepsNeighbourSharingPartialSlot() {
+        CourtIntervalIndex coarseIndex = new CourtIntervalIndex(30);
+        coarseIndex.put(new CourtIntervalIndex.Interval(1L, 1L, at(10, 0), at(10, 10)));
+        coarseIndex.put(new CourtIntervalIndex.Interval(2L, 1L, at(10, 10), at(11, 0)));
+
+        coarseIndex.remove(2L);
+
+        assertThat(coarseIndex.overlaps(1L, at(10, 5), at(10, 7), null)).isTrue();
+        assertThat(coarseIndex.overlaps(1L, at(10, 10), at(11, 0), null)).isFalse();
+    }
+}
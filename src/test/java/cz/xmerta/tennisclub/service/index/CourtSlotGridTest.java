@@ -0,0 +1,78 @@
+package cz.xmerta.tennisclub.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CourtSlotGridTest {
+
+    private CourtSlotGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        grid = new CourtSlotGrid(5);
+        grid.mark(1L, at(14, 10, 0), at(14, 11, 0));
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return LocalDateTime.of(2025, 1, day, hour, minute);
+    }
+
+    @Test
+    void isFree_MarkedRange() {
+        assertThat(grid.isFree(1L, at(14, 10, 30), at(14, 10, 35))).isFalse();
+        assertThat(grid.isFree(1L, at(14, 9, 0), at(14, 12, 0))).isFalse();
+        assertThat(grid.isFree(1L, at(14, 11, 0), at(14, 12, 0))).isTrue();
+        assertThat(grid.isFree(1L, at(14, 9, 0), at(14, 10, 0))).isTrue();
+    }
+
+    @Test
+    void isFree_OtherCourtOrDay() {
+        assertThat(grid.isFree(2L, at(14, 10, 0), at(14, 11, 0))).isTrue();
+        assertThat(grid.isFree(1L, at(15, 10, 0), at(15, 11, 0))).isTrue();
+    }
+
+    @Test
+    void mark_PartialSlotIsOccupied() {
+        grid.mark(1L, at(14, 12, 2), at(14, 12, 3));
+
+        assertThat(grid.isFree(1L, at(14, 12, 0), at(14, 12, 1))).isFalse();
+        assertThat(grid.isFree(1L, at(14, 12, 5), at(14, 12, 10))).isTrue();
+    }
+
+    @Test
+    void mark_AcrossMidnightAndWordBoundaries() {
+        grid.mark(1L, at(14, 22, 0), at(15, 2, 0));
+
+        assertThat(grid.isFree(1L, at(14, 23, 55), at(15, 0, 0))).isFalse();
+        assertThat(grid.isFree(1L, at(15, 0, 0), at(15, 0, 5))).isFalse();
+        assertThat(grid.isFree(1L, at(15, 2, 0), at(15, 3, 0))).isTrue();
+        assertThat(grid.isFree(1L, at(14, 5, 15), at(14, 5, 25))).isTrue();
+        assertThat(grid.size()).isEqualTo(2);
+    }
+
+    @Test
+    void unmark_ClearsRange() {
+        grid.unmark(1L, at(14, 10, 0), at(14, 11, 0));
+
+        assertThat(grid.isFree(1L, at(14, 10, 0), at(14, 11, 0))).isTrue();
+    }
+
+    @Test
+    void clear_RemovesAll() {
+        grid.clear();
+
+        assertThat(grid.size()).isZero();
+        assertThat(grid.isFree(1L, at(14, 10, 0), at(14, 11, 0))).isTrue();
+    }
+
+    @Test
+    void constructor_InvalidSlotLength() {
+        assertThrows(IllegalArgumentException.class, () -> new CourtSlotGrid(7));
+        assertThrows(IllegalArgumentException.class, () -> new CourtSlotGrid(0));
+    }
+}
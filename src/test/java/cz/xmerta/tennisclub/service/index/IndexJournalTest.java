@@ -0,0 +1,247 @@
+package cz.xmerta.tennisclub.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexJournalTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 14, 10, 0);
+
+    @TempDir
+    private Path directory;
+
+    private CourtIntervalIndex intervalIndex;
+    private PhoneNumberIndex phoneNumberIndex;
+    private IndexJournal journal;
+    private final List<Runnable> pendingSnapshots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        journal = open(1_000);
+    }
+
+    /**
+     * Starts a journal over fresh indexes the way the application does, restoring what the previous one left.
+     * A journal that is simply dropped afterwards stands in for a crashed process.
+     */
+    private IndexJournal open(int capacityRecords) {
+        intervalIndex = new CourtIntervalIndex();
+        phoneNumberIndex = new PhoneNumberIndex();
+        pendingSnapshots.clear();
+        IndexJournal opened = new IndexJournal(intervalIndex, phoneNumberIndex, true, directory, capacityRecords,
+                pendingSnapshots::add);
+        opened.restore();
+        if (!intervalIndex.isWarm()) {
+            intervalIndex.rebuild(List.of());
+            phoneNumberIndex.rebuild(sink -> {
+            });
+        }
+        opened.start();
+        return opened;
+    }
+
+    private static CourtIntervalIndex.Interval interval(long id, long courtId, int hour) {
+        return new CourtIntervalIndex.Interval(id, courtId, BASE.plusHours(hour), BASE.plusHours(hour + 1));
+    }
+
+    @Test
+    void restore_NothingJournaledLeavesIndexesCold() {
+        CourtIntervalIndex cold = new CourtIntervalIndex();
+        new IndexJournal(cold, new PhoneNumberIndex(), true, directory.resolve("empty"), 10).restore();
+
+        assertThat(cold.isWarm()).isFalse();
+    }
+
+    @Test
+    void restore_ReplaysLogAfterCrash() {
+        intervalIndex.put(interval(1, 1, 0));
+        intervalIndex.put(interval(2, 1, 1));
+        intervalIndex.put(interval(2, 2, 1));
+        intervalIndex.remove(1);
+        phoneNumberIndex.put("+420123456789", 1L);
+        phoneNumberIndex.put("+420123456787", 2L);
+        phoneNumberIndex.put("+420123456780", 1L);
+        phoneNumberIndex.removeOtherPhoneNumbers(1L, "+420123456780");
+
+        open(1_000);
+
+        assertThat(intervalIndex.isWarm()).isTrue();
+        assertThat(intervalIndex.size()).isEqualTo(1);
+        assertThat(intervalIndex.overlaps(2, BASE.plusHours(1), BASE.plusHours(2), null)).isTrue();
+        assertThat(intervalIndex.overlaps(1, BASE, BASE.plusHours(2), null)).isFalse();
+        assertThat(phoneNumberIndex.isWarm()).isTrue();
+        assertThat(phoneNumberIndex.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(phoneNumberIndex.get("+420123456780")).isEqualTo(1L);
+        assertThat(phoneNumberIndex.get("+420123456787")).isEqualTo(2L);
+    }
+
+    @Test
+    void restore_SnapshotPlusLaterRecords() {
+        intervalIndex.put(interval(1, 1, 0));
+        phoneNumberIndex.put("+420123456789", 1L);
+        journal.snapshotIfDirty();
+        intervalIndex.put(interval(2, 1, 2));
+        phoneNumberIndex.removeUser(1L);
+
+        open(1_000);
+
+        assertThat(intervalIndex.size()).isEqualTo(2);
+        assertThat(phoneNumberIndex.size()).isZero();
+    }
+
+    @Test
+    void restore_ClearedIndexes() {
+        intervalIndex.put(interval(1, 1, 0));
+        phoneNumberIndex.put("+420123456789", 1L);
+        intervalIndex.clear();
+        phoneNumberIndex.clear();
+
+        open(1_000);
+
+        assertThat(intervalIndex.size()).isZero();
+        assertThat(phoneNumberIndex.size()).isZero();
+    }
+
+    @Test
+    void restore_StopsAtTornRecord() throws IOException {
+        intervalIndex.put(interval(1, 1, 0));
+        intervalIndex.put(interval(2, 1, 1));
+        intervalIndex.put(interval(3, 1, 2));
+        try (RandomAccessFile log = new RandomAccessFile(directory.resolve("indexes.log").toFile(), "rw")) {
+            log.seek(IndexJournal.RECORD_BYTES + 10);
+            log.write(0xff);
+        }
+
+        open(1_000);
+
+        assertThat(intervalIndex.size()).isEqualTo(1);
+        assertThat(intervalIndex.overlaps(1, BASE, BASE.plusMinutes(30), null)).isTrue();
+    }
+
+    /**
+     * Runs the snapshots started by a filling log, the way the snapshot thread does.
+     */
+    private void runPendingSnapshots() {
+        while (!pendingSnapshots.isEmpty()) {
+            pendingSnapshots.remove(0).run();
+        }
+    }
+
+    @Test
+    void append_HalfFullLogStartsSnapshotOffTheWriter() {
+        journal = open(4);
+        intervalIndex.put(interval(1, 1, 0));
+        assertThat(pendingSnapshots).isEmpty();
+
+        intervalIndex.put(interval(2, 1, 1));
+
+        assertThat(pendingSnapshots).hasSize(1);
+        intervalIndex.put(interval(3, 1, 2));
+        assertThat(pendingSnapshots).hasSize(1);
+    }
+
+    @Test
+    void append_FullLogDropsRecordsUntilSnapshot() {
+        journal = open(4);
+        for (int i = 0; i < 10; i++) {
+            intervalIndex.put(interval(i, 1, i));
+        }
+        runPendingSnapshots();
+
+        open(4);
+
+        assertThat(intervalIndex.size()).isEqualTo(10);
+    }
+
+    @Test
+    void snapshot_KeepsRecordsAppendedWhileWriting() {
+        intervalIndex = new CourtIntervalIndex() {
+            @Override
+            public void forEach(Consumer<Interval> action) {
+                super.forEach(action);
+                // a booking committed after the snapshot copied the index
+                if (size() == 1) {
+                    put(interval(2, 1, 1));
+                }
+            }
+        };
+        phoneNumberIndex = new PhoneNumberIndex();
+        journal = new IndexJournal(intervalIndex, phoneNumberIndex, true, directory, 1_000, pendingSnapshots::add);
+        journal.restore();
+        intervalIndex.rebuild(List.of());
+        phoneNumberIndex.rebuild(sink -> {
+        });
+        intervalIndex.put(interval(1, 1, 0));
+
+        journal.snapshot();
+
+        open(1_000);
+        assertThat(intervalIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void restore_JournalsChangesMadeBeforeStart() {
+        intervalIndex = new CourtIntervalIndex();
+        phoneNumberIndex = new PhoneNumberIndex();
+        journal.close();
+        IndexJournal restored = new IndexJournal(intervalIndex, phoneNumberIndex, true, directory, 1_000,
+                pendingSnapshots::add);
+        restored.restore();
+        // the warm-up and the first bookings run before the journal is started
+        intervalIndex.put(interval(1, 1, 0));
+
+        open(1_000);
+
+        assertThat(intervalIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void close_SnapshotReplacesLog() {
+        for (int i = 0; i < 5; i++) {
+            phoneNumberIndex.put(String.format("+%012d", i), i);
+        }
+        journal.close();
+
+        open(1_000);
+
+        assertThat(phoneNumberIndex.size()).isEqualTo(5);
+        assertThat(phoneNumberIndex.get("+000000000003")).isEqualTo(3L);
+    }
+
+    @Test
+    void restore_LargeLogAndSnapshot() {
+        int count = 200_000;
+        long idSum = (long) count * (count - 1) / 2;
+        journal = open(count * 2);
+        for (int i = 0; i < count; i++) {
+            intervalIndex.put(interval(i, i % 20, i / 20));
+            phoneNumberIndex.put(String.format("+%012d", 420_000_000_000L + i), i);
+        }
+
+        // replayed from the log
+        open(count * 2);
+        assertThat(intervalIndex.size()).isEqualTo(count);
+        assertThat(intervalIndex.idSum()).isEqualTo(idSum);
+        assertThat(phoneNumberIndex.size()).isEqualTo(count);
+        assertThat(phoneNumberIndex.idSum()).isEqualTo(idSum);
+
+        // read from the snapshot the replay was followed by
+        open(count * 2);
+        assertThat(intervalIndex.size()).isEqualTo(count);
+        assertThat(intervalIndex.idSum()).isEqualTo(idSum);
+        assertThat(phoneNumberIndex.size()).isEqualTo(count);
+        assertThat(phoneNumberIndex.idSum()).isEqualTo(idSum);
+        assertThat(phoneNumberIndex.get(String.format("+%012d", 420_000_000_000L + count - 1))).isEqualTo(count - 1L);
+    }
+}
@@ -0,0 +1,170 @@
+package cz.xmerta.tennisclub.service.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhoneNumberIndexTest {
+
+    private PhoneNumberIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PhoneNumberIndex();
+        index.rebuild(sink -> {
+            sink.add("+420123456789", 1L);
+            sink.add("+420123456787", 2L);
+        });
+    }
+
+    private static String phone(long digits) {
+        return String.format("+%012d", digits);
+    }
+
+    @Test
+    void encode_OnlyPlusAndTwelveDigits() {
+        assertThat(PhoneNumberIndex.encode("+420123456789")).isEqualTo(420123456789L);
+        assertThat(PhoneNumberIndex.encode("+000000000000")).isZero();
+        assertThat(PhoneNumberIndex.encode("420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(PhoneNumberIndex.encode("+42012345678")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(PhoneNumberIndex.encode("+42012345678a")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(PhoneNumberIndex.encode(null)).isEqualTo(PhoneNumberIndex.ABSENT);
+    }
+
+    @Test
+    void rebuild_MarksWarm() {
+        assertThat(index.isWarm()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(new PhoneNumberIndex().isWarm()).isFalse();
+    }
+
+    @Test
+    void get_IndexedAndUnknownNumbers() {
+        assertThat(index.get("+420123456789")).isEqualTo(1L);
+        assertThat(index.get("+420123456787")).isEqualTo(2L);
+        assertThat(index.get("+420123456788")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(index.get("not a number")).isEqualTo(PhoneNumberIndex.ABSENT);
+    }
+
+    @Test
+    void put_ZeroPhoneNumberDistinctFromFreeSlot() {
+        index.put("+000000000000", 3L);
+
+        assertThat(index.get("+000000000000")).isEqualTo(3L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void put_ReplacesUser() {
+        index.put("+420123456789", 5L);
+
+        assertThat(index.get("+420123456789")).isEqualTo(5L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_OnlyIfStillOwnedByUser() {
+        index.remove("+420123456789", 2L);
+        assertThat(index.get("+420123456789")).isEqualTo(1L);
+
+        index.remove("+420123456789", 1L);
+        assertThat(index.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeOtherPhoneNumbers_KeepsCurrentNumber() {
+        index.put("+420123456780", 1L);
+
+        index.removeOtherPhoneNumbers(1L, "+420123456780");
+
+        assertThat(index.get("+420123456780")).isEqualTo(1L);
+        assertThat(index.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(index.get("+420123456787")).isEqualTo(2L);
+    }
+
+    @Test
+    void removeUser_AllNumbersOfUser() {
+        index.put("+420123456780", 1L);
+
+        index.removeUser(1L);
+
+        assertThat(index.get("+420123456780")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(index.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void clear_StaysWarm() {
+        index.clear();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.isWarm()).isTrue();
+        assertThat(index.get("+420123456789")).isEqualTo(PhoneNumberIndex.ABSENT);
+    }
+
+    @Test
+    void put_GrowsTableBelowMaximumLoad() {
+        for (long i = 0; i < 10_000; i++) {
+            index.put(phone(420_000_000_000L + i), i);
+        }
+
+        assertThat(index.size()).isEqualTo(10_002);
+        assertThat(index.capacity()).isEqualTo(16_384);
+        for (long i = 0; i < 10_000; i++) {
+            assertThat(index.get(phone(420_000_000_000L + i))).isEqualTo(i);
+        }
+    }
+
+    /**
+     * Random puts and removes over a small key range, so probe runs collide and wrap around,
+     * checked against a {@link HashMap} after every step.
+     */
+    @Test
+    void mixedWrites_MatchReferenceMap() {
+        Random random = new Random(17);
+        Map<Long, Long> reference = new HashMap<>();
+        index.clear();
+        for (int step = 0; step < 50_000; step++) {
+            long digits = random.nextInt(900);
+            long userId = random.nextInt(50);
+            if (random.nextInt(3) == 0) {
+                index.remove(phone(digits), userId);
+                reference.remove(digits, userId);
+            } else {
+                index.put(phone(digits), userId);
+                reference.put(digits, userId);
+            }
+            if (step % 1_000 == 0) {
+                index.removeUser(userId);
+                reference.values().removeIf(id -> id == userId);
+            }
+            long probe = random.nextInt(900);
+            assertThat(index.get(phone(probe))).isEqualTo(reference.getOrDefault(probe, PhoneNumberIndex.ABSENT));
+        }
+        assertThat(index.size()).isEqualTo(reference.size());
+        reference.forEach((digits, userId) -> assertThat(index.get(phone(digits))).isEqualTo(userId));
+    }
+
+    @Test
+    void bindTo_CountsHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        index.bindTo(registry);
+
+        index.get("+420123456789");
+        index.get("+420123456788");
+        index.get("+420123456788");
+
+        assertThat(registry.get("users.phone.index.lookups").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("users.phone.index.lookups").tag("result", "miss").functionCounter().count())
+                .isEqualTo(2.0);
+        assertThat(registry.get("users.phone.index.size").gauge().value()).isEqualTo(2.0);
+    }
+}
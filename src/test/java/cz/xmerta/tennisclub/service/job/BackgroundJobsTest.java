@@ -0,0 +1,95 @@
+package cz.xmerta.tennisclub.service.job;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackgroundJobsTest {
+
+    private List<Runnable> queued;
+    private BackgroundJobs backgroundJobs;
+
+    @BeforeEach
+    void setUp() {
+        queued = new ArrayList<>();
+        backgroundJobs = new BackgroundJobs(queued::add);
+    }
+
+    private void runQueued() {
+        queued.forEach(Runnable::run);
+        queued.clear();
+    }
+
+    @Test
+    void submit_QueuedUntilRunThenSucceeds() {
+        JobStatus submitted = backgroundJobs.submit("test", progress -> {
+            progress.total(10);
+            progress.advance(4);
+            progress.advance(6);
+        });
+
+        assertThat(submitted.state()).isEqualTo(JobStatus.State.QUEUED);
+        assertThat(submitted.total()).isNull();
+
+        runQueued();
+
+        JobStatus finished = backgroundJobs.find(submitted.id()).orElseThrow();
+        assertThat(finished.state()).isEqualTo(JobStatus.State.SUCCEEDED);
+        assertThat(finished.processed()).isEqualTo(10L);
+        assertThat(finished.total()).isEqualTo(10L);
+        assertThat(finished.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_FailureKeepsProgress() {
+        JobStatus submitted = backgroundJobs.submit("test", progress -> {
+            progress.advance(3);
+            throw new IllegalStateException("Database gone.");
+        });
+
+        runQueued();
+
+        JobStatus failed = backgroundJobs.find(submitted.id()).orElseThrow();
+        assertThat(failed.state()).isEqualTo(JobStatus.State.FAILED);
+        assertThat(failed.processed()).isEqualTo(3L);
+        assertThat(failed.error()).isEqualTo("Database gone.");
+    }
+
+    @Test
+    void submit_ErrorFailsJobAndIsRethrown() {
+        JobStatus submitted = backgroundJobs.submit("test", progress -> {
+            progress.advance(2);
+            throw new OutOfMemoryError();
+        });
+
+        assertThrows(OutOfMemoryError.class, this::runQueued);
+
+        JobStatus failed = backgroundJobs.find(submitted.id()).orElseThrow();
+        assertThat(failed.state()).isEqualTo(JobStatus.State.FAILED);
+        assertThat(failed.processed()).isEqualTo(2L);
+        assertThat(failed.error()).isEqualTo(OutOfMemoryError.class.getName());
+        assertThat(failed.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_ForgetsOldestFinishedJobs() {
+        long first = backgroundJobs.submit("test", progress -> { }).id();
+        runQueued();
+        for (int i = 0; i < 100; i++) {
+            backgroundJobs.submit("test", progress -> { });
+        }
+
+        assertThat(backgroundJobs.find(first)).isEmpty();
+        assertThat(backgroundJobs.find(first + 1)).isPresent();
+    }
+
+    @Test
+    void find_Unknown() {
+        assertThat(backgroundJobs.find(42L)).isEmpty();
+    }
+}
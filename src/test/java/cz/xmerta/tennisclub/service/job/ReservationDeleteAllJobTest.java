@@ -0,0 +1,59 @@
+package cz.xmerta.tennisclub.service.job;
+
+import cz.xmerta.tennisclub.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ReservationDeleteAllJobTest {
+
+    private ReservationService reservationService;
+    private BackgroundJobs backgroundJobs;
+    private ReservationDeleteAllJob job;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        backgroundJobs = new BackgroundJobs(Runnable::run);
+        job = new ReservationDeleteAllJob(backgroundJobs, reservationService, 2);
+    }
+
+    @Test
+    void start_DeletesBatchesUpToLastIdAtStart() {
+        when(reservationService.getLastReservationId()).thenReturn(9L);
+        when(reservationService.countReservationsUpTo(9L)).thenReturn(5L);
+        when(reservationService.deleteBatch(0L, 9L, 2)).thenReturn(List.of(1L, 3L));
+        when(reservationService.deleteBatch(3L, 9L, 2)).thenReturn(List.of(4L, 8L));
+        when(reservationService.deleteBatch(8L, 9L, 2)).thenReturn(List.of(9L));
+
+        long id = job.start().id();
+
+        JobStatus status = backgroundJobs.find(id).orElseThrow();
+        assertThat(status.type()).isEqualTo(ReservationDeleteAllJob.TYPE);
+        assertThat(status.state()).isEqualTo(JobStatus.State.SUCCEEDED);
+        assertThat(status.processed()).isEqualTo(5L);
+        assertThat(status.total()).isEqualTo(5L);
+        verify(reservationService, times(3)).deleteBatch(anyLong(), eq(9L), eq(2));
+        verify(reservationService, never()).deleteAll();
+    }
+
+    @Test
+    void start_NothingToDelete() {
+        when(reservationService.deleteBatch(0L, 0L, 2)).thenReturn(List.of());
+
+        long id = job.start().id();
+
+        assertThat(backgroundJobs.find(id).orElseThrow().processed()).isZero();
+        verify(reservationService, times(1)).deleteBatch(0L, 0L, 2);
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ReservationDeleteAllJob(backgroundJobs, reservationService, 0));
+    }
+}
@@ -0,0 +1,122 @@
+package cz.xmerta.tennisclub.service.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CourtLocksTest {
+
+    @Test
+    void callLocked_ReleasesWithoutTransaction() {
+        CourtLocks courtLocks = new CourtLocks(8);
+
+        Integer result = courtLocks.callLocked(1L, () -> {
+            assertThat(courtLocks.isHeldByCurrentThread(1L)).isTrue();
+            return 42;
+        });
+
+        assertThat(result).isEqualTo(42);
+        assertThat(courtLocks.isHeldByCurrentThread(1L)).isFalse();
+    }
+
+    @Test
+    void callLockedAll_HoldsEveryCourt() {
+        CourtLocks courtLocks = new CourtLocks(8);
+
+        courtLocks.callLockedAll(() -> {
+            for (long courtId = 1; courtId <= 100; courtId++) {
+                assertThat(courtLocks.isHeldByCurrentThread(courtId)).isTrue();
+            }
+            return null;
+        });
+
+        assertThat(courtLocks.isHeldByCurrentThread(1L)).isFalse();
+    }
+
+    @Test
+    void callLocked_ReleasesOnException() {
+        CourtLocks courtLocks = new CourtLocks(8);
+
+        assertThrows(IllegalStateException.class, () -> courtLocks.callLocked(1L, () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertThat(courtLocks.isHeldByCurrentThread(1L)).isFalse();
+    }
+
+    @Test
+    void callLocked_SerializesSameCourt() throws Exception {
+        CourtLocks courtLocks = new CourtLocks(8);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        courtLocks.callLocked(7L, () -> {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            inside.decrementAndGet();
+                            return null;
+                        });
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    void callLocked_DifferentCourtsInParallel() throws Exception {
+        CourtLocks courtLocks = new CourtLocks(8);
+        // courts 1 and 2 fall into different stripes, so both threads can be inside at once
+        CountDownLatch bothInside = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> courtLocks.callLocked(1L, () -> awaitOther(bothInside)));
+            Future<Boolean> second = executor.submit(() -> courtLocks.callLocked(2L, () -> awaitOther(bothInside)));
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(second.get(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void constructor_InvalidStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new CourtLocks(0));
+    }
+
+    /**
+     * Enters the latch and waits until the other thread enters it too, while still holding the court lock.
+     */
+    private static boolean awaitOther(CountDownLatch bothInside) {
+        bothInside.countDown();
+        try {
+            return bothInside.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
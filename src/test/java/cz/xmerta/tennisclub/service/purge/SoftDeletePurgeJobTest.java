@@ -0,0 +1,83 @@
+package cz.xmerta.tennisclub.service.purge;
+
+import cz.xmerta.tennisclub.storage.dao.CourtDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.ReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class SoftDeletePurgeJobTest {
+
+    private SoftDeletePurgeService purgeService;
+    private ReservationDao reservationDao;
+    private ReservationSeriesDao reservationSeriesDao;
+    private UserDao userDao;
+    private CourtDao courtDao;
+    private SurfaceTypeDao surfaceTypeDao;
+    private SoftDeletePurgeJob job;
+
+    @BeforeEach
+    void setUp() {
+        purgeService = mock(SoftDeletePurgeService.class);
+        reservationDao = mock(ReservationDao.class);
+        reservationSeriesDao = mock(ReservationSeriesDao.class);
+        userDao = mock(UserDao.class);
+        courtDao = mock(CourtDao.class);
+        surfaceTypeDao = mock(SurfaceTypeDao.class);
+        when(purgeService.purgeBatch(any(), any(), anyLong(), anyInt())).thenReturn(new PurgeBatch(0, 0, 0L));
+        job = new SoftDeletePurgeJob(purgeService, reservationDao, reservationSeriesDao, userDao, courtDao,
+                surfaceTypeDao, 30, 2);
+    }
+
+    @Test
+    void purge_ReferencingTablesFirst() {
+        job.purge();
+
+        InOrder order = inOrder(purgeService);
+        order.verify(purgeService).purgeBatch(eq(reservationDao), any(), eq(0L), eq(2));
+        order.verify(purgeService).purgeBatch(eq(reservationSeriesDao), any(), eq(0L), eq(2));
+        order.verify(purgeService).purgeBatch(eq(userDao), any(), eq(0L), eq(2));
+        order.verify(purgeService).purgeBatch(eq(courtDao), any(), eq(0L), eq(2));
+        order.verify(purgeService).purgeBatch(eq(surfaceTypeDao), any(), eq(0L), eq(2));
+    }
+
+    @Test
+    void purge_SeeksPastLastIdUntilBatchNotFull() {
+        when(purgeService.purgeBatch(eq(userDao), any(), anyLong(), eq(2)))
+                .thenReturn(new PurgeBatch(2, 2, 7L), new PurgeBatch(2, 1, 12L), new PurgeBatch(1, 1, 15L));
+
+        assertThat(job.purge()).isEqualTo(4);
+
+        verify(purgeService).purgeBatch(eq(userDao), any(), eq(0L), eq(2));
+        verify(purgeService).purgeBatch(eq(userDao), any(), eq(7L), eq(2));
+        verify(purgeService).purgeBatch(eq(userDao), any(), eq(12L), eq(2));
+    }
+
+    @Test
+    void purge_CutoffIsRetentionBeforeNow() {
+        LocalDateTime before = LocalDateTime.now().minusDays(30);
+
+        job.purge();
+
+        verify(purgeService).purgeBatch(eq(reservationDao),
+                argThat(cutoff -> !cutoff.isBefore(before) && !cutoff.isAfter(LocalDateTime.now().minusDays(30))),
+                eq(0L), eq(2));
+    }
+
+    @Test
+    void constructor_RejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new SoftDeletePurgeJob(purgeService, reservationDao,
+                reservationSeriesDao, userDao, courtDao, surfaceTypeDao, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new SoftDeletePurgeJob(purgeService, reservationDao,
+                reservationSeriesDao, userDao, courtDao, surfaceTypeDao, 30, 0));
+    }
+}
@@ -0,0 +1,123 @@
+package cz.xmerta.tennisclub.service.readmodel;
+
+import cz.xmerta.tennisclub.service.event.AllReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsDeletedEvent;
+import cz.xmerta.tennisclub.service.event.ReservationsSavedEvent;
+import cz.xmerta.tennisclub.service.event.UserSavedEvent;
+import cz.xmerta.tennisclub.storage.dao.ReservationDao;
+import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.GameType;
+import cz.xmerta.tennisclub.storage.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReservationReadModelTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 14, 10, 0);
+
+    @Mock
+    private ReservationDao reservationDao;
+
+    @Mock
+    private UserDao userDao;
+
+    @InjectMocks
+    private ReservationReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userDao.findAll()).thenReturn(List.of(
+                new User(1L, "+420123456789", "John Doe"),
+                new User(2L, "+420123456787", "Jane Doe")));
+        when(reservationDao.findAllViews()).thenReturn(List.of(
+                new ReservationView(11L, 1L, "+420123456789", "John Doe", 1L,
+                        BASE.plusHours(2), BASE.plusHours(3), GameType.SINGLE, 30.0),
+                new ReservationView(10L, 1L, "+420123456789", "John Doe", 1L,
+                        BASE, BASE.plusHours(1), GameType.DOUBLE, 45.0),
+                new ReservationView(12L, 3L, "+420123456780", "Deleted User", 2L,
+                        BASE, BASE.plusHours(1), GameType.SINGLE, 30.0)));
+        readModel.warmUp();
+    }
+
+    private static ReservationsSavedEvent.Item item(long id, long userId, long courtId, int hour) {
+        return new ReservationsSavedEvent.Item(id, userId, courtId, BASE.plusHours(hour), BASE.plusHours(hour + 1),
+                GameType.SINGLE, 30.0);
+    }
+
+    private static List<Long> ids(List<ReservationView> views) {
+        return views.stream().map(ReservationView::id).collect(Collectors.toList());
+    }
+
+    @Test
+    void warmUp_ProjectsByCourtAndUserOrderedByStart() {
+        assertThat(readModel.isWarm()).isTrue();
+        assertThat(readModel.size()).isEqualTo(3);
+        assertThat(ids(readModel.findByCourtId(1L))).containsExactly(10L, 11L);
+        assertThat(ids(readModel.findByUserId(1L, null))).containsExactly(10L, 11L);
+        assertThat(readModel.findByUserId(3L, null)).extracting(ReservationView::userName).containsExactly("Deleted User");
+        assertThat(readModel.findByCourtId(9L)).isEmpty();
+    }
+
+    @Test
+    void warmUp_OnlyOnce() {
+        readModel.warmUp();
+
+        verify(reservationDao, times(1)).findAllViews();
+    }
+
+    @Test
+    void findByUserId_EndsAfter() {
+        assertThat(ids(readModel.findByUserId(1L, BASE.plusMinutes(90)))).containsExactly(11L);
+    }
+
+    @Test
+    void onSaved_AddsAndMovesReservations() {
+        readModel.on(new ReservationsSavedEvent(List.of(item(13L, 2L, 1L, 1), item(10L, 2L, 2L, 4))));
+
+        assertThat(ids(readModel.findByCourtId(1L))).containsExactly(13L, 11L);
+        assertThat(ids(readModel.findByCourtId(2L))).containsExactly(12L, 10L);
+        assertThat(ids(readModel.findByUserId(1L, null))).containsExactly(11L);
+        assertThat(readModel.findByUserId(2L, null))
+                .extracting(ReservationView::phoneNumber).containsOnly("+420123456787");
+        assertThat(readModel.size()).isEqualTo(4);
+    }
+
+    @Test
+    void onDeleted_RemovesReservations() {
+        readModel.on(new ReservationsDeletedEvent(List.of(10L, 99L)));
+
+        assertThat(ids(readModel.findByCourtId(1L))).containsExactly(11L);
+        assertThat(ids(readModel.findByUserId(1L, null))).containsExactly(11L);
+    }
+
+    @Test
+    void onAllDeleted_KeepsUsers() {
+        readModel.on(new AllReservationsDeletedEvent());
+        readModel.on(new ReservationsSavedEvent(List.of(item(20L, 2L, 1L, 0))));
+
+        assertThat(readModel.size()).isEqualTo(1);
+        assertThat(readModel.findByCourtId(1L)).extracting(ReservationView::userName).containsExactly("Jane Doe");
+    }
+
+    @Test
+    void onUserSaved_RenamesListedReservations() {
+        readModel.on(new UserSavedEvent(1L, "+420123456780", "John Smith"));
+
+        assertThat(readModel.findByCourtId(1L))
+                .extracting(ReservationView::userName).containsExactly("John Smith", "John Smith");
+        assertThat(readModel.findByCourtId(1L))
+                .extracting(ReservationView::phoneNumber).containsOnly("+420123456780");
+    }
+}
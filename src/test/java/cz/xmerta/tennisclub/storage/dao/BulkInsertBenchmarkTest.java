@@ -0,0 +1,97 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaCourtDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaReservationDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaSurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaUserDao;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk insert of users and reservations with and without JDBC batching. Sequence IDs are allocated in blocks
+ * of the configured allocation size, so with batching the number of prepared statements drops from one per row
+ * to one per batch.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.app.id.allocation-size=" + BulkInsertBenchmarkTest.BATCH_SIZE
+})
+class BulkInsertBenchmarkTest {
+
+    private static final int ROWS = 1_000;
+    static final int BATCH_SIZE = 25;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private UserDao userDao;
+    private ReservationDao reservationDao;
+    private Statistics statistics;
+    private Court court;
+
+    @BeforeEach
+    void setUp() {
+        userDao = new JpaUserDao(entityManager);
+        reservationDao = new JpaReservationDao(entityManager);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        SurfaceType surfaceType = new SurfaceType(null, "Clay", 5.0);
+        new JpaSurfaceTypeDao(entityManager).save(surfaceType);
+        court = new Court(null, "Court 1", surfaceType);
+        new JpaCourtDao(entityManager).save(court);
+        entityManager.flush();
+    }
+
+    @Test
+    void sequences_UseConfiguredAllocationSize() {
+        List<?> increments = entityManager.createNativeQuery(
+                        "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME IN ('USERS_SEQ', 'RESERVATIONS_SEQ')")
+                .getResultList();
+
+        assertThat(increments).hasSize(2)
+                .allSatisfy(increment -> assertThat(((Number) increment).intValue()).isEqualTo(BATCH_SIZE));
+    }
+
+    @Test
+    void bulkInsert_BatchesStatements() {
+        long unbatched = insertUsersAndReservations(1, 0);
+        long batched = insertUsersAndReservations(BATCH_SIZE, ROWS);
+
+        // per entity: ROWS / BATCH_SIZE inserts plus as many sequence calls
+        assertThat(batched).isLessThanOrEqualTo(4L * (ROWS / BATCH_SIZE) + 4);
+        assertThat(batched * 10).isLessThan(unbatched);
+    }
+
+    /**
+     * Persists ROWS users, each with one reservation, and flushes them.
+     *
+     * @return number of prepared statements used
+     */
+    private long insertUsersAndReservations(int jdbcBatchSize, int offset) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        statistics.clear();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        for (int i = offset; i < offset + ROWS; i++) {
+            User user = userDao.save(new User(null, "+420" + (100_000_000 + i), "User " + i));
+            reservationDao.save(new Reservation(null, user, court, base.plusHours(i), base.plusHours(i + 1),
+                    GameType.SINGLE, 10.0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -2,6 +2,8 @@ package cz.xmerta.tennisclub.storage.dao;
 
 import cz.xmerta.tennisclub.storage.dao.CourtDao;
 import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaCourtDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaSurfaceTypeDao;
 import cz.xmerta.tennisclub.storage.model.Court;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import jakarta.persistence.EntityManager;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,8 +35,8 @@ class CourtDaoTest {
 
     @BeforeEach
     void setUp() {
-        SurfaceTypeDao surfaceTypeDao = new SurfaceTypeDao(entityManager);
-        courtDao = new CourtDao(entityManager);
+        SurfaceTypeDao surfaceTypeDao = new JpaSurfaceTypeDao(entityManager);
+        courtDao = new JpaCourtDao(entityManager);
 
         surfaceType = new SurfaceType(null, "Clay", 5.0);
         court1 = new Court(null, "Court 1", surfaceType);
@@ -108,4 +111,32 @@ class CourtDaoTest {
         Collection<Court> courts = courtDao.findAll();
         assertThat(courts).isEmpty();
     }
+
+    @Test
+    void findByIds_SkipsDeleted() {
+        List<Court> courts = courtDao.findByIds(List.of(court1.getId(), court2.getId(), -1L));
+
+        assertThat(courts).extracting(Court::getName).containsExactly("Court 1");
+    }
+
+    @Test
+    void findPage_SeeksPastCursorAndSkipsDeleted() {
+        Court court3 = courtDao.save(new Court(null, "Court 3", surfaceType));
+        Court court4 = courtDao.save(new Court(null, "Court 4", surfaceType));
+
+        KeysetPage<Court> first = courtDao.findPage(null, 2);
+        KeysetPage<Court> second = courtDao.findPage(first.nextCursor(), 2);
+
+        assertThat(first.items()).containsExactly(court1, court3);
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(second.items()).containsExactly(court4);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_InvalidCursorOrLimit() {
+        assertThrows(IllegalArgumentException.class, () -> courtDao.findPage("not a cursor!", 10));
+        assertThrows(IllegalArgumentException.class, () -> courtDao.findPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> courtDao.findPage(null, KeysetPage.MAX_LIMIT + 1));
+    }
 }
@@ -0,0 +1,99 @@
+package cz.xmerta.tennisclub.storage.dao;
+
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaReservationDao;
+import com.sun.management.ThreadMXBean;
+import cz.xmerta.tennisclub.controller.dto.ReservationDto;
+import cz.xmerta.tennisclub.controller.dto.mapper.ReservationDtoMapper;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservation listing read as managed entities and mapped to DTOs, compared with the same listing selected
+ * into read-only views. The views must produce the same DTOs without loading a single entity,
+ * and allocate less heap on the way.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProjectionBenchmarkTest {
+
+    private static final int ROWS = KeysetPage.MAX_LIMIT;
+    private static final int ROUNDS = 5;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private ReservationDao reservationDao;
+    private ReservationDtoMapper mapper;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        reservationDao = new JpaReservationDao(entityManager);
+        mapper = new ReservationDtoMapper();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        SurfaceType surfaceType = new SurfaceType(null, "Clay", 5.0);
+        entityManager.persist(surfaceType);
+        Court court = new Court(null, "Court 1", surfaceType);
+        entityManager.persist(court);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < ROWS; i++) {
+            User user = new User(null, "+420" + (200_000_000 + i), "User " + i);
+            entityManager.persist(user);
+            entityManager.persist(new Reservation(null, user, court, base.plusHours(i), base.plusHours(i + 1),
+                    GameType.SINGLE, 10.0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void viewListing_SameDtosWithoutEntities() {
+        Listing fromEntities = read(() -> reservationDao.findPage(null, ROWS)
+                .items().stream().map(mapper::toDTO).toList());
+        long entitiesLoaded = statistics.getEntityLoadCount();
+
+        Listing fromViews = read(() -> reservationDao.findViewPage(null, ROWS)
+                .items().stream().map(mapper::toDTO).toList());
+
+        assertThat(entitiesLoaded).isPositive();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(fromViews.dtos()).usingRecursiveFieldByFieldElementComparator().isEqualTo(fromEntities.dtos());
+        assertThat(fromViews.allocatedBytes()).isLessThan(fromEntities.allocatedBytes());
+    }
+
+    /**
+     * Runs the listing a few times against an empty persistence context. The fewest bytes any round allocated
+     * is kept, so a stray allocation of the JIT or the test framework does not decide the comparison.
+     *
+     * @return the DTOs of the last round and the allocation of the cheapest round
+     */
+    private Listing read(Supplier<List<ReservationDto>> listing) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<ReservationDto> dtos = List.of();
+        long bytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            entityManager.clear();
+            statistics.clear();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            dtos = listing.get();
+            bytes = Math.min(bytes, threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+        return new Listing(dtos, bytes);
+    }
+
+    private record Listing(List<ReservationDto> dtos, long allocatedBytes) {
+    }
+}
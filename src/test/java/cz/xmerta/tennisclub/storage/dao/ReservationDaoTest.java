@@ -4,22 +4,38 @@ import cz.xmerta.tennisclub.storage.dao.CourtDao;
 import cz.xmerta.tennisclub.storage.dao.ReservationDao;
 import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
 import cz.xmerta.tennisclub.storage.dao.UserDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaCourtDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaReservationDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaReservationSeriesDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaSurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaUserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
 import cz.xmerta.tennisclub.storage.model.*;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "cz.xmerta.tennisclub.storage.dao.ReservationDaoTest$CapturedSql")
 @Transactional
 class ReservationDaoTest {
 
@@ -29,16 +45,17 @@ class ReservationDaoTest {
     private ReservationDao reservationDao;
 
     private Court court;
+    private Court emptyCourt;
     private User user;
     private Reservation reservation1;
     private Reservation reservation2;
 
     @BeforeEach
     void setUp() {
-        SurfaceTypeDao surfaceTypeDao = new SurfaceTypeDao(entityManager);
-        CourtDao courtDao = new CourtDao(entityManager);
-        UserDao userDao = new UserDao(entityManager);
-        reservationDao = new ReservationDao(entityManager);
+        SurfaceTypeDao surfaceTypeDao = new JpaSurfaceTypeDao(entityManager);
+        CourtDao courtDao = new JpaCourtDao(entityManager);
+        UserDao userDao = new JpaUserDao(entityManager);
+        reservationDao = new JpaReservationDao(entityManager);
 
         SurfaceType surfaceType = new SurfaceType(null, "Clay", 5.0);
         surfaceTypeDao.save(surfaceType);
@@ -46,6 +63,9 @@ class ReservationDaoTest {
         court = new Court(null, "Court 1", surfaceType);
         courtDao.save(court);
 
+        emptyCourt = new Court(null, "Court 2", surfaceType);
+        courtDao.save(emptyCourt);
+
         user = new User(null, "+420123456789", "John Doe");
         userDao.save(user);
 
@@ -101,6 +121,35 @@ class ReservationDaoTest {
                 .containsExactlyInAnyOrder(30.0);
     }
 
+    @Test
+    void findLiveFingerprint_DeletedLeftOut() {
+        assertThat(reservationDao.findLiveFingerprint()).isEqualTo(new RowFingerprint(1L, hashOf(reservation1)));
+
+        reservationDao.deleteById(reservation1.getId());
+
+        assertThat(reservationDao.findLiveFingerprint()).isEqualTo(new RowFingerprint(0L, 0L));
+    }
+
+    @Test
+    void findLiveFingerprint_MovedReservationChangesIt() {
+        RowFingerprint before = reservationDao.findLiveFingerprint();
+
+        reservation1.setStartTime(reservation1.getStartTime().plusDays(1));
+        reservation1.setEndTime(reservation1.getEndTime().plusDays(1));
+        reservationDao.save(reservation1);
+        entityManager.flush();
+
+        assertThat(reservationDao.findLiveFingerprint())
+                .isNotEqualTo(before)
+                .isEqualTo(new RowFingerprint(1L, hashOf(reservation1)));
+    }
+
+    private static long hashOf(Reservation reservation) {
+        return RowFingerprint.hashInterval(reservation.getId(), reservation.getCourt().getId(),
+                reservation.getStartTime().toEpochSecond(ZoneOffset.UTC),
+                reservation.getEndTime().toEpochSecond(ZoneOffset.UTC));
+    }
+
     @Test
     void findById_Ok() {
         Optional<Reservation> foundReservation = reservationDao.findById(reservation1.getId());
@@ -117,23 +166,179 @@ class ReservationDaoTest {
     }
 
     @Test
-    void findByCourtId() {
-        Collection<Reservation> reservations = reservationDao.findByCourtId(court.getId());
+    void findViewsByCourtId() {
+        Collection<ReservationView> reservations = reservationDao.findViewsByCourtId(court.getId());
 
         assertThat(reservations).hasSize(1);
-        assertThat(reservations).extracting(Reservation::getPrice)
+        assertThat(reservations).extracting(ReservationView::price)
                 .containsExactlyInAnyOrder(30.0);
     }
 
     @Test
-    void findByUserId() {
-        Collection<Reservation> reservations = reservationDao.findByUserId(user.getId());
+    void findViewsByUserId() {
+        Collection<ReservationView> reservations = reservationDao.findViewsByUserId(user.getId(), null);
 
         assertThat(reservations).hasSize(1);
-        assertThat(reservations).extracting(Reservation::getPrice)
+        assertThat(reservations).extracting(ReservationView::price)
                 .containsExactlyInAnyOrder(30.0);
     }
 
+    @Test
+    void forEachBookedInterval_DeletedLeftOut() {
+        List<BookedInterval> intervals = new ArrayList<>();
+
+        reservationDao.forEachBookedInterval(intervals::add);
+
+        assertThat(intervals).containsExactly(new BookedInterval(reservation1.getId(), court.getId(),
+                reservation1.getStartTime(), reservation1.getEndTime()));
+    }
+
+    @Test
+    void findViewsByUserId_OrderedByStartTime() {
+        Reservation earlier = reservationDao.save(new Reservation(null, user, court,
+                reservation1.getStartTime().minusDays(1), reservation1.getEndTime().minusDays(1), GameType.SINGLE, 20.0));
+
+        assertThat(reservationDao.findViewsByUserId(user.getId(), null))
+                .extracting(ReservationView::id).containsExactly(earlier.getId(), reservation1.getId());
+    }
+
+    @Test
+    void findUpcomingByUserId_EndedAndDeletedLeftOut() {
+        Reservation later = reservationDao.save(new Reservation(null, user, court,
+                LocalDateTime.of(2025, 1, 14, 8, 0), LocalDateTime.of(2025, 1, 14, 12, 0), GameType.DOUBLE, 40.0));
+
+        assertThat(reservationDao.findUpcomingByUserId(user.getId(), LocalDateTime.of(2025, 1, 14, 9, 0)))
+                .extracting(ReservationView::id).containsExactly(later.getId(), reservation1.getId());
+        assertThat(reservationDao.findUpcomingByUserId(user.getId(), reservation1.getEndTime()))
+                .extracting(ReservationView::id).containsExactly(later.getId());
+        assertThat(reservationDao.findUpcomingByUserId(user.getId(), later.getEndTime())).isEmpty();
+    }
+
+    @Test
+    void findLiveIdsInRange_AndDeleteByIds() {
+        Reservation later = reservationDao.save(new Reservation(null, user, emptyCourt,
+                LocalDateTime.of(2025, 1, 16, 10, 0), LocalDateTime.of(2025, 1, 16, 11, 0), GameType.DOUBLE, 45.0));
+        long upToId = reservationDao.findMaxId();
+
+        assertThat(upToId).isEqualTo(later.getId());
+        assertThat(reservationDao.countLiveUpTo(upToId)).isEqualTo(2L);
+        assertThat(reservationDao.findLiveIdsInRange(0L, upToId, 1)).containsExactly(reservation1.getId());
+        assertThat(reservationDao.findLiveIdsInRange(reservation1.getId(), upToId, 10)).containsExactly(later.getId());
+        assertThat(reservationDao.findLiveIdsInRange(0L, later.getId() - 1, 10)).containsExactly(reservation1.getId());
+
+        assertThat(reservationDao.deleteByIds(List.of(reservation1.getId(), reservation2.getId()))).isEqualTo(1);
+
+        assertThat(reservationDao.findAll()).extracting(Reservation::getId).containsExactly(later.getId());
+    }
+
+    @Test
+    void findIdsEndedBefore_DeletedLeftOutAndSeeksAfterId() {
+        Reservation later = reservationDao.save(new Reservation(null, user, emptyCourt,
+                LocalDateTime.of(2025, 1, 15, 10, 0), LocalDateTime.of(2025, 1, 15, 11, 0), GameType.DOUBLE, 45.0));
+
+        assertThat(reservationDao.findIdsEndedBefore(LocalDateTime.of(2025, 1, 16, 0, 0), 0L, 10))
+                .containsExactly(reservation1.getId(), later.getId());
+        assertThat(reservationDao.findIdsEndedBefore(LocalDateTime.of(2025, 1, 16, 0, 0), 0L, 1))
+                .containsExactly(reservation1.getId());
+        assertThat(reservationDao.findIdsEndedBefore(LocalDateTime.of(2025, 1, 16, 0, 0), reservation1.getId(), 10))
+                .containsExactly(later.getId());
+        assertThat(reservationDao.findIdsEndedBefore(reservation1.getEndTime(), 0L, 10)).isEmpty();
+    }
+
+    @Test
+    void findIdsEndedBefore_QueryPlanSeeksByPrimaryKey() {
+        String sql = CapturedSql.during(() -> reservationDao.findIdsEndedBefore(
+                LocalDateTime.of(2025, 1, 16, 0, 0), reservation1.getId(), 10));
+
+        assertThat(explain(sql)).containsIgnoringCase("PRIMARY_KEY").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void archive_MovesRowsOutOfCurrentTable() {
+        entityManager.flush();
+
+        int archived = reservationDao.archive(List.of(reservation1.getId(), reservation2.getId()),
+                LocalDateTime.of(2026, 1, 1, 0, 0));
+        entityManager.clear();
+
+        assertThat(archived).isEqualTo(1);
+        assertThat(reservationDao.findIdsEndedBefore(LocalDateTime.of(2030, 1, 1, 0, 0), 0L, 10)).isEmpty();
+        ArchivedReservation moved = entityManager.find(ArchivedReservation.class, reservation1.getId());
+        assertThat(moved.getUserId()).isEqualTo(user.getId());
+        assertThat(moved.getCourtId()).isEqualTo(court.getId());
+        assertThat(moved.getPrice()).isEqualTo(30.0);
+        assertThat(moved.isDeleted()).isFalse();
+        assertThat(moved.getArchivedAt()).isEqualTo(LocalDateTime.of(2026, 1, 1, 0, 0));
+        // the deleted reservation is left for the purge
+        assertThat(entityManager.find(ArchivedReservation.class, reservation2.getId())).isNull();
+        assertThat(entityManager.find(Reservation.class, reservation2.getId())).isNotNull();
+    }
+
+    @Test
+    void findArchivedViewsByUserId_DeletedLeftOut() {
+        entityManager.flush();
+        reservationDao.archive(List.of(reservation1.getId(), reservation2.getId()), LocalDateTime.now());
+
+        assertThat(reservationDao.findArchivedViewsByUserId(user.getId()))
+                .extracting(ReservationView::id).containsExactly(reservation1.getId());
+        assertThat(reservationDao.findArchivedViewsByUserId(user.getId()).get(0).phoneNumber())
+                .isEqualTo(user.getPhoneNumber());
+        assertThat(reservationDao.findViewsByUserId(user.getId(), null)).isEmpty();
+    }
+
+    @Test
+    void findPurgeableIds_UserPurgeableOnceItsReservationsAre() {
+        UserDao userDao = new JpaUserDao(entityManager);
+        reservationDao.deleteById(reservation1.getId());
+        userDao.deleteById(user.getId());
+        LocalDateTime deletedBefore = LocalDateTime.now().plusMinutes(1);
+
+        assertThat(reservationDao.findPurgeableIds(deletedBefore, 0L, 10))
+                .containsExactly(reservation1.getId(), reservation2.getId());
+        assertThat(userDao.findPurgeableIds(deletedBefore, 0L, 10)).isEmpty();
+
+        assertThat(reservationDao.purge(List.of(reservation1.getId(), reservation2.getId()))).isEqualTo(2);
+
+        assertThat(userDao.findPurgeableIds(deletedBefore, 0L, 10)).containsExactly(user.getId());
+    }
+
+    @Test
+    void findPurgeableIds_ArchivedReservationKeepsUserAndCourt() {
+        UserDao userDao = new JpaUserDao(entityManager);
+        CourtDao courtDao = new JpaCourtDao(entityManager);
+        reservationDao.purge(List.of(reservation2.getId()));
+        reservationDao.archive(List.of(reservation1.getId()), LocalDateTime.now());
+        userDao.deleteById(user.getId());
+        courtDao.deleteById(court.getId());
+        LocalDateTime deletedBefore = LocalDateTime.now().plusMinutes(1);
+
+        assertThat(userDao.findPurgeableIds(deletedBefore, 0L, 10)).isEmpty();
+        assertThat(courtDao.findPurgeableIds(deletedBefore, 0L, 10)).isEmpty();
+        entityManager.clear();
+        assertThat(reservationDao.findArchivedViewsByUserId(user.getId()))
+                .extracting(ReservationView::id).containsExactly(reservation1.getId());
+    }
+
+    @Test
+    void findViewsByCourtId_MatchesEntities() {
+        List<ReservationView> views = reservationDao.findViewsByCourtId(court.getId());
+
+        assertThat(views).hasSize(1);
+        ReservationView view = views.get(0);
+        assertThat(view.id()).isEqualTo(reservation1.getId());
+        assertThat(view.userId()).isEqualTo(user.getId());
+        assertThat(view.phoneNumber()).isEqualTo(user.getPhoneNumber());
+        assertThat(view.courtId()).isEqualTo(court.getId());
+        assertThat(view.startTime()).isEqualTo(reservation1.getStartTime());
+        assertThat(view.price()).isEqualTo(30.0);
+    }
+
+    @Test
+    void findViewsByUserId_EndsAfter() {
+        assertThat(reservationDao.findViewsByUserId(user.getId(), null)).hasSize(1);
+        assertThat(reservationDao.findViewsByUserId(user.getId(), reservation1.getEndTime())).isEmpty();
+    }
+
     @Test
     void deleteById() {
         reservationDao.deleteById(reservation1.getId());
@@ -152,4 +357,196 @@ class ReservationDaoTest {
         Collection<Reservation> reservations = reservationDao.findAll();
         assertThat(reservations).isEmpty();
     }
+
+    @Test
+    void findOverlapping_Ok() {
+        Optional<Long> overlapping = reservationDao.findOverlapping(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), null);
+
+        assertThat(overlapping).contains(reservation1.getId());
+    }
+
+    @Test
+    void findOverlapping_AdjacentOrDeletedIgnored() {
+        assertThat(reservationDao.findOverlapping(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 11, 0), LocalDateTime.of(2025, 1, 14, 12, 0), null)).isEmpty();
+        assertThat(reservationDao.findOverlapping(court.getId(),
+                LocalDateTime.of(2025, 1, 15, 15, 0), LocalDateTime.of(2025, 1, 15, 16, 0), null)).isEmpty();
+    }
+
+    @Test
+    void findOverlapping_ExcludesUpdatedReservation() {
+        Optional<Long> overlapping = reservationDao.findOverlapping(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), reservation1.getId());
+
+        assertThat(overlapping).isEmpty();
+    }
+
+    @Test
+    void findOverlapping_QueryPlanUsesCourtTimeIndex() {
+        String sql = CapturedSql.during(() -> reservationDao.findOverlapping(court.getId(),
+                LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 14, 11, 30), null));
+
+        assertThat(explain(sql)).containsIgnoringCase("idx_reservation_court_time");
+    }
+
+    @Test
+    void findUpcomingByUserId_QueryPlanUsesUserEndIndex() {
+        String sql = CapturedSql.during(() -> reservationDao.findUpcomingByUserId(user.getId(),
+                LocalDateTime.of(2025, 1, 14, 9, 0)));
+
+        assertThat(explain(sql)).containsIgnoringCase("idx_reservation_user_end");
+    }
+
+    @Test
+    void findViewsByCourtId_QueryPlanSeeksByCourt() {
+        String sql = CapturedSql.during(() -> reservationDao.findViewsByCourtId(court.getId()));
+
+        // H2 picks either court index for the listing, both seek by court instead of scanning the table
+        assertThat(explain(sql))
+                .containsIgnoringCase("COURT_ID = ?1 */")
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    /**
+     * Explains the statement as sent by Hibernate, H2 plans it with its parameters unbound.
+     */
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    /**
+     * Statement inspector keeping the last SQL statement Hibernate prepared on the current thread.
+     */
+    public static class CapturedSql implements StatementInspector {
+
+        private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+        static String during(Runnable action) {
+            LAST.remove();
+            action.run();
+            return LAST.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            LAST.set(sql);
+            return sql;
+        }
+    }
+
+    @Test
+    void findCourtOccupancy() {
+        List<BookedInterval> occupancy = reservationDao.findCourtOccupancy(
+                LocalDateTime.of(2025, 1, 14, 0, 0), LocalDateTime.of(2025, 1, 16, 0, 0));
+
+        assertThat(occupancy).hasSize(2);
+        assertThat(occupancy.get(0).courtId()).isEqualTo(court.getId());
+        assertThat(occupancy.get(0).reservationId()).isEqualTo(reservation1.getId());
+        assertThat(occupancy.get(0).startTime()).isEqualTo(LocalDateTime.of(2025, 1, 14, 10, 0));
+        assertThat(occupancy.get(1).courtId()).isEqualTo(emptyCourt.getId());
+        assertThat(occupancy.get(1).startTime()).isNull();
+    }
+
+    @Test
+    void findBookedIntervals() {
+        List<BookedInterval> intervals = reservationDao.findBookedIntervals(List.of(court.getId(), emptyCourt.getId()),
+                LocalDateTime.of(2025, 1, 14, 0, 0), LocalDateTime.of(2025, 1, 16, 0, 0));
+
+        assertThat(intervals).extracting(BookedInterval::reservationId).containsExactly(reservation1.getId());
+    }
+
+    @Test
+    void saveAll() {
+        List<Reservation> saved = reservationDao.saveAll(List.of(
+                new Reservation(null, user, emptyCourt, LocalDateTime.of(2025, 1, 16, 10, 0),
+                        LocalDateTime.of(2025, 1, 16, 11, 0), GameType.SINGLE, 10.0),
+                new Reservation(null, user, emptyCourt, LocalDateTime.of(2025, 1, 16, 11, 0),
+                        LocalDateTime.of(2025, 1, 16, 12, 0), GameType.SINGLE, 10.0)));
+
+        assertThat(saved).allSatisfy(reservation -> assertThat(reservation.getId()).isNotNull());
+        assertThat(reservationDao.findViewsByCourtId(emptyCourt.getId())).hasSize(2);
+    }
+
+    @Test
+    void findAndDeleteBySeriesId() {
+        ReservationSeriesDao seriesDao = new JpaReservationSeriesDao(entityManager);
+        ReservationSeries series = seriesDao.save(new ReservationSeries(null, user, emptyCourt,
+                LocalDateTime.of(2025, 1, 16, 10, 0), LocalDateTime.of(2025, 1, 16, 11, 0), 1, 2, GameType.SINGLE));
+        Reservation first = new Reservation(null, user, emptyCourt, LocalDateTime.of(2025, 1, 16, 10, 0),
+                LocalDateTime.of(2025, 1, 16, 11, 0), GameType.SINGLE, 10.0);
+        Reservation second = new Reservation(null, user, emptyCourt, LocalDateTime.of(2025, 1, 23, 10, 0),
+                LocalDateTime.of(2025, 1, 23, 11, 0), GameType.SINGLE, 10.0);
+        first.setSeries(series);
+        second.setSeries(series);
+        reservationDao.saveAll(List.of(first, second));
+
+        assertThat(reservationDao.findIdsBySeriesId(series.getId()))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+
+        reservationDao.deleteBySeriesId(series.getId());
+        entityManager.clear();
+
+        assertThat(reservationDao.findIdsBySeriesId(series.getId())).isEmpty();
+        assertThat(reservationDao.findById(reservation1.getId())).isPresent();
+    }
+
+    @Test
+    void findPage_OrdersByStartTimeAndId() {
+        Reservation sameStart = reservationDao.save(new Reservation(null, user, emptyCourt,
+                reservation1.getStartTime(), reservation1.getEndTime(), GameType.SINGLE, 10.0));
+        Reservation earlier = reservationDao.save(new Reservation(null, user, emptyCourt,
+                LocalDateTime.of(2025, 1, 13, 10, 0), LocalDateTime.of(2025, 1, 13, 11, 0), GameType.SINGLE, 10.0));
+        Reservation later = reservationDao.save(new Reservation(null, user, court,
+                LocalDateTime.of(2025, 1, 20, 10, 0), LocalDateTime.of(2025, 1, 20, 11, 0), GameType.SINGLE, 10.0));
+
+        KeysetPage<Reservation> first = reservationDao.findPage(null, 2);
+        KeysetPage<Reservation> second = reservationDao.findPage(first.nextCursor(), 2);
+
+        assertThat(first.items()).containsExactly(earlier, reservation1);
+        assertThat(second.items()).containsExactly(sameStart, later);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(reservationDao.findViewPageByCourtId(court.getId(), null, 10).items())
+                .extracting(ReservationView::id).containsExactly(reservation1.getId(), later.getId());
+    }
+
+    @Test
+    void findViewPageByUserId_EndsAfter() {
+        Reservation later = reservationDao.save(new Reservation(null, user, court,
+                LocalDateTime.of(2025, 1, 20, 10, 0), LocalDateTime.of(2025, 1, 20, 11, 0), GameType.SINGLE, 10.0));
+
+        assertThat(reservationDao.findViewPageByUserId(user.getId(), null, null, 10).items())
+                .extracting(ReservationView::id).containsExactly(reservation1.getId(), later.getId());
+        assertThat(reservationDao.findViewPageByUserId(user.getId(), LocalDateTime.of(2025, 1, 15, 0, 0), null, 10).items())
+                .extracting(ReservationView::id).containsExactly(later.getId());
+    }
+
+    @Test
+    void forEachInRange_StreamsInOrderAndDetaches() {
+        Reservation earlier = reservationDao.save(new Reservation(null, user, emptyCourt,
+                LocalDateTime.of(2025, 1, 13, 10, 0), LocalDateTime.of(2025, 1, 13, 11, 0), GameType.SINGLE, 10.0));
+        Reservation later = reservationDao.save(new Reservation(null, user, court,
+                LocalDateTime.of(2025, 1, 20, 10, 0), LocalDateTime.of(2025, 1, 20, 11, 0), GameType.SINGLE, 10.0));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> streamed = new ArrayList<>();
+        reservationDao.forEachInRange(null, null, reservation -> {
+            assertThat(reservation.getCourt().getSurfaceType().getName()).isEqualTo("Clay");
+            streamed.add(reservation.getId());
+        });
+        assertThat(streamed).containsExactly(earlier.getId(), reservation1.getId(), later.getId());
+
+        List<Reservation> inWindow = new ArrayList<>();
+        reservationDao.forEachInRange(LocalDateTime.of(2025, 1, 14, 10, 30), LocalDateTime.of(2025, 1, 20, 10, 0), inWindow::add);
+        assertThat(inWindow).extracting(Reservation::getId).containsExactly(reservation1.getId());
+        assertThat(entityManager.contains(inWindow.get(0))).isFalse();
+        assertThat(entityManager.contains(inWindow.get(0).getUser())).isFalse();
+    }
 }
@@ -1,6 +1,7 @@
 package cz.xmerta.tennisclub.storage.dao;
 
 import cz.xmerta.tennisclub.storage.dao.SurfaceTypeDao;
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaSurfaceTypeDao;
 import cz.xmerta.tennisclub.storage.model.SurfaceType;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -28,7 +29,7 @@ class SurfaceTypeDaoTest {
 
     @BeforeEach
     void setUp() {
-        surfaceTypeDao = new SurfaceTypeDao(entityManager);
+        surfaceTypeDao = new JpaSurfaceTypeDao(entityManager);
         surfaceType1 = new SurfaceType(null, "Clay", 5.0);
         surfaceType2 = new SurfaceType(null, "Grass", 10.0);
         surfaceType2.setDeleted(true);
@@ -1,5 +1,7 @@
 package cz.xmerta.tennisclub.storage.dao;
 
+import cz.xmerta.tennisclub.storage.dao.jpa.JpaUserDao;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
 import cz.xmerta.tennisclub.storage.model.User;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -8,7 +10,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,7 +32,7 @@ class UserDaoTest {
 
     @BeforeEach
     void setUp() {
-        userDao = new UserDao(entityManager);
+        userDao = new JpaUserDao(entityManager);
 
         user1 = new User(null, "+420123456789", "John Doe");
         user2 = new User(null, "+420123456788", "Jane Smith");
@@ -98,6 +102,14 @@ class UserDaoTest {
         assertThat(foundUser).isEmpty();
     }
 
+    @Test
+    void findLiveFingerprint_DeletedLeftOut() {
+        User user3 = userDao.save(new User(null, "+420123456787", "Alice Brown"));
+
+        assertThat(userDao.findLiveFingerprint()).isEqualTo(new RowFingerprint(2L,
+                RowFingerprint.hashPhone(user1.getId(), 420123456789L) + RowFingerprint.hashPhone(user3.getId(), 420123456787L)));
+    }
+
     @Test
     void deleteById() {
         userDao.deleteById(user1.getId());
@@ -116,4 +128,83 @@ class UserDaoTest {
         Collection<User> users = userDao.findAll();
         assertThat(users).isEmpty();
     }
+
+    @Test
+    void upsertByPhoneNumber_NewUser() {
+        long id = userDao.upsertByPhoneNumber("+420123456787", "Alice Brown");
+        entityManager.clear();
+
+        assertThat(userDao.findById(id)).get()
+                .extracting(User::getPhoneNumber, User::getName)
+                .containsExactly("+420123456787", "Alice Brown");
+    }
+
+    @Test
+    void upsertByPhoneNumber_ExistingUserKeepsName() {
+        long id = userDao.upsertByPhoneNumber("+420123456789", "Someone Else");
+        entityManager.clear();
+
+        assertThat(id).isEqualTo(user1.getId());
+        assertThat(userDao.findById(id)).get().extracting(User::getName).isEqualTo("John Doe");
+    }
+
+    @Test
+    void upsertByPhoneNumber_DeletedUserRevived() {
+        long id = userDao.upsertByPhoneNumber("+420123456788", "Jane Brown");
+        entityManager.clear();
+
+        assertThat(id).isEqualTo(user2.getId());
+        assertThat(userDao.findByPhoneNumber("+420123456788")).get().extracting(User::getName).isEqualTo("Jane Brown");
+    }
+
+    @Test
+    void upsertByPhoneNumber_SeesUserPersistedInTransaction() {
+        User pending = userDao.save(new User(null, "+420123456787", "Alice Brown"));
+
+        long id = userDao.upsertByPhoneNumber("+420123456787", "Alice Brown");
+
+        assertThat(id).isEqualTo(pending.getId());
+    }
+
+    @Test
+    void upsertByPhoneNumber_IdNotReusedByPersist() {
+        long upserted = userDao.upsertByPhoneNumber("+420123456787", "Alice Brown");
+
+        User persisted = userDao.save(new User(null, "+420123456786", "Bob Brown"));
+        entityManager.flush();
+
+        assertThat(persisted.getId()).isNotEqualTo(upserted);
+    }
+
+    @Test
+    void deleteById_RecordsDeletionTime() {
+        LocalDateTime before = LocalDateTime.now();
+
+        userDao.deleteById(user1.getId());
+        entityManager.clear();
+
+        assertThat(entityManager.find(User.class, user1.getId()).getDeletedAt()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void findPurgeableIds_DeletedBeforeCutoffOnly() {
+        entityManager.flush();
+
+        assertThat(userDao.findPurgeableIds(LocalDateTime.now().plusMinutes(1), 0L, 10))
+                .containsExactly(user2.getId());
+        assertThat(userDao.findPurgeableIds(LocalDateTime.now().minusDays(1), 0L, 10)).isEmpty();
+        assertThat(userDao.findPurgeableIds(LocalDateTime.now().plusMinutes(1), user2.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void purge_KeepsLiveUsers() {
+        entityManager.flush();
+
+        int purged = userDao.purge(List.of(user1.getId(), user2.getId()));
+        entityManager.clear();
+
+        assertThat(purged).isEqualTo(1);
+        assertThat(userDao.findById(user1.getId())).isPresent();
+        assertThat(entityManager.find(User.class, user2.getId())).isNull();
+    }
 }
@@ -0,0 +1,473 @@
+package cz.xmerta.tennisclub.storage.dao.inmemory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.xmerta.tennisclub.storage.dao.KeysetPage;
+import cz.xmerta.tennisclub.storage.dao.projection.BookedInterval;
+import cz.xmerta.tennisclub.storage.dao.projection.RowFingerprint;
+import cz.xmerta.tennisclub.storage.dao.projection.ReservationView;
+import cz.xmerta.tennisclub.storage.model.*;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryDaoTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 14, 10, 0);
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private int compactAfterLines = 100_000;
+    private InMemoryDatabase database;
+    private InMemorySurfaceTypeDao surfaceTypeDao;
+    private InMemoryCourtDao courtDao;
+    private InMemoryUserDao userDao;
+    private InMemoryReservationDao reservationDao;
+
+    private Court court1;
+    private Court court2;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        open();
+        SurfaceType clay = surfaceTypeDao.save(new SurfaceType(null, "Clay", 5.0));
+        court1 = courtDao.save(new Court(null, "Court 1", clay));
+        court2 = courtDao.save(new Court(null, "Court 2", clay));
+        user = userDao.save(new User(null, "+420123456789", "John Doe"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        database.close();
+    }
+
+    private void open() {
+        database = new InMemoryDatabase(objectMapper, directory.resolve("journal.jsonl").toString(), false,
+                compactAfterLines, Runnable::run);
+        surfaceTypeDao = new InMemorySurfaceTypeDao(database);
+        courtDao = new InMemoryCourtDao(database);
+        userDao = new InMemoryUserDao(database);
+        reservationDao = new InMemoryReservationDao(database);
+    }
+
+    private void reopen() throws IOException {
+        database.close();
+        open();
+    }
+
+    private Reservation book(Court court, int hour) {
+        return reservationDao.save(new Reservation(null, new User(user.getId(), user.getPhoneNumber(), user.getName()),
+                court, BASE.plusHours(hour), BASE.plusHours(hour).plusMinutes(45), GameType.SINGLE, 10.0));
+    }
+
+    @Test
+    void save_AssignsIdsAndFindsByIndexes() {
+        assertThat(court1.getId()).isEqualTo(1L);
+        assertThat(court2.getId()).isEqualTo(2L);
+        assertThat(courtDao.findByName("Court 2")).get().extracting(Court::getId).isEqualTo(court2.getId());
+        assertThat(userDao.findByPhoneNumber("+420123456789")).get().extracting(User::getId).isEqualTo(user.getId());
+        assertThat(surfaceTypeDao.findByName("Grass")).isEmpty();
+    }
+
+    @Test
+    void save_DetachedCopyMergedIntoStoredEntity() {
+        User renamed = userDao.save(new User(user.getId(), "+420123456788", "John Smith"));
+
+        assertThat(renamed.getName()).isEqualTo("John Smith");
+        assertThat(user.getName()).isEqualTo("John Doe");
+        assertThat(userDao.findByPhoneNumber("+420123456789")).isEmpty();
+        assertThat(userDao.findByPhoneNumber("+420123456788")).get().extracting(User::getId).isEqualTo(user.getId());
+    }
+
+    @Test
+    void findById_ChangesOfReturnedEntityNotStored() {
+        Reservation reservation = book(court1, 1);
+
+        Reservation found = reservationDao.findById(reservation.getId()).orElseThrow();
+        found.setStartTime(BASE.plusHours(5));
+        found.getUser().setName("Changed Name");
+        found.getCourt().getSurfaceType().setName("Changed Surface");
+
+        Reservation again = reservationDao.findById(reservation.getId()).orElseThrow();
+        assertThat(again).isNotSameAs(found);
+        assertThat(again.getStartTime()).isEqualTo(BASE.plusHours(1));
+        assertThat(again.getUser().getName()).isEqualTo("John Doe");
+        assertThat(again.getCourt().getSurfaceType().getName()).isEqualTo("Clay");
+    }
+
+    @Test
+    void save_LargeIdStoredSparsely() throws IOException {
+        long largeId = 5_000_000_000L;
+        userDao.save(new User(largeId, "+420123456780", "Far Away"));
+
+        assertThat(userDao.findById(largeId)).get().extracting(User::getName).isEqualTo("Far Away");
+        assertThat(userDao.findAll()).extracting(User::getId).containsExactly(user.getId(), largeId);
+
+        reopen();
+
+        assertThat(userDao.findByPhoneNumber("+420123456780")).get().extracting(User::getId).isEqualTo(largeId);
+        assertThat(userDao.save(new User(null, "+420123456781", "Next User")).getId()).isEqualTo(largeId + 1);
+    }
+
+    @Test
+    void transaction_RollbackRestoresRowsAndJournalsNothing() throws IOException {
+        Reservation kept = book(court1, 1);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            User created = userDao.save(new User(null, "+420123456780", "Rolled Back"));
+            book(court2, 2);
+            reservationDao.save(new Reservation(kept.getId(), created, court2, BASE.plusHours(3),
+                    BASE.plusHours(4), GameType.DOUBLE, 20.0));
+            userDao.deleteById(user.getId());
+
+            // the transaction reads its own writes
+            assertThat(userDao.findByPhoneNumber("+420123456780")).isPresent();
+        });
+
+        assertUntouchedBy(kept);
+        reopen();
+        assertUntouchedBy(kept);
+        assertThat(userDao.save(new User(null, "+420123456780", "Not Rolled Back")).getId()).isNotNull();
+    }
+
+    private void assertUntouchedBy(Reservation kept) {
+        assertThat(userDao.findByPhoneNumber("+420123456780")).isEmpty();
+        assertThat(userDao.findById(user.getId())).isPresent();
+        assertThat(reservationDao.findViewsByCourtId(court2.getId())).isEmpty();
+        assertThat(reservationDao.findById(kept.getId())).get()
+                .extracting(reservation -> reservation.getCourt().getId(), Reservation::getStartTime)
+                .containsExactly(court1.getId(), BASE.plusHours(1));
+    }
+
+    @Test
+    void transaction_CommitJournalsLastState() throws IOException {
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            User created = userDao.save(new User(null, "+420123456780", "First Name"));
+            userDao.save(new User(created.getId(), created.getPhoneNumber(), "Second Name"));
+            reservationDao.save(new Reservation(null, created, court1, BASE, BASE.plusHours(1),
+                    GameType.SINGLE, 10.0));
+        });
+
+        reopen();
+
+        assertThat(userDao.findByPhoneNumber("+420123456780")).get().extracting(User::getName)
+                .isEqualTo("Second Name");
+        assertThat(reservationDao.findViewsByCourtId(court1.getId())).extracting(ReservationView::userName)
+                .containsExactly("Second Name");
+    }
+
+    @Test
+    void transaction_ReferenceToInsertInFlightRejected() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch referenced = new CountDownLatch(1);
+        AtomicReference<User> created = new AtomicReference<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> rolledBack = executor.submit(() -> inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                    () -> {
+                        created.set(userDao.save(new User(null, "+420123456780", "Rolled Back")));
+                        inserted.countDown();
+                        await(referenced);
+                    }));
+            await(inserted);
+
+            assertThrows(EntityNotFoundException.class, () -> reservationDao.save(new Reservation(null,
+                    created.get(), court1, BASE, BASE.plusHours(1), GameType.SINGLE, 10.0)));
+            referenced.countDown();
+            rolledBack.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopen();
+        assertThat(reservationDao.findAll()).isEmpty();
+        assertThat(userDao.findByPhoneNumber("+420123456780")).isEmpty();
+    }
+
+    @Test
+    void transaction_CommittedInsertReferencedByOthers() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        User created;
+        try {
+            created = executor.submit(() -> {
+                AtomicReference<User> inserted = new AtomicReference<>();
+                inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                        () -> inserted.set(userDao.save(new User(null, "+420123456780", "Committed"))));
+                return inserted.get();
+            }).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reservationDao.save(new Reservation(null, created, court1, BASE, BASE.plusHours(1),
+                GameType.SINGLE, 10.0)).getId()).isNotNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs the work as a transaction ending with the status, driving the synchronizations
+     * the way the transaction manager does.
+     */
+    private static void inTransaction(int status, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            }
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void save_DuplicateUniqueValueRejected() {
+        assertThrows(EntityExistsException.class, () -> courtDao.save(new Court(null, "Court 1", court1.getSurfaceType())));
+        assertThrows(EntityExistsException.class, () -> userDao.save(new User(null, "+420123456789", "Jane Doe")));
+    }
+
+    @Test
+    void deleteById_SoftDeleteKeepsUniqueValue() {
+        userDao.deleteById(user.getId());
+
+        assertThat(userDao.findById(user.getId())).isEmpty();
+        assertThat(userDao.findByPhoneNumber("+420123456789")).isEmpty();
+        assertThat(userDao.findAll()).isEmpty();
+        assertThrows(EntityExistsException.class, () -> userDao.save(new User(null, "+420123456789", "Jane Doe")));
+    }
+
+    @Test
+    void findLiveFingerprint_DeletedLeftOut() {
+        Reservation first = book(court1, 0);
+        Reservation second = book(court1, 1);
+        reservationDao.deleteById(first.getId());
+
+        assertThat(reservationDao.findLiveFingerprint()).isEqualTo(new RowFingerprint(1L, RowFingerprint.hashInterval(
+                second.getId(), court1.getId(), second.getStartTime().toEpochSecond(ZoneOffset.UTC),
+                second.getEndTime().toEpochSecond(ZoneOffset.UTC))));
+        assertThat(userDao.findLiveFingerprint())
+                .isEqualTo(new RowFingerprint(1L, RowFingerprint.hashPhone(user.getId(), 420123456789L)));
+    }
+
+    @Test
+    void upsertByPhoneNumber_RevivesDeletedUser() {
+        userDao.deleteById(user.getId());
+
+        long id = userDao.upsertByPhoneNumber("+420123456789", "Jane Doe");
+
+        assertThat(id).isEqualTo(user.getId());
+        assertThat(userDao.findById(id)).get().extracting(User::getName).isEqualTo("Jane Doe");
+        assertThat(userDao.upsertByPhoneNumber("+420123456787", "Alice Brown")).isNotEqualTo(id);
+    }
+
+    @Test
+    void findViewPageByCourtId_OrderedByStartTime() {
+        Reservation late = book(court1, 3);
+        Reservation early = book(court1, 1);
+        book(court2, 2);
+        Reservation middle = book(court1, 2);
+
+        KeysetPage<ReservationView> first = reservationDao.findViewPageByCourtId(court1.getId(), null, 2);
+        KeysetPage<ReservationView> second = reservationDao.findViewPageByCourtId(court1.getId(), first.nextCursor(), 2);
+
+        assertThat(first.items()).extracting(ReservationView::id).containsExactly(early.getId(), middle.getId());
+        assertThat(second.items()).extracting(ReservationView::id).containsExactly(late.getId());
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void findViewPageByUserId_SkipsDeletedAndEndedReservations() {
+        Reservation past = book(court1, 1);
+        Reservation deleted = book(court1, 2);
+        Reservation upcoming = book(court2, 3);
+        reservationDao.deleteById(deleted.getId());
+
+        List<ReservationView> views = reservationDao
+                .findViewPageByUserId(user.getId(), past.getEndTime(), null, 10).items();
+
+        assertThat(views).extracting(ReservationView::id).containsExactly(upcoming.getId());
+        assertThat(views.get(0).phoneNumber()).isEqualTo("+420123456789");
+    }
+
+    @Test
+    void save_MovedReservationReindexed() {
+        Reservation reservation = book(court1, 1);
+
+        reservation.setCourt(court2);
+        reservation.setStartTime(BASE.plusHours(5));
+        reservation.setEndTime(BASE.plusHours(6));
+        reservationDao.save(reservation);
+
+        assertThat(reservationDao.findViewsByCourtId(court1.getId())).isEmpty();
+        assertThat(reservationDao.findOverlapping(court2.getId(), BASE.plusHours(5), BASE.plusHours(7), null))
+                .contains(reservation.getId());
+    }
+
+    @Test
+    void deleteByIds_ChunkedDeleteJournaled() throws IOException {
+        Reservation first = book(court1, 0);
+        Reservation second = book(court1, 1);
+        Reservation third = book(court2, 0);
+        long upToId = reservationDao.findMaxId();
+
+        assertThat(reservationDao.countLiveUpTo(upToId)).isEqualTo(3L);
+        assertThat(reservationDao.findLiveIdsInRange(0L, upToId, 2)).containsExactly(first.getId(), second.getId());
+        assertThat(reservationDao.deleteByIds(List.of(first.getId(), second.getId()))).isEqualTo(2);
+        assertThat(reservationDao.findLiveIdsInRange(second.getId(), third.getId() - 1, 2)).isEmpty();
+
+        reopen();
+
+        assertThat(reservationDao.findLiveIdsInRange(0L, upToId, 10)).containsExactly(third.getId());
+    }
+
+    @Test
+    void findOverlapping_AdjacentAndExcludedIgnored() {
+        Reservation reservation = book(court1, 1);
+
+        assertThat(reservationDao.findOverlapping(court1.getId(), BASE.plusHours(1).plusMinutes(30),
+                BASE.plusHours(2), null)).contains(reservation.getId());
+        assertThat(reservationDao.findOverlapping(court1.getId(), BASE.plusHours(1).plusMinutes(45),
+                BASE.plusHours(2), null)).isEmpty();
+        assertThat(reservationDao.findOverlapping(court1.getId(), BASE.plusHours(1),
+                BASE.plusHours(2), reservation.getId())).isEmpty();
+    }
+
+    @Test
+    void forEachBookedInterval_DeletedLeftOut() {
+        Reservation kept = book(court1, 1);
+        reservationDao.deleteById(book(court2, 1).getId());
+        List<BookedInterval> intervals = new ArrayList<>();
+
+        reservationDao.forEachBookedInterval(intervals::add);
+
+        assertThat(intervals).containsExactly(
+                new BookedInterval(kept.getId(), court1.getId(), kept.getStartTime(), kept.getEndTime()));
+    }
+
+    @Test
+    void findCourtOccupancy_FreeCourtListedOnce() {
+        Reservation reservation = book(court1, 1);
+
+        List<BookedInterval> occupancy = reservationDao.findCourtOccupancy(BASE, BASE.plusDays(1));
+
+        assertThat(occupancy).containsExactly(
+                new BookedInterval(reservation.getId(), court1.getId(), reservation.getStartTime(),
+                        reservation.getEndTime()),
+                new BookedInterval(null, court2.getId(), null, null));
+    }
+
+    @Test
+    void journal_ReplayRestoresLastState() throws IOException {
+        Reservation kept = book(court1, 1);
+        Reservation deleted = book(court2, 1);
+        reservationDao.deleteById(deleted.getId());
+        userDao.save(new User(user.getId(), user.getPhoneNumber(), "John Smith"));
+
+        reopen();
+
+        assertThat(userDao.findByPhoneNumber("+420123456789")).get().extracting(User::getName).isEqualTo("John Smith");
+        assertThat(reservationDao.findAll()).extracting(Reservation::getId).containsExactly(kept.getId());
+        assertThat(reservationDao.findById(kept.getId())).get()
+                .extracting(reservation -> reservation.getCourt().getSurfaceType().getName()).isEqualTo("Clay");
+        assertThat(courtDao.save(new Court(null, "Court 3", court1.getSurfaceType())).getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void journal_CompactedToLastStates() throws IOException {
+        compactAfterLines = 2;
+        reopen();
+        Reservation reservation = book(court1, 1);
+        for (String name : List.of("John Smith", "John Brown", "John Green")) {
+            userDao.save(new User(user.getId(), user.getPhoneNumber(), name));
+        }
+        reservationDao.deleteById(reservation.getId());
+
+        // every second superseded line compacts the journal to its five rows, the delete is appended after that
+        assertThat(Files.readAllLines(directory.resolve("journal.jsonl"))).hasSize(6);
+        assertThat(Files.exists(directory.resolve("journal.jsonl.compacting"))).isFalse();
+        reopen();
+
+        assertThat(userDao.findByPhoneNumber("+420123456789")).get().extracting(User::getName).isEqualTo("John Green");
+        assertThat(reservationDao.findAll()).isEmpty();
+        assertThat(courtDao.findAll()).extracting(Court::getId).containsExactly(court1.getId(), court2.getId());
+    }
+
+    @Test
+    void journal_InterruptedCompactionFinishedOnStartup() throws IOException {
+        userDao.save(new User(user.getId(), user.getPhoneNumber(), "John Smith"));
+        database.close();
+        // the crash left the journal aside, with a newer rename appended to the new journal
+        Path journal = directory.resolve("journal.jsonl");
+        Files.move(journal, directory.resolve("journal.jsonl.compacting"));
+        Files.writeString(journal, "{\"table\":\"users\",\"row\":{\"id\":" + user.getId()
+                + ",\"phoneNumber\":\"+420123456789\",\"name\":\"John Brown\",\"deleted\":false}}\n");
+
+        open();
+
+        assertThat(userDao.findByPhoneNumber("+420123456789")).get().extracting(User::getName).isEqualTo("John Brown");
+        assertThat(Files.exists(directory.resolve("journal.jsonl.compacting"))).isFalse();
+        assertThat(Files.readAllLines(journal)).hasSize(5);
+    }
+
+    @Test
+    void journal_ReferenceToMissingRowSkipped() throws IOException {
+        database.close();
+        // left by a reservation committed against a user whose insert was rolled back
+        Files.writeString(directory.resolve("journal.jsonl"), "{\"table\":\"reservations\",\"row\":{\"id\":1,"
+                + "\"userId\":99,\"courtId\":" + court1.getId() + ",\"seriesId\":null,"
+                + "\"startTime\":\"2025-01-14T10:00:00\",\"endTime\":\"2025-01-14T11:00:00\","
+                + "\"gameType\":\"SINGLE\",\"price\":10.0,\"deleted\":false}}\n", StandardOpenOption.APPEND);
+
+        open();
+
+        assertThat(reservationDao.findAll()).isEmpty();
+        assertThat(userDao.findAll()).hasSize(1);
+        assertThat(courtDao.findAll()).hasSize(2);
+    }
+
+    @Test
+    void journal_TornLastLineSkipped() throws IOException {
+        database.close();
+        Files.writeString(directory.resolve("journal.jsonl"), "{\"table\":\"users\",\"row\":{\"id\":",
+                StandardOpenOption.APPEND);
+
+        open();
+
+        assertThat(userDao.findAll()).hasSize(1);
+    }
+}